@@ -20,6 +20,7 @@ import com.obs.services.internal.utils.AccessLoggerUtils;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.invoke.MethodHandle;
 import java.util.logging.Logger;
 
 public abstract class AbstractLog4jLogger {
@@ -32,186 +33,93 @@ public abstract class AbstractLog4jLogger {
     }
     
     public void info(CharSequence msg) {
-        if (this.logger != null && LoggerMethodHolder.info != null) {
-            try {
-                LoggerMethodHolder.info.invoke(this.logger, msg, null);
-                AccessLoggerUtils.appendLog(msg, "info");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.info, msg, null, "info");
     }
 
     public void info(Object obj) {
-        if (this.logger != null && LoggerMethodHolder.info != null) {
-            try {
-                LoggerMethodHolder.info.invoke(this.logger, obj, null);
-                AccessLoggerUtils.appendLog(obj, "info");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.info, obj, null, "info");
     }
 
     public void info(Object obj, Throwable e) {
-        if (this.logger != null && LoggerMethodHolder.info != null) {
-            try {
-                LoggerMethodHolder.info.invoke(this.logger, obj, e);
-                AccessLoggerUtils.appendLog(obj, "info");
-                appendLogForThrowable(e,"info");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.info, obj, e, "info");
     }
     
     public void warn(CharSequence msg) {
-        if (this.logger != null && LoggerMethodHolder.warn != null) {
-            try {
-                LoggerMethodHolder.warn.invoke(this.logger, msg, null);
-                AccessLoggerUtils.appendLog(msg, "warn");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.warn, msg, null, "warn");
     }
 
     public void warn(Object obj) {
-        if (this.logger != null && LoggerMethodHolder.warn != null) {
-            try {
-                LoggerMethodHolder.warn.invoke(this.logger, obj, null);
-                AccessLoggerUtils.appendLog(obj, "warn");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.warn, obj, null, "warn");
     }
 
     public void warn(Object obj, Throwable e) {
-        if (this.logger != null && LoggerMethodHolder.warn != null) {
-            try {
-                LoggerMethodHolder.warn.invoke(this.logger, obj, e);
-                AccessLoggerUtils.appendLog(obj, "warn");
-                appendLogForThrowable(e,"warn");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.warn, obj, e, "warn");
     }
     
     public void error(CharSequence msg) {
-        if (this.logger != null && LoggerMethodHolder.error != null) {
-            try {
-                LoggerMethodHolder.error.invoke(this.logger, msg, null);
-                AccessLoggerUtils.appendLog(msg, "error");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.error, msg, null, "error");
     }
 
     public void error(Object obj) {
-        if (this.logger != null && LoggerMethodHolder.error != null) {
-            try {
-                LoggerMethodHolder.error.invoke(this.logger, obj, null);
-                AccessLoggerUtils.appendLog(obj, "error");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.error, obj, null, "error");
     }
 
     public void error(Object obj, Throwable e) {
-        if (this.logger != null && LoggerMethodHolder.error != null) {
-            try {
-                LoggerMethodHolder.error.invoke(this.logger, obj, e);
-                AccessLoggerUtils.appendLog(obj, "error");
-                appendLogForThrowable(e,"error");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.error, obj, e, "error");
     }
     
     public void debug(CharSequence msg) {
-        if (this.logger != null && LoggerMethodHolder.debug != null) {
-            try {
-                LoggerMethodHolder.debug.invoke(this.logger, msg, null);
-                AccessLoggerUtils.appendLog(msg, "debug");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.debug, msg, null, "debug");
     }
 
     public void debug(Object obj) {
-        if (this.logger != null && LoggerMethodHolder.debug != null) {
-            try {
-                LoggerMethodHolder.debug.invoke(this.logger, obj, null);
-                AccessLoggerUtils.appendLog(obj, "debug");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.debug, obj, null, "debug");
     }
 
     public void debug(Object obj, Throwable e) {
-        if (this.logger != null && LoggerMethodHolder.debug != null) {
-            try {
-                LoggerMethodHolder.debug.invoke(this.logger, obj, e);
-                AccessLoggerUtils.appendLog(obj, "debug");
-                appendLogForThrowable(e,"debug");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.debug, obj, e, "debug");
     }
     
     public void trace(CharSequence msg) {
-        if (this.logger != null && LoggerMethodHolder.trace != null) {
-            try {
-                LoggerMethodHolder.trace.invoke(this.logger, msg, null);
-                AccessLoggerUtils.appendLog(msg, "trace");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.trace, msg, null, "trace");
     }
 
     public void trace(Object obj) {
-        if (this.logger != null && LoggerMethodHolder.trace != null) {
-            try {
-                LoggerMethodHolder.trace.invoke(this.logger, obj, null);
-                AccessLoggerUtils.appendLog(obj, "trace");
-            } catch (Exception ex) {
-                ILOG.warning(ex.getMessage());
-            }
-        }
+        log(LoggerMethodHolder.trace, obj, null, "trace");
     }
 
     public void trace(Object obj, Throwable e) {
-        if (this.logger != null && LoggerMethodHolder.trace != null) {
+        log(LoggerMethodHolder.trace, obj, e, "trace");
+    }
+    
+    public void accessRecord(Object obj) {
+        if (this.logger != null && LoggerMethodHolder.info != null) {
             try {
-                LoggerMethodHolder.trace.invoke(this.logger, obj, e);
-                AccessLoggerUtils.appendLog(obj, "trace");
-                appendLogForThrowable(e,"trace");
-            } catch (Exception ex) {
+                LoggerMethodHolder.info.invokeExact(this.logger, obj, (Throwable) null);
+            } catch (Throwable ex) {
                 ILOG.warning(ex.getMessage());
             }
         }
     }
-    
-    public void accessRecord(Object obj) {
-        if (this.logger != null && LoggerMethodHolder.info != null) {
+
+    private void log(MethodHandle method, Object obj, Throwable e, String level) {
+        if (this.logger != null && method != null) {
             try {
-                LoggerMethodHolder.info.invoke(this.logger, obj, null);
-            } catch (Exception ex) {
+                method.invokeExact(this.logger, obj, e);
+                AccessLoggerUtils.appendLog(obj, level);
+                if (e != null) {
+                    appendLogForThrowable(e, level);
+                }
+            } catch (Throwable ex) {
                 ILOG.warning(ex.getMessage());
             }
         }
     }
 
     protected void appendLogForThrowable(Throwable e, String level) {
+        if (!AccessLoggerUtils.isLevelEnabled(level)) {
+            return;
+        }
         AccessLoggerUtils.appendLog("Throwable Message:" + e.getMessage(), level);
         try (StringWriter sw = new StringWriter(); PrintWriter pw = new PrintWriter(sw)) {
             e.printStackTrace(pw);
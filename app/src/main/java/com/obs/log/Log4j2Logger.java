@@ -14,31 +14,31 @@
 
 package com.obs.log;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.util.logging.Logger;
 
 public class Log4j2Logger extends AbstractLog4jLogger implements ILogger {
     private static final Logger ILOG = Logger.getLogger(Log4j2Logger.class.getName());
     
     private static class Log4j2LoggerMethodHolder extends LoggerMethodHolder {
-        private static Method isInfo;
-        private static Method isDebug;
-        private static Method isError;
-        private static Method isWarn;
-        private static Method isTrace;
+        private static final MethodType IS_ENABLED_TYPE = MethodType.methodType(boolean.class, Object.class);
 
-        static {
+        private static final MethodHandle isInfo = findIsEnabledMethod("isInfoEnabled");
+        private static final MethodHandle isDebug = findIsEnabledMethod("isDebugEnabled");
+        private static final MethodHandle isError = findIsEnabledMethod("isErrorEnabled");
+        private static final MethodHandle isWarn = findIsEnabledMethod("isWarnEnabled");
+        private static final MethodHandle isTrace = findIsEnabledMethod("isTraceEnabled");
+
+        private static MethodHandle findIsEnabledMethod(String name) {
+            if (LoggerBuilder.GetLoggerHolder.loggerClass == null) {
+                return null;
+            }
             try {
-                if (LoggerBuilder.GetLoggerHolder.loggerClass != null) {
-                    isInfo = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isInfoEnabled");
-                    isDebug = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isDebugEnabled");
-                    isError = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isErrorEnabled");
-                    isWarn = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isWarnEnabled");
-                    isTrace = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isTraceEnabled");
-                }
-            } catch (NoSuchMethodException | SecurityException e) {
+                return toHandle(LoggerBuilder.GetLoggerHolder.loggerClass.getMethod(name), IS_ENABLED_TYPE);
+            } catch (NoSuchMethodException | SecurityException | IllegalAccessException e) {
                 ILOG.warning(e.getMessage());
+                return null;
             }
         }
     }
@@ -56,12 +56,7 @@ public class Log4j2Logger extends AbstractLog4jLogger implements ILogger {
     @Override
     public boolean isInfoEnabled() {
         if (isInfoE == -1) {
-            try {
-                isInfoE = (this.logger != null && Log4j2LoggerMethodHolder.isInfo != null
-                        && (Boolean) (Log4j2LoggerMethodHolder.isInfo.invoke(this.logger))) ? 1 : 0;
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                isInfoE = 0;
-            }
+            isInfoE = isEnabled(Log4j2LoggerMethodHolder.isInfo) ? 1 : 0;
         }
         return isInfoE == 1;
     }
@@ -69,12 +64,7 @@ public class Log4j2Logger extends AbstractLog4jLogger implements ILogger {
     @Override
     public boolean isWarnEnabled() {
         if (isWarnE == -1) {
-            try {
-                isWarnE = (this.logger != null && Log4j2LoggerMethodHolder.isWarn != null
-                        && (Boolean) (Log4j2LoggerMethodHolder.isWarn.invoke(this.logger))) ? 1 : 0;
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                isWarnE = 0;
-            }
+            isWarnE = isEnabled(Log4j2LoggerMethodHolder.isWarn) ? 1 : 0;
         }
         return isWarnE == 1;
     }
@@ -82,12 +72,7 @@ public class Log4j2Logger extends AbstractLog4jLogger implements ILogger {
     @Override
     public boolean isErrorEnabled() {
         if (isErrorE == -1) {
-            try {
-                isErrorE = (this.logger != null && Log4j2LoggerMethodHolder.isError != null
-                        && (Boolean) (Log4j2LoggerMethodHolder.isError.invoke(this.logger))) ? 1 : 0;
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                isErrorE = 0;
-            }
+            isErrorE = isEnabled(Log4j2LoggerMethodHolder.isError) ? 1 : 0;
         }
         return isErrorE == 1;
     }
@@ -95,12 +80,7 @@ public class Log4j2Logger extends AbstractLog4jLogger implements ILogger {
     @Override
     public boolean isDebugEnabled() {
         if (isDebugE == -1) {
-            try {
-                isDebugE = (this.logger != null && Log4j2LoggerMethodHolder.isDebug != null
-                        && (Boolean) (Log4j2LoggerMethodHolder.isDebug.invoke(this.logger))) ? 1 : 0;
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                isDebugE = 0;
-            }
+            isDebugE = isEnabled(Log4j2LoggerMethodHolder.isDebug) ? 1 : 0;
         }
         return isDebugE == 1;
     }
@@ -108,13 +88,19 @@ public class Log4j2Logger extends AbstractLog4jLogger implements ILogger {
     @Override
     public boolean isTraceEnabled() {
         if (isTraceE == -1) {
-            try {
-                isTraceE = (this.logger != null && Log4j2LoggerMethodHolder.isTrace != null
-                        && (Boolean) (Log4j2LoggerMethodHolder.isTrace.invoke(this.logger))) ? 1 : 0;
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                isTraceE = 0;
-            }
+            isTraceE = isEnabled(Log4j2LoggerMethodHolder.isTrace) ? 1 : 0;
         }
         return isTraceE == 1;
     }
+
+    private boolean isEnabled(MethodHandle method) {
+        if (this.logger == null || method == null) {
+            return false;
+        }
+        try {
+            return (boolean) method.invokeExact(this.logger);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
 }
@@ -14,18 +14,15 @@
 
 package com.obs.log;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.util.logging.Logger;
 
 public class Log4jLogger extends AbstractLog4jLogger implements ILogger {
     private static final Logger ILOG = Logger.getLogger(Log4jLogger.class.getName());
     
     private static class Log4jLoggerMethodHolder extends LoggerMethodHolder {
-        private static Method isEnabledFor;
-
-        private static Class<?> priority;
-        private static Class<?> level;
+        private static final MethodHandle isEnabledFor;
 
         private static Object infoLevel;
         private static Object debugLevel;
@@ -34,12 +31,14 @@ public class Log4jLogger extends AbstractLog4jLogger implements ILogger {
         private static Object traceLevel;
 
         static {
+            MethodHandle handle = null;
             try {
                 if (LoggerBuilder.GetLoggerHolder.loggerClass != null) {
-                    priority = Class.forName("org.apache.log4j.Priority");
-                    isEnabledFor = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isEnabledFor", priority);
+                    Class<?> priority = Class.forName("org.apache.log4j.Priority");
+                    handle = toHandle(LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("isEnabledFor", priority),
+                            MethodType.methodType(boolean.class, Object.class, Object.class));
 
-                    level = Class.forName("org.apache.log4j.Level");
+                    Class<?> level = Class.forName("org.apache.log4j.Level");
                     infoLevel = level.getField("INFO").get(level);
                     debugLevel = level.getField("DEBUG").get(level);
                     errorLevel = level.getField("ERROR").get(level);
@@ -50,6 +49,7 @@ public class Log4jLogger extends AbstractLog4jLogger implements ILogger {
                     | IllegalAccessException | NoSuchFieldException e) {
                 ILOG.warning(e.getMessage());
             }
+            isEnabledFor = handle;
         }
     }
 
@@ -59,55 +59,36 @@ public class Log4jLogger extends AbstractLog4jLogger implements ILogger {
 
     @Override
     public boolean isInfoEnabled() {
-        try {
-            return this.logger != null && Log4jLoggerMethodHolder.infoLevel != null
-                    && (Boolean) (Log4jLoggerMethodHolder.isEnabledFor.invoke(this.logger, 
-                            Log4jLoggerMethodHolder.infoLevel));
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            return false;
-        }
+        return isEnabledFor(Log4jLoggerMethodHolder.infoLevel);
     }
 
     @Override
     public boolean isWarnEnabled() {
-        try {
-            return this.logger != null && Log4jLoggerMethodHolder.warnLevel != null
-                    && (Boolean) (Log4jLoggerMethodHolder.isEnabledFor.invoke(this.logger, 
-                            Log4jLoggerMethodHolder.warnLevel));
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            return false;
-        }
+        return isEnabledFor(Log4jLoggerMethodHolder.warnLevel);
     }
 
     @Override
     public boolean isErrorEnabled() {
-        try {
-            return this.logger != null && Log4jLoggerMethodHolder.errorLevel != null
-                    && (Boolean) (Log4jLoggerMethodHolder.isEnabledFor.invoke(this.logger, 
-                            Log4jLoggerMethodHolder.errorLevel));
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            return false;
-        }
+        return isEnabledFor(Log4jLoggerMethodHolder.errorLevel);
     }
 
     @Override
     public boolean isDebugEnabled() {
-        try {
-            return this.logger != null && Log4jLoggerMethodHolder.debugLevel != null
-                    && (Boolean) (Log4jLoggerMethodHolder.isEnabledFor.invoke(this.logger, 
-                            Log4jLoggerMethodHolder.debugLevel));
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            return false;
-        }
+        return isEnabledFor(Log4jLoggerMethodHolder.debugLevel);
     }
 
     @Override
     public boolean isTraceEnabled() {
+        return isEnabledFor(Log4jLoggerMethodHolder.traceLevel);
+    }
+
+    private boolean isEnabledFor(Object level) {
+        if (this.logger == null || level == null || Log4jLoggerMethodHolder.isEnabledFor == null) {
+            return false;
+        }
         try {
-            return this.logger != null && Log4jLoggerMethodHolder.traceLevel != null
-                    && (Boolean) (Log4jLoggerMethodHolder.isEnabledFor.invoke(this.logger, 
-                            Log4jLoggerMethodHolder.traceLevel));
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            return (boolean) Log4jLoggerMethodHolder.isEnabledFor.invokeExact(this.logger, level);
+        } catch (Throwable e) {
             return false;
         }
     }
@@ -14,33 +14,57 @@
 
 package com.obs.log;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.logging.Logger;
 
+/**
+ * 日志框架方法的MethodHandle，统一适配为 (Object logger, Object msg, Throwable e)void，
+ * 声明为static final以便JIT内联，避免每次日志调用的反射开销
+ */
 public class LoggerMethodHolder {
     private static final Logger ILOG = Logger.getLogger(LoggerMethodHolder.class.getName());
 
-    static Method info;
+    static final MethodType LOG_TYPE = MethodType.methodType(void.class, Object.class, Object.class,
+            Throwable.class);
 
-    static Method warn;
+    static final MethodHandle info;
 
-    static Method debug;
+    static final MethodHandle warn;
 
-    static Method trace;
+    static final MethodHandle debug;
 
-    static Method error;
+    static final MethodHandle trace;
+
+    static final MethodHandle error;
 
     static {
+        info = findLogMethod("info");
+        warn = findLogMethod("warn");
+        error = findLogMethod("error");
+        debug = findLogMethod("debug");
+        trace = findLogMethod("trace");
+    }
+
+    private static MethodHandle findLogMethod(String name) {
+        Class<?> loggerClass = LoggerBuilder.GetLoggerHolder.loggerClass;
+        if (loggerClass == null) {
+            return null;
+        }
         try {
-            if (LoggerBuilder.GetLoggerHolder.loggerClass != null) {
-                info = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("info", Object.class, Throwable.class);
-                warn = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("warn", Object.class, Throwable.class);
-                error = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("error", Object.class, Throwable.class);
-                debug = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("debug", Object.class, Throwable.class);
-                trace = LoggerBuilder.GetLoggerHolder.loggerClass.getMethod("trace", Object.class, Throwable.class);
-            }
-        } catch (NoSuchMethodException | SecurityException e) {
+            return toHandle(loggerClass.getMethod(name, Object.class, Throwable.class), LOG_TYPE);
+        } catch (NoSuchMethodException | SecurityException | IllegalAccessException e) {
             ILOG.warning(e.getMessage());
+            return null;
         }
     }
+
+    /**
+     * 将反射方法转换为指定类型的MethodHandle，接收者与参数按type做类型适配
+     */
+    static MethodHandle toHandle(Method method, MethodType type) throws IllegalAccessException {
+        return MethodHandles.publicLookup().unreflect(method).asType(type);
+    }
 }
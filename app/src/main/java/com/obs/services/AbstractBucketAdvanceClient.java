@@ -49,7 +49,6 @@ import com.obs.services.model.crr.GetCrrProgressResult;
 import com.obs.services.model.fs.GetBucketFSStatusRequest;
 import com.obs.services.model.fs.GetBucketFSStatusResult;
 import com.obs.services.model.fs.SetBucketFSStatusRequest;
-import com.obs.services.model.AuthTypeEnum;
 import com.obs.services.model.trash.DeleteBucketTrashRequest;
 import com.obs.services.model.trash.GetBucketTrashRequest;
 import com.obs.services.model.trash.GetBucketTrashResult;
@@ -601,12 +600,7 @@ public abstract class AbstractBucketAdvanceClient extends AbstractBucketClient {
                 return AbstractBucketAdvanceClient.this.getCrrProgressImpl(request);
             }
                     void authTypeNegotiate(String bucketName) throws ServiceException {
-                        AuthTypeEnum authTypeEnum = AbstractBucketAdvanceClient.this.getProviderCredentials().getLocalAuthType().get(bucketName);
-                        if (authTypeEnum == null) {
-                            authTypeEnum = AbstractBucketAdvanceClient.this.getApiVersion(request.getBucketName());
-                            AbstractBucketAdvanceClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
-                        }
-
+                        negotiateAuthType(bucketName, request.getBucketName());
                     }
         });
     }
@@ -139,13 +139,7 @@ public abstract class AbstractBucketClient extends AbstractDeprecatedBucketClien
 
                     @Override
                     void authTypeNegotiate(String bucketName) throws ServiceException {
-                        AuthTypeEnum authTypeEnum = AbstractBucketClient.this.getProviderCredentials()
-                                .getLocalAuthType().get(bucketName);
-                        if (authTypeEnum == null) {
-                            authTypeEnum = AbstractBucketClient.this.getApiVersion("");
-                            AbstractBucketClient.this.getProviderCredentials()
-                                    .setLocalAuthType(bucketName, authTypeEnum);
-                        }
+                        negotiateAuthType(bucketName, "");
                     }
                 });
     }
@@ -169,12 +163,7 @@ public abstract class AbstractBucketClient extends AbstractDeprecatedBucketClien
 
             @Override
             void authTypeNegotiate(String bucketName) throws ServiceException {
-                AuthTypeEnum authTypeEnum = AbstractBucketClient.this.getProviderCredentials()
-                        .getLocalAuthType().get(bucketName);
-                if (authTypeEnum == null) {
-                    authTypeEnum = AbstractBucketClient.this.getApiVersion("");
-                    AbstractBucketClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
-                }
+                negotiateAuthType(bucketName, "");
             }
         });
     }
@@ -209,12 +198,7 @@ public abstract class AbstractBucketClient extends AbstractDeprecatedBucketClien
 
             @Override
             void authTypeNegotiate(String bucketName) throws ServiceException {
-                AuthTypeEnum authTypeEnum = AbstractBucketClient.this.getProviderCredentials()
-                        .getLocalAuthType().get(bucketName);
-                if (authTypeEnum == null) {
-                    authTypeEnum = AbstractBucketClient.this.getApiVersion("");
-                    AbstractBucketClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
-                }
+                negotiateAuthType(bucketName, "");
             }
         });
     }
@@ -229,12 +213,7 @@ public abstract class AbstractBucketClient extends AbstractDeprecatedBucketClien
 
             @Override
             void authTypeNegotiate(String bucketName) throws ServiceException {
-                AuthTypeEnum authTypeEnum = AbstractBucketClient.this.getProviderCredentials()
-                        .getLocalAuthType().get(bucketName);
-                if (authTypeEnum == null) {
-                    authTypeEnum = AbstractBucketClient.this.getApiVersion("");
-                    AbstractBucketClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
-                }
+                negotiateAuthType(bucketName, "");
             }
         });
     }
@@ -268,12 +247,7 @@ public abstract class AbstractBucketClient extends AbstractDeprecatedBucketClien
             @Override
             void authTypeNegotiate(String bucketName) throws ServiceException {
                 try {
-                    AuthTypeEnum authTypeEnum = AbstractBucketClient.this.getProviderCredentials()
-                            .getLocalAuthType().get(bucketName);
-                    if (authTypeEnum == null) {
-                        authTypeEnum = AbstractBucketClient.this.getApiVersion(bucketName);
-                        AbstractBucketClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
-                    }
+                    negotiateAuthType(bucketName, bucketName);
                 } catch (ServiceException e) {
                     if (e.getResponseCode() != 404) {
                         throw e;
@@ -38,6 +38,7 @@ import com.obs.services.internal.utils.AccessLoggerUtils;
 import com.obs.services.internal.utils.ServiceUtils;
 import com.obs.services.internal.xml.OBSXMLBuilder;
 import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.ConcurrencyLimitMetrics;
 import com.obs.services.model.HttpMethodEnum;
 import com.obs.services.model.PolicyConditionItem;
 import com.obs.services.model.PolicyTempSignatureRequest;
@@ -59,13 +60,16 @@ public abstract class AbstractClient extends ObsService implements Closeable, IO
         ProviderCredentials credentials = new ProviderCredentials(accessKey, secretKey, securityToken);
         ObsProperties obsProperties = ServiceUtils.changeFromObsConfiguration(config);
         credentials.setAuthType(config.getAuthType());
-        credentials.setLocalAuthTypeCacheCapacity(config.getLocalAuthTypeCacheCapacity());
+        credentials.setLocalAuthTypeCacheCapacity(config.getLocalAuthTypeCacheCapacity(),
+                config.getLocalAuthTypeCacheTtl());
+        credentials.getLocalAuthType().putAll(config.getPresetLocalAuthTypes());
         credentials.setSecureRandom(config.getSecureRandom());
         this.obsProperties = obsProperties;
         this.credentials = credentials;
         this.keyManagerFactory = config.getKeyManagerFactory();
         this.trustManagerFactory = config.getTrustManagerFactory();
         this.localTimeUtil = config.getLocalTimeUtil();
+        this.retryPolicy = config.getRetryPolicy() != null ? config.getRetryPolicy() : new DefaultRetryPolicy();
         if (this.isAuthTypeNegotiation()) {
             this.getProviderCredentials().setIsAuthTypeNegotiation(true);
         }
@@ -375,12 +379,15 @@ public abstract class AbstractClient extends ObsService implements Closeable, IO
         public abstract T action() throws ServiceException;
 
         void authTypeNegotiate(String bucketName) throws ServiceException {
-            AuthTypeEnum authTypeEnum = AbstractClient.this.getProviderCredentials()
-                    .getLocalAuthType().get(bucketName);
-            if (authTypeEnum == null) {
-                authTypeEnum = AbstractClient.this.getApiVersion(bucketName);
-                AbstractClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
-            }
+            negotiateAuthType(bucketName, bucketName);
+        }
+
+        /**
+         * 协商bucketName的鉴权类型并缓存，用probeBucketName调用getApiVersion
+         */
+        final void negotiateAuthType(String bucketName, final String probeBucketName) throws ServiceException {
+            AbstractClient.this.getProviderCredentials().negotiateLocalAuthType(bucketName,
+                () -> AbstractClient.this.getApiVersion(probeBucketName));
         }
     }
 
@@ -452,6 +459,17 @@ public abstract class AbstractClient extends ObsService implements Closeable, IO
         AccessLoggerUtils.printLog();
     }
     
+    /**
+     * Obtain the concurrency limit and permit wait statistics of each
+     * endpoint that this client has accessed. Without adaptive concurrency,
+     * all endpoints share one limit, which is reported with the endpoint "*".
+     * 
+     * @return Concurrency limit metrics
+     */
+    public List<ConcurrencyLimitMetrics> getConcurrencyLimitMetrics() {
+        return this.getConcurrencyLimitMetricsImpl();
+    }
+
     public String base64Md5(InputStream is, long length, long offset) throws NoSuchAlgorithmException, IOException {
         return ServiceUtils.toBase64(ServiceUtils.computeMD5Hash(is, length, offset));
     }
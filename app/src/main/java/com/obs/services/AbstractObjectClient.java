@@ -44,6 +44,9 @@ import com.obs.services.model.ObjectMetadata;
 import com.obs.services.model.ObsObject;
 import com.obs.services.model.OptionsInfoRequest;
 import com.obs.services.model.OptionsInfoResult;
+import com.obs.services.model.PutObjectInMultiBucketRequest;
+import com.obs.services.model.PutObjectInMultiBucketRequest.Destination;
+import com.obs.services.model.PutObjectInMultiBucketResult;
 import com.obs.services.model.PutObjectInTwoBucketRequest;
 import com.obs.services.model.PutObjectInTwoBucketResult;
 import com.obs.services.model.PutObjectRequest;
@@ -360,11 +363,46 @@ public abstract class AbstractObjectClient extends AbstractBucketAdvanceClient {
 
                     @Override
                     void authTypeNegotiate(String bucketName) throws ServiceException {
-                        AuthTypeEnum authTypeEnum = AbstractObjectClient.this.getProviderCredentials()
-                                .getLocalAuthType().get(bucketName);
-                        if (authTypeEnum == null) {
-                            authTypeEnum = AbstractObjectClient.this.getApiVersion("");
-                            AbstractObjectClient.this.getProviderCredentials().setLocalAuthType(bucketName, authTypeEnum);
+                        negotiateAuthType(bucketName, "");
+                    }
+                });
+    }
+
+    @Override
+    public PutObjectInMultiBucketResult putObjectInMultiBucket(final PutObjectInMultiBucketRequest request)
+            throws ObsException {
+        ServiceUtils.assertParameterNotNull(request, "PutObjectInMultiBucketRequest is null");
+        if (request.getDestinations().isEmpty()) {
+            throw new IllegalArgumentException("destinations is empty");
+        }
+        for (Destination destination : request.getDestinations()) {
+            ServiceUtils.assertParameterNotNull(destination.getRequest(), "destination request is null");
+            ServiceUtils.assertParameterNotNull2(destination.getRequest().getBucketName(), "bucketName is null");
+            ServiceUtils.assertParameterNotNull2(destination.getRequest().getObjectKey(), "objectKey is null");
+        }
+        if ((request.getFile() == null) == (request.getInput() == null)) {
+            throw new IllegalArgumentException("Exactly one of file and input must be set");
+        }
+        if (request.getFile() != null && !request.getFile().isFile()) {
+            throw new IllegalArgumentException("File does not exist");
+        }
+        if (request.getBufferSize() <= 0 || request.getBufferCount() <= 0) {
+            throw new IllegalArgumentException("bufferSize and bufferCount must be positive");
+        }
+        return this.doActionWithResult("putObjectInMultiBucket", "All Buckets",
+                new ActionCallbackWithResult<PutObjectInMultiBucketResult>() {
+                    @Override
+                    public PutObjectInMultiBucketResult action() throws ServiceException {
+                        return AbstractObjectClient.this.putObjectInMultiBucketImpl(request);
+                    }
+
+                    @Override
+                    void authTypeNegotiate(String bucketName) throws ServiceException {
+                        // 其他客户端上传的目标由其自身协商
+                        for (Destination destination : request.getDestinations()) {
+                            if (destination.getClient() == null) {
+                                negotiateAuthType(destination.getRequest().getBucketName(), "");
+                            }
                         }
                     }
                 });
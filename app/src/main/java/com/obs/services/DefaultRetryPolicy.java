@@ -0,0 +1,184 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default retry policy. The delay before each retry uses decorrelated jitter
+ * so that concurrent requests do not retry in lockstep, and retries of the
+ * whole client are limited by a token bucket that is refilled by successful
+ * requests. Idempotent GET, HEAD and OPTIONS requests are retried more
+ * often and consume fewer tokens than other requests. A Retry-After header
+ * or a 503 SlowDown response lengthens the delay.
+ */
+public class DefaultRetryPolicy implements RetryPolicy {
+    public static final long DEFAULT_BASE_DELAY = 50;
+
+    public static final long DEFAULT_MAX_DELAY = 20000;
+
+    public static final long DEFAULT_SLOW_DOWN_BASE_DELAY = 1000;
+
+    public static final int DEFAULT_BUDGET_CAPACITY = 500;
+
+    public static final int DEFAULT_RETRY_COST = 5;
+
+    public static final int DEFAULT_IO_ERROR_RETRY_COST = 10;
+
+    public static final int DEFAULT_IDEMPOTENT_EXTRA_RETRIES = 2;
+
+    private static final String SLOW_DOWN = "SlowDown";
+
+    private final long baseDelay;
+
+    private final long maxDelay;
+
+    private final int budgetCapacity;
+
+    private final AtomicInteger budget;
+
+    private volatile long slowDownBaseDelay = DEFAULT_SLOW_DOWN_BASE_DELAY;
+
+    private volatile int idempotentExtraRetries = DEFAULT_IDEMPOTENT_EXTRA_RETRIES;
+
+    public DefaultRetryPolicy() {
+        this(DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_BUDGET_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param baseDelay
+     *            Minimum delay before a retry in milliseconds
+     * @param maxDelay
+     *            Maximum delay before a retry in milliseconds
+     * @param budgetCapacity
+     *            Number of tokens in the retry budget. Each retry consumes
+     *            5 tokens (10 if no response was received, doubled for
+     *            non-idempotent requests) and each successful request returns
+     *            1 token. A value less than or equal to 0 disables the budget.
+     */
+    public DefaultRetryPolicy(long baseDelay, long maxDelay, int budgetCapacity) {
+        if (baseDelay <= 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("baseDelay must be positive and not greater than maxDelay");
+        }
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.budgetCapacity = budgetCapacity;
+        this.budget = new AtomicInteger(budgetCapacity);
+    }
+
+    @Override
+    public int getMaxRetries(String httpMethod, int configuredMaxRetries) {
+        return isIdempotent(httpMethod) ? configuredMaxRetries + this.idempotentExtraRetries : configuredMaxRetries;
+    }
+
+    @Override
+    public long computeDelay(RetryContext context) {
+        int cost = context.getException() != null ? DEFAULT_IO_ERROR_RETRY_COST : DEFAULT_RETRY_COST;
+        if (!isIdempotent(context.getHttpMethod())) {
+            cost *= 2;
+        }
+        if (!acquireBudget(cost)) {
+            return -1;
+        }
+
+        long base = isSlowDown(context) ? Math.max(this.baseDelay, this.slowDownBaseDelay) : this.baseDelay;
+        // decorrelated jitter：在[base, 上次延时*3]之间随机取值
+        long upper = Math.min(this.maxDelay, Math.max(base, context.getPreviousDelay()) * 3);
+        long delay = upper > base ? ThreadLocalRandom.current().nextLong(base, upper + 1) : Math.min(base,
+                this.maxDelay);
+        if (context.getRetryAfterMillis() >= 0) {
+            delay = Math.max(delay, Math.min(context.getRetryAfterMillis(), this.maxDelay));
+        }
+        return delay;
+    }
+
+    @Override
+    public void onSuccess() {
+        if (this.budgetCapacity <= 0) {
+            return;
+        }
+        int current;
+        do {
+            current = this.budget.get();
+            if (current >= this.budgetCapacity) {
+                return;
+            }
+        } while (!this.budget.compareAndSet(current, current + 1));
+    }
+
+    /**
+     * Obtain the number of tokens left in the retry budget.
+     * 
+     * @return Number of tokens
+     */
+    public int getAvailableBudget() {
+        return this.budget.get();
+    }
+
+    public long getSlowDownBaseDelay() {
+        return slowDownBaseDelay;
+    }
+
+    /**
+     * Set the minimum delay (in milliseconds) before retrying a request that
+     * failed with 503 or the SlowDown error code. The default value is 1000.
+     * 
+     * @param slowDownBaseDelay
+     *            Minimum delay
+     */
+    public void setSlowDownBaseDelay(long slowDownBaseDelay) {
+        this.slowDownBaseDelay = slowDownBaseDelay;
+    }
+
+    public int getIdempotentExtraRetries() {
+        return idempotentExtraRetries;
+    }
+
+    /**
+     * Set the number of retries that GET, HEAD and OPTIONS requests can make
+     * in addition to the configured maximum. The default value is 2.
+     * 
+     * @param idempotentExtraRetries
+     *            Number of additional retries
+     */
+    public void setIdempotentExtraRetries(int idempotentExtraRetries) {
+        this.idempotentExtraRetries = idempotentExtraRetries;
+    }
+
+    protected boolean isIdempotent(String httpMethod) {
+        return "GET".equals(httpMethod) || "HEAD".equals(httpMethod) || "OPTIONS".equals(httpMethod);
+    }
+
+    private static boolean isSlowDown(RetryContext context) {
+        return context.getResponseCode() == 503 || SLOW_DOWN.equals(context.getErrorCode());
+    }
+
+    private boolean acquireBudget(int cost) {
+        if (this.budgetCapacity <= 0) {
+            return true;
+        }
+        int current;
+        do {
+            current = this.budget.get();
+            if (current < cost) {
+                return false;
+            }
+        } while (!this.budget.compareAndSet(current, current - cost));
+        return true;
+    }
+}
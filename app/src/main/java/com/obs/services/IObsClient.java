@@ -87,6 +87,8 @@ import com.obs.services.model.ObsBucket;
 import com.obs.services.model.ObsObject;
 import com.obs.services.model.PostSignatureRequest;
 import com.obs.services.model.PostSignatureResponse;
+import com.obs.services.model.PutObjectInMultiBucketRequest;
+import com.obs.services.model.PutObjectInMultiBucketResult;
 import com.obs.services.model.PutObjectInTwoBucketRequest;
 import com.obs.services.model.PutObjectInTwoBucketResult;
 import com.obs.services.model.PutObjectRequest;
@@ -1674,6 +1676,24 @@ public interface IObsClient extends IObsBucketExtendClient {
 
     PutObjectInTwoBucketResult putObjectInTwoBucket(final PutObjectInTwoBucketRequest request) throws ObsException;
 
+    /**
+     * Upload one file or data stream to multiple buckets. The source is read
+     * only once and its data is sent to all destinations concurrently; reading
+     * pauses while the slowest destination has a full buffer queue. Each
+     * destination may use its own client, for example a client of another
+     * region.
+     * 
+     * @param request
+     *            Parameters in a request for uploading to multiple buckets
+     * @return Result of each destination. A failed upload does not affect the
+     *         other destinations.
+     * @throws ObsException
+     *             OBS SDK self-defined exception, thrown when the interface
+     *             fails to be called
+     */
+    PutObjectInMultiBucketResult putObjectInMultiBucket(final PutObjectInMultiBucketRequest request)
+            throws ObsException;
+
     /**
      * Perform an appendable upload.
      * 
@@ -1,12 +1,184 @@
 package com.obs.services;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.obs.services.internal.task.UploadFileTask;
+import com.obs.services.model.AbortMultipartUploadRequest;
+import com.obs.services.model.CompleteMultipartUploadRequest;
 import com.obs.services.model.CompleteMultipartUploadResult;
+import com.obs.services.model.DeleteObjectRequest;
+import com.obs.services.model.DeleteObjectResult;
+import com.obs.services.model.GetObjectMetadataRequest;
+import com.obs.services.model.GetObjectRequest;
+import com.obs.services.model.HeaderResponse;
+import com.obs.services.model.InitiateMultipartUploadRequest;
+import com.obs.services.model.InitiateMultipartUploadResult;
+import com.obs.services.model.ListObjectsRequest;
+import com.obs.services.model.ListPartsRequest;
+import com.obs.services.model.ListPartsResult;
+import com.obs.services.model.ObjectListing;
+import com.obs.services.model.ObjectMetadata;
+import com.obs.services.model.ObsObject;
+import com.obs.services.model.PutObjectRequest;
+import com.obs.services.model.PutObjectResult;
 import com.obs.services.model.TaskCallback;
 import com.obs.services.model.UploadFileRequest;
+import com.obs.services.model.UploadPartRequest;
+import com.obs.services.model.UploadPartResult;
 
+/**
+ * Asynchronous OBS client interface. The CompletableFuture methods added in
+ * 3.25.5 have default implementations that throw
+ * UnsupportedOperationException, so implementations written against earlier
+ * versions remain compatible; {@link ObsClientAsync} implements all of them.
+ */
 public interface IObsClientAsync {
     UploadFileTask uploadFileAsync(
             UploadFileRequest uploadFileRequest,
             TaskCallback<CompleteMultipartUploadResult, UploadFileRequest> completeCallback);
+
+    /**
+     * Download an object without blocking the calling thread. The returned
+     * future completes when the response headers are received; the object
+     * content must be read and closed by the caller.
+     *
+     * @param request
+     *            Parameters in an object download request
+     * @return Future of the object information and content, completed
+     *         exceptionally with ObsException if the request fails
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<ObsObject> getObjectAsync(GetObjectRequest request) {
+        throw new UnsupportedOperationException("getObjectAsync");
+    }
+
+    /**
+     * Obtain object properties without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters of a request for obtaining object properties
+     * @return Future of the object properties
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<ObjectMetadata> getObjectMetadataAsync(GetObjectMetadataRequest request) {
+        throw new UnsupportedOperationException("getObjectMetadataAsync");
+    }
+
+    /**
+     * Upload an object without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters in an object upload request
+     * @return Future of the response to the object upload request
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<PutObjectResult> putObjectAsync(PutObjectRequest request) {
+        throw new UnsupportedOperationException("putObjectAsync");
+    }
+
+    /**
+     * Delete an object without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters of a request for deleting an object
+     * @return Future of the response to the object deletion request
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<DeleteObjectResult> deleteObjectAsync(DeleteObjectRequest request) {
+        throw new UnsupportedOperationException("deleteObjectAsync");
+    }
+
+    /**
+     * List objects in the bucket without blocking the calling thread.
+     *
+     * @param request
+     *            Request parameters for listing objects in a bucket
+     * @return Future of the response to the request for listing objects
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<ObjectListing> listObjectsAsync(ListObjectsRequest request) {
+        throw new UnsupportedOperationException("listObjectsAsync");
+    }
+
+    /**
+     * Initialize a multipart upload without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters in a multipart upload initialization request
+     * @return Future of the result of the multipart upload initialization
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<InitiateMultipartUploadResult> initiateMultipartUploadAsync(
+            InitiateMultipartUploadRequest request) {
+        throw new UnsupportedOperationException("initiateMultipartUploadAsync");
+    }
+
+    /**
+     * Upload a part without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters in a part upload request
+     * @return Future of the response to the part upload request
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<UploadPartResult> uploadPartAsync(UploadPartRequest request) {
+        throw new UnsupportedOperationException("uploadPartAsync");
+    }
+
+    /**
+     * Combine parts without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters in a request for combining parts
+     * @return Future of the result of part combination
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<CompleteMultipartUploadResult> completeMultipartUploadAsync(
+            CompleteMultipartUploadRequest request) {
+        throw new UnsupportedOperationException("completeMultipartUploadAsync");
+    }
+
+    /**
+     * Abort a multipart upload without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters in a request for aborting a multipart upload
+     * @return Future of the common response headers
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<HeaderResponse> abortMultipartUploadAsync(AbortMultipartUploadRequest request) {
+        throw new UnsupportedOperationException("abortMultipartUploadAsync");
+    }
+
+    /**
+     * List uploaded parts without blocking the calling thread.
+     *
+     * @param request
+     *            Parameters in a request for listing uploaded parts
+     * @return Future of the response to the request for listing uploaded parts
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support asynchronous calls
+     * @since 3.25.5
+     */
+    default CompletableFuture<ListPartsResult> listPartsAsync(ListPartsRequest request) {
+        throw new UnsupportedOperationException("listPartsAsync");
+    }
 }
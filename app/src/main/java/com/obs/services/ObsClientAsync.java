@@ -1,17 +1,49 @@
 package com.obs.services;
 
 import com.obs.log.ILogger;
+import com.obs.log.InterfaceLogBean;
 import com.obs.log.LoggerBuilder;
+import com.obs.services.exception.ObsException;
+import com.obs.services.internal.Constants;
+import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.task.UploadFileTask;
+import com.obs.services.internal.utils.AccessLoggerUtils;
+import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.internal.utils.VirtualThreadSupport;
+import com.obs.services.model.AbortMultipartUploadRequest;
+import com.obs.services.model.CompleteMultipartUploadRequest;
 import com.obs.services.model.CompleteMultipartUploadResult;
+import com.obs.services.model.DeleteObjectRequest;
+import com.obs.services.model.DeleteObjectResult;
+import com.obs.services.model.GetObjectMetadataRequest;
+import com.obs.services.model.GetObjectRequest;
+import com.obs.services.model.HeaderResponse;
+import com.obs.services.model.InitiateMultipartUploadRequest;
+import com.obs.services.model.InitiateMultipartUploadResult;
+import com.obs.services.model.ListObjectsRequest;
+import com.obs.services.model.ListPartsRequest;
+import com.obs.services.model.ListPartsResult;
+import com.obs.services.model.ObjectListing;
+import com.obs.services.model.ObjectMetadata;
+import com.obs.services.model.ObsObject;
+import com.obs.services.model.PutObjectRequest;
+import com.obs.services.model.PutObjectResult;
 import com.obs.services.model.TaskCallback;
 import com.obs.services.model.UploadFileRequest;
+import com.obs.services.model.UploadPartRequest;
+import com.obs.services.model.UploadPartResult;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class ObsClientAsync extends ObsClient implements IObsClientAsync {
     /**
@@ -108,8 +140,15 @@ public class ObsClientAsync extends ObsClient implements IObsClientAsync {
     private static final String ASYNC_CLIENT_EXECUTOR_SERVICE_THREAD_NAME = "async-client-thread";
     protected ExecutorService getExecutorService() {
         if (asyncClientExecutorService == null) {
-            asyncClientExecutorService = Executors.newFixedThreadPool(DEFAULT_CLIENT_EXECUTOR_SERVICE_SIZE,
-                    r -> new Thread(r, ASYNC_CLIENT_EXECUTOR_SERVICE_THREAD_NAME));
+            if (isVirtualThreadsEnabled()) {
+                // 虚拟线程开销小，不限制线程数，实际并发由连接数与并发限制约束
+                asyncClientExecutorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                        new SynchronousQueue<Runnable>(),
+                        VirtualThreadSupport.newThreadFactory(ASYNC_CLIENT_EXECUTOR_SERVICE_THREAD_NAME + "-"));
+            } else {
+                asyncClientExecutorService = Executors.newFixedThreadPool(DEFAULT_CLIENT_EXECUTOR_SERVICE_SIZE,
+                        r -> new Thread(r, ASYNC_CLIENT_EXECUTOR_SERVICE_THREAD_NAME));
+            }
         }
         return asyncClientExecutorService;
     }
@@ -156,4 +195,201 @@ public class ObsClientAsync extends ObsClient implements IObsClientAsync {
         uploadFileTask.setResultFuture(future);
         return uploadFileTask;
     }
+
+    @Override
+    public CompletableFuture<ObsObject> getObjectAsync(final GetObjectRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "GetObjectRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("getObjectAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<ObsObject>>() {
+                    @Override
+                    public CompletableFuture<ObsObject> action() throws ServiceException {
+                        return ObsClientAsync.this.getObjectAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<ObjectMetadata> getObjectMetadataAsync(final GetObjectMetadataRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "GetObjectMetadataRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("getObjectMetadataAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<? extends ObjectMetadata>>() {
+                    @Override
+                    public CompletableFuture<? extends ObjectMetadata> action() throws ServiceException {
+                        return ObsClientAsync.this.getObjectMetadataAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<PutObjectResult> putObjectAsync(final PutObjectRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "PutObjectRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("putObjectAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<? extends PutObjectResult>>() {
+                    @Override
+                    public CompletableFuture<? extends PutObjectResult> action() throws ServiceException {
+                        if (null != request.getInput() && null != request.getFile()) {
+                            throw new ServiceException("Both input and file are set, only one is allowed");
+                        }
+                        return ObsClientAsync.this.putObjectAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<DeleteObjectResult> deleteObjectAsync(final DeleteObjectRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "DeleteObjectRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("deleteObjectAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<DeleteObjectResult>>() {
+                    @Override
+                    public CompletableFuture<DeleteObjectResult> action() throws ServiceException {
+                        return ObsClientAsync.this.deleteObjectAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<ObjectListing> listObjectsAsync(final ListObjectsRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "ListObjectsRequest is null");
+        return this.doActionAsync("listObjectsAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<ObjectListing>>() {
+                    @Override
+                    public CompletableFuture<ObjectListing> action() throws ServiceException {
+                        return ObsClientAsync.this.listObjectsAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<InitiateMultipartUploadResult> initiateMultipartUploadAsync(
+            final InitiateMultipartUploadRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "InitiateMultipartUploadRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("initiateMultipartUploadAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<InitiateMultipartUploadResult>>() {
+                    @Override
+                    public CompletableFuture<InitiateMultipartUploadResult> action() throws ServiceException {
+                        return ObsClientAsync.this.initiateMultipartUploadAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<UploadPartResult> uploadPartAsync(final UploadPartRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "UploadPartRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("uploadPartAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<UploadPartResult>>() {
+                    @Override
+                    public CompletableFuture<UploadPartResult> action() throws ServiceException {
+                        return ObsClientAsync.this.uploadPartAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<CompleteMultipartUploadResult> completeMultipartUploadAsync(
+            final CompleteMultipartUploadRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "CompleteMultipartUploadRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("completeMultipartUploadAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<CompleteMultipartUploadResult>>() {
+                    @Override
+                    public CompletableFuture<CompleteMultipartUploadResult> action() throws ServiceException {
+                        return ObsClientAsync.this.completeMultipartUploadAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<HeaderResponse> abortMultipartUploadAsync(final AbortMultipartUploadRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "AbortMultipartUploadRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("abortMultipartUploadAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<HeaderResponse>>() {
+                    @Override
+                    public CompletableFuture<HeaderResponse> action() throws ServiceException {
+                        return ObsClientAsync.this.abortMultipartUploadAsyncImpl(request);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<ListPartsResult> listPartsAsync(final ListPartsRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "ListPartsRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        return this.doActionAsync("listPartsAsync", request.getBucketName(),
+                new ActionCallbackWithResult<CompletableFuture<ListPartsResult>>() {
+                    @Override
+                    public CompletableFuture<ListPartsResult> action() throws ServiceException {
+                        return ObsClientAsync.this.listPartsAsyncImpl(request);
+                    }
+                });
+    }
+
+    /**
+     * 与doActionWithResult相同的参数校验、鉴权协商与接口日志，请求在返回的Future完成前不占用调用线程。
+     * 失败时Future以ObsException异常完成，取消返回的Future时同时取消请求。
+     */
+    private <T> CompletableFuture<T> doActionAsync(final String action, String bucketName,
+            ActionCallbackWithResult<? extends CompletableFuture<? extends T>> callback) {
+        if (!this.isCname()) {
+            ServiceUtils.assertParameterNotNull(bucketName, "bucketName is null");
+        }
+        final InterfaceLogBean reqBean = new InterfaceLogBean(action, this.getEndpoint(), "");
+        final long start = System.currentTimeMillis();
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        final CompletableFuture<? extends T> inner;
+        try {
+            if (this.isAuthTypeNegotiation()) {
+                callback.authTypeNegotiate(bucketName);
+            }
+            inner = callback.action();
+        } catch (ServiceException e) {
+            result.completeExceptionally(toObsException(reqBean, e));
+            AccessLoggerUtils.printLog();
+            return result;
+        }
+        inner.whenComplete((ret, t) -> {
+            if (t == null) {
+                reqBean.setRespTime(new Date());
+                reqBean.setResultCode(Constants.RESULTCODE_SUCCESS);
+                if (log.isInfoEnabled()) {
+                    log.info(reqBean);
+                    log.info("ObsClient [" + action + "] cost " + (System.currentTimeMillis() - start) + " ms");
+                }
+                result.complete(ret);
+            } else {
+                Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                if (cause instanceof ServiceException) {
+                    cause = toObsException(reqBean, (ServiceException) cause);
+                }
+                result.completeExceptionally(cause);
+            }
+            AccessLoggerUtils.printLog();
+        });
+        result.whenComplete((ret, t) -> {
+            if (result.isCancelled()) {
+                inner.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private ObsException toObsException(InterfaceLogBean reqBean, ServiceException e) {
+        ObsException ex = ServiceUtils.changeFromServiceException(e);
+        reqBean.setRespTime(new Date());
+        reqBean.setResultCode(String.valueOf(ex.getResponseCode()));
+        if (ex.getResponseCode() >= 400 && ex.getResponseCode() < 500) {
+            if (log.isWarnEnabled()) {
+                log.warn(reqBean);
+            }
+        } else if (log.isErrorEnabled()) {
+            log.error(reqBean);
+        }
+        return ex;
+    }
 }
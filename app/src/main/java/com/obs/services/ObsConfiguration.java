@@ -22,6 +22,7 @@ import javax.net.ssl.TrustManagerFactory;
 import com.obs.services.internal.ObsConstraint;
 import com.obs.services.internal.utils.LocalTimeUtil;
 import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.EndpointSelectionStrategyEnum;
 import com.obs.services.model.HttpProtocolTypeEnum;
 
 import okhttp3.Dispatcher;
@@ -29,6 +30,9 @@ import okhttp3.Dns;
 import okhttp3.EventListener;
 
 import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Configuration parameters of ObsClient
@@ -79,6 +83,10 @@ public class ObsConfiguration implements Cloneable {
 
     private int localAuthTypeCacheCapacity;
 
+    private long localAuthTypeCacheTtl;
+
+    private Map<String, AuthTypeEnum> presetLocalAuthTypes;
+
     private SecureRandom secureRandom;
 
     private String signatString;
@@ -114,6 +122,46 @@ public class ObsConfiguration implements Cloneable {
 
     private int callTimeout;
 
+    private int transferThreadNum;
+
+    private boolean virtualThreadsEnabled;
+
+    private int virtualThreadsMaxConcurrency;
+
+    private int uploadStreamReplayMemorySize;
+
+    private long uploadStreamReplayMaxSize;
+
+    private RetryPolicy retryPolicy;
+
+    private boolean adaptiveConcurrencyEnabled;
+
+    private int minConcurrency;
+
+    private int concurrencyAcquireTimeout;
+
+    private int asyncMaxPendingRequests;
+
+    private int resumableReadMaxRetries;
+
+    private int dnsCacheTtl;
+
+    private int dnsStaleTtl;
+
+    private boolean dnsAddressShuffle;
+
+    private int endPointWeight;
+
+    private LinkedHashMap<String, Integer> extraEndPoints;
+
+    private EndpointSelectionStrategyEnum endpointSelectionStrategy;
+
+    private int endpointFailureThreshold;
+
+    private long endpointEjectionTime;
+
+    private long endpointProbeInterval;
+
     /**
      * Constructor
      */
@@ -151,6 +199,25 @@ public class ObsConfiguration implements Cloneable {
         this.localTimeUtil = new LocalTimeUtil();
         this.sslContext = null;
         this.callTimeout = ObsConstraint.HTTP_CALL_TIMEOUT_VALUE;
+        this.transferThreadNum = ObsConstraint.DEFAULT_TRANSFER_THREAD_NUM;
+        this.virtualThreadsEnabled = false;
+        this.virtualThreadsMaxConcurrency = ObsConstraint.DEFAULT_VIRTUAL_THREADS_MAX_CONCURRENCY;
+        this.uploadStreamReplayMemorySize = ObsConstraint.DEFAULT_UPLOAD_STREAM_REPLAY_MEMORY_SIZE;
+        this.uploadStreamReplayMaxSize = ObsConstraint.DEFAULT_UPLOAD_STREAM_REPLAY_MAX_SIZE;
+        this.adaptiveConcurrencyEnabled = false;
+        this.minConcurrency = ObsConstraint.DEFAULT_MIN_CONCURRENCY;
+        this.concurrencyAcquireTimeout = 0;
+        this.asyncMaxPendingRequests = ObsConstraint.DEFAULT_ASYNC_MAX_PENDING_REQUESTS;
+        this.resumableReadMaxRetries = 0;
+        this.dnsCacheTtl = ObsConstraint.DEFAULT_DNS_CACHE_TTL;
+        this.dnsStaleTtl = ObsConstraint.DEFAULT_DNS_STALE_TTL;
+        this.dnsAddressShuffle = false;
+        this.endPointWeight = 1;
+        this.extraEndPoints = new LinkedHashMap<String, Integer>();
+        this.endpointSelectionStrategy = EndpointSelectionStrategyEnum.WEIGHTED_RANDOM;
+        this.endpointFailureThreshold = ObsConstraint.DEFAULT_END_POINT_FAILURE_THRESHOLD;
+        this.endpointEjectionTime = ObsConstraint.DEFAULT_END_POINT_EJECTION_TIME;
+        this.endpointProbeInterval = ObsConstraint.DEFAULT_END_POINT_PROBE_INTERVAL;
     }
 
     public String getDelimiter() {
@@ -550,8 +617,11 @@ public class ObsConfiguration implements Cloneable {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public ObsConfiguration clone() throws CloneNotSupportedException {
-        return (ObsConfiguration) super.clone();
+        ObsConfiguration config = (ObsConfiguration) super.clone();
+        config.extraEndPoints = (LinkedHashMap<String, Integer>) this.extraEndPoints.clone();
+        return config;
     }
 
     /**
@@ -944,6 +1014,49 @@ public class ObsConfiguration implements Cloneable {
         this.localAuthTypeCacheCapacity = localAuthTypeCacheCapacity;
     }
 
+    /**
+     * Obtain the validity period of the negotiated authentication types cached
+     * per bucket. The default value is 0, meaning the cached types never expire.
+     * 
+     * @return Validity period (in milliseconds)
+     */
+    public long getLocalAuthTypeCacheTtl() {
+        return localAuthTypeCacheTtl;
+    }
+
+    /**
+     * Set the validity period of the negotiated authentication types cached per
+     * bucket. A bucket is negotiated again after its cached type expires. A
+     * value less than or equal to 0 means the cached types never expire.
+     * 
+     * @param localAuthTypeCacheTtl
+     *            Validity period (in milliseconds)
+     */
+    public void setLocalAuthTypeCacheTtl(long localAuthTypeCacheTtl) {
+        this.localAuthTypeCacheTtl = localAuthTypeCacheTtl;
+    }
+
+    /**
+     * Obtain the authentication types preset per bucket.
+     * 
+     * @return Authentication types keyed by bucket name
+     */
+    public Map<String, AuthTypeEnum> getPresetLocalAuthTypes() {
+        return presetLocalAuthTypes;
+    }
+
+    /**
+     * Preset the authentication types of buckets. Preset buckets are not
+     * negotiated when the client starts, which avoids a burst of negotiation
+     * requests against many buckets.
+     * 
+     * @param presetLocalAuthTypes
+     *            Authentication types keyed by bucket name
+     */
+    public void setPresetLocalAuthTypes(Map<String, AuthTypeEnum> presetLocalAuthTypes) {
+        this.presetLocalAuthTypes = presetLocalAuthTypes;
+    }
+
     public SecureRandom getSecureRandom() {
         return secureRandom;
     }
@@ -984,4 +1097,494 @@ public class ObsConfiguration implements Cloneable {
         this.callTimeout = callTimeout;
     }
 
+    /**
+     * Obtain the number of threads in the transfer pool shared by all
+     * uploadFile and downloadFile calls of a client. The default value is 128.
+     * 
+     * @return Number of threads in the shared transfer pool
+     */
+    public int getTransferThreadNum() {
+        return transferThreadNum;
+    }
+
+    /**
+     * Set the number of threads in the transfer pool shared by all uploadFile
+     * and downloadFile calls of a client. The task number of each request
+     * limits how many of these threads a single transfer can occupy.
+     * 
+     * @param transferThreadNum
+     *            Number of threads in the shared transfer pool
+     */
+    public void setTransferThreadNum(int transferThreadNum) {
+        this.transferThreadNum = transferThreadNum;
+    }
+
+    /**
+     * Check whether worker threads run on virtual threads ("false" by
+     * default).
+     * 
+     * @return Identifier specifying whether virtual threads are enabled
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Specify whether the worker threads of uploadFile, downloadFile, the
+     * batch tasks (putObjects, restoreObjects, dropFolder) and ObsClientAsync
+     * run on virtual threads. This takes effect only on JDK 21 or later; on
+     * earlier runtimes platform threads are used. With virtual threads, the
+     * shared transfer pool and the batch task pools are sized by
+     * {@link #setVirtualThreadsMaxConcurrency(int)} instead of
+     * {@link #setTransferThreadNum(int)} and the task thread number of batch
+     * requests, while the number of requests actually on the wire stays
+     * bounded by {@link #getMaxConnections()}.
+     * 
+     * @param virtualThreadsEnabled
+     *            Identifier specifying whether virtual threads are enabled
+     */
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * Obtain the number of virtual worker threads of the shared transfer pool
+     * and of each batch task pool. The default value is 10000.
+     * 
+     * @return Number of virtual worker threads
+     */
+    public int getVirtualThreadsMaxConcurrency() {
+        return virtualThreadsMaxConcurrency;
+    }
+
+    /**
+     * Set the number of virtual worker threads of the shared transfer pool
+     * and of each batch task pool, which bounds how many transfer parts or
+     * batch tasks run at the same time when virtual threads are enabled. The
+     * task number of each uploadFile or downloadFile request still limits the
+     * concurrency of that transfer. Raise {@link #setMaxConnections(int)}
+     * together with this value to have more requests on the wire.
+     * 
+     * @param virtualThreadsMaxConcurrency
+     *            Number of virtual worker threads
+     */
+    public void setVirtualThreadsMaxConcurrency(int virtualThreadsMaxConcurrency) {
+        this.virtualThreadsMaxConcurrency = virtualThreadsMaxConcurrency;
+    }
+
+    /**
+     * Obtain the maximum number of bytes of a non-markable upload stream kept
+     * in memory for retries. The default value is 8 MB.
+     * 
+     * @return Maximum number of replay bytes kept in memory
+     */
+    public int getUploadStreamReplayMemorySize() {
+        return uploadStreamReplayMemorySize;
+    }
+
+    /**
+     * Set the maximum number of bytes of a non-markable upload stream kept in
+     * memory for retries. Bytes beyond this size are written to a temporary
+     * file.
+     * 
+     * @param uploadStreamReplayMemorySize
+     *            Maximum number of replay bytes kept in memory
+     */
+    public void setUploadStreamReplayMemorySize(int uploadStreamReplayMemorySize) {
+        this.uploadStreamReplayMemorySize = uploadStreamReplayMemorySize;
+    }
+
+    /**
+     * Obtain the maximum number of bytes of a non-markable upload stream that
+     * can be replayed when a request is retried. The default value is 0,
+     * indicating that such streams are not retried.
+     * 
+     * @return Maximum number of replay bytes
+     */
+    public long getUploadStreamReplayMaxSize() {
+        return uploadStreamReplayMaxSize;
+    }
+
+    /**
+     * Set the maximum number of bytes of a non-markable upload stream (such as
+     * a socket or pipe stream) that can be replayed when a request is retried.
+     * The recorded bytes are released after the response is received. If a
+     * stream exceeds this size, the request is not retried.
+     * 
+     * @param uploadStreamReplayMaxSize
+     *            Maximum number of replay bytes. A value less than or equal to
+     *            0 disables the replay buffer.
+     */
+    public void setUploadStreamReplayMaxSize(long uploadStreamReplayMaxSize) {
+        this.uploadStreamReplayMaxSize = uploadStreamReplayMaxSize;
+    }
+
+    /**
+     * Obtain the retry policy. The default value is null, indicating that
+     * each client uses its own {@link DefaultRetryPolicy}.
+     * 
+     * @return Retry policy
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Set the policy that decides whether and when failed requests are
+     * retried. The number of retries is still based on
+     * {@link #setMaxErrorRetry(int)}. A policy instance set on several
+     * configurations shares its retry budget among the clients.
+     * 
+     * @param retryPolicy
+     *            Retry policy
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Check whether the maximum number of concurrent requests to each
+     * endpoint is adjusted automatically ("false" by default).
+     * 
+     * @return Identifier specifying whether adaptive concurrency is enabled
+     */
+    public boolean isAdaptiveConcurrencyEnabled() {
+        return adaptiveConcurrencyEnabled;
+    }
+
+    /**
+     * Specify whether the maximum number of concurrent requests to each
+     * endpoint is adjusted automatically. The limit grows while latency stays
+     * stable and shrinks when OBS throttles requests (503, 429 or SlowDown),
+     * requests time out or latency rises sharply. The limit of each endpoint
+     * never exceeds {@link #getMaxConnections()}. If this is disabled, all
+     * endpoints share a single fixed limit of {@link #getMaxConnections()}
+     * concurrent requests.
+     * 
+     * @param adaptiveConcurrencyEnabled
+     *            Identifier specifying whether adaptive concurrency is enabled
+     */
+    public void setAdaptiveConcurrencyEnabled(boolean adaptiveConcurrencyEnabled) {
+        this.adaptiveConcurrencyEnabled = adaptiveConcurrencyEnabled;
+    }
+
+    /**
+     * Obtain the lower bound of the adaptive concurrency limit. The default
+     * value is 8.
+     * 
+     * @return Lower bound of the concurrency limit
+     */
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    /**
+     * Set the lower bound of the adaptive concurrency limit.
+     * 
+     * @param minConcurrency
+     *            Lower bound of the concurrency limit
+     */
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = minConcurrency;
+    }
+
+    /**
+     * Obtain the maximum time (in milliseconds) a request waits for a
+     * concurrency permit. The default value is 0, indicating that requests
+     * wait until a permit is available.
+     * 
+     * @return Acquisition timeout
+     */
+    public int getConcurrencyAcquireTimeout() {
+        return concurrencyAcquireTimeout;
+    }
+
+    /**
+     * Set the maximum time (in milliseconds) a request waits for a
+     * concurrency permit. A request that cannot obtain a permit in time fails
+     * immediately instead of being queued.
+     * 
+     * @param concurrencyAcquireTimeout
+     *            Acquisition timeout. A value less than or equal to 0
+     *            indicates waiting until a permit is available.
+     */
+    public void setConcurrencyAcquireTimeout(int concurrencyAcquireTimeout) {
+        this.concurrencyAcquireTimeout = concurrencyAcquireTimeout;
+    }
+
+    /**
+     * Obtain the maximum number of asynchronous requests per endpoint that
+     * can be queued for a concurrency permit. The default value is 10000.
+     * 
+     * @return Maximum number of queued asynchronous requests
+     */
+    public int getAsyncMaxPendingRequests() {
+        return asyncMaxPendingRequests;
+    }
+
+    /**
+     * Set the maximum number of asynchronous requests per endpoint that can be
+     * queued for a concurrency permit. When the queue is full, a new
+     * asynchronous request fails immediately, which pushes back on callers
+     * that submit faster than the service can respond.
+     * 
+     * @param asyncMaxPendingRequests
+     *            Maximum number of queued asynchronous requests
+     */
+    public void setAsyncMaxPendingRequests(int asyncMaxPendingRequests) {
+        this.asyncMaxPendingRequests = asyncMaxPendingRequests;
+    }
+
+    /**
+     * Obtain the maximum number of consecutive attempts to resume reading the
+     * content of a downloaded object after the connection breaks. The default
+     * value is 0, indicating that resumable reading is disabled.
+     * 
+     * @return Maximum number of resume attempts
+     */
+    public int getResumableReadMaxRetries() {
+        return resumableReadMaxRetries;
+    }
+
+    /**
+     * Set the maximum number of consecutive attempts to resume reading the
+     * content of a downloaded object. If the connection breaks while the
+     * content returned by getObject is being read, a ranged download starting
+     * from the next unread byte is sent with If-Match set to the original ETag,
+     * and reading continues transparently. The counter is reset whenever data
+     * is read successfully. If the object has been modified, the read fails.
+     * 
+     * @param resumableReadMaxRetries
+     *            Maximum number of resume attempts. A value less than or equal
+     *            to 0 disables resumable reading.
+     */
+    public void setResumableReadMaxRetries(int resumableReadMaxRetries) {
+        this.resumableReadMaxRetries = resumableReadMaxRetries;
+    }
+
+    /**
+     * Obtain the period (in seconds) for which resolved addresses of an
+     * endpoint are cached. The default value is 60.
+     * 
+     * @return DNS cache period
+     */
+    public int getDnsCacheTtl() {
+        return dnsCacheTtl;
+    }
+
+    /**
+     * Set the period (in seconds) for which resolved addresses of an endpoint
+     * are cached. Addresses are refreshed in the background before they
+     * expire. This takes effect only when no customized DNS is set by
+     * {@link #setCustomizedDnsImpl(Dns)}.
+     * 
+     * @param dnsCacheTtl
+     *            DNS cache period. A value less than or equal to 0 resolves
+     *            the endpoint for every new connection.
+     */
+    public void setDnsCacheTtl(int dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+    }
+
+    /**
+     * Obtain the period (in seconds) for which expired addresses are still
+     * used when the endpoint cannot be resolved. The default value is 600.
+     * 
+     * @return Period for using expired addresses
+     */
+    public int getDnsStaleTtl() {
+        return dnsStaleTtl;
+    }
+
+    /**
+     * Set the period (in seconds) for which expired addresses are still used
+     * when the endpoint cannot be resolved.
+     * 
+     * @param dnsStaleTtl
+     *            Period for using expired addresses
+     */
+    public void setDnsStaleTtl(int dnsStaleTtl) {
+        this.dnsStaleTtl = dnsStaleTtl;
+    }
+
+    /**
+     * Check whether the resolved addresses of an endpoint are tried in random
+     * order ("false" by default, indicating round-robin order).
+     * 
+     * @return Identifier specifying whether addresses are shuffled
+     */
+    public boolean isDnsAddressShuffle() {
+        return dnsAddressShuffle;
+    }
+
+    /**
+     * Specify whether the resolved addresses of an endpoint are tried in
+     * random order instead of round-robin order. Either way new connections
+     * are spread across all addresses, and addresses that recently failed to
+     * connect are tried last.
+     * 
+     * @param dnsAddressShuffle
+     *            Identifier specifying whether addresses are shuffled
+     */
+    public void setDnsAddressShuffle(boolean dnsAddressShuffle) {
+        this.dnsAddressShuffle = dnsAddressShuffle;
+    }
+
+    /**
+     * Obtain the weight of the endpoint set by {@link #setEndPoint(String)}
+     * when multiple endpoints are configured (1 by default).
+     * 
+     * @return Weight of the endpoint
+     */
+    public int getEndPointWeight() {
+        return endPointWeight;
+    }
+
+    /**
+     * Set the weight of the endpoint set by {@link #setEndPoint(String)} when
+     * multiple endpoints are configured (1 by default).
+     * 
+     * @param endPointWeight
+     *            Weight of the endpoint, which must be greater than 0
+     */
+    public void setEndPointWeight(int endPointWeight) {
+        if (endPointWeight <= 0) {
+            throw new IllegalArgumentException("weight must be greater than 0");
+        }
+        this.endPointWeight = endPointWeight;
+    }
+
+    /**
+     * Add an endpoint that shares the load with the endpoint set by
+     * {@link #setEndPoint(String)}. All endpoints use the protocol and port of
+     * that endpoint and must serve the same buckets, for example several
+     * access points of one region. The endpoint may be given with a protocol
+     * and port, such as "https://host:443", but the client fails to initialize
+     * if they differ from those of the endpoint set by
+     * {@link #setEndPoint(String)}.
+     * 
+     * @param endPoint
+     *            Domain name or IP address of the endpoint
+     * @param weight
+     *            Weight of the endpoint, which must be greater than 0
+     */
+    public void addEndPoint(String endPoint, int weight) {
+        if (endPoint == null || endPoint.trim().equals("")) {
+            throw new IllegalArgumentException("EndPoint is null");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be greater than 0");
+        }
+        this.extraEndPoints.put(endPoint.trim(), weight);
+    }
+
+    /**
+     * Add an endpoint with weight 1 that shares the load with the endpoint set
+     * by {@link #setEndPoint(String)}.
+     * 
+     * @param endPoint
+     *            Domain name or IP address of the endpoint
+     */
+    public void addEndPoint(String endPoint) {
+        this.addEndPoint(endPoint, 1);
+    }
+
+    /**
+     * Obtain the endpoints added by {@link #addEndPoint(String, int)} and
+     * their weights.
+     * 
+     * @return Endpoints and their weights
+     */
+    public Map<String, Integer> getEndPoints() {
+        return Collections.unmodifiableMap(this.extraEndPoints);
+    }
+
+    /**
+     * Obtain the policy for choosing an endpoint when multiple endpoints are
+     * configured. The default value is
+     * {@link EndpointSelectionStrategyEnum#WEIGHTED_RANDOM}.
+     * 
+     * @return Endpoint selection policy
+     */
+    public EndpointSelectionStrategyEnum getEndpointSelectionStrategy() {
+        return endpointSelectionStrategy;
+    }
+
+    /**
+     * Set the policy for choosing an endpoint when multiple endpoints are
+     * configured. Requests of the same multipart upload are always sent to
+     * the same endpoint while it is available.
+     * 
+     * @param endpointSelectionStrategy
+     *            Endpoint selection policy
+     */
+    public void setEndpointSelectionStrategy(EndpointSelectionStrategyEnum endpointSelectionStrategy) {
+        this.endpointSelectionStrategy = endpointSelectionStrategy;
+    }
+
+    /**
+     * Obtain the number of consecutive connection failures or 5xx responses
+     * after which an endpoint stops receiving requests. The default value is
+     * 3.
+     * 
+     * @return Number of consecutive failures
+     */
+    public int getEndpointFailureThreshold() {
+        return endpointFailureThreshold;
+    }
+
+    /**
+     * Set the number of consecutive connection failures or 5xx responses
+     * after which an endpoint stops receiving requests. This takes effect
+     * only when multiple endpoints are configured.
+     * 
+     * @param endpointFailureThreshold
+     *            Number of consecutive failures
+     */
+    public void setEndpointFailureThreshold(int endpointFailureThreshold) {
+        this.endpointFailureThreshold = endpointFailureThreshold;
+    }
+
+    /**
+     * Obtain the minimum period (in milliseconds) for which an unavailable
+     * endpoint stops receiving requests. The default value is 30000.
+     * 
+     * @return Minimum ejection period
+     */
+    public long getEndpointEjectionTime() {
+        return endpointEjectionTime;
+    }
+
+    /**
+     * Set the minimum period (in milliseconds) for which an unavailable
+     * endpoint stops receiving requests. After this period, the endpoint is
+     * probed and restored once it responds.
+     * 
+     * @param endpointEjectionTime
+     *            Minimum ejection period
+     */
+    public void setEndpointEjectionTime(long endpointEjectionTime) {
+        this.endpointEjectionTime = endpointEjectionTime;
+    }
+
+    /**
+     * Obtain the interval (in milliseconds) for probing an unavailable
+     * endpoint. The default value is 5000.
+     * 
+     * @return Probe interval
+     */
+    public long getEndpointProbeInterval() {
+        return endpointProbeInterval;
+    }
+
+    /**
+     * Set the interval (in milliseconds) for probing an unavailable endpoint.
+     * 
+     * @param endpointProbeInterval
+     *            Probe interval
+     */
+    public void setEndpointProbeInterval(long endpointProbeInterval) {
+        this.endpointProbeInterval = endpointProbeInterval;
+    }
+
 }
@@ -10,18 +10,61 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 
+/**
+ * Credentials provider that obtains temporary AK/SK/security token from IAM.
+ * <p>
+ * The token is cached and refreshed in the background ahead of its expiry;
+ * callers only wait for IAM when no valid token is available.
+ */
 public class RefreshAkSkStsTokenProvider implements IObsCredentialsProvider {
 
     private static final ILogger log = LoggerBuilder.getLogger(RefreshAkSkStsTokenProvider.class);
 
-    private ISecurityKey securityKey;
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     private static final long REFRESH_INTERVAL_MINUTES = 10;
+
+    // 与申请临时凭证时的duration_seconds一致
+    private static final long TOKEN_DURATION_MILLIS = TimeUnit.SECONDS.toMillis(900);
+
+    // 距过期不足该时间时视为已过期，需同步刷新
+    private static final long EXPIRY_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // 距过期不足该时间（再减去随机抖动）时开始后台刷新
+    private static final long PREFETCH_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long PREFETCH_JITTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // 刷新失败后在该时间（再加上随机抖动）内不再同步访问IAM，ERROR日志也只记录一次
+    private static final long FAILURE_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final long FAILURE_BACKOFF_JITTER_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private volatile CachedKey cachedKey;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicBoolean asyncRefreshing = new AtomicBoolean(false);
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, runnable -> {
+        Thread thread = new Thread(runnable, "obs-sts-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong refreshSuccessCount = new AtomicLong();
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+    private final AtomicLong blockingRefreshCount = new AtomicLong();
+    private final AtomicLong asyncRefreshCount = new AtomicLong();
+    private volatile long lastRefreshCostMillis = -1;
+    private volatile long lastRefreshTimeMillis = -1;
+    private volatile long lastFailureTimeMillis = -1;
+    private volatile long retryNotBeforeMillis = -1;
     private final OkHttpClient httpClient;
     private String iamDomain;
     private String iamUser;
@@ -48,26 +91,113 @@ public class RefreshAkSkStsTokenProvider implements IObsCredentialsProvider {
 
     @Override
     public void setSecurityKey(ISecurityKey securityKey) {
-        this.securityKey = securityKey;
+        this.cachedKey = securityKey == null ? null : new CachedKey(securityKey, System.currentTimeMillis());
     }
 
+    /**
+     * Return the cached security key. A background refresh is triggered when the
+     * key is close to expiry; the caller blocks on IAM only if there is no key or
+     * the key has expired. After a failed refresh, callers get the stale key (or
+     * null) without contacting IAM until the backoff window has passed.
+     */
     @Override
     public ISecurityKey getSecurityKey() {
-        refreshSecurityKey();
-        return this.securityKey;
+        CachedKey current = this.cachedKey;
+        long now = System.currentTimeMillis();
+        if (current == null || current.isExpired(now)) {
+            if (isBackingOff(now)) {
+                return current == null ? null : current.securityKey;
+            }
+            blockingRefreshCount.incrementAndGet();
+            current = refreshIfNeeded(RefreshMode.IF_EXPIRED);
+        } else if (current.needsRefresh(now)) {
+            refreshAsync();
+        }
+        return current == null ? null : current.securityKey;
     }
 
     private void refreshSecurityKey() {
+        refreshIfNeeded(RefreshMode.ALWAYS);
+    }
+
+    private void refreshAsync() {
+        if (!asyncRefreshing.compareAndSet(false, true)) {
+            return;
+        }
         try {
-            ISecurityKey newSecurityKey = fetchAkSkStsToken();
-            setSecurityKey(newSecurityKey);
-            log.debug("Security key refreshed successfully.");
-        } catch (Exception e) {
+            scheduler.execute(() -> {
+                try {
+                    asyncRefreshCount.incrementAndGet();
+                    refreshIfNeeded(RefreshMode.IF_DUE);
+                } finally {
+                    asyncRefreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            asyncRefreshing.set(false);
+            log.warn("Failed to submit security key refresh task.", e);
+        }
+    }
+
+    /**
+     * 同一时刻只有一个线程访问IAM，其余线程等待后按mode重新判断，通常直接使用刚刷新的结果
+     */
+    private CachedKey refreshIfNeeded(RefreshMode mode) {
+        refreshLock.lock();
+        try {
+            CachedKey current = this.cachedKey;
+            long now = System.currentTimeMillis();
+            if (current != null && !mode.needRefresh(current, now)) {
+                return current;
+            }
+            // 等待锁期间其他线程刚刚刷新失败，定时任务之外的刷新均跳过
+            if (mode != RefreshMode.ALWAYS && isBackingOff(now)) {
+                return current;
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                ISecurityKey newSecurityKey = fetchAkSkStsToken();
+                // 以开始请求的时间计算过期时间，偏保守
+                current = new CachedKey(newSecurityKey, start);
+                this.cachedKey = current;
+                refreshSuccessCount.incrementAndGet();
+                lastRefreshTimeMillis = System.currentTimeMillis();
+                retryNotBeforeMillis = -1;
+                log.debug("Security key refreshed successfully.");
+            } catch (Exception e) {
+                refreshFailureCount.incrementAndGet();
+                recordFailure(e);
+            } finally {
+                lastRefreshCostMillis = System.currentTimeMillis() - start;
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isBackingOff(long now) {
+        return now < retryNotBeforeMillis;
+    }
+
+    private void recordFailure(Exception e) {
+        long now = System.currentTimeMillis();
+        // 上一个退避窗口内已记录过ERROR的，本次只记录WARN
+        boolean loggedInWindow = isBackingOff(now);
+        lastFailureTimeMillis = now;
+        retryNotBeforeMillis = now + FAILURE_BACKOFF_MILLIS
+                + ThreadLocalRandom.current().nextLong(FAILURE_BACKOFF_JITTER_MILLIS);
+        if (loggedInWindow) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to refresh security key again: " + e.getMessage());
+            }
+        } else {
             log.error("Failed to refresh security key: " + e.getMessage(), e);
         }
     }
 
-    private ISecurityKey fetchAkSkStsToken() throws IOException {
+    protected ISecurityKey fetchAkSkStsToken() throws IOException {
         String subjectToken = getSubjectToken();
         if (subjectToken == null) {
             log.error("Failed to fetch subject token.");
@@ -165,5 +295,102 @@ public class RefreshAkSkStsTokenProvider implements IObsCredentialsProvider {
         return matcher.find() ? matcher.group(1) : null;
     }
 
-}
+    /**
+     * Number of successful refreshes.
+     */
+    public long getRefreshSuccessCount() {
+        return refreshSuccessCount.get();
+    }
 
+    /**
+     * Number of failed refreshes.
+     */
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    /**
+     * Number of times a caller had to wait for a refresh because no valid key was cached.
+     */
+    public long getBlockingRefreshCount() {
+        return blockingRefreshCount.get();
+    }
+
+    /**
+     * Number of background refreshes triggered ahead of expiry.
+     */
+    public long getAsyncRefreshCount() {
+        return asyncRefreshCount.get();
+    }
+
+    /**
+     * Time cost of the last refresh in milliseconds, -1 if never refreshed.
+     */
+    public long getLastRefreshCostMillis() {
+        return lastRefreshCostMillis;
+    }
+
+    /**
+     * Time of the last successful refresh in milliseconds since the epoch, -1 if never refreshed.
+     */
+    public long getLastRefreshTimeMillis() {
+        return lastRefreshTimeMillis;
+    }
+
+    /**
+     * Time of the last failed refresh in milliseconds since the epoch, -1 if no refresh has failed.
+     */
+    public long getLastFailureTimeMillis() {
+        return lastFailureTimeMillis;
+    }
+
+    private enum RefreshMode {
+        // 定时任务，无条件刷新
+        ALWAYS {
+            @Override
+            boolean needRefresh(CachedKey current, long now) {
+                return true;
+            }
+        },
+        // 即将过期，后台提前刷新
+        IF_DUE {
+            @Override
+            boolean needRefresh(CachedKey current, long now) {
+                return current.needsRefresh(now);
+            }
+        },
+        // 已过期，调用方同步等待
+        IF_EXPIRED {
+            @Override
+            boolean needRefresh(CachedKey current, long now) {
+                return current.isExpired(now);
+            }
+        };
+
+        abstract boolean needRefresh(CachedKey current, long now);
+    }
+
+    private static final class CachedKey {
+        private final ISecurityKey securityKey;
+
+        private final long expiresAt;
+
+        private final long refreshAt;
+
+        CachedKey(ISecurityKey securityKey, long fetchedAt) {
+            this.securityKey = securityKey;
+            this.expiresAt = fetchedAt + TOKEN_DURATION_MILLIS;
+            // 随机提前一段时间刷新，避免多个客户端同时访问IAM
+            this.refreshAt = this.expiresAt - PREFETCH_MILLIS
+                    - ThreadLocalRandom.current().nextLong(PREFETCH_JITTER_MILLIS);
+        }
+
+        boolean isExpired(long now) {
+            return now >= this.expiresAt - EXPIRY_MARGIN_MILLIS;
+        }
+
+        boolean needsRefresh(long now) {
+            return now >= this.refreshAt;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services;
+
+import java.io.IOException;
+
+/**
+ * Policy that decides whether and when a failed request is retried. One
+ * instance is shared by all requests of a client.
+ */
+public interface RetryPolicy {
+    /**
+     * Obtain the maximum number of retries of a request.
+     * 
+     * @param httpMethod
+     *            HTTP method of the request, such as "GET" or "PUT"
+     * @param configuredMaxRetries
+     *            Value set by {@link ObsConfiguration#setMaxErrorRetry(int)}
+     * @return Maximum number of retries
+     */
+    int getMaxRetries(String httpMethod, int configuredMaxRetries);
+
+    /**
+     * Compute the delay before the next attempt of a failed request.
+     * 
+     * @param context
+     *            Information about the failed attempt
+     * @return Delay in milliseconds, or a negative value to stop retrying
+     */
+    long computeDelay(RetryContext context);
+
+    /**
+     * Called when a request completes without being retried again.
+     */
+    void onSuccess();
+
+    /**
+     * Information about a failed attempt
+     */
+    final class RetryContext {
+        private final String httpMethod;
+
+        private final int retryCount;
+
+        private final int responseCode;
+
+        private final String errorCode;
+
+        private final long retryAfterMillis;
+
+        private final IOException exception;
+
+        private final long previousDelay;
+
+        public RetryContext(String httpMethod, int retryCount, int responseCode, String errorCode,
+                long retryAfterMillis, IOException exception, long previousDelay) {
+            this.httpMethod = httpMethod;
+            this.retryCount = retryCount;
+            this.responseCode = responseCode;
+            this.errorCode = errorCode;
+            this.retryAfterMillis = retryAfterMillis;
+            this.exception = exception;
+            this.previousDelay = previousDelay;
+        }
+
+        /**
+         * @return HTTP method of the request
+         */
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        /**
+         * @return Number of the retry about to be made, starting from 1
+         */
+        public int getRetryCount() {
+            return retryCount;
+        }
+
+        /**
+         * @return HTTP status code, or -1 if no response was received
+         */
+        public int getResponseCode() {
+            return responseCode;
+        }
+
+        /**
+         * @return Error code returned by the server, which may be null
+         */
+        public String getErrorCode() {
+            return errorCode;
+        }
+
+        /**
+         * @return Delay requested by the Retry-After header in milliseconds,
+         *         or -1 if the header is absent
+         */
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        /**
+         * @return Exception of the attempt if no response was received
+         */
+        public IOException getException() {
+            return exception;
+        }
+
+        /**
+         * @return Delay before the failed attempt in milliseconds, or 0 for
+         *         the first attempt
+         */
+        public long getPreviousDelay() {
+            return previousDelay;
+        }
+    }
+}
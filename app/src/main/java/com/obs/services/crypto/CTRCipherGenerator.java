@@ -41,6 +41,7 @@ public class CTRCipherGenerator {
     public static final String ENCRYPTED_ALGORITHM = "AES256-Ctr/iv_base64/NoPadding";
     public static final int CRYPTO_KEY_BYTES_LEN = 32;
     public static final int CRYPTO_IV_BYTES_LEN = 16;
+    public static final int AES_BLOCK_SIZE = 16;
     private String masterKeyInfo;
     private byte[] cryptoIvBytes;
     private byte[] cryptoKeyBytes;
@@ -150,6 +151,69 @@ public class CTRCipherGenerator {
         return new CipherInputStream(ciphertextInput, cipher);
     }
 
+    /**
+     * 从密文的指定偏移处开始解密：计数器按偏移所在的块递增，并丢弃块内偏移之前的密钥流
+     *
+     * @param ciphertextInput
+     *            从offset处开始的密文
+     * @param offset
+     *            密文在对象中的偏移
+     */
+    public CipherInputStream getAES256DecryptedStream(
+            InputStream ciphertextInput, byte[] object_CryptoIvBytes, byte[] object_CryptoKeyBytes, long offset)
+            throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+                    InvalidKeyException, NoSuchProviderException {
+        return new CipherInputStream(ciphertextInput,
+                getAesCipherAt(Cipher.DECRYPT_MODE, object_CryptoIvBytes, object_CryptoKeyBytes, offset));
+    }
+
+    /**
+     * 从明文的指定偏移处开始加密，用于分段加密：各分段按其在对象中的偏移加密后拼接，与整体加密的结果相同
+     *
+     * @param plaintextInput
+     *            从offset处开始的明文
+     * @param offset
+     *            明文在对象中的偏移
+     */
+    public CipherInputStream getAES256EncryptedStream(
+            InputStream plaintextInput, byte[] object_CryptoIvBytes, byte[] object_CryptoKeyBytes, long offset)
+            throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+                    InvalidKeyException, NoSuchProviderException {
+        return new CipherInputStream(plaintextInput,
+                getAesCipherAt(Cipher.ENCRYPT_MODE, object_CryptoIvBytes, object_CryptoKeyBytes, offset));
+    }
+
+    private static Cipher getAesCipherAt(int mode, byte[] object_CryptoIvBytes, byte[] object_CryptoKeyBytes,
+            long offset) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+                    InvalidKeyException, NoSuchProviderException {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset should not be negative");
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(object_CryptoKeyBytes, "AES");
+        IvParameterSpec ivSpec = new IvParameterSpec(getCounterIvBytes(object_CryptoIvBytes, offset / AES_BLOCK_SIZE));
+        Cipher cipher = getAesCipher();
+        cipher.init(mode, keySpec, ivSpec);
+        int blockOffset = (int) (offset % AES_BLOCK_SIZE);
+        if (blockOffset > 0) {
+            cipher.update(new byte[blockOffset]);
+        }
+        return cipher;
+    }
+
+    /**
+     * 计算第blockIndex个块的计数器：将初始值视为128位大端整数加上blockIndex，溢出时回绕
+     */
+    public static byte[] getCounterIvBytes(byte[] object_CryptoIvBytes, long blockIndex) {
+        byte[] counter = object_CryptoIvBytes.clone();
+        long carry = blockIndex;
+        for (int i = counter.length - 1; i >= 0 && carry != 0; i--) {
+            long sum = (counter[i] & 0xffL) + (carry & 0xffL);
+            counter[i] = (byte) sum;
+            carry = (carry >>> 8) + (sum >>> 8);
+        }
+        return counter;
+    }
+
     public CipherInputStream getAES256EncryptedStream(
             InputStream plaintextInput, byte[] object_CryptoIvBytes, byte[] object_CryptoKeyBytes)
             throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
@@ -318,5 +382,8 @@ public class CTRCipherGenerator {
     public static final String PLAINTEXT_SHA_256_META_NAME = "plaintext-sha256";
     public static final String PLAINTEXT_CONTENT_LENGTH_META_NAME = "plaintext-content-length";
     public static final String ENCRYPTED_SHA_256_META_NAME = "encrypted-sha256";
+    // 分段上传的对象无法得到整体的sha256，写入各分段sha256的组合值"hex(sha256(分段sha256...))-分段数"
+    public static final String PLAINTEXT_SHA_256_COMPOSITE_META_NAME = "plaintext-sha256-composite";
+    public static final String ENCRYPTED_SHA_256_COMPOSITE_META_NAME = "encrypted-sha256-composite";
     private static final ILogger log = LoggerBuilder.getLogger(CTRCipherGenerator.class);
 }
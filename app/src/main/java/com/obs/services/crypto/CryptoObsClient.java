@@ -30,18 +30,32 @@ import com.obs.services.internal.ObsConstraint;
 import com.obs.services.internal.ProgressManager;
 import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.SimpleProgressManager;
+import com.obs.services.internal.io.BoundedInputStream;
 import com.obs.services.internal.io.ProgressInputStream;
 import com.obs.services.internal.trans.NewTransResult;
 import com.obs.services.internal.utils.JSONChange;
 import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.model.AbortMultipartUploadRequest;
 import com.obs.services.model.AccessControlList;
 import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.CompleteMultipartUploadRequest;
+import com.obs.services.model.CompleteMultipartUploadResult;
+import com.obs.services.model.DownloadFileRequest;
+import com.obs.services.model.DownloadFileResult;
 import com.obs.services.model.GetObjectRequest;
+import com.obs.services.model.HeaderResponse;
+import com.obs.services.model.InitiateMultipartUploadRequest;
+import com.obs.services.model.InitiateMultipartUploadResult;
 import com.obs.services.model.ObjectMetadata;
 import com.obs.services.model.ObsObject;
+import com.obs.services.model.PartEtag;
 import com.obs.services.model.PutObjectRequest;
 import com.obs.services.model.PutObjectResult;
+import com.obs.services.model.SetObjectMetadataRequest;
 import com.obs.services.model.StorageClassEnum;
+import com.obs.services.model.UploadFileRequest;
+import com.obs.services.model.UploadPartRequest;
+import com.obs.services.model.UploadPartResult;
 import com.obs.services.model.fs.ObsFSAttribute;
 import com.obs.services.model.fs.ObsFSFile;
 import com.obs.services.model.fs.ReadFileResult;
@@ -49,23 +63,40 @@ import com.obs.services.model.fs.ReadFileResult;
 import okhttp3.Response;
 
 import java.io.BufferedInputStream;
-import java.io.Closeable;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.security.NoSuchProviderException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 
 public class CryptoObsClient extends ObsClient {
+    // 分段上传密钥在内存中的保留时长与数量上限，超出后后续分段无法再加密上传
+    private static final long MULTIPART_CONTEXT_EXPIRATION_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final int MAX_MULTIPART_CONTEXTS = 1024;
+
     private CTRCipherGenerator ctrCipherGenerator;
+    // uploadId -> 分段上传的密钥，完成、取消、过期或客户端关闭时移除
+    private final ConcurrentHashMap<String, MultipartEncryptionContext> multipartContexts =
+            new ConcurrentHashMap<String, MultipartEncryptionContext>();
     private static final ILogger log = LoggerBuilder.getLogger(CryptoObsClient.class);
 
     public CryptoObsClient(String endPoint, CTRCipherGenerator ctrCipherGenerator) {
@@ -211,28 +242,7 @@ public class CryptoObsClient extends ObsClient {
                 request.setInput(
                         ctrCipherGenerator.getAES256EncryptedStream(
                                 request.getInput(), object_CryptoIvBytes, object_CryptoKeyBytes));
-                ObjectMetadata objectMetadata = request.getMetadata();
-                // 设置加密信息的自定义头域
-                objectMetadata.addUserMetadata(ENCRYPTED_START_META_NAME, getBase64Info(object_CryptoIvBytes));
-                if (ctrCipherGenerator.getMasterKeyInfo() != null) {
-                    objectMetadata.addUserMetadata(
-                            CTRCipherGenerator.MASTER_KEY_INFO_META_NAME, ctrCipherGenerator.getMasterKeyInfo());
-                }
-                if (this.ctrCipherGenerator instanceof CtrRSACipherGenerator) {
-                    // 附件加密算法元数据信息
-                    objectMetadata.addUserMetadata(
-                            ENCRYPTED_ALGORITHM_META_NAME, CtrRSACipherGenerator.ENCRYPTED_ALGORITHM);
-                    // rsa 加密aesKey
-                    CtrRSACipherGenerator ctrRSACipherGenerator = (CtrRSACipherGenerator) ctrCipherGenerator;
-                    byte[] rsaEncryptedAESKey = ctrRSACipherGenerator.RSAEncrypted(object_CryptoKeyBytes);
-                    // 将加密后的aesKey附加到元数据
-                    objectMetadata.addUserMetadata(
-                            ENCRYPTED_AES_KEY_META_NAME, ServiceUtils.toBase64(rsaEncryptedAESKey));
-                } else {
-                    // 附件加密算法元数据信息
-                    objectMetadata.addUserMetadata(
-                            ENCRYPTED_ALGORITHM_META_NAME, CTRCipherGenerator.ENCRYPTED_ALGORITHM);
-                }
+                addEncryptionMetadata(request.getMetadata(), object_CryptoIvBytes, object_CryptoKeyBytes);
             }
             // 后面和普通上传一致
             result = this.transPutObjectRequest(request);
@@ -262,10 +272,8 @@ public class CryptoObsClient extends ObsClient {
                 | NoSuchProviderException e) {
             throw new ServiceException(e);
         } finally {
-            if (result != null && result.getBody() != null && request.isAutoClose()) {
-                if (result.getBody() instanceof Closeable) {
-                    ServiceUtils.closeStream((Closeable) result.getBody());
-                }
+            if (result != null) {
+                ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
             }
         }
 
@@ -296,6 +304,416 @@ public class CryptoObsClient extends ObsClient {
         return ret;
     }
 
+    /**
+     * Download an object in parallel by ranges and decrypt each part. The CRC64
+     * returned by the server is calculated over the ciphertext, so CRC64
+     * verification is not performed for this client.
+     */
+    @Override
+    public DownloadFileResult downloadFile(DownloadFileRequest downloadFileRequest) throws ObsException {
+        ServiceUtils.assertParameterNotNull(downloadFileRequest, "DownloadFileRequest is null");
+        boolean needCalculateCRC64 = downloadFileRequest.isNeedCalculateCRC64();
+        if (needCalculateCRC64 && ctrCipherGenerator != null) {
+            log.warn("CRC64 of the encrypted object can not be verified after decryption, skip it");
+            downloadFileRequest.setNeedCalculateCRC64(false);
+        }
+        try {
+            return super.downloadFile(downloadFileRequest);
+        } finally {
+            downloadFileRequest.setNeedCalculateCRC64(needCalculateCRC64);
+        }
+    }
+
+    /**
+     * Upload a file in parallel by parts, each part is encrypted at its offset in
+     * the object. The CRC64 returned by the server is calculated over the
+     * ciphertext, so CRC64 verification is not performed for this client.
+     */
+    @Override
+    public CompleteMultipartUploadResult uploadFile(UploadFileRequest uploadFileRequest) throws ObsException {
+        ServiceUtils.assertParameterNotNull(uploadFileRequest, "UploadFileRequest is null");
+        boolean needCalculateCRC64 = uploadFileRequest.isNeedCalculateCRC64();
+        boolean needStreamCalculateCRC64 = uploadFileRequest.isNeedStreamCalculateCRC64();
+        if ((needCalculateCRC64 || needStreamCalculateCRC64) && ctrCipherGenerator != null) {
+            log.warn("CRC64 of the plaintext can not be verified by the server after encryption, skip it");
+            uploadFileRequest.setNeedCalculateCRC64(false);
+            uploadFileRequest.setNeedStreamCalculateCRC64(false);
+        }
+        try {
+            return super.uploadFile(uploadFileRequest);
+        } finally {
+            uploadFileRequest.setNeedCalculateCRC64(needCalculateCRC64);
+            uploadFileRequest.setNeedStreamCalculateCRC64(needStreamCalculateCRC64);
+        }
+    }
+
+    @Override
+    protected InitiateMultipartUploadResult initiateMultipartUploadImpl(InitiateMultipartUploadRequest request)
+            throws ServiceException {
+        if (ctrCipherGenerator == null) {
+            return super.initiateMultipartUploadImpl(request);
+        }
+        if (request.getMetadata() == null) {
+            request.setMetadata(new ObjectMetadata());
+        }
+        byte[] object_CryptoIvBytes = getOrGenerateCryptoIvBytes();
+        byte[] object_CryptoKeyBytes = getOrGenerateCryptoKeyBytes();
+        try {
+            addEncryptionMetadata(request.getMetadata(), object_CryptoIvBytes, object_CryptoKeyBytes);
+        } catch (NoSuchPaddingException
+                | NoSuchAlgorithmException
+                | InvalidKeyException
+                | IllegalBlockSizeException
+                | BadPaddingException
+                | NoSuchProviderException e) {
+            throw new ServiceException(e);
+        }
+        InitiateMultipartUploadResult result = super.initiateMultipartUploadImpl(request);
+        // 保存本次上传的密钥，分段按其在对象中的偏移使用同一密钥流加密
+        putMultipartEncryptionContext(result.getUploadId(), new MultipartEncryptionContext(object_CryptoIvBytes,
+                object_CryptoKeyBytes, ctrCipherGenerator.isNeedSha256()));
+        return result;
+    }
+
+    /**
+     * 分段以明文上传后在服务端无法解密，因此按分段在对象中的偏移加密：
+     * 偏移为UploadPartRequest.getObjectOffset()，未设置时为分段在文件中的偏移getOffset()。
+     * 除分段1外偏移不能为0，否则各分段使用同一段密钥流加密，会泄露明文；同一上传中分段的范围也不能重叠。
+     * 需要sha256时，明文与密文的sha256在上传的同一次读取中计算。
+     */
+    @Override
+    protected UploadPartResult uploadPartImpl(UploadPartRequest request) throws ServiceException {
+        if (ctrCipherGenerator == null) {
+            return super.uploadPartImpl(request);
+        }
+        MultipartEncryptionContext context = getMultipartEncryptionContext(request.getUploadId());
+        File file = request.getFile();
+        InputStream originalInput = request.getInput();
+        Long originalPartSize = request.getPartSize();
+        long originalOffset = request.getOffset();
+        boolean originalAttachMd5 = request.isAttachMd5();
+        boolean originalNeedCalculateCRC64 = request.isNeedCalculateCRC64();
+
+        long fileOffset = request.getOffset();
+        long partSize = originalPartSize == null ? -1L : originalPartSize;
+        if (file == null && originalInput == null) {
+            throw new IllegalArgumentException("file and input are both null");
+        }
+        if (fileOffset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (file != null) {
+            long fileSize = file.length();
+            if (fileOffset > 0 && fileOffset >= fileSize) {
+                throw new IllegalArgumentException("offset " + fileOffset + " is out of the range of " + file);
+            }
+            partSize = (partSize > 0 && partSize <= (fileSize - fileOffset)) ? partSize : fileSize - fileOffset;
+        }
+        long offset = getObjectOffset(request);
+        context.reservePart(request.getPartNumber(), offset, partSize);
+
+        InputStream plaintext;
+        try {
+            if (file != null) {
+                plaintext = new FileInputStream(file);
+                long skipped = 0;
+                while (skipped < fileOffset) {
+                    long n = plaintext.skip(fileOffset - skipped);
+                    if (n <= 0) {
+                        ServiceUtils.closeStream(plaintext);
+                        throw new IOException("Failed to skip to offset " + fileOffset + " of " + file);
+                    }
+                    skipped += n;
+                }
+            } else {
+                plaintext = originalInput;
+            }
+        } catch (IOException e) {
+            throw new ServiceException(e);
+        }
+        // 密文流会预读，限制明文流只读取当前分段；长度未知时用于统计分段的实际长度
+        BoundedInputStream boundedPlaintext = new BoundedInputStream(plaintext,
+                partSize >= 0 ? partSize : Long.MAX_VALUE);
+        plaintext = boundedPlaintext;
+
+        DigestInputStream plaintextDigest = null;
+        DigestInputStream encryptedDigest = null;
+        try {
+            if (context.needSha256) {
+                plaintextDigest = new DigestInputStream(plaintext, MessageDigest.getInstance("SHA-256"));
+                plaintext = plaintextDigest;
+            }
+            InputStream encrypted = ctrCipherGenerator.getAES256EncryptedStream(
+                    plaintext, context.iv, context.key, offset);
+            if (context.needSha256) {
+                encryptedDigest = new DigestInputStream(encrypted, MessageDigest.getInstance("SHA-256"));
+                encrypted = encryptedDigest;
+            }
+            request.setFile(null);
+            request.setInput(encrypted);
+            request.setPartSize(partSize >= 0 ? partSize : null);
+            // 请求头中的MD5与CRC64需在上传前对明文预读计算，与密文不符
+            request.setAttachMd5(false);
+            request.setNeedCalculateCRC64(false);
+
+            UploadPartResult result = super.uploadPartImpl(request);
+            if (partSize < 0) {
+                context.completePart(request.getPartNumber(), offset,
+                        Long.MAX_VALUE - boundedPlaintext.getRemaining());
+            }
+            if (plaintextDigest != null && encryptedDigest != null) {
+                context.recordPart(request.getPartNumber(), plaintextDigest.getMessageDigest().digest(),
+                        encryptedDigest.getMessageDigest().digest());
+            }
+            return result;
+        } catch (InvalidAlgorithmParameterException
+                | NoSuchPaddingException
+                | NoSuchAlgorithmException
+                | InvalidKeyException
+                | NoSuchProviderException e) {
+            throw new ServiceException(e);
+        } finally {
+            if (file != null) {
+                // 文件分段的流由本方法打开，无论autoClose如何都需关闭
+                ServiceUtils.closeStream(plaintext);
+            }
+            // setFile与setInput会互相清空，只恢复原先设置的一个
+            if (file != null) {
+                request.setFile(file);
+            } else {
+                request.setInput(originalInput);
+            }
+            request.setPartSize(originalPartSize);
+            request.setOffset(originalOffset);
+            request.setAttachMd5(originalAttachMd5);
+            request.setNeedCalculateCRC64(originalNeedCalculateCRC64);
+        }
+    }
+
+    @Override
+    protected CompleteMultipartUploadResult completeMultipartUploadImpl(CompleteMultipartUploadRequest request)
+            throws ServiceException {
+        CompleteMultipartUploadResult result = super.completeMultipartUploadImpl(request);
+        MultipartEncryptionContext context = multipartContexts.remove(request.getUploadId());
+        if (context != null && context.needSha256) {
+            foldSha256Metadata(request, context, result);
+        }
+        return result;
+    }
+
+    @Override
+    protected HeaderResponse abortMultipartUploadImpl(AbortMultipartUploadRequest request) throws ServiceException {
+        HeaderResponse response = super.abortMultipartUploadImpl(request);
+        multipartContexts.remove(request.getUploadId());
+        return response;
+    }
+
+    private static long getObjectOffset(UploadPartRequest request) {
+        Long objectOffset = request.getObjectOffset();
+        if (objectOffset != null) {
+            if (objectOffset < 0) {
+                throw new IllegalArgumentException("objectOffset must not be negative");
+            }
+            return objectOffset;
+        }
+        if (request.getOffset() > 0) {
+            return request.getOffset();
+        }
+        if (request.getPartNumber() != 1) {
+            throw new IllegalArgumentException("objectOffset of part " + request.getPartNumber()
+                    + " must be set, otherwise the part is encrypted with the keystream of part 1");
+        }
+        return 0;
+    }
+
+    private MultipartEncryptionContext getMultipartEncryptionContext(String uploadId) throws ServiceException {
+        MultipartEncryptionContext context = multipartContexts.get(uploadId);
+        if (context != null) {
+            if (!context.isExpired(System.currentTimeMillis())) {
+                return context;
+            }
+            multipartContexts.remove(uploadId, context);
+        }
+        // 其他客户端实例发起的上传：仅当使用固定的密钥与初始值时可以继续加密
+        if (!(ctrCipherGenerator instanceof CtrRSACipherGenerator) && ctrCipherGenerator.getCryptoIvBytes() != null
+                && ctrCipherGenerator.getCryptoKeyBytes() != null) {
+            return putMultipartEncryptionContext(uploadId, new MultipartEncryptionContext(
+                    ctrCipherGenerator.getCryptoIvBytes(), ctrCipherGenerator.getCryptoKeyBytes(), false));
+        }
+        throw new ServiceException("The encryption key of upload " + uploadId
+                + " is unknown or has expired, the upload must be initiated by this client");
+    }
+
+    /**
+     * 保存分段上传的密钥，同时移除过期的密钥；数量超出上限时移除最早发起的上传
+     */
+    private MultipartEncryptionContext putMultipartEncryptionContext(String uploadId,
+            MultipartEncryptionContext context) {
+        MultipartEncryptionContext existing = multipartContexts.putIfAbsent(uploadId, context);
+        if (existing != null) {
+            return existing;
+        }
+        long now = System.currentTimeMillis();
+        String oldestUploadId = null;
+        long oldestCreatedMillis = Long.MAX_VALUE;
+        for (Map.Entry<String, MultipartEncryptionContext> entry : multipartContexts.entrySet()) {
+            MultipartEncryptionContext value = entry.getValue();
+            if (value.isExpired(now)) {
+                multipartContexts.remove(entry.getKey(), value);
+            } else if (value != context && value.createdMillis < oldestCreatedMillis) {
+                oldestUploadId = entry.getKey();
+                oldestCreatedMillis = value.createdMillis;
+            }
+        }
+        if (multipartContexts.size() > MAX_MULTIPART_CONTEXTS && oldestUploadId != null) {
+            log.warn("too many multipart uploads in progress, discard the encryption key of upload "
+                    + oldestUploadId);
+            multipartContexts.remove(oldestUploadId);
+        }
+        return context;
+    }
+
+    /**
+     * 关闭客户端时丢弃尚未完成的分段上传的密钥
+     */
+    @Override
+    public void close() throws IOException {
+        multipartContexts.clear();
+        super.close();
+    }
+
+    /**
+     * 将各分段sha256按分段号顺序拼接后再计算sha256，以"hex-分段数"的形式写入对象元数据。
+     * 组合值不是整个对象的sha256，因此写入单独的元数据，不使用putObject所写的plaintext-sha256与encrypted-sha256
+     */
+    private void foldSha256Metadata(CompleteMultipartUploadRequest request, MultipartEncryptionContext context,
+            CompleteMultipartUploadResult result) {
+        List<PartEtag> partEtags = new ArrayList<PartEtag>(request.getPartEtag());
+        Collections.sort(partEtags, new Comparator<PartEtag>() {
+            @Override
+            public int compare(PartEtag o1, PartEtag o2) {
+                return o1.getPartNumber().compareTo(o2.getPartNumber());
+            }
+        });
+        String plaintextSha256 = context.getCompositeSha256(partEtags, true);
+        String encryptedSha256 = context.getCompositeSha256(partEtags, false);
+        if (plaintextSha256 == null || encryptedSha256 == null) {
+            log.warn("sha256 of some parts are not calculated by this client, skip sha256 metadata");
+            return;
+        }
+        SetObjectMetadataRequest metadataRequest = new SetObjectMetadataRequest(request.getBucketName(),
+                request.getObjectKey(), result.getVersionId());
+        metadataRequest.setRequesterPays(request.isRequesterPays());
+        metadataRequest.setRemoveUnset(false);
+        metadataRequest.addUserMetadata(CTRCipherGenerator.PLAINTEXT_SHA_256_COMPOSITE_META_NAME, plaintextSha256);
+        metadataRequest.addUserMetadata(CTRCipherGenerator.ENCRYPTED_SHA_256_COMPOSITE_META_NAME, encryptedSha256);
+        try {
+            this.setObjectMetadataImpl(metadataRequest);
+        } catch (ServiceException e) {
+            log.warn("set sha256 metadata of " + request.getObjectKey() + " failed", e);
+        }
+    }
+
+    private void addEncryptionMetadata(ObjectMetadata objectMetadata, byte[] object_CryptoIvBytes,
+            byte[] object_CryptoKeyBytes) throws NoSuchPaddingException, NoSuchAlgorithmException,
+            InvalidKeyException, IllegalBlockSizeException, BadPaddingException, NoSuchProviderException {
+        // 设置加密信息的自定义头域
+        objectMetadata.addUserMetadata(ENCRYPTED_START_META_NAME, getBase64Info(object_CryptoIvBytes));
+        if (ctrCipherGenerator.getMasterKeyInfo() != null) {
+            objectMetadata.addUserMetadata(
+                    CTRCipherGenerator.MASTER_KEY_INFO_META_NAME, ctrCipherGenerator.getMasterKeyInfo());
+        }
+        if (this.ctrCipherGenerator instanceof CtrRSACipherGenerator) {
+            // 附件加密算法元数据信息
+            objectMetadata.addUserMetadata(
+                    ENCRYPTED_ALGORITHM_META_NAME, CtrRSACipherGenerator.ENCRYPTED_ALGORITHM);
+            // rsa 加密aesKey
+            CtrRSACipherGenerator ctrRSACipherGenerator = (CtrRSACipherGenerator) ctrCipherGenerator;
+            byte[] rsaEncryptedAESKey = ctrRSACipherGenerator.RSAEncrypted(object_CryptoKeyBytes);
+            // 将加密后的aesKey附加到元数据
+            objectMetadata.addUserMetadata(
+                    ENCRYPTED_AES_KEY_META_NAME, ServiceUtils.toBase64(rsaEncryptedAESKey));
+        } else {
+            // 附件加密算法元数据信息
+            objectMetadata.addUserMetadata(
+                    ENCRYPTED_ALGORITHM_META_NAME, CTRCipherGenerator.ENCRYPTED_ALGORITHM);
+        }
+    }
+
+    private static final class MultipartEncryptionContext {
+        private final byte[] iv;
+
+        private final byte[] key;
+
+        private final boolean needSha256;
+
+        private final long createdMillis = System.currentTimeMillis();
+
+        // 分段号 -> {明文sha256, 密文sha256}
+        private final ConcurrentHashMap<Integer, byte[][]> partDigests = new ConcurrentHashMap<Integer, byte[][]>();
+
+        // 分段号 -> 分段在对象中的范围[start, end)
+        private final Map<Integer, long[]> partRanges = new HashMap<Integer, long[]>();
+
+        MultipartEncryptionContext(byte[] iv, byte[] key, boolean needSha256) {
+            this.iv = iv;
+            this.key = key;
+            this.needSha256 = needSha256;
+        }
+
+        boolean isExpired(long now) {
+            return now - this.createdMillis > MULTIPART_CONTEXT_EXPIRATION_MILLIS;
+        }
+
+        /**
+         * 登记分段在对象中的范围，与其他分段重叠时抛出异常；同一分段重新上传时替换原有范围。
+         * 长度未知时先只登记起始位置，上传完成后由completePart补全
+         */
+        synchronized void reservePart(int partNumber, long start, long length) {
+            long end = length >= 0 ? start + length : start + 1;
+            checkOverlap(partNumber, start, end);
+            this.partRanges.put(partNumber, new long[] {start, end});
+        }
+
+        synchronized void completePart(int partNumber, long start, long length) {
+            long end = start + Math.max(length, 1);
+            this.partRanges.put(partNumber, new long[] {start, end});
+            // 密文已发送，只能通知调用方放弃本次上传
+            checkOverlap(partNumber, start, end);
+        }
+
+        private void checkOverlap(int partNumber, long start, long end) {
+            for (Map.Entry<Integer, long[]> entry : this.partRanges.entrySet()) {
+                long[] range = entry.getValue();
+                if (entry.getKey() != partNumber && start < range[1] && range[0] < end) {
+                    throw new IllegalArgumentException("part " + partNumber + " [" + start + ", " + end
+                            + ") overlaps part " + entry.getKey() + " [" + range[0] + ", " + range[1]
+                            + ") in the object, the keystream would be reused");
+                }
+            }
+        }
+
+        void recordPart(int partNumber, byte[] plaintextSha256, byte[] encryptedSha256) {
+            this.partDigests.put(partNumber, new byte[][] {plaintextSha256, encryptedSha256});
+        }
+
+        String getCompositeSha256(List<PartEtag> partEtags, boolean plaintext) {
+            try {
+                MessageDigest composite = MessageDigest.getInstance("SHA-256");
+                for (PartEtag partEtag : partEtags) {
+                    byte[][] digests = this.partDigests.get(partEtag.getPartNumber());
+                    if (digests == null) {
+                        return null;
+                    }
+                    composite.update(plaintext ? digests[0] : digests[1]);
+                }
+                return ServiceUtils.toHex(composite.digest()) + "-" + partEtags.size();
+            } catch (NoSuchAlgorithmException e) {
+                throw new ServiceException(e);
+            }
+        }
+    }
+
     @Override
     public ObsObject getObject(final GetObjectRequest request) throws ObsException {
         ServiceUtils.assertParameterNotNull(request, "GetObjectRequest is null");
@@ -318,6 +736,13 @@ public class CryptoObsClient extends ObsClient {
         if (request.getRequestParameters() != null) {
             result.getParams().putAll(request.getRequestParameters());
         }
+        Long rangeStart = request.getRangeStart();
+        if (ctrCipherGenerator != null && rangeStart != null && rangeStart % CTRCipherGenerator.AES_BLOCK_SIZE != 0) {
+            // 从起始偏移所在块的边界开始下载，解密后丢弃块内偏移之前的数据
+            long alignedStart = rangeStart - rangeStart % CTRCipherGenerator.AES_BLOCK_SIZE;
+            result.getHeaders().put(Constants.CommonHeaders.RANGE, "bytes=" + alignedStart + "-"
+                    + (request.getRangeEnd() == null ? "" : String.valueOf(request.getRangeEnd())));
+        }
         response =
                 performRestGet(
                         request.getBucketName(),
@@ -331,6 +756,13 @@ public class CryptoObsClient extends ObsClient {
         ObsFSAttribute objMetadata =
                 this.getObsFSAttributeFromResponse(request.getBucketName(), response, request.isEncodeHeaders());
 
+        // 响应数据在对象中的实际偏移，对于后缀范围（bytes=-n）只能从响应中得到
+        long contentOffset = getContentOffset(response);
+        long discardLength = rangeStart == null ? 0 : Math.max(0, rangeStart - contentOffset);
+        if (discardLength > 0 && objMetadata.getContentLength() != null) {
+            objMetadata.setContentLength(Math.max(0, objMetadata.getContentLength() - discardLength));
+        }
+
         ReadFileResult obsObject = new ReadFileResult();
         obsObject.setObjectKey(request.getObjectKey());
         obsObject.setBucketName(request.getBucketName());
@@ -388,10 +820,10 @@ public class CryptoObsClient extends ObsClient {
                 try {
                     byte[] iv = CTRCipherGenerator.getBytesFromBase64(encryptedStart);
 
-                    // 设置解密流
+                    // 设置解密流，范围下载时计数器从数据的实际偏移处开始
                     obsObject.setObjectContent(
                             ctrCipherGenerator.getAES256DecryptedStream(
-                                    response.body().byteStream(), iv, cryptoKeyBytes));
+                                    getObjectContent(request, response), iv, cryptoKeyBytes, contentOffset));
                 } catch (UnsupportedEncodingException
                         | InvalidAlgorithmParameterException
                         | NoSuchPaddingException
@@ -402,11 +834,14 @@ public class CryptoObsClient extends ObsClient {
                 }
             } else {
                 log.warn("no encrypted-algorithm metadata received");
-                obsObject.setObjectContent(response.body().byteStream());
+                obsObject.setObjectContent(getObjectContent(request, response));
             }
         } else {
             log.warn("CipherGenerator is null");
-            obsObject.setObjectContent(response.body().byteStream());
+            obsObject.setObjectContent(getObjectContent(request, response));
+        }
+        if (discardLength > 0) {
+            discard(obsObject.getObjectContent(), discardLength);
         }
         if (request.getProgressListener() != null) {
             ProgressManager progressManager =
@@ -428,6 +863,23 @@ public class CryptoObsClient extends ObsClient {
         return obsObject;
     }
 
+    private static void discard(InputStream input, long length) throws ServiceException {
+        byte[] buffer = new byte[(int) Math.min(length, ObsConstraint.DEFAULT_CHUNK_SIZE)];
+        long remaining = length;
+        try {
+            while (remaining > 0) {
+                int bytesRead = input.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+                if (bytesRead < 0) {
+                    break;
+                }
+                remaining -= bytesRead;
+            }
+        } catch (IOException e) {
+            ServiceUtils.closeStream(input);
+            throw new ServiceException(e);
+        }
+    }
+
     public boolean isValidEncryptedAlgorithm(String encryptedAlgorithm) {
         return encryptedAlgorithm != null && (encryptedAlgorithm.equals(CtrRSACipherGenerator.ENCRYPTED_ALGORITHM)
                 || encryptedAlgorithm.equals(CTRCipherGenerator.ENCRYPTED_ALGORITHM));
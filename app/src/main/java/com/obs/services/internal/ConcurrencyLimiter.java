@@ -0,0 +1,334 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 并发请求数限制。
+ * 固定模式下等同于容量为maxLimit的信号量；自适应模式下按AIMD调整上限：
+ * 请求时延未明显高于长期平均且并发已用到上限一半以上时，上限每轮增加1；
+ * 收到限流响应（503/429/SlowDown）、超时或时延超过长期平均的tolerance倍时，上限乘以backoffRatio。
+ * 异步请求通过acquireAsync排队等待许可，不占用线程，许可在release时按排队顺序分配。
+ */
+public class ConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    // 长期平均时延的平滑系数
+    private static final double LONG_RTT_ALPHA = 0.01;
+
+    // 收集到该数量的时延样本后才根据时延降低上限
+    private static final int WARMUP_SAMPLES = 20;
+
+    private final String name;
+
+    private final boolean adaptive;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition available = this.lock.newCondition();
+
+    private double limit;
+
+    private int inflight;
+
+    private int waiting;
+
+    // 异步等待许可的请求
+    private final ArrayDeque<AsyncWaiter> asyncWaiters = new ArrayDeque<AsyncWaiter>();
+
+    private double longRttNanos;
+
+    private long samples;
+
+    private final AtomicLong acquiredCount = new AtomicLong();
+
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /**
+     * @param name
+     *            限制的对象，如域名
+     * @param adaptive
+     *            是否自适应调整上限
+     * @param initialLimit
+     *            初始上限，固定模式下不使用
+     */
+    public ConcurrencyLimiter(String name, boolean adaptive, int minLimit, int maxLimit, int initialLimit) {
+        this.name = name;
+        this.adaptive = adaptive;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.limit = adaptive ? Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit)) : this.maxLimit;
+    }
+
+    /**
+     * 获取一个并发许可
+     *
+     * @param timeoutMillis
+     *            最长等待时间，不大于0时一直等待
+     * @return 超时未获取到许可时返回false
+     */
+    public boolean acquire(long timeoutMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        this.lock.lockInterruptibly();
+        try {
+            if (this.inflight >= currentLimit()) {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                this.waiting++;
+                try {
+                    while (this.inflight >= currentLimit()) {
+                        if (timeoutMillis <= 0) {
+                            this.available.await();
+                        } else if (remaining <= 0) {
+                            this.timeoutCount.incrementAndGet();
+                            return false;
+                        } else {
+                            remaining = this.available.awaitNanos(remaining);
+                        }
+                    }
+                } finally {
+                    this.waiting--;
+                }
+            }
+            this.inflight++;
+        } finally {
+            this.lock.unlock();
+        }
+        recordWait(System.nanoTime() - start);
+        return true;
+    }
+
+    /**
+     * 异步获取一个并发许可，不阻塞调用线程
+     *
+     * @param timeoutMillis
+     *            最长等待时间，不大于0时一直等待
+     * @param maxWaiters
+     *            最多排队等待的异步请求数，已满时立即返回false
+     * @param timer
+     *            用于等待超时的定时器
+     * @return 获取到许可时以true完成，超时或排队已满时以false完成
+     */
+    public CompletableFuture<Boolean> acquireAsync(long timeoutMillis, int maxWaiters,
+            ScheduledExecutorService timer) {
+        final AsyncWaiter waiter;
+        this.lock.lock();
+        try {
+            if (this.inflight < currentLimit() && this.asyncWaiters.isEmpty()) {
+                this.inflight++;
+                waiter = null;
+            } else if (this.asyncWaiters.size() >= maxWaiters) {
+                this.timeoutCount.incrementAndGet();
+                return CompletableFuture.completedFuture(Boolean.FALSE);
+            } else {
+                waiter = new AsyncWaiter(System.nanoTime());
+                this.asyncWaiters.add(waiter);
+                this.waiting++;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        if (waiter == null) {
+            recordWait(0);
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+        if (timeoutMillis > 0) {
+            try {
+                timer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (removeWaiter(waiter)) {
+                            ConcurrencyLimiter.this.timeoutCount.incrementAndGet();
+                            waiter.future.complete(Boolean.FALSE);
+                        }
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                if (removeWaiter(waiter)) {
+                    waiter.future.completeExceptionally(e);
+                }
+            }
+        }
+        return waiter.future;
+    }
+
+    private boolean removeWaiter(AsyncWaiter waiter) {
+        this.lock.lock();
+        try {
+            if (this.asyncWaiters.remove(waiter)) {
+                this.waiting--;
+                return true;
+            }
+            return false;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 归还许可并反馈请求结果
+     *
+     * @param rttNanos
+     *            请求耗时，小于0表示不作为时延样本
+     * @param overloaded
+     *            服务端限流或请求超时
+     */
+    public void release(long rttNanos, boolean overloaded) {
+        List<AsyncWaiter> granted = null;
+        this.lock.lock();
+        try {
+            this.inflight--;
+            if (this.adaptive) {
+                adjust(rttNanos, overloaded);
+            }
+            while (!this.asyncWaiters.isEmpty() && this.inflight < currentLimit()) {
+                if (granted == null) {
+                    granted = new ArrayList<AsyncWaiter>();
+                }
+                granted.add(this.asyncWaiters.poll());
+                this.waiting--;
+                this.inflight++;
+            }
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        // 在锁外完成，避免后续阶段在持有锁时执行
+        if (granted != null) {
+            long now = System.nanoTime();
+            for (AsyncWaiter waiter : granted) {
+                recordWait(now - waiter.enqueueNanos);
+                waiter.future.complete(Boolean.TRUE);
+            }
+        }
+    }
+
+    private void adjust(long rttNanos, boolean overloaded) {
+        if (overloaded) {
+            this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+            return;
+        }
+        if (rttNanos < 0) {
+            return;
+        }
+        this.samples++;
+        if (this.longRttNanos == 0) {
+            this.longRttNanos = rttNanos;
+        } else {
+            this.longRttNanos += (rttNanos - this.longRttNanos) * LONG_RTT_ALPHA;
+        }
+        if (this.samples > WARMUP_SAMPLES && rttNanos > this.longRttNanos * LATENCY_TOLERANCE) {
+            this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+        } else if (this.inflight + 1 >= this.limit / 2) {
+            // 每个许可完成一次加1/limit，即每轮约加1
+            this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+        }
+    }
+
+    private int currentLimit() {
+        return (int) this.limit;
+    }
+
+    private void recordWait(long waitNanos) {
+        this.acquiredCount.incrementAndGet();
+        this.totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = this.maxWaitNanos.get())) {
+            if (this.maxWaitNanos.compareAndSet(max, waitNanos)) {
+                break;
+            }
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isAdaptive() {
+        return this.adaptive;
+    }
+
+    public int getLimit() {
+        this.lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getInflight() {
+        this.lock.lock();
+        try {
+            return this.inflight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getQueueLength() {
+        this.lock.lock();
+        try {
+            return this.waiting;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getAcquiredCount() {
+        return this.acquiredCount.get();
+    }
+
+    public long getTotalWaitNanos() {
+        return this.totalWaitNanos.get();
+    }
+
+    public long getMaxWaitNanos() {
+        return this.maxWaitNanos.get();
+    }
+
+    public long getTimeoutCount() {
+        return this.timeoutCount.get();
+    }
+
+    private static final class AsyncWaiter {
+        private final long enqueueNanos;
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
+
+        AsyncWaiter(long enqueueNanos) {
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.obs.services.model.ProgressStatus;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ConcurrentProgressManager extends ProgressManager {
 
@@ -28,6 +29,8 @@ public class ConcurrentProgressManager extends ProgressManager {
     protected AtomicLong lastSecondBytes;
     protected AtomicLong currentSecondBytes;
     protected AtomicLong lastSwapTimeStamp;
+    // 回调用户监听器时持有，使用ReentrantLock避免虚拟线程在回调期间占住载体线程
+    private final ReentrantLock endLock = new ReentrantLock();
 
     public ConcurrentProgressManager(long totalBytes, long transferredBytes, ProgressListener progressListener,
                                      long intervalBytes) {
@@ -51,12 +54,15 @@ public class ConcurrentProgressManager extends ProgressManager {
         if (this.progressListener == null) {
             return;
         }
-        synchronized (this) {
+        endLock.lock();
+        try {
             long now = System.currentTimeMillis();
             ProgressStatus status = new DefaultProgressStatus(this.newlyTransferredBytes.get(),
                     this.transferredBytes.get(), this.totalBytes, now - this.lastCheckpoint,
                     now - this.startCheckpoint);
             this.progressListener.progressChanged(status);
+        } finally {
+            endLock.unlock();
         }
     }
 
@@ -52,6 +52,8 @@ public class Constants {
 
         public static final String LOCATION = "Location";
 
+        public static final String RETRY_AFTER = "Retry-After";
+
         public static final String ACCESS_CONTROL_REQUEST_HEADERS = "Access-Control-Request-Headers";
         public static final String ACCESS_CONTROL_REQUEST_METHOD = "Access-Control-Request-Method";
 
@@ -87,6 +89,8 @@ public class Constants {
 
         public static final String RANGE = "Range";
 
+        public static final String CONTENT_RANGE = "Content-Range";
+
         public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
 
         public static final String IF_UNMODIFIED_SINCE = "If-Unmodified-Since";
@@ -19,10 +19,14 @@ import com.obs.log.LoggerBuilder;
 import com.obs.services.AbstractClient;
 import com.obs.services.exception.ObsException;
 import com.obs.services.internal.io.ProgressInputStream;
+import com.obs.services.internal.task.PartScheduler;
 import com.obs.services.internal.utils.CRC64;
 import com.obs.services.internal.utils.CRC64InputStream;
+import com.obs.services.internal.utils.CallCancelHandler;
+import com.obs.services.internal.utils.CheckPointJournal;
 import com.obs.services.internal.utils.SecureObjectInputStream;
 import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.internal.utils.TransferCancelHandler;
 import com.obs.services.model.DownloadFileRequest;
 import com.obs.services.model.DownloadFileResult;
 import com.obs.services.model.GetObjectMetadataRequest;
@@ -31,27 +35,27 @@ import com.obs.services.model.MonitorableProgressListener;
 import com.obs.services.model.ObjectMetadata;
 import com.obs.services.model.ObsObject;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 import static com.obs.services.internal.Constants.CommonHeaders.HASH_CRC64ECMA;
 import static com.obs.services.internal.Constants.CommonHeaders.INVALID_CRC_64;
@@ -149,7 +153,12 @@ public class DownloadResumableClient {
         }
 
         // 并发下载分片
-        DownloadResult downloadResult = this.download(downloadCheckPoint, downloadFileRequest);
+        DownloadResult downloadResult;
+        try {
+            downloadResult = this.download(downloadCheckPoint, downloadFileRequest);
+        } finally {
+            downloadCheckPoint.closeJournal();
+        }
         checkDownloadResult(downloadFileRequest, downloadCheckPoint, downloadResult);
         // 重命名临时文件
         renameTo(downloadFileRequest.getTempDownloadFile(), downloadFileRequest.getDownloadFile());
@@ -307,14 +316,15 @@ public class DownloadResumableClient {
             final DownloadFileRequest downloadFileRequest) throws Exception {
         ArrayList<PartResultDown> taskResults = new ArrayList<PartResultDown>();
         DownloadResult downloadResult = new DownloadResult();
-        ArrayList<Future<PartResultDown>> futures = new ArrayList<Future<PartResultDown>>();
+        final TransferCancelHandler cancelHandler = new TransferCancelHandler(downloadFileRequest.getCancelHandler());
 
-        List<Task> unfinishedTasks = new LinkedList<Task>();
+        List<Task> unfinishedTasks = new ArrayList<Task>();
         long transferredBytes = 0L;
         for (int i = 0; i < downloadCheckPoint.downloadParts.size(); i++) {
             DownloadPart downloadPart = downloadCheckPoint.downloadParts.get(i);
             if (!downloadPart.isCompleted) {
                 Task task = new Task(i, "download-" + i, downloadCheckPoint, i, downloadFileRequest, this.obsClient);
+                task.setCancelHandler(cancelHandler);
                 unfinishedTasks.add(task);
             } else {
                 transferredBytes += downloadPart.end - downloadPart.offset + 1;
@@ -328,47 +338,48 @@ public class DownloadResumableClient {
                     downloadFileRequest.getProgressListener(), downloadFileRequest.getProgressInterval() > 0
                             ? downloadFileRequest.getProgressInterval() : ObsConstraint.DEFAULT_PROGRESS_INTERVAL);
         }
-
-        if (downloadFileRequest.getTaskNum() == 1) {
-            for (Task task : unfinishedTasks) {
-                task.setProgressManager(progressManager);
-                taskResults.add(task.call());
-            }
-            downloadResult.setPartResults(taskResults);
-            if (progressManager != null) {
-                progressManager.progressEnd();
-            }
-            return downloadResult;
-        }
-
-        ExecutorService service = Executors.newFixedThreadPool(downloadFileRequest.getTaskNum());
         for (Task task : unfinishedTasks) {
             task.setProgressManager(progressManager);
-            futures.add(service.submit(task));
         }
 
-        service.shutdown();
-        List<Runnable> notStartTasks = null;
-        try {
-            service.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
-        } catch (InterruptedException ie) {
-            notStartTasks = service.shutdownNow();
-            Thread.currentThread().interrupt();
-            throw ie;
-        } finally {
-            if (null != notStartTasks) {
+        Predicate<PartResultDown> fatalChecker = new Predicate<PartResultDown>() {
+            @Override
+            public boolean test(PartResultDown partResult) {
+                return partResult.isFailed() && (downloadCheckPoint.isAbort
+                        || !downloadFileRequest.isEnableCheckpoint() || cancelHandler.isCancelled());
+            }
+        };
+
+        if (downloadFileRequest.getTaskNum() == 1) {
+            for (Task task : unfinishedTasks) {
+                PartResultDown tr = task.call();
+                taskResults.add(tr);
+                if (fatalChecker.test(tr)) {
+                    break;
+                }
+            }
+        } else {
+            // 分段按并发窗口逐个提交，出现致命错误后不再提交剩余分段，并中断在途分段的读取
+            PartScheduler<PartResultDown> partScheduler = new PartScheduler<PartResultDown>(
+                    this.obsClient.getTransferScheduler().openSession(downloadFileRequest.getTaskNum()),
+                    downloadFileRequest.getTaskNum(), fatalChecker, new Runnable() {
+                        @Override
+                        public void run() {
+                            cancelHandler.cancel();
+                        }
+                    });
+            try {
+                taskResults.addAll(partScheduler.execute(unfinishedTasks.iterator()));
+            } catch (InterruptedException ie) {
                 if (log.isWarnEnabled()) {
-                    log.warn("there are still " + notStartTasks.size() + " tasks not started for request : "
+                    log.warn("download interrupted, unfinished parts are cancelled for request : "
                             + downloadFileRequest);
                 }
+                Thread.currentThread().interrupt();
+                throw ie;
             }
         }
 
-        for (Future<PartResultDown> future : futures) {
-            PartResultDown tr = future.get();
-            taskResults.add(tr);
-        }
-
         downloadResult.setPartResults(taskResults);
         if (progressManager != null) {
             progressManager.progressEnd();
@@ -386,6 +397,7 @@ public class DownloadResumableClient {
         private final DownloadFileRequest downloadFileRequest;
         private AbstractClient obsClient;
         private ProgressManager progressManager;
+        private CallCancelHandler cancelHandler;
 
         public Task(int id, String name, DownloadCheckPoint downloadCheckPoint, int partIndex,
                 DownloadFileRequest downloadFileRequest, AbstractClient obsClient) {
@@ -402,6 +414,7 @@ public class DownloadResumableClient {
             this.partIndex = partIndex;
             this.downloadFileRequest = downloadFileRequest;
             this.obsClient = obsClient;
+            this.cancelHandler = downloadFileRequest.getCancelHandler();
         }
 
         @Override
@@ -413,6 +426,11 @@ public class DownloadResumableClient {
                 tr.setFailed(true);
                 return tr;
             }
+
+            if (isCancelled()) {
+                signPartResultFailed(tr, new ObsException("download part " + partIndex + " is cancelled"));
+                return tr;
+            }
             
             RandomAccessFile output = null;
             InputStream content = null;
@@ -431,6 +449,7 @@ public class DownloadResumableClient {
 
                 GetObjectRequest getObjectRequest = createNewGetObjectRequest(downloadFileRequest, downloadPart);
                 getObjectRequest.setIsEncodeHeaders(downloadFileRequest.isEncodeHeaders());
+                getObjectRequest.setCancelHandler(cancelHandler);
 
                 ObsObject object = obsClient.getObject(getObjectRequest);
                 content = object.getObjectContent();
@@ -439,14 +458,15 @@ public class DownloadResumableClient {
                 }
                 byte[] buffer = new byte[ObsConstraint.DEFAULT_CHUNK_SIZE];
                 int bytesOffset;
+                InputStream input = content;
                 if (this.progressManager != null) {
                     progressContent = new ProgressInputStream(content, this.progressManager, false);
-                    while ((bytesOffset = progressContent.read(buffer)) != -1) {
-                        output.write(buffer, 0, bytesOffset);
-                    }
-                } else {
-                    while ((bytesOffset = content.read(buffer)) != -1) {
-                        output.write(buffer, 0, bytesOffset);
+                    input = progressContent;
+                }
+                while ((bytesOffset = input.read(buffer)) != -1) {
+                    output.write(buffer, 0, bytesOffset);
+                    if (isCancelled()) {
+                        throw new ObsException("download part " + partIndex + " is cancelled");
                     }
                 }
                 CRC64 partCrc64 = null;
@@ -498,13 +518,17 @@ public class DownloadResumableClient {
                 log.debug("end task : " + downloadPart);
 
                 if (downloadFileRequest.isEnableCheckpoint()) {
-                    downloadCheckPoint.updateTmpFile(downloadFileRequest.getTempDownloadFile());
-                    downloadCheckPoint.record(downloadFileRequest.getCheckpointFile());
+                    downloadCheckPoint.recordPart(downloadFileRequest.getCheckpointFile(),
+                            downloadFileRequest.getTempDownloadFile(), partIndex);
                 }
             }
             return tr;
         }
 
+        private boolean isCancelled() {
+            return cancelHandler != null && cancelHandler.isCancelled();
+        }
+
         private void finishOneTask(DownloadFileRequest downloadFileRequest) {
             if (null != downloadFileRequest.getProgressListener()
                     && downloadFileRequest.getProgressListener() instanceof MonitorableProgressListener) {
@@ -541,6 +565,10 @@ public class DownloadResumableClient {
             return getObjectRequest;
         }
 
+        public void setCancelHandler(CallCancelHandler cancelHandler) {
+            this.cancelHandler = cancelHandler;
+        }
+
         public void setProgressManager(ProgressManager progressManager) {
             this.progressManager = progressManager;
         }
@@ -632,6 +660,9 @@ public class DownloadResumableClient {
         public ObjectStatus objectStatus;
         public TmpFileStatus tmpFileStatus;
         ArrayList<DownloadPart> downloadParts;
+        private transient CheckPointJournal journal;
+        // 记录文件写入时持有，使用ReentrantLock避免虚拟线程在等待时占住载体线程
+        private final transient ReentrantLock lock = new ReentrantLock();
         public transient volatile boolean isAbort = false;
         public transient volatile boolean isAllCompleted = true;
 
@@ -665,12 +696,33 @@ public class DownloadResumableClient {
         }
 
         /**
-         * 从checkpoint文件中加载checkpoint数据
+         * 从checkpoint文件中加载checkpoint数据，兼容旧版本的Java序列化格式
          * 
          * @param checkPointFile
          * @throws Exception
          */
         public void load(String checkPointFile) throws Exception {
+            if (CheckPointJournal.isJournal(checkPointFile)) {
+                CheckPointJournal.load(checkPointFile, CheckPointJournal.KIND_DOWNLOAD,
+                        new CheckPointJournal.Replayer() {
+                            @Override
+                            public void readSnapshot(DataInput in) throws IOException {
+                                DownloadCheckPoint.this.readSnapshot(in);
+                            }
+
+                            @Override
+                            public void replayRecord(DataInput in) throws IOException {
+                                DownloadCheckPoint.this.replayRecord(in);
+                            }
+                        });
+                // 日志格式的记录文件由CRC32保证完整性
+                this.md5 = hashCode();
+                return;
+            }
+            loadLegacy(checkPointFile);
+        }
+
+        private void loadLegacy(String checkPointFile) throws Exception {
             FileInputStream fileIn = null;
             SecureObjectInputStream in = null;
             try {
@@ -742,12 +794,17 @@ public class DownloadResumableClient {
          * @param tmpFilePath
          * @throws IOException
          */
-        public synchronized void update(int index, boolean completed, String tmpFilePath, CRC64 crc64) throws IOException {
-            downloadParts.get(index).isCompleted = completed;
-            File tmpfile = new File(tmpFilePath);
-            this.tmpFileStatus.lastModified = new Date(tmpfile.lastModified());
-            isAllCompleted = (isAllCompleted && completed);
-            downloadParts.get(index).crc64 = crc64;
+        public void update(int index, boolean completed, String tmpFilePath, CRC64 crc64) throws IOException {
+            this.lock.lock();
+            try {
+                downloadParts.get(index).isCompleted = completed;
+                File tmpfile = new File(tmpFilePath);
+                this.tmpFileStatus.lastModified = new Date(tmpfile.lastModified());
+                isAllCompleted = (isAllCompleted && completed);
+                downloadParts.get(index).crc64 = crc64;
+            } finally {
+                this.lock.unlock();
+            }
         }
 
         /**
@@ -756,39 +813,158 @@ public class DownloadResumableClient {
          * @param tmpFilePath
          * @throws IOException
          */
-        public synchronized void updateTmpFile(String tmpFilePath) throws IOException {
-            File tmpfile = new File(tmpFilePath);
-            this.tmpFileStatus.lastModified = new Date(tmpfile.lastModified());
+        public void updateTmpFile(String tmpFilePath) throws IOException {
+            this.lock.lock();
+            try {
+                File tmpfile = new File(tmpFilePath);
+                this.tmpFileStatus.lastModified = new Date(tmpfile.lastModified());
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * 把DownloadCheckPoint数据完整写到checkpoint文件
+         * 
+         * @throws IOException
+         */
+        public void record(String checkPointFilePath) throws IOException {
+            getJournal(checkPointFilePath).compact();
         }
 
         /**
-         * 把DownloadCheckPoint数据写到序列化文件
+         * 分片结束后更新临时文件信息，并向checkpoint文件追加该分片的记录
          * 
+         * @param checkPointFilePath
+         * @param tmpFilePath
+         * @param index
          * @throws IOException
          */
-        public synchronized void record(String checkPointFilePath) throws IOException {
-            FileOutputStream fileOutStream = null;
-            ObjectOutputStream objOutStream = null;
-            this.md5 = hashCode();
+        public void recordPart(String checkPointFilePath, String tmpFilePath, int index) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(buffer);
+            this.lock.lock();
             try {
-                fileOutStream = new FileOutputStream(checkPointFilePath);
-                objOutStream = new ObjectOutputStream(fileOutStream);
-                objOutStream.writeObject(this);
+                updateTmpFile(tmpFilePath);
+                DownloadPart downloadPart = downloadParts.get(index);
+                out.writeInt(index);
+                out.writeBoolean(downloadPart.isCompleted);
+                out.writeBoolean(downloadPart.crc64 != null);
+                if (downloadPart.crc64 != null) {
+                    out.writeLong(downloadPart.crc64.getValue());
+                }
+                CheckPointJournal.writeDate(out, tmpFileStatus.lastModified);
             } finally {
-                if (objOutStream != null) {
-                    try {
-                        objOutStream.close();
-                    } catch (Exception e) {
-                        log.warn("close outputstrem failed.", e);
-                    }
+                this.lock.unlock();
+            }
+            out.flush();
+            getJournal(checkPointFilePath).append(buffer.toByteArray());
+        }
+
+        /**
+         * 将未刷盘的记录写入磁盘并关闭checkpoint文件
+         */
+        public void closeJournal() {
+            CheckPointJournal current;
+            this.lock.lock();
+            try {
+                current = this.journal;
+                this.journal = null;
+            } finally {
+                this.lock.unlock();
+            }
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        private CheckPointJournal getJournal(String checkPointFilePath) {
+            this.lock.lock();
+            try {
+                if (this.journal == null) {
+                    this.journal = new CheckPointJournal(checkPointFilePath, CheckPointJournal.KIND_DOWNLOAD,
+                            new CheckPointJournal.SnapshotWriter() {
+                                @Override
+                                public void writeSnapshot(DataOutput out) throws IOException {
+                                    DownloadCheckPoint.this.writeSnapshot(out);
+                                }
+                            });
                 }
-                if (fileOutStream != null) {
-                    try {
-                        fileOutStream.close();
-                    } catch (Exception e) {
-                        log.warn("close outputstrem failed.", e);
+                return this.journal;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void writeSnapshot(DataOutput out) throws IOException {
+            this.lock.lock();
+            try {
+                CheckPointJournal.writeString(out, bucketName);
+                CheckPointJournal.writeString(out, objectKey);
+                CheckPointJournal.writeString(out, versionId);
+                CheckPointJournal.writeString(out, downloadFile);
+                out.writeLong(objectStatus.size);
+                CheckPointJournal.writeDate(out, objectStatus.lastModified);
+                CheckPointJournal.writeString(out, objectStatus.etag);
+                out.writeLong(tmpFileStatus.size);
+                CheckPointJournal.writeDate(out, tmpFileStatus.lastModified);
+                CheckPointJournal.writeString(out, tmpFileStatus.tmpFilePath);
+                out.writeInt(downloadParts.size());
+                for (DownloadPart downloadPart : downloadParts) {
+                    out.writeInt(downloadPart.partNumber);
+                    out.writeLong(downloadPart.offset);
+                    out.writeLong(downloadPart.end);
+                    out.writeBoolean(downloadPart.isCompleted);
+                    out.writeBoolean(downloadPart.crc64 != null);
+                    if (downloadPart.crc64 != null) {
+                        out.writeLong(downloadPart.crc64.getValue());
                     }
                 }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void readSnapshot(DataInput in) throws IOException {
+            this.bucketName = CheckPointJournal.readString(in);
+            this.objectKey = CheckPointJournal.readString(in);
+            this.versionId = CheckPointJournal.readString(in);
+            this.downloadFile = CheckPointJournal.readString(in);
+            this.objectStatus = new ObjectStatus();
+            this.objectStatus.size = in.readLong();
+            this.objectStatus.lastModified = CheckPointJournal.readDate(in);
+            this.objectStatus.etag = CheckPointJournal.readString(in);
+            long tmpFileSize = in.readLong();
+            Date tmpFileLastModified = CheckPointJournal.readDate(in);
+            this.tmpFileStatus = new TmpFileStatus(tmpFileSize, tmpFileLastModified,
+                    CheckPointJournal.readString(in));
+            int partCount = in.readInt();
+            this.downloadParts = new ArrayList<DownloadPart>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                DownloadPart downloadPart = new DownloadPart();
+                downloadPart.partNumber = in.readInt();
+                downloadPart.offset = in.readLong();
+                downloadPart.end = in.readLong();
+                downloadPart.isCompleted = in.readBoolean();
+                downloadPart.crc64 = in.readBoolean() ? new CRC64(in.readLong()) : null;
+                this.downloadParts.add(downloadPart);
+            }
+        }
+
+        private void replayRecord(DataInput in) throws IOException {
+            int index = in.readInt();
+            boolean completed = in.readBoolean();
+            CRC64 crc64 = in.readBoolean() ? new CRC64(in.readLong()) : null;
+            Date tmpFileLastModified = CheckPointJournal.readDate(in);
+            if (index < 0 || index >= downloadParts.size()) {
+                throw new IOException("invalid part index " + index + " in checkpoint journal");
+            }
+            this.tmpFileStatus.lastModified = tmpFileLastModified;
+            DownloadPart downloadPart = downloadParts.get(index);
+            // 快照生成时可能已包含之后追加的记录
+            if (completed && !downloadPart.isCompleted) {
+                downloadPart.isCompleted = true;
+                downloadPart.crc64 = crc64;
             }
         }
     }
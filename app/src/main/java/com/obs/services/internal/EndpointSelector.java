@@ -0,0 +1,392 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+import com.obs.services.model.EndpointSelectionStrategyEnum;
+
+/**
+ * 多访问域名的负载均衡：
+ * 按权重随机或按在途请求数选择域名；连续连接失败或5xx达到阈值的域名被摘除，
+ * 摘除期间周期性探测，探测成功后恢复；同一粘滞键（如分段上传的uploadId）固定路由到同一域名。
+ * 所有域名共用客户端配置的协议与端口。
+ */
+public class EndpointSelector {
+    private static final ILogger log = LoggerBuilder.getLogger(EndpointSelector.class);
+
+    /**
+     * 探测域名是否可用
+     */
+    public interface Prober {
+        /**
+         * @return 域名可以建立连接并返回HTTP响应时返回true
+         */
+        boolean probe(String host);
+    }
+
+    private final List<Endpoint> endpoints;
+
+    private final EndpointSelectionStrategyEnum strategy;
+
+    private final int failureThreshold;
+
+    private final long ejectionTime;
+
+    private final long probeInterval;
+
+    private final Prober prober;
+
+    private ScheduledExecutorService probeExecutor;
+
+    private boolean closed;
+
+    /**
+     * @param weights
+     *            域名及其权重，按配置顺序
+     * @param failureThreshold
+     *            连续失败多少次后摘除
+     * @param ejectionTime
+     *            摘除后最短的隔离时间（毫秒）
+     * @param probeInterval
+     *            摘除期间探测的间隔（毫秒）
+     */
+    public EndpointSelector(Map<String, Integer> weights, EndpointSelectionStrategyEnum strategy,
+            int failureThreshold, long ejectionTime, long probeInterval, Prober prober) {
+        if (weights == null || weights.isEmpty()) {
+            throw new IllegalArgumentException("endpoints is empty");
+        }
+        List<Endpoint> list = new ArrayList<Endpoint>(weights.size());
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            list.add(new Endpoint(entry.getKey(), entry.getValue() == null ? 1 : Math.max(1, entry.getValue())));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.strategy = strategy == null ? EndpointSelectionStrategyEnum.WEIGHTED_RANDOM : strategy;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.ejectionTime = Math.max(0, ejectionTime);
+        this.probeInterval = Math.max(1, probeInterval);
+        this.prober = prober;
+    }
+
+    /**
+     * 解析"host=weight,host=weight"格式的域名列表，未指定权重时为1
+     */
+    public static Map<String, Integer> parseEndpoints(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+        if (value == null) {
+            return weights;
+        }
+        for (String item : value.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int index = item.indexOf('=');
+            if (index < 0) {
+                weights.put(item, 1);
+            } else {
+                weights.put(item.substring(0, index).trim(), Integer.parseInt(item.substring(index + 1).trim()));
+            }
+        }
+        return weights;
+    }
+
+    public static String formatEndpoints(Map<String, Integer> weights) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * 选择一个域名
+     *
+     * @param stickyKey
+     *            粘滞键，不为空时相同的键在域名可用期间总是选中同一域名
+     */
+    public Endpoint select(String stickyKey) {
+        List<Endpoint> candidates = healthyEndpoints();
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        if (stickyKey != null) {
+            return selectSticky(candidates, stickyKey);
+        }
+        if (this.strategy == EndpointSelectionStrategyEnum.LEAST_OUTSTANDING_REQUESTS) {
+            return selectLeastOutstanding(candidates);
+        }
+        return selectWeightedRandom(candidates);
+    }
+
+    /**
+     * 根据请求的主机名找到对应的域名，桶域名（bucket.endpoint）也能匹配
+     */
+    public Endpoint find(String hostname) {
+        if (hostname == null) {
+            return null;
+        }
+        Endpoint matched = null;
+        for (Endpoint endpoint : this.endpoints) {
+            if ((hostname.equals(endpoint.host) || hostname.endsWith("." + endpoint.host))
+                    && (matched == null || endpoint.host.length() > matched.host.length())) {
+                matched = endpoint;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 将主机名中的域名部分替换为另一个域名
+     */
+    public static String replaceHost(String hostname, Endpoint from, Endpoint to) {
+        return hostname.substring(0, hostname.length() - from.host.length()) + to.host;
+    }
+
+    public void onSuccess(Endpoint endpoint) {
+        endpoint.consecutiveFailures.set(0);
+    }
+
+    public void onFailure(Endpoint endpoint) {
+        if (endpoint.consecutiveFailures.incrementAndGet() >= this.failureThreshold) {
+            eject(endpoint);
+        }
+    }
+
+    /**
+     * 是否属于应摘除域名的连接失败
+     */
+    public static boolean isConnectFailure(IOException e) {
+        if (e instanceof ConnectException || e instanceof NoRouteToHostException
+                || e instanceof UnknownHostException) {
+            return true;
+        }
+        return e instanceof SocketTimeoutException && e.getMessage() != null
+                && e.getMessage().toLowerCase().contains("connect");
+    }
+
+    public synchronized void close() {
+        this.closed = true;
+        if (this.probeExecutor != null) {
+            this.probeExecutor.shutdownNow();
+            this.probeExecutor = null;
+        }
+    }
+
+    private List<Endpoint> healthyEndpoints() {
+        List<Endpoint> healthy = new ArrayList<Endpoint>(this.endpoints.size());
+        for (Endpoint endpoint : this.endpoints) {
+            if (!endpoint.ejected) {
+                healthy.add(endpoint);
+            }
+        }
+        // 全部摘除时仍在所有域名中选择，避免请求直接失败
+        return healthy.isEmpty() ? this.endpoints : healthy;
+    }
+
+    private static Endpoint selectSticky(List<Endpoint> candidates, String stickyKey) {
+        // rendezvous hash：域名增减时只有原本落在该域名上的键会迁移
+        Endpoint selected = null;
+        double bestScore = -1;
+        for (Endpoint endpoint : candidates) {
+            long hash = hash64(stickyKey, endpoint.host);
+            double unit = ((hash >>> 11) + 1) * 0x1.0p-53;
+            double score = -endpoint.weight / Math.log(unit);
+            if (score > bestScore) {
+                bestScore = score;
+                selected = endpoint;
+            }
+        }
+        return selected;
+    }
+
+    private static Endpoint selectWeightedRandom(List<Endpoint> candidates) {
+        int total = 0;
+        for (Endpoint endpoint : candidates) {
+            total += endpoint.weight;
+        }
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (Endpoint endpoint : candidates) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private static Endpoint selectLeastOutstanding(List<Endpoint> candidates) {
+        Endpoint selected = null;
+        double minLoad = Double.MAX_VALUE;
+        int ties = 0;
+        for (Endpoint endpoint : candidates) {
+            double load = (endpoint.outstanding.get() + 1) / (double) endpoint.weight;
+            if (load < minLoad) {
+                minLoad = load;
+                selected = endpoint;
+                ties = 1;
+            } else if (load == minLoad && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                // 负载相同时随机选择，避免总是集中到第一个域名
+                selected = endpoint;
+            }
+        }
+        return selected;
+    }
+
+    private static long hash64(String key, String host) {
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (key + '\n' + host).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private void eject(final Endpoint endpoint) {
+        synchronized (endpoint) {
+            if (endpoint.ejected) {
+                return;
+            }
+            endpoint.ejected = true;
+            endpoint.ejectedAt = System.currentTimeMillis();
+        }
+        if (log.isWarnEnabled()) {
+            log.warn("Endpoint " + endpoint.host + " is ejected after " + endpoint.consecutiveFailures.get()
+                    + " consecutive failures");
+        }
+        synchronized (this) {
+            if (this.closed || this.prober == null) {
+                return;
+            }
+            if (this.probeExecutor == null) {
+                this.probeExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "obs-endpoint-probe");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            scheduleProbe(endpoint, Math.max(this.ejectionTime, this.probeInterval));
+        }
+    }
+
+    private void scheduleProbe(final Endpoint endpoint, long delay) {
+        this.probeExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                probe(endpoint);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void probe(Endpoint endpoint) {
+        boolean alive;
+        try {
+            alive = this.prober.probe(endpoint.host);
+        } catch (RuntimeException e) {
+            alive = false;
+        }
+        if (alive) {
+            synchronized (endpoint) {
+                endpoint.consecutiveFailures.set(0);
+                endpoint.ejected = false;
+            }
+            if (log.isWarnEnabled()) {
+                log.warn("Endpoint " + endpoint.host + " is recovered after "
+                        + (System.currentTimeMillis() - endpoint.ejectedAt) + " ms");
+            }
+            return;
+        }
+        synchronized (this) {
+            if (!this.closed && this.probeExecutor != null) {
+                scheduleProbe(endpoint, this.probeInterval);
+            }
+        }
+    }
+
+    public static final class Endpoint {
+        private final String host;
+
+        private final int weight;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private volatile boolean ejected;
+
+        private volatile long ejectedAt;
+
+        Endpoint(String host, int weight) {
+            this.host = host;
+            this.weight = weight;
+        }
+
+        public String getHost() {
+            return this.host;
+        }
+
+        public int getWeight() {
+            return this.weight;
+        }
+
+        public boolean isEjected() {
+            return this.ejected;
+        }
+
+        public int getOutstanding() {
+            return this.outstanding.get();
+        }
+
+        public void requestStarted() {
+            this.outstanding.incrementAndGet();
+        }
+
+        public void requestFinished() {
+            this.outstanding.decrementAndGet();
+        }
+    }
+}
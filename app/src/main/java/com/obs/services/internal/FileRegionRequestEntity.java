@@ -0,0 +1,133 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+import com.obs.services.exception.ObsException;
+import com.obs.services.internal.utils.Mimetypes;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * 文件片段请求体，上传文件中 [offset, offset + length) 范围的数据。
+ * 数据由FileChannel按64KB分段读入okio缓冲段（堆上的byte[]），再由okio写入连接，
+ * 与经RepeatableRequestEntity上传相比只省去了中间缓冲区的一次拷贝，并非零拷贝：
+ * OkHttp的请求体只能写入BufferedSink，拿不到底层的SocketChannel，
+ * 而FileChannel.transferTo写入此类通道时同样要经过缓冲区读写。
+ * 每次写出都重新定位到offset，因此请求重试时无需mark/reset缓存数据。
+ */
+public class FileRegionRequestEntity extends RequestBody implements Closeable {
+    private static final ILogger INTERFACE_LOG =
+            LoggerBuilder.getLogger("com.obs.services.internal.RestStorageService");
+
+    private static final int TRANSFER_CHUNK_SIZE = 64 * 1024;
+
+    private final File file;
+    private final long offset;
+    private final long length;
+    private final String contentType;
+
+    private ProgressManager progressManager;
+    private boolean progressEndFlag;
+    private boolean progressStarted;
+
+    // 已上报进度的字节数，重试时不重复上报
+    private long bytesReported;
+
+    public FileRegionRequestEntity(File file, long offset, long length, String contentType) {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("offset and length must not be negative");
+        }
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.contentType = contentType;
+    }
+
+    public void setProgressManager(ProgressManager progressManager) {
+        this.progressManager = progressManager;
+        this.progressEndFlag = progressManager != null && progressManager.isEndFlag();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return this.length;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return MediaType.parse(this.contentType == null ? Mimetypes.MIMETYPE_OCTET_STREAM : this.contentType);
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        long start = System.currentTimeMillis();
+        FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+        try {
+            channel.position(this.offset);
+            Source source = Okio.source(Channels.newInputStream(channel));
+            long written = 0;
+            while (written < this.length) {
+                if (Thread.interrupted()) {
+                    throw new ObsException("Abort io due to thread interrupted");
+                }
+                long count = Math.min(TRANSFER_CHUNK_SIZE, this.length - written);
+                // 文件被截断时抛出EOFException
+                sink.write(source, count);
+                written += count;
+                reportProgress(written);
+            }
+        } finally {
+            channel.close();
+        }
+        if (INTERFACE_LOG.isInfoEnabled()) {
+            INTERFACE_LOG.info("write data end, cost " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private void reportProgress(long written) {
+        if (this.progressManager == null || written <= this.bytesReported) {
+            return;
+        }
+        if (!this.progressStarted) {
+            this.progressStarted = true;
+            this.progressManager.progressStart();
+        }
+        this.progressManager.progressChanged((int) (written - this.bytesReported));
+        this.bytesReported = written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.progressManager != null && this.progressEndFlag) {
+            this.progressManager.progressEnd();
+        }
+    }
+}
@@ -116,6 +116,138 @@ public class ObsConstraint {
 
     public static final int DEFAULT_LOCAL_AUTH_TYPE_CACHE_CAPACITY = 50;
 
+    /**
+     * uploadFile/downloadFile共享传输线程池的线程数
+     */
+    public static final String TRANSFER_THREAD_NUM = "transfer.thread-num";
+
+    public static final int DEFAULT_TRANSFER_THREAD_NUM = 128;
+
+    /**
+     * 传输、批量任务与异步接口的工作线程是否使用虚拟线程，仅在JDK 21及以上生效
+     */
+    public static final String VIRTUAL_THREADS_ENABLED = "transfer.virtual-threads-enabled";
+
+    /**
+     * 使用虚拟线程时传输线程池与批量任务线程池的线程数，替代transfer.thread-num与批量请求的taskThreadNum
+     */
+    public static final String VIRTUAL_THREADS_MAX_CONCURRENCY = "transfer.virtual-threads-max-concurrency";
+
+    public static final int DEFAULT_VIRTUAL_THREADS_MAX_CONCURRENCY = 10000;
+
+    /**
+     * 并行预读下载流的默认块大小与预读块数
+     */
+    public static final int DEFAULT_READ_AHEAD_BLOCK_SIZE = 8 * 1024 * 1024;
+
+    public static final int MIN_READ_AHEAD_BLOCK_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_READ_AHEAD_BLOCKS = 4;
+
+    /**
+     * 随机读取对象的通道：缓存块大小、缓存块数与打开时预读的尾部字节数
+     */
+    public static final int DEFAULT_CHANNEL_BLOCK_SIZE = 1024 * 1024;
+
+    public static final int MIN_CHANNEL_BLOCK_SIZE = 4 * 1024;
+
+    public static final int DEFAULT_CHANNEL_CACHE_BLOCKS = 32;
+
+    public static final long DEFAULT_CHANNEL_FOOTER_PREFETCH_SIZE = 64 * 1024L;
+
+    /**
+     * 不可mark的上传流的重放缓存：内存中保存的最大字节数，超出部分写入临时文件
+     */
+    public static final String UPLOAD_STREAM_REPLAY_MEMORY_SIZE = "upload.stream-replay.memory-size";
+
+    public static final int DEFAULT_UPLOAD_STREAM_REPLAY_MEMORY_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * 不可mark的上传流的重放缓存：可记录的最大字节数，不大于0时不启用
+     */
+    public static final String UPLOAD_STREAM_REPLAY_MAX_SIZE = "upload.stream-replay.max-size";
+
+    public static final long DEFAULT_UPLOAD_STREAM_REPLAY_MAX_SIZE = 0;
+
+    /**
+     * 是否根据请求时延与限流响应自适应调整每个域名的并发请求数上限，上限不超过httpclient.max-connections；
+     * 关闭时所有域名共享httpclient.max-connections个并发请求
+     */
+    public static final String HTTP_ADAPTIVE_CONCURRENCY = "httpclient.adaptive-concurrency";
+
+    /**
+     * 自适应调整时并发请求数上限的下限
+     */
+    public static final String HTTP_MIN_CONCURRENCY = "httpclient.min-concurrency";
+
+    public static final int DEFAULT_MIN_CONCURRENCY = 8;
+
+    public static final int DEFAULT_INITIAL_CONCURRENCY = 64;
+
+    /**
+     * 等待并发许可的最长时间（毫秒），不大于0时一直等待
+     */
+    public static final String HTTP_CONCURRENCY_ACQUIRE_TIMEOUT = "httpclient.concurrency-acquire-timeout-ms";
+
+    /**
+     * 每个域名最多排队等待并发许可的异步请求数，超出时请求立即失败
+     */
+    public static final String HTTP_ASYNC_MAX_PENDING_REQUESTS = "httpclient.async-max-pending-requests";
+
+    public static final int DEFAULT_ASYNC_MAX_PENDING_REQUESTS = 10000;
+
+    /**
+     * 下载对象时读取数据中途连接中断后，从已读取位置重新下载的最大连续重试次数，不大于0时不续读
+     */
+    public static final String RESUMABLE_READ_MAX_RETRIES = "httpclient.resumable-read-max-retries";
+
+    /**
+     * 域名解析结果的缓存时间（秒），不大于0时每次建立连接都重新解析
+     */
+    public static final String DNS_CACHE_TTL = "httpclient.dns-cache-ttl";
+
+    public static final int DEFAULT_DNS_CACHE_TTL = 60;
+
+    /**
+     * 解析失败时过期的解析结果可继续使用的时间（秒）
+     */
+    public static final String DNS_STALE_TTL = "httpclient.dns-stale-ttl";
+
+    public static final int DEFAULT_DNS_STALE_TTL = 600;
+
+    /**
+     * 解析出的地址随机排序，默认轮转
+     */
+    public static final String DNS_ADDRESS_SHUFFLE = "httpclient.dns-address-shuffle";
+
+    /**
+     * 多访问域名：除obs-endpoint外参与负载均衡的域名，格式为"host=weight,host=weight"
+     */
+    public static final String END_POINT_LIST = "obs-endpoint-list";
+
+    public static final String END_POINT_SELECTION_STRATEGY = "obs-endpoint.selection-strategy";
+
+    /**
+     * 连续连接失败或5xx达到该次数时摘除域名
+     */
+    public static final String END_POINT_FAILURE_THRESHOLD = "obs-endpoint.failure-threshold";
+
+    public static final int DEFAULT_END_POINT_FAILURE_THRESHOLD = 3;
+
+    /**
+     * 域名被摘除后的最短隔离时间（毫秒）
+     */
+    public static final String END_POINT_EJECTION_TIME = "obs-endpoint.ejection-time";
+
+    public static final long DEFAULT_END_POINT_EJECTION_TIME = 30000;
+
+    /**
+     * 摘除期间主动探测的间隔（毫秒）
+     */
+    public static final String END_POINT_PROBE_INTERVAL = "obs-endpoint.probe-interval";
+
+    public static final long DEFAULT_END_POINT_PROBE_INTERVAL = 5000;
+
     // HTTP代理配置
     public static final String PROXY_ISABLE = "httpclient.proxy-enable";
 
@@ -61,6 +61,14 @@ public class ObsProperties implements Serializable {
         return Integer.parseInt(value);
     }
 
+    public long getLongProperty(String propertyName, long defaultValue) throws NumberFormatException {
+        String value = trim(properties.getProperty(propertyName, String.valueOf(defaultValue)));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(propertyName + "=" + value);
+        }
+        return Long.parseLong(value);
+    }
+
     public boolean getBoolProperty(String propertyName, boolean defaultValue) throws IllegalArgumentException {
         String boolValue = trim(properties.getProperty(propertyName, String.valueOf(defaultValue)));
         if (LOG.isDebugEnabled()) {
@@ -22,6 +22,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -268,7 +269,8 @@ public class ObsService extends ObsExtensionService {
         String policy = ServiceUtils.toBase64(originPolicy.toString().getBytes(StandardCharsets.UTF_8));
 
         if (isV4) {
-            String signature = V4Authentication.caculateSignature(policy, shortDate, securityKey.getSecretKey());
+            String signature = V4Authentication.caculateSignature(policy, shortDate, securityKey.getSecretKey(),
+                    this.getProviderCredentials().getV4SigningKeyCache());
             return new V4PostSignatureResponse(policy, originPolicy.toString(), Constants.V4_ALGORITHM, credential,
                     longDate, signature, expiration);
         } else {
@@ -419,8 +421,8 @@ public class ObsService extends ObsExtensionService {
                 .append("/").append(Constants.SERVICE).append("/").append(Constants.REQUEST_TAG).append("\n")
                 .append(V4Authentication.byteToHex((V4Authentication.sha256encode(canonicalRequest.toString()))));
         signedUrl.append("&").append(Constants.V2_HEADER_PREFIX_CAMEL).append("Signature=")
-                .append(V4Authentication.caculateSignature(stringToSign.toString(), shortDate, 
-                        securityKey.getSecretKey()));
+                .append(V4Authentication.caculateSignature(stringToSign.toString(), shortDate,
+                        securityKey.getSecretKey(), this.getProviderCredentials().getV4SigningKeyCache()));
         TemporarySignatureResponse response = new TemporarySignatureResponse(signedUrl.toString());
         response.getActualSignedRequestHeaders().putAll(actualSignedRequestHeaders);
         return response;
@@ -542,10 +544,11 @@ public class ObsService extends ObsExtensionService {
     }
 
     protected ThreadPoolExecutor initThreadPool(AbstractBulkRequest request) {
-        int taskThreadNum = request.getTaskThreadNum();
+        int taskThreadNum = getWorkerThreadNum(request.getTaskThreadNum());
         int workQueenLength = request.getTaskQueueNum();
         ThreadPoolExecutor executor = new ThreadPoolExecutor(taskThreadNum, taskThreadNum, 0, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(workQueenLength));
+                new LinkedBlockingQueue<Runnable>(workQueenLength),
+                newWorkerThreadFactory("obs-batch-task-", Executors.defaultThreadFactory()));
         executor.setRejectedExecutionHandler(new BlockRejectedExecutionHandler());
         return executor;
     }
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.obs.services.AbstractClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.internal.io.ProgressInputStream;
+import com.obs.services.internal.io.ReadAheadObjectInputStream;
+import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.model.GetObjectMetadataRequest;
+import com.obs.services.model.GetObjectRequest;
+import com.obs.services.model.ObjectMetadata;
+import com.obs.services.model.ObsObject;
+import com.obs.services.model.ParallelGetObjectRequest;
+
+/**
+ * 以并行预读流的方式下载对象：先获取对象元数据确定长度与ETag，
+ * 再按块并发发起以If-Match固定ETag的范围下载，按顺序返回给调用方
+ */
+public class ParallelGetObjectClient {
+    private final AbstractClient obsClient;
+
+    public ParallelGetObjectClient(AbstractClient obsClient) {
+        this.obsClient = obsClient;
+    }
+
+    public ObsObject getObject(final ParallelGetObjectRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "ParallelGetObjectRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        if (request.getBlockSize() < ObsConstraint.MIN_READ_AHEAD_BLOCK_SIZE) {
+            throw new IllegalArgumentException("blockSize should not be less than "
+                    + ObsConstraint.MIN_READ_AHEAD_BLOCK_SIZE);
+        }
+        if (request.getReadAheadBlocks() < 1) {
+            throw new IllegalArgumentException("readAheadBlocks should be positive");
+        }
+
+        ObjectMetadata metadata = getObjectMetadata(this.obsClient, request);
+        long objectSize = metadata.getContentLength() == null ? 0 : metadata.getContentLength();
+        // 空对象没有可下载的范围，直接返回空内容
+        long start = 0;
+        long end = -1;
+        if (objectSize > 0) {
+            if (request.getRangeStart() == null && request.getRangeEnd() != null) {
+                // 后缀范围：最后rangeEnd个字节
+                start = Math.max(0, objectSize - request.getRangeEnd());
+                end = objectSize - 1;
+            } else {
+                start = request.getRangeStart() == null ? 0 : request.getRangeStart();
+                end = request.getRangeEnd() == null ? objectSize - 1
+                        : Math.min(request.getRangeEnd(), objectSize - 1);
+            }
+            if (start >= objectSize) {
+                ObsException e = new ObsException("The requested range is not satisfiable, object size is "
+                        + objectSize);
+                e.setResponseCode(416);
+                e.setErrorCode("InvalidRange");
+                throw e;
+            }
+            if (start > end) {
+                throw new IllegalArgumentException("start must be less than end.");
+            }
+        }
+
+        final String etag = ServiceUtils.isValid(request.getIfMatchTag()) ? request.getIfMatchTag()
+                : metadata.getEtag();
+        long length = Math.max(0, end - start + 1);
+        metadata.setContentLength(length);
+
+        InputStream content;
+        if (length == 0) {
+            content = new ByteArrayInputStream(new byte[0]);
+        } else {
+            content = new ReadAheadObjectInputStream(new ReadAheadObjectInputStream.BlockFetcher() {
+                @Override
+                public void fetch(long position, byte[] buffer, int blockLength) throws IOException {
+                    fetchBlock(request, etag, position, buffer, blockLength);
+                }
+            }, this.obsClient.getTransferScheduler().openSession(request.getReadAheadBlocks()), start, end,
+                    request.getBlockSize(), request.getReadAheadBlocks());
+        }
+        if (request.getProgressListener() != null) {
+            ProgressManager progressManager = new SimpleProgressManager(length, 0, request.getProgressListener(),
+                    request.getProgressInterval() > 0 ? request.getProgressInterval()
+                            : ObsConstraint.DEFAULT_PROGRESS_INTERVAL);
+            content = new ProgressInputStream(content, progressManager);
+        }
+
+        ObsObject obsObject = new ObsObject();
+        obsObject.setBucketName(request.getBucketName());
+        obsObject.setObjectKey(request.getObjectKey());
+        obsObject.setMetadata(metadata);
+        obsObject.setObjectContent(content);
+        return obsObject;
+    }
+
+    /**
+     * 获取对象元数据，沿用下载请求中的版本号、SSE-C头域等参数
+     */
+    static ObjectMetadata getObjectMetadata(AbstractClient obsClient, GetObjectRequest request) {
+        GetObjectMetadataRequest metadataRequest = new GetObjectMetadataRequest(request.getBucketName(),
+                request.getObjectKey(), request.getVersionId());
+        metadataRequest.setRequesterPays(request.isRequesterPays());
+        metadataRequest.setIsEncodeHeaders(request.isEncodeHeaders());
+        metadataRequest.setSseCHeader(request.getSseCHeader());
+        metadataRequest.setUserHeaders(request.getUserHeaders());
+        return obsClient.getObjectMetadata(metadataRequest);
+    }
+
+    /**
+     * 构造对象中[start, end]的范围下载请求，沿用下载请求中的参数与条件，并以If-Match固定ETag
+     */
+    static GetObjectRequest newRangeRequest(GetObjectRequest request, String etag, long start, long end) {
+        GetObjectRequest rangeRequest = new GetObjectRequest(request.getBucketName(), request.getObjectKey(),
+                request.getVersionId());
+        rangeRequest.setRequesterPays(request.isRequesterPays());
+        rangeRequest.setIsEncodeHeaders(request.isEncodeHeaders());
+        rangeRequest.setSseCHeader(request.getSseCHeader());
+        rangeRequest.setUserHeaders(request.getUserHeaders());
+        rangeRequest.setRequestParameters(request.getRequestParameters());
+        rangeRequest.setCacheOption(request.getCacheOption());
+        rangeRequest.setTtl(request.getTtl());
+        rangeRequest.setIfNoneMatchTag(request.getIfNoneMatchTag());
+        rangeRequest.setIfModifiedSince(request.getIfModifiedSince());
+        rangeRequest.setIfUnmodifiedSince(request.getIfUnmodifiedSince());
+        // 所有范围请求固定为同一ETag，对象在读取期间被修改时返回412
+        rangeRequest.setIfMatchTag(etag);
+        rangeRequest.setRangeStart(start);
+        rangeRequest.setRangeEnd(end);
+        return rangeRequest;
+    }
+
+    private void fetchBlock(ParallelGetObjectRequest request, String etag, long position, byte[] buffer,
+            int length) throws IOException {
+        GetObjectRequest blockRequest = newRangeRequest(request, etag, position, position + length - 1);
+
+        ObsObject object;
+        try {
+            object = this.obsClient.getObject(blockRequest);
+        } catch (ObsException e) {
+            throw new IOException("Failed to get block at position " + position + " of " + request.getObjectKey(),
+                    e);
+        }
+        InputStream input = object.getObjectContent();
+        try {
+            int offset = 0;
+            while (offset < length) {
+                int bytesRead = input.read(buffer, offset, length - offset);
+                if (bytesRead < 0) {
+                    throw new EOFException("Premature end of block at position " + position + ", expected "
+                            + length + " bytes but got " + offset);
+                }
+                offset += bytesRead;
+            }
+        } finally {
+            ServiceUtils.closeStream(input);
+        }
+    }
+}
@@ -49,8 +49,13 @@ public class RepeatableRequestEntity extends RequestBody implements Closeable {
         this.contentType = contentType;
 
         if (!(this.inputStream instanceof MayRepeatableInputStream)) {
-            this.inputStream = new MayRepeatableInputStream(is, obsProperties
-                    .getIntProperty(ObsConstraint.WRITE_BUFFER_SIZE, ObsConstraint.DEFAULT_WRITE_BUFFER_STREAM));
+            this.inputStream = new MayRepeatableInputStream(is,
+                    obsProperties.getIntProperty(ObsConstraint.WRITE_BUFFER_SIZE,
+                            ObsConstraint.DEFAULT_WRITE_BUFFER_STREAM),
+                    obsProperties.getIntProperty(ObsConstraint.UPLOAD_STREAM_REPLAY_MEMORY_SIZE,
+                            ObsConstraint.DEFAULT_UPLOAD_STREAM_REPLAY_MEMORY_SIZE),
+                    obsProperties.getLongProperty(ObsConstraint.UPLOAD_STREAM_REPLAY_MAX_SIZE,
+                            ObsConstraint.DEFAULT_UPLOAD_STREAM_REPLAY_MAX_SIZE));
         }
         this.inputStream.mark(0);
     }
@@ -109,6 +114,15 @@ public class RepeatableRequestEntity extends RequestBody implements Closeable {
         }
     }
 
+    /**
+     * 释放重放缓存而不关闭输入流，用于请求结束但输入流由用户关闭的场景
+     */
+    public void releaseReplayBuffer() {
+        if (this.inputStream instanceof MayRepeatableInputStream) {
+            ((MayRepeatableInputStream) this.inputStream).releaseReplayBuffer();
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (this.inputStream != null) {
@@ -15,10 +15,16 @@
 
 package com.obs.services.internal;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.HostnameVerifier;
@@ -28,11 +34,17 @@ import javax.net.ssl.TrustManagerFactory;
 
 import com.obs.log.ILogger;
 import com.obs.log.LoggerBuilder;
+import com.obs.services.DefaultRetryPolicy;
+import com.obs.services.RetryPolicy;
 import com.obs.services.internal.security.ProviderCredentials;
+import com.obs.services.internal.task.TransferScheduler;
 import com.obs.services.internal.trans.NewTransResult;
 import com.obs.services.internal.utils.LocalTimeUtil;
 import com.obs.services.internal.utils.RestUtils;
 import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.internal.utils.VirtualThreadSupport;
+import com.obs.services.model.ConcurrencyLimitMetrics;
+import com.obs.services.model.EndpointSelectionStrategyEnum;
 import com.obs.services.model.HttpMethodEnum;
 import okhttp3.Dispatcher;
 import okhttp3.Dns;
@@ -40,6 +52,7 @@ import okhttp3.EventListener;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okhttp3.Response;
 
 import static com.obs.services.internal.utils.ServiceUtils.getLoggableInfo;
 
@@ -54,7 +67,28 @@ public class RestConnectionService {
 
     protected TrustManagerFactory trustManagerFactory;
 
-    protected Semaphore semaphore;
+    // 固定上限的全局并发限制在concurrencyLimiters中的键
+    private static final String ALL_ENDPOINTS = "*";
+
+    // 并发请求数限制：固定上限时所有域名共享一个，自适应时每个域名一个
+    protected final ConcurrentHashMap<String, ConcurrencyLimiter> concurrencyLimiters =
+            new ConcurrentHashMap<String, ConcurrencyLimiter>();
+
+    private boolean adaptiveConcurrency;
+
+    private int minConcurrency;
+
+    private int maxConcurrency;
+
+    protected long concurrencyAcquireTimeout;
+
+    protected int asyncMaxPendingRequests;
+
+    // 工作线程使用虚拟线程，仅在配置开启且运行时支持时为true
+    protected boolean virtualThreadsEnabled;
+
+    // 使用虚拟线程时工作线程池的线程数
+    protected int virtualThreadsMaxConcurrency;
 
     protected AtomicBoolean shuttingDown = new AtomicBoolean(false);
 
@@ -62,6 +96,16 @@ public class RestConnectionService {
 
     protected LocalTimeUtil localTimeUtil;
 
+    private volatile TransferScheduler transferScheduler;
+
+    // 异步请求的重试等待与许可等待超时定时器
+    private volatile ScheduledExecutorService asyncTimer;
+
+    protected RetryPolicy retryPolicy;
+
+    // 配置了多个访问域名时不为空
+    protected EndpointSelector endpointSelector;
+
     protected void initHttpClient(Dispatcher httpDispatcher, Dns customizedDnsImpl, HostnameVerifier hostnameVerifier,
             EventListener.Factory eventListenerFactory, SSLContext sslContext) {
 
@@ -81,7 +125,71 @@ public class RestConnectionService {
         // Fix okhttp bug
         int maxConnections = this.obsProperties.getIntProperty(ObsConstraint.HTTP_MAX_CONNECT,
                 ObsConstraint.HTTP_MAX_CONNECT_VALUE);
-        this.semaphore = new Semaphore(maxConnections);
+        this.maxConcurrency = maxConnections;
+        this.adaptiveConcurrency = this.obsProperties.getBoolProperty(ObsConstraint.HTTP_ADAPTIVE_CONCURRENCY, false);
+        this.minConcurrency = this.obsProperties.getIntProperty(ObsConstraint.HTTP_MIN_CONCURRENCY,
+                ObsConstraint.DEFAULT_MIN_CONCURRENCY);
+        this.concurrencyAcquireTimeout = this.obsProperties.getIntProperty(
+                ObsConstraint.HTTP_CONCURRENCY_ACQUIRE_TIMEOUT, 0);
+        this.asyncMaxPendingRequests = this.obsProperties.getIntProperty(
+                ObsConstraint.HTTP_ASYNC_MAX_PENDING_REQUESTS, ObsConstraint.DEFAULT_ASYNC_MAX_PENDING_REQUESTS);
+        this.virtualThreadsEnabled = this.obsProperties.getBoolProperty(ObsConstraint.VIRTUAL_THREADS_ENABLED, false);
+        if (this.virtualThreadsEnabled && !VirtualThreadSupport.isAvailable()) {
+            log.warn("virtual threads are not supported by the current Java runtime, platform threads are used");
+            this.virtualThreadsEnabled = false;
+        }
+        this.virtualThreadsMaxConcurrency = Math.max(1, this.obsProperties.getIntProperty(
+                ObsConstraint.VIRTUAL_THREADS_MAX_CONCURRENCY, ObsConstraint.DEFAULT_VIRTUAL_THREADS_MAX_CONCURRENCY));
+        initEndpointSelector();
+    }
+
+    private void initEndpointSelector() {
+        Map<String, Integer> endpoints = EndpointSelector.parseEndpoints(
+                this.obsProperties.getStringProperty(ObsConstraint.END_POINT_LIST, null));
+        if (endpoints.size() <= 1) {
+            return;
+        }
+        this.endpointSelector = new EndpointSelector(endpoints,
+                EndpointSelectionStrategyEnum.getValueFromCode(
+                        this.obsProperties.getStringProperty(ObsConstraint.END_POINT_SELECTION_STRATEGY, "")),
+                this.obsProperties.getIntProperty(ObsConstraint.END_POINT_FAILURE_THRESHOLD,
+                        ObsConstraint.DEFAULT_END_POINT_FAILURE_THRESHOLD),
+                this.obsProperties.getLongProperty(ObsConstraint.END_POINT_EJECTION_TIME,
+                        ObsConstraint.DEFAULT_END_POINT_EJECTION_TIME),
+                this.obsProperties.getLongProperty(ObsConstraint.END_POINT_PROBE_INTERVAL,
+                        ObsConstraint.DEFAULT_END_POINT_PROBE_INTERVAL),
+                new EndpointSelector.Prober() {
+                    @Override
+                    public boolean probe(String host) {
+                        return probeEndpoint(host);
+                    }
+                });
+    }
+
+    /**
+     * 探测域名：能够返回任意HTTP响应即认为可用
+     */
+    private boolean probeEndpoint(String host) {
+        OkHttpClient client = this.httpClient;
+        if (client == null) {
+            return false;
+        }
+        Request request = new Request.Builder().url(addProtocol(host, "/")).head()
+                .header("Connection", "Close").build();
+        Response response = null;
+        try {
+            response = client.newCall(request).execute();
+            return true;
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("probe endpoint " + host + " failed: " + e.getMessage());
+            }
+            return false;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
     }
 
     protected void shutdown() {
@@ -92,6 +200,17 @@ public class RestConnectionService {
         if (shuttingDown.compareAndSet(false, true)) {
             this.credentials = null;
             this.obsProperties = null;
+            if (this.endpointSelector != null) {
+                this.endpointSelector.close();
+            }
+            synchronized (this) {
+                if (this.transferScheduler != null) {
+                    this.transferScheduler.shutdown();
+                }
+                if (this.asyncTimer != null) {
+                    this.asyncTimer.shutdownNow();
+                }
+            }
             if (this.httpClient != null) {
                 invokeShutdown();
                 if (httpClient.connectionPool() != null) {
@@ -102,6 +221,80 @@ public class RestConnectionService {
         }
     }
 
+    /**
+     * 获取uploadFile/downloadFile共享的传输调度器，首次使用时创建
+     */
+    protected TransferScheduler getTransferScheduler() {
+        TransferScheduler scheduler = this.transferScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = this.transferScheduler;
+                if (scheduler == null) {
+                    if (shuttingDown.get()) {
+                        throw new IllegalStateException("client is shutting down");
+                    }
+                    int threadNum = getWorkerThreadNum(this.obsProperties.getIntProperty(
+                            ObsConstraint.TRANSFER_THREAD_NUM, ObsConstraint.DEFAULT_TRANSFER_THREAD_NUM));
+                    scheduler = this.virtualThreadsEnabled
+                            ? new TransferScheduler(threadNum, VirtualThreadSupport.newThreadFactory("obs-transfer-"))
+                            : new TransferScheduler(threadNum);
+                    this.transferScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 工作线程的ThreadFactory：开启虚拟线程且运行时支持时创建以namePrefix加序号命名的虚拟线程，
+     * 否则使用platformFactory
+     */
+    public ThreadFactory newWorkerThreadFactory(String namePrefix, ThreadFactory platformFactory) {
+        return this.virtualThreadsEnabled ? VirtualThreadSupport.newThreadFactory(namePrefix) : platformFactory;
+    }
+
+    /**
+     * 工作线程池的线程数：使用虚拟线程时为transfer.virtual-threads-max-concurrency，
+     * 否则为platformThreadNum。虚拟线程开销小，线程池不再按平台线程数限制并发，
+     * 实际发出的请求数仍由最大连接数与并发请求数限制约束
+     */
+    public int getWorkerThreadNum(int platformThreadNum) {
+        return this.virtualThreadsEnabled ? this.virtualThreadsMaxConcurrency : platformThreadNum;
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return this.virtualThreadsEnabled;
+    }
+
+    /**
+     * 获取异步请求共享的定时器，首次使用时创建
+     */
+    protected ScheduledExecutorService getAsyncTimer() {
+        ScheduledExecutorService timer = this.asyncTimer;
+        if (timer == null) {
+            synchronized (this) {
+                timer = this.asyncTimer;
+                if (timer == null) {
+                    if (shuttingDown.get()) {
+                        throw new IllegalStateException("client is shutting down");
+                    }
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "obs-async-timer");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                    executor.setRemoveOnCancelPolicy(true);
+                    timer = executor;
+                    this.asyncTimer = timer;
+                }
+            }
+        }
+        return timer;
+    }
+
     private void invokeShutdown() {
         try {
             Method dispatcherMethod = httpClient.getClass().getMethod("dispatcher");
@@ -125,7 +318,7 @@ public class RestConnectionService {
             throws ServiceException {
 
         boolean pathStyle = this.isPathStyle();
-        String endPoint = this.getEndpoint();
+        String endPoint = this.selectEndpoint(result.getParams());
         boolean isCname = this.isCname();
         String hostname = (isCname || isListBuckets) ? endPoint : ServiceUtils.generateHostnameForBucket(RestUtils
                 .encodeUrlString(result.getBucketName()), pathStyle, endPoint);
@@ -233,6 +426,60 @@ public class RestConnectionService {
         return urlPathBuilder.toString();
     }
 
+    /**
+     * 为请求选择访问域名，同一分段上传的请求路由到同一域名
+     */
+    protected String selectEndpoint(Map<String, String> requestParameters) {
+        if (this.endpointSelector == null || this.isCname()) {
+            return this.getEndpoint();
+        }
+        String uploadId = requestParameters == null ? null
+                : requestParameters.get(Constants.ObsRequestParams.UPLOAD_ID);
+        return this.endpointSelector.select(uploadId).getHost();
+    }
+
+    /**
+     * 获取请求主机对应的并发限制。固定上限时所有域名共享同一个限制，与原先的全局信号量一致，
+     * 在途请求总数不超过httpclient.max-connections；自适应时按域名分别限制，桶域名归入所在的访问域名
+     */
+    protected ConcurrencyLimiter getConcurrencyLimiter(String hostname) {
+        String key = hostname;
+        if (!this.adaptiveConcurrency) {
+            key = ALL_ENDPOINTS;
+        } else if (this.endpointSelector != null) {
+            EndpointSelector.Endpoint endpoint = this.endpointSelector.find(hostname);
+            if (endpoint != null) {
+                key = endpoint.getHost();
+            }
+        } else {
+            String endpoint = this.getEndpoint();
+            if (hostname.endsWith("." + endpoint)) {
+                key = endpoint;
+            }
+        }
+        ConcurrencyLimiter limiter = this.concurrencyLimiters.get(key);
+        if (limiter == null) {
+            ConcurrencyLimiter newLimiter = new ConcurrencyLimiter(key, this.adaptiveConcurrency,
+                    this.minConcurrency, this.maxConcurrency, ObsConstraint.DEFAULT_INITIAL_CONCURRENCY);
+            limiter = this.concurrencyLimiters.putIfAbsent(key, newLimiter);
+            if (limiter == null) {
+                limiter = newLimiter;
+            }
+        }
+        return limiter;
+    }
+
+    protected List<ConcurrencyLimitMetrics> getConcurrencyLimitMetricsImpl() {
+        List<ConcurrencyLimitMetrics> metrics = new ArrayList<ConcurrencyLimitMetrics>(this.concurrencyLimiters.size());
+        for (ConcurrencyLimiter limiter : this.concurrencyLimiters.values()) {
+            metrics.add(new ConcurrencyLimitMetrics(limiter.getName(), limiter.isAdaptive(), limiter.getLimit(),
+                    limiter.getInflight(), limiter.getQueueLength(), limiter.getAcquiredCount(),
+                    limiter.getTotalWaitNanos() / 1000000, limiter.getMaxWaitNanos() / 1000000,
+                    limiter.getTimeoutCount()));
+        }
+        return metrics;
+    }
+
     protected String getEndpoint() {
         return this.obsProperties.getStringProperty(ObsConstraint.END_POINT, "");
     }
@@ -261,6 +508,19 @@ public class RestConnectionService {
         return this.obsProperties.getBoolProperty(ObsConstraint.HTTPS_ONLY, true);
     }
 
+    protected RetryPolicy getRetryPolicy() {
+        RetryPolicy policy = this.retryPolicy;
+        if (policy == null) {
+            synchronized (this) {
+                if (this.retryPolicy == null) {
+                    this.retryPolicy = new DefaultRetryPolicy();
+                }
+                policy = this.retryPolicy;
+            }
+        }
+        return policy;
+    }
+
     public LocalTimeUtil getLocalTimeUtil() {
         return localTimeUtil;
     }
@@ -17,10 +17,12 @@ package com.obs.services.internal;
 import com.obs.log.ILogger;
 import com.obs.log.InterfaceLogBean;
 import com.obs.log.LoggerBuilder;
+import com.obs.services.RetryPolicy;
 import com.obs.services.internal.Constants.CommonHeaders;
 import com.obs.services.internal.ext.ExtObsConstraint;
 import com.obs.services.internal.handler.XmlResponsesSaxParser;
 import com.obs.services.internal.io.UnrecoverableIOException;
+import com.obs.services.internal.security.AuthTypeCache;
 import com.obs.services.internal.security.BasicSecurityKey;
 import com.obs.services.internal.security.ProviderCredentialThreadContext;
 import com.obs.services.internal.security.ProviderCredentials;
@@ -36,24 +38,29 @@ import com.obs.services.internal.utils.V4Authentication;
 import com.obs.services.model.AuthTypeEnum;
 import com.obs.services.model.HttpMethodEnum;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Headers;
 import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.Response;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static com.obs.services.internal.Constants.ERROR_CODE_HEADER_AMZ;
 import static com.obs.services.internal.Constants.ERROR_CODE_HEADER_OBS;
@@ -70,6 +77,12 @@ public abstract class RestStorageService extends RestConnectionService {
 
     private static final String REQUEST_TIMEOUT_CODE = "RequestTimeout";
 
+    private static final String SLOW_DOWN_CODE = "SlowDown";
+
+    private static final String CONCURRENCY_LIMIT_EXCEEDED_CODE = "ConcurrencyLimitExceeded";
+
+    private static final long LATENCY_SAMPLE_MAX_BODY_SIZE = 1024 * 1024L;
+
     // for example:Caused by: java.io.IOException: unexpected end of stream on
     // Connection{...}
     private static final String UNEXPECTED_END_OF_STREAM_EXCEPTION = "unexpected end of stream";
@@ -300,6 +313,7 @@ public abstract class RestStorageService extends RestConnectionService {
         private RetryCounter unexpectedErrorRetryCounter;
         private Exception lastException = null;
         private boolean wasRecentlyRedirected;
+        private long previousDelay;
 
         public RetryController(RetryCounter errorRetryCounter, RetryCounter unexpectedErrorRetryCounter,
                                boolean wasRecentlyRedirected) {
@@ -332,6 +346,14 @@ public abstract class RestStorageService extends RestConnectionService {
         public void setWasRecentlyRedirected(boolean wasRecentlyRedirected) {
             this.wasRecentlyRedirected = wasRecentlyRedirected;
         }
+
+        public long getPreviousDelay() {
+            return previousDelay;
+        }
+
+        public void setPreviousDelay(long previousDelay) {
+            this.previousDelay = previousDelay;
+        }
     }
 
     private static final class RequestInfo {
@@ -406,17 +428,7 @@ public abstract class RestStorageService extends RestConnectionService {
     // todo 重构时需要评估下 needSignature, autoRelease, isOEF 这三个参数是否要合入到 transResult 里
     protected Response performRequest(NewTransResult result, boolean needSignature, boolean autoRelease, boolean isOEF,
                                       boolean isNotNeedBucket) {
-        Request.Builder builder = setupConnection(result, isOEF, isNotNeedBucket);
-        renameMetadataKeys(result.getBucketName(), builder, result.getHeaders(), result.isEncodeHeaders());
-        if (result.getUserHeaders() != null) {
-            result.getUserHeaders().forEach(builder::addHeader);
-        }
-        Request request = builder.build();
-        if (result.hasCertificate()) {
-            ServiceUtils.checkParameterStartsWith(request.url().toString(),
-                    Constants.HTTPS_PREFIX,
-                    "Only '" + Constants.HTTPS_PREFIX + "' URLs are allowed for sending certificate details to ensure secure transmission.");
-        }
+        Request request = buildRequest(result, isOEF, isNotNeedBucket);
         RequestInfo requestInfo = new RequestInfo(request, new InterfaceLogBean("performRequest", "", ""));
         try {
             tryRequest(result.getParams(), result.getBucketName(), needSignature,
@@ -438,6 +450,263 @@ public abstract class RestStorageService extends RestConnectionService {
         return response;
     }
 
+    /**
+     * 异步发送请求，返回的Future在收到2xx响应时完成，响应需由调用方关闭
+     */
+    protected CompletableFuture<Response> performRequestAsync(NewTransResult result) {
+        Request request;
+        try {
+            request = buildRequest(result, false, false);
+        } catch (RuntimeException e) {
+            CompletableFuture<Response> future = new CompletableFuture<Response>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return performRequestAsync(request, result.getParams(), result.getBucketName(), result.isEncodeHeaders());
+    }
+
+    /**
+     * 异步发送签名请求：通过Call.enqueue发送，等待并发许可与重试等待期间都不占用线程，
+     * 重试、重定向与域名故障切换的判定与同步请求一致
+     */
+    protected CompletableFuture<Response> performRequestAsync(Request request, Map<String, String> requestParameters,
+            String bucketName, boolean needEncode) {
+        AsyncRequest asyncRequest = new AsyncRequest(request, requestParameters, bucketName, needEncode);
+        asyncRequest.start();
+        return asyncRequest.future;
+    }
+
+    /**
+     * 在异步请求的响应上构造结果，取消返回的Future时同时取消请求
+     */
+    protected static <T> CompletableFuture<T> thenBuild(final CompletableFuture<Response> responseFuture,
+            Function<? super Response, ? extends T> builder) {
+        final CompletableFuture<T> result = responseFuture.thenApply(builder);
+        result.whenComplete((ret, t) -> {
+            if (result.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private final class AsyncRequest implements Callback {
+        private final CompletableFuture<Response> future = new CompletableFuture<Response>();
+
+        private final RequestInfo requestInfo;
+
+        private final Map<String, String> requestParameters;
+
+        private final String bucketName;
+
+        private final boolean needEncode;
+
+        private final StringBuilder stringToSignToReturn = new StringBuilder("");
+
+        private RetryController retryController;
+
+        private ConcurrencyLimiter limiter;
+
+        private EndpointSelector.Endpoint endpoint;
+
+        private long callStart;
+
+        AsyncRequest(Request request, Map<String, String> requestParameters, String bucketName, boolean needEncode) {
+            this.requestInfo = new RequestInfo(request, new InterfaceLogBean("performRequestAsync", "", ""));
+            this.requestParameters = requestParameters;
+            this.bucketName = bucketName;
+            this.needEncode = needEncode;
+            // 调用方取消时中断正在进行的请求
+            this.future.whenComplete((response, t) -> {
+                Call call = this.requestInfo.getCall();
+                if (this.future.isCancelled() && call != null) {
+                    call.cancel();
+                }
+            });
+        }
+
+        void start() {
+            try {
+                this.requestInfo.setRequest(initRequest(this.bucketName, this.requestInfo.getRequest(),
+                        this.needEncode));
+                this.retryController = createRetryController(this.requestInfo.getRequest());
+            } catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            attempt();
+        }
+
+        private void attempt() {
+            if (this.future.isDone()) {
+                return;
+            }
+            final Request request;
+            try {
+                if (!this.retryController.isWasRecentlyRedirected()) {
+                    this.requestInfo.setRequest(failoverEndpoint(this.requestInfo.getRequest(),
+                            this.requestParameters));
+                    this.requestInfo.setRequest(addBaseHeaders(this.requestInfo.getRequest(), this.bucketName, true,
+                            this.stringToSignToReturn));
+                } else {
+                    this.retryController.setWasRecentlyRedirected(false);
+                }
+                request = this.requestInfo.getRequest();
+                this.limiter = getConcurrencyLimiter(request.url().host());
+            } catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            this.limiter.acquireAsync(concurrencyAcquireTimeout, asyncMaxPendingRequests, getAsyncTimer())
+                    .whenComplete((granted, t) -> {
+                        if (t != null) {
+                            fail(t);
+                        } else if (!granted) {
+                            ServiceException exception = new ServiceException("No request permit of "
+                                    + this.limiter.getName() + " is available within " + concurrencyAcquireTimeout
+                                    + " ms or too many requests are waiting");
+                            exception.setErrorCode(CONCURRENCY_LIMIT_EXCEEDED_CODE);
+                            fail(exception);
+                        } else {
+                            send(request);
+                        }
+                    });
+        }
+
+        private void send(Request request) {
+            if (this.future.isDone()) {
+                this.limiter.release(-1, false);
+                return;
+            }
+            Call call = httpClient.newCall(request);
+            this.requestInfo.setCall(call);
+            this.endpoint = endpointSelector == null ? null : endpointSelector.find(request.url().host());
+            if (this.endpoint != null) {
+                this.endpoint.requestStarted();
+            }
+            this.callStart = System.nanoTime();
+            call.enqueue(this);
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            if (this.endpoint != null) {
+                if (EndpointSelector.isConnectFailure(e)) {
+                    endpointSelector.onFailure(this.endpoint);
+                }
+                this.endpoint.requestFinished();
+            }
+            this.limiter.release(-1, e instanceof SocketTimeoutException);
+            try {
+                if (e instanceof UnrecoverableIOException) {
+                    throw this.retryController.getLastException() != null
+                            ? this.retryController.getLastException() : e;
+                }
+                this.retryController.setLastException(e);
+                long delay = getIOExceptionRetryDelay(e, this.requestInfo.getRequest(), this.retryController, call);
+                if (log.isWarnEnabled()) {
+                    log.warn("Retrying connection that failed with " + e.getClass()
+                            + ", attempt number " + this.retryController.getErrorRetryCounter().getErrorCount()
+                            + " of " + this.retryController.getErrorRetryCounter().getRetryMaxCount());
+                }
+                retry(delay);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            Request request = this.requestInfo.getRequest();
+            if (this.endpoint != null) {
+                if (response.code() >= 500) {
+                    endpointSelector.onFailure(this.endpoint);
+                } else {
+                    endpointSelector.onSuccess(this.endpoint);
+                }
+                this.endpoint.requestFinished();
+            }
+            this.limiter.release(isLatencySample(request) ? System.nanoTime() - this.callStart : -1,
+                    isThrottled(response));
+            this.requestInfo.setResponse(response);
+            try {
+                handleResponse(request, response);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }
+
+        private void handleResponse(Request request, Response response) {
+            int responseCode = response.code();
+            InterfaceLogBean reqBean = this.requestInfo.getReqBean();
+            reqBean.setRespParams("[responseCode: " + responseCode + "][request-id: "
+                    + response.header(getIHeaders(this.bucketName).requestIdHeader(), "") + "]");
+            if (log.isDebugEnabled()) {
+                log.debug("Response for '" + request.method() + "'. Content-Type: "
+                        + response.header(CommonHeaders.CONTENT_TYPE) + ", ResponseCode:" + responseCode
+                        + ", Headers: " + response.headers());
+            }
+            if (responseCode >= 300 && responseCode < 400 && responseCode != 304) {
+                this.requestInfo.setRequest(handleRedirectResponse(request, this.requestParameters, this.bucketName,
+                        true, false, reqBean, response, this.retryController, this.stringToSignToReturn));
+                retry(0);
+            } else if ((responseCode >= 400 && responseCode < 500) || responseCode == 304) {
+                retry(getRequestErrorRetryDelay(response, this.retryController, this.stringToSignToReturn));
+            } else if (responseCode >= 500) {
+                retry(getServerErrorRetryDelay(reqBean, response, this.retryController, responseCode));
+            } else {
+                getRetryPolicy().onSuccess();
+                if (log.isInfoEnabled()) {
+                    reqBean.setRespTime(new Date());
+                    reqBean.setResultCode(Constants.RESULTCODE_SUCCESS);
+                    log.info(reqBean);
+                }
+                if (!this.future.complete(response)) {
+                    response.close();
+                }
+            }
+        }
+
+        /**
+         * 由定时器在等待delay毫秒后重试，不阻塞当前线程
+         */
+        private void retry(long delay) {
+            if (delay <= 0) {
+                attempt();
+                return;
+            }
+            if (log.isWarnEnabled()) {
+                log.warn("Encountered " + this.retryController.getErrorRetryCounter().getErrorCount()
+                        + " error(s), will retry in " + delay + "ms");
+            }
+            try {
+                getAsyncTimer().schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable t) {
+            this.future.completeExceptionally(handleThrowable(this.bucketName, this.requestInfo.getRequest(),
+                    this.requestInfo.getResponse(), this.requestInfo.getCall(), t, this.needEncode));
+        }
+    }
+
+    private Request buildRequest(NewTransResult result, boolean isOEF, boolean isNotNeedBucket) {
+        Request.Builder builder = setupConnection(result, isOEF, isNotNeedBucket);
+        renameMetadataKeys(result.getBucketName(), builder, result.getHeaders(), result.isEncodeHeaders());
+        if (result.getUserHeaders() != null) {
+            result.getUserHeaders().forEach(builder::addHeader);
+        }
+        Request request = builder.build();
+        if (result.hasCertificate()) {
+            ServiceUtils.checkParameterStartsWith(request.url().toString(),
+                    Constants.HTTPS_PREFIX,
+                    "Only '" + Constants.HTTPS_PREFIX + "' URLs are allowed for sending certificate details to ensure secure transmission.");
+        }
+        return request;
+    }
+
     private void tryRequest(Map<String, String> requestParameters, String bucketName, boolean doSignature,
                             boolean isOEF, RequestInfo requestInfo, boolean needEncode,
             CallCancelHandler cancelHandler) throws Exception {
@@ -458,17 +727,12 @@ public abstract class RestStorageService extends RestConnectionService {
             }
         }
 
-        RetryController retryController = new RetryController(new RetryCounter(
-                obsProperties.getIntProperty(ObsConstraint.HTTP_RETRY_MAX,
-                        ObsConstraint.HTTP_RETRY_MAX_VALUE)),
-                new RetryCounter(obsProperties.getIntProperty(
-                        ExtObsConstraint.HTTP_MAX_RETRY_ON_UNEXPECTED_END_EXCEPTION,
-                        ExtObsConstraint.DEFAULT_MAX_RETRY_ON_UNEXPECTED_END_EXCEPTION)),
-                false);
+        RetryController retryController = createRetryController(requestInfo.getRequest());
 
         StringBuilder stringToSignToReturn = new StringBuilder("");
         do {
             if (!retryController.isWasRecentlyRedirected()) {
+                requestInfo.setRequest(failoverEndpoint(requestInfo.getRequest(), requestParameters));
                 requestInfo.setRequest(addBaseHeaders(requestInfo.getRequest(), bucketName, doSignature, stringToSignToReturn));
             } else {
                 retryController.setWasRecentlyRedirected(false);
@@ -524,10 +788,33 @@ public abstract class RestStorageService extends RestConnectionService {
             }
 
         } while (true);
+        this.getRetryPolicy().onSuccess();
+    }
+
+    private RetryController createRetryController(Request request) {
+        return new RetryController(new RetryCounter(
+                this.getRetryPolicy().getMaxRetries(request.method(),
+                        obsProperties.getIntProperty(ObsConstraint.HTTP_RETRY_MAX,
+                                ObsConstraint.HTTP_RETRY_MAX_VALUE))),
+                new RetryCounter(obsProperties.getIntProperty(
+                        ExtObsConstraint.HTTP_MAX_RETRY_ON_UNEXPECTED_END_EXCEPTION,
+                        ExtObsConstraint.DEFAULT_MAX_RETRY_ON_UNEXPECTED_END_EXCEPTION)),
+                false);
     }
 
     private void handleRequestErrorResponse(Response response, RetryController retryController,
             StringBuilder stringToSignToReturn) {
+        long delay = getRequestErrorRetryDelay(response, retryController, stringToSignToReturn);
+        if (delay > 0) {
+            sleep(delay, retryController.getErrorRetryCounter().getErrorCount());
+        }
+    }
+
+    /**
+     * 4xx/304响应：不可重试时抛出异常，否则返回重试前应等待的时间（毫秒）
+     */
+    private long getRequestErrorRetryDelay(Response response, RetryController retryController,
+            StringBuilder stringToSignToReturn) {
         ServiceException exception = createServiceException("Request Error.", response, stringToSignToReturn);
 
         if (LocalTimeUtil.isRequestTimeTooSkewed(exception, response)) {
@@ -555,11 +842,24 @@ public abstract class RestStorageService extends RestConnectionService {
         retryController.getErrorRetryCounter().addErrorCount();
         if (retryController.getErrorRetryCounter().getErrorCount()
                 < retryController.getErrorRetryCounter().getRetryMaxCount()) {
+            // 时间偏差已校正的请求立即重试，请求超时按重试策略等待
+            long delay = 0;
+            if (REQUEST_TIMEOUT_CODE.equals(errorCode)) {
+                delay = computeRetryDelay(response, null, retryController,
+                        retryController.getErrorRetryCounter().getErrorCount());
+                if (delay < 0) {
+                    if (log.isErrorEnabled()) {
+                        log.error("Retry policy rejected retrying " + errorCode + " error");
+                    }
+                    throw exception;
+                }
+            }
             if (log.isWarnEnabled()) {
                 log.warn("Retrying connection that failed with " + errorCode + " error"
                         + ", attempt number " + retryController.getErrorRetryCounter().getErrorCount()
                         + " of " + retryController.getErrorRetryCounter().getRetryMaxCount());
             }
+            return delay;
         } else {
             if (log.isErrorEnabled()) {
                 log.error("Exceeded maximum number of retries for " + errorCode + " errors: "
@@ -581,18 +881,37 @@ public abstract class RestStorageService extends RestConnectionService {
 
     private void handleServerErrorResponse(InterfaceLogBean reqBean, Response response, RetryController retryController,
                                            int responseCode) {
+        long delay = getServerErrorRetryDelay(reqBean, response, retryController, responseCode);
+        sleep(delay, retryController.getErrorRetryCounter().getErrorCount());
+    }
+
+    /**
+     * 5xx响应：重试次数用尽或重试策略拒绝时抛出异常，否则返回重试前应等待的时间（毫秒）
+     */
+    private long getServerErrorRetryDelay(InterfaceLogBean reqBean, Response response,
+            RetryController retryController, int responseCode) {
         reqBean.setResponseInfo("Internal Server error(s).", String.valueOf(responseCode));
         if (log.isErrorEnabled()) {
             log.error(reqBean);
         }
 
+        RetryCounter retryCounter = retryController.getErrorRetryCounter();
+        if (retryCounter.getErrorCount() < retryCounter.getRetryMaxCount()) {
+            long delay = computeRetryDelay(response, null, retryController, retryCounter.getErrorCount() + 1);
+            if (delay < 0) {
+                throw createServiceException("Retry policy rejected retrying after "
+                        + (retryCounter.getErrorCount() + 1) + " 5xx error(s), aborting request.", response, null);
+            }
+            doRetry(response, null, retryCounter);
+            return delay;
+        }
+
         doRetry(response,
                 "Encountered too many 5xx errors ("
-                        + retryController.getErrorRetryCounter().getErrorCount()
+                        + retryCounter.getErrorCount()
                         + "), aborting request.",
-                retryController.getErrorRetryCounter());
-
-        sleepBeforeRetry(retryController.getErrorRetryCounter().getErrorCount());
+                retryCounter);
+        return 0;
     }
 
     private Request handleRedirectResponse(Request request, Map<String, String> requestParameters, String bucketName,
@@ -625,14 +944,37 @@ public abstract class RestStorageService extends RestConnectionService {
                                     Request request,
                                     RetryController retryController) throws Exception {
         long start = System.currentTimeMillis();
+        ConcurrencyLimiter limiter = this.getConcurrencyLimiter(request.url().host());
 
         try {
-            semaphore.acquire();
+            if (!limiter.acquire(this.concurrencyAcquireTimeout)) {
+                ServiceException exception = new ServiceException("Timed out after " + this.concurrencyAcquireTimeout
+                        + " ms waiting for a request permit of " + limiter.getName());
+                exception.setErrorCode(CONCURRENCY_LIMIT_EXCEEDED_CODE);
+                throw exception;
+            }
             if (log.isDebugEnabled()) {
                 long acquireTime = System.currentTimeMillis();
-                log.debug("semaphore.acquire cost " + (acquireTime - start) + " ms, acquire time:" + acquireTime);
+                log.debug("concurrency permit acquire cost " + (acquireTime - start) + " ms, acquire time:"
+                        + acquireTime);
+            }
+            long callStart = System.nanoTime();
+            long rttNanos = -1;
+            boolean overloaded = false;
+            try {
+                Response response = executeOnEndpoint(call, request);
+                overloaded = isThrottled(response);
+                if (isLatencySample(request)) {
+                    rttNanos = System.nanoTime() - callStart;
+                }
+                return response;
+            } catch (SocketTimeoutException e) {
+                overloaded = true;
+                throw e;
+            } finally {
+                // 重试等待期间不占用并发许可
+                limiter.release(rttNanos, overloaded);
             }
-            return call.execute();
         } catch (UnrecoverableIOException e) {
             if (retryController.getLastException() != null) {
                 throw retryController.getLastException();
@@ -653,17 +995,100 @@ public abstract class RestStorageService extends RestConnectionService {
             }
             return null;
         } finally {
-            semaphore.release();
             if (log.isInfoEnabled()) {
                 log.info("OkHttp cost " + (System.currentTimeMillis() - start) + " ms to apply http request");
             }
         }
     }
 
+    private Response executeOnEndpoint(Call call, Request request) throws IOException {
+        EndpointSelector.Endpoint endpoint = this.endpointSelector == null ? null
+                : this.endpointSelector.find(request.url().host());
+        if (endpoint == null) {
+            return call.execute();
+        }
+        endpoint.requestStarted();
+        try {
+            Response response = call.execute();
+            if (response.code() >= 500) {
+                this.endpointSelector.onFailure(endpoint);
+            } else {
+                this.endpointSelector.onSuccess(endpoint);
+            }
+            return response;
+        } catch (IOException e) {
+            if (EndpointSelector.isConnectFailure(e)) {
+                this.endpointSelector.onFailure(endpoint);
+            }
+            throw e;
+        } finally {
+            endpoint.requestFinished();
+        }
+    }
+
+    private boolean isThrottled(Response response) {
+        int code = response.code();
+        return code == 503 || code == 429 || SLOW_DOWN_CODE.equals(getErrorCodeFromHeader(response));
+    }
+
+    /**
+     * 上传大量数据的请求耗时主要取决于数据量，不作为时延样本
+     */
+    private static boolean isLatencySample(Request request) {
+        RequestBody body = request.body();
+        if (body == null) {
+            return true;
+        }
+        try {
+            long length = body.contentLength();
+            return length >= 0 && length <= LATENCY_SAMPLE_MAX_BODY_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 重试前若请求的域名已被摘除，改用其他可用域名
+     */
+    private Request failoverEndpoint(Request request, Map<String, String> requestParameters) {
+        if (this.endpointSelector == null) {
+            return request;
+        }
+        String hostname = request.url().host();
+        EndpointSelector.Endpoint current = this.endpointSelector.find(hostname);
+        if (current == null || !current.isEjected()) {
+            return request;
+        }
+        String uploadId = requestParameters == null ? null
+                : requestParameters.get(Constants.ObsRequestParams.UPLOAD_ID);
+        EndpointSelector.Endpoint selected = this.endpointSelector.select(uploadId);
+        if (selected == current) {
+            return request;
+        }
+        if (log.isWarnEnabled()) {
+            log.warn("Endpoint " + current.getHost() + " is unavailable, fail over to " + selected.getHost());
+        }
+        return request.newBuilder().url(request.url().newBuilder()
+                .host(EndpointSelector.replaceHost(hostname, current, selected)).build()).build();
+    }
+
     private void retryOnIOException(IOException e,
                                     Request request,
                                     RetryController retryController,
                                     Call call) throws Exception {
+        long delay = getIOExceptionRetryDelay(e, request, retryController, call);
+        if (delay > 0) {
+            sleep(delay, retryController.getErrorRetryCounter().getErrorCount());
+        }
+    }
+
+    /**
+     * 请求发送失败：不可重试时抛出异常，否则返回重试前应等待的时间（毫秒）
+     */
+    private long getIOExceptionRetryDelay(IOException e,
+                                          Request request,
+                                          RetryController retryController,
+                                          Call call) throws Exception {
 
         // for example:Caused by: java.io.IOException: unexpected
         // end of stream on Connection{...}
@@ -671,12 +1096,14 @@ public abstract class RestStorageService extends RestConnectionService {
             if (log.isErrorEnabled()) {
                 log.error("unexpected end of stream excepiton.");
             }
-            return;
+            return 0;
         }
 
         if (retryRequest(e, retryController.getErrorRetryCounter(), request, call)) {
-            sleepBeforeRetry(retryController.getErrorRetryCounter().getErrorCount());
-            return;
+            long delay = computeRetryDelay(request, e, retryController);
+            if (delay >= 0) {
+                return delay;
+            }
         }
 
         if ((e instanceof ConnectException) || (e instanceof InterruptedIOException)) {
@@ -899,7 +1326,7 @@ public abstract class RestStorageService extends RestConnectionService {
             providerCredentials = this.getProviderCredentials();
         } else {
             providerCredentials.setAuthType(this.getProviderCredentials().getLocalAuthType(bucketName));
-            LinkedHashMap<String, AuthTypeEnum> localAuthType = new LinkedHashMap<>();
+            AuthTypeCache localAuthType = new AuthTypeCache(1, 0);
             localAuthType.put(bucketName, providerCredentials.getAuthType());
             providerCredentials.setLocalAuthType(localAuthType);
         }
@@ -924,6 +1351,12 @@ public abstract class RestStorageService extends RestConnectionService {
 
         String fullUrl = uri.getRawPath();
         String endpoint = this.getEndpoint();
+        if (this.endpointSelector != null) {
+            EndpointSelector.Endpoint requestEndpoint = this.endpointSelector.find(hostname);
+            if (requestEndpoint != null) {
+                endpoint = requestEndpoint.getHost();
+            }
+        }
 
         if ((!this.isPathStyle() || isCname()) && hostname != null && !isV4) {
             if (isCname()) {
@@ -972,17 +1405,28 @@ public abstract class RestStorageService extends RestConnectionService {
     protected Response performRestHead(String bucketName, String objectKey, Map<String, String> requestParameters,
                                        Map<String, String> requestHeaders, Map<String, String> userHeaders,
                                        boolean needEncode) throws ServiceException {
+        Request request = buildRestRequest(HttpMethodEnum.HEAD, bucketName, objectKey, requestParameters,
+                requestHeaders, userHeaders, false);
+        return performRequest(request, requestParameters, bucketName, true, false, needEncode);
+    }
+
+    /**
+     * 构造HEAD/GET请求，requestHeaders中只保留允许的标准头域与厂商头域
+     */
+    protected Request buildRestRequest(HttpMethodEnum method, String bucketName, String objectKey,
+                                       Map<String, String> requestParameters, Map<String, String> requestHeaders,
+                                       Map<String, String> userHeaders, boolean isOEF) {
         NewTransResult transResult = new NewTransResult();
-        transResult.setHttpMethod(HttpMethodEnum.HEAD);
+        transResult.setHttpMethod(method);
         transResult.setBucketName(bucketName);
         transResult.setObjectKey(objectKey);
         transResult.setParams(requestParameters);
-        Request.Builder builder = setupConnection(transResult, false, false);
+        Request.Builder builder = setupConnection(transResult, isOEF, false);
         addRequestHeadersToConnection(bucketName, builder, requestHeaders);
         if (userHeaders != null) {
             userHeaders.forEach(builder::addHeader);
         }
-        return performRequest(builder.build(), requestParameters, bucketName, true, false, needEncode);
+        return builder.build();
     }
 
     protected Response performRestGet(String bucketName, String objectKey, Map<String, String> requestParameters,
@@ -1017,18 +1461,9 @@ public abstract class RestStorageService extends RestConnectionService {
     protected Response performRestGet(String bucketName, String objectKey, Map<String, String> requestParameters,
                                       Map<String, String> requestHeaders, Map<String, String> userHeaders,
                                       boolean isOEF, boolean needEncode) throws ServiceException {
-        NewTransResult transResult = new NewTransResult();
-        transResult.setHttpMethod(HttpMethodEnum.GET);
-        transResult.setBucketName(bucketName);
-        transResult.setObjectKey(objectKey);
-        transResult.setParams(requestParameters);
-        Request.Builder builder = setupConnection(transResult, isOEF, false);
-
-        addRequestHeadersToConnection(bucketName, builder, requestHeaders);
-        if (userHeaders != null) {
-            userHeaders.forEach(builder::addHeader);
-        }
-        return performRequest(builder.build(), requestParameters, bucketName, true, isOEF, needEncode);
+        Request request = buildRestRequest(HttpMethodEnum.GET, bucketName, objectKey, requestParameters,
+                requestHeaders, userHeaders, isOEF);
+        return performRequest(request, requestParameters, bucketName, true, isOEF, needEncode);
     }
 
     protected Response performRestDelete(String bucketName, String objectKey, Map<String, String> requestParameters,
@@ -1107,9 +1542,51 @@ public abstract class RestStorageService extends RestConnectionService {
         return performRequestWithoutSignature(builder.build(), requestParameters, bucketName);
     }
 
-    private void sleepBeforeRetry(int internalErrorCount) {
-        long delayMs = 50L * (int) Math.pow(2, internalErrorCount);
-        log.warn("Encountered " + internalErrorCount + " Internal Server error(s), will retry in " + delayMs
+    /**
+     * 按重试策略计算请求发送失败后的等待时间，重试次数已计入retryController
+     *
+     * @return 重试策略拒绝重试时返回负数
+     */
+    private long computeRetryDelay(Request request, IOException exception, RetryController retryController) {
+        int retryCount = retryController.getErrorRetryCounter().getErrorCount();
+        long delayMs = this.getRetryPolicy().computeDelay(new RetryPolicy.RetryContext(request.method(), retryCount,
+                -1, null, -1, exception, retryController.getPreviousDelay()));
+        if (delayMs >= 0) {
+            retryController.setPreviousDelay(delayMs);
+        }
+        return delayMs;
+    }
+
+    private long computeRetryDelay(Response response, IOException exception, RetryController retryController,
+            int retryCount) {
+        long delayMs = this.getRetryPolicy().computeDelay(new RetryPolicy.RetryContext(response.request().method(),
+                retryCount, response.code(), getErrorCodeFromHeader(response), parseRetryAfter(response),
+                exception, retryController.getPreviousDelay()));
+        if (delayMs >= 0) {
+            retryController.setPreviousDelay(delayMs);
+        }
+        return delayMs;
+    }
+
+    private static long parseRetryAfter(Response response) {
+        String retryAfter = response.header(CommonHeaders.RETRY_AFTER);
+        if (!ServiceUtils.isValid(retryAfter)) {
+            return -1;
+        }
+        retryAfter = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                return Math.max(0, ServiceUtils.parseRfc822Date(retryAfter).getTime() - System.currentTimeMillis());
+            } catch (ParseException ex) {
+                return -1;
+            }
+        }
+    }
+
+    private void sleep(long delayMs, int retryCount) {
+        log.warn("Encountered " + retryCount + " error(s), will retry in " + delayMs
                 + "ms");
         try {
             Thread.sleep(delayMs);
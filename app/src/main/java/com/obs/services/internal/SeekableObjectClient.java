@@ -0,0 +1,87 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+import com.obs.services.AbstractClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.internal.io.BlockCachingObjectChannel;
+import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.model.ObjectMetadata;
+import com.obs.services.model.SeekableObjectChannel;
+import com.obs.services.model.SeekableObjectRequest;
+
+/**
+ * 打开对象的随机读取通道：先获取对象元数据确定长度与ETag，按需预读对象尾部，
+ * 之后的读取由通道按块发起以If-Match固定ETag的范围下载
+ */
+public class SeekableObjectClient {
+    private static final ILogger log = LoggerBuilder.getLogger(SeekableObjectClient.class);
+
+    private final AbstractClient obsClient;
+
+    public SeekableObjectClient(AbstractClient obsClient) {
+        this.obsClient = obsClient;
+    }
+
+    public SeekableObjectChannel openChannel(final SeekableObjectRequest request) {
+        ServiceUtils.assertParameterNotNull(request, "SeekableObjectRequest is null");
+        ServiceUtils.assertParameterNotNull2(request.getObjectKey(), "objectKey is null");
+        if (request.getBlockSize() < ObsConstraint.MIN_CHANNEL_BLOCK_SIZE) {
+            throw new IllegalArgumentException("blockSize should not be less than "
+                    + ObsConstraint.MIN_CHANNEL_BLOCK_SIZE);
+        }
+        if (request.getCacheBlocks() < 1) {
+            throw new IllegalArgumentException("cacheBlocks should be positive");
+        }
+
+        ObjectMetadata metadata = ParallelGetObjectClient.getObjectMetadata(this.obsClient, request);
+        long objectSize = metadata.getContentLength() == null ? 0 : metadata.getContentLength();
+        final String etag = ServiceUtils.isValid(request.getIfMatchTag()) ? request.getIfMatchTag()
+                : metadata.getEtag();
+
+        BlockCachingObjectChannel channel = new BlockCachingObjectChannel(
+                new BlockCachingObjectChannel.RangeReader() {
+                    @Override
+                    public InputStream open(long start, long end) throws IOException {
+                        try {
+                            return SeekableObjectClient.this.obsClient.getObject(
+                                    ParallelGetObjectClient.newRangeRequest(request, etag, start, end))
+                                    .getObjectContent();
+                        } catch (ObsException e) {
+                            throw new IOException("Failed to get range " + start + "-" + end + " of "
+                                    + request.getObjectKey(), e);
+                        }
+                    }
+                }, etag, objectSize, request.getBlockSize(), request.getCacheBlocks(), request.isDirectBuffer());
+
+        long footerSize = Math.min(objectSize, request.getFooterPrefetchSize());
+        if (footerSize > 0) {
+            try {
+                channel.prefetch(objectSize - footerSize, footerSize);
+            } catch (IOException e) {
+                // 预读失败不影响打开通道，之后读取时再下载
+                if (log.isWarnEnabled()) {
+                    log.warn("Prefetch footer of " + request.getObjectKey() + " failed", e);
+                }
+            }
+        }
+        return channel;
+    }
+}
@@ -18,10 +18,14 @@ import com.obs.log.ILogger;
 import com.obs.log.LoggerBuilder;
 import com.obs.services.AbstractClient;
 import com.obs.services.exception.ObsException;
+import com.obs.services.internal.task.PartScheduler;
 import com.obs.services.internal.utils.CRC64;
 import com.obs.services.internal.utils.CRC64InputStream;
+import com.obs.services.internal.utils.CallCancelHandler;
+import com.obs.services.internal.utils.CheckPointJournal;
 import com.obs.services.internal.utils.SecureObjectInputStream;
 import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.internal.utils.TransferCancelHandler;
 import com.obs.services.model.AbortMultipartUploadRequest;
 import com.obs.services.model.CompleteMultipartUploadRequest;
 import com.obs.services.model.CompleteMultipartUploadResult;
@@ -33,26 +37,25 @@ import com.obs.services.model.UploadFileRequest;
 import com.obs.services.model.UploadPartRequest;
 import com.obs.services.model.UploadPartResult;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 import static com.obs.services.internal.Constants.CommonHeaders.HASH_CRC64ECMA;
 import static com.obs.services.internal.Constants.CommonHeaders.INVALID_CRC_64;
@@ -240,62 +243,63 @@ public class UploadResumableClient {
         }
     }
 
-    private List<PartResult> uploadfile(UploadFileRequest uploadFileRequest, UploadCheckPoint uploadCheckPoint)
-            throws Exception {
+    private List<PartResult> uploadfile(final UploadFileRequest uploadFileRequest,
+            final UploadCheckPoint uploadCheckPoint) throws Exception {
         ArrayList<PartResult> pieceResults = new ArrayList<PartResult>();
-        ExecutorService executorService = Executors.newFixedThreadPool(uploadFileRequest.getTaskNum());
-        ArrayList<Future<PartResult>> futures = new ArrayList<Future<PartResult>>();
+        final TransferCancelHandler cancelHandler = new TransferCancelHandler(uploadFileRequest.getCancelHandler());
+
+        long transferredBytes = 0L;
+        List<Mission> unfinishedUploadMissions = new ArrayList<Mission>();
+        for (int i = 0; i < uploadCheckPoint.uploadParts.size(); i++) {
+            UploadPart uploadPart = uploadCheckPoint.uploadParts.get(i);
+            if (uploadPart.isCompleted) {
+                PartResult pr = new PartResult(uploadPart.partNumber, uploadPart.offset, uploadPart.size);
+                pr.setFailed(false);
+                pieceResults.add(pr);
+                transferredBytes += uploadPart.size;
+            } else {
+                Mission mission = new Mission(i, uploadCheckPoint, i, uploadFileRequest, this.obsClient);
+                mission.setCancelHandler(cancelHandler);
+                unfinishedUploadMissions.add(mission);
+            }
+        }
 
         ProgressManager progressManager = null;
-        if (uploadFileRequest.getProgressListener() == null) {
-            for (int i = 0; i < uploadCheckPoint.uploadParts.size(); i++) {
-                UploadPart uploadPart = uploadCheckPoint.uploadParts.get(i);
-                if (uploadPart.isCompleted) {
-                    PartResult pr = new PartResult(uploadPart.partNumber, uploadPart.offset, uploadPart.size);
-                    pr.setFailed(false);
-                    pieceResults.add(pr);
-                } else {
-                    futures.add(executorService
-                            .submit(new Mission(i, uploadCheckPoint, i, uploadFileRequest, this.obsClient)));
-                }
-            }
-        } else {
-            long transferredBytes = 0L;
-            List<Mission> unfinishedUploadMissions = new LinkedList<Mission>();
-            for (int i = 0; i < uploadCheckPoint.uploadParts.size(); i++) {
-                UploadPart uploadPart = uploadCheckPoint.uploadParts.get(i);
-                if (uploadPart.isCompleted) {
-                    PartResult pr = new PartResult(uploadPart.partNumber, uploadPart.offset, uploadPart.size);
-                    pr.setFailed(false);
-                    pieceResults.add(pr);
-                    transferredBytes += uploadPart.size;
-                } else {
-                    unfinishedUploadMissions
-                            .add(new Mission(i, uploadCheckPoint, i, uploadFileRequest, this.obsClient));
-                }
-            }
+        if (uploadFileRequest.getProgressListener() != null) {
             progressManager = new ConcurrentProgressManager(uploadCheckPoint.uploadFileStatus.size, transferredBytes,
                     uploadFileRequest.getProgressListener(), uploadFileRequest.getProgressInterval() > 0
                             ? uploadFileRequest.getProgressInterval() : ObsConstraint.DEFAULT_PROGRESS_INTERVAL);
             for (Mission mission : unfinishedUploadMissions) {
                 mission.setProgressManager(progressManager);
-                futures.add(executorService.submit(mission));
             }
         }
 
-        executorService.shutdown();
-        executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-
-        for (Future<PartResult> future : futures) {
-            try {
-                PartResult tr = future.get();
-                pieceResults.add(tr);
-            } catch (ExecutionException e) {
-                if (!uploadFileRequest.isEnableCheckpoint()) {
-                    this.abortMultipartUploadSilent(uploadCheckPoint.uploadID, uploadFileRequest);
-                }
-                throw e;
+        // 分段按并发窗口逐个提交，出现致命错误后不再提交剩余分段，并取消在途请求
+        PartScheduler<PartResult> partScheduler = new PartScheduler<PartResult>(
+                this.obsClient.getTransferScheduler().openSession(uploadFileRequest.getTaskNum()),
+                uploadFileRequest.getTaskNum(),
+                new Predicate<PartResult>() {
+                    @Override
+                    public boolean test(PartResult partResult) {
+                        return partResult.isFailed() && (uploadCheckPoint.isAbort
+                                || !uploadFileRequest.isEnableCheckpoint() || cancelHandler.isCancelled());
+                    }
+                },
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        cancelHandler.cancel();
+                    }
+                });
+        try {
+            pieceResults.addAll(partScheduler.execute(unfinishedUploadMissions.iterator()));
+        } catch (ExecutionException e) {
+            if (!uploadFileRequest.isEnableCheckpoint()) {
+                this.abortMultipartUploadSilent(uploadCheckPoint.uploadID, uploadFileRequest);
             }
+            throw e;
+        } finally {
+            uploadCheckPoint.closeJournal();
         }
 
         if (progressManager != null) {
@@ -313,6 +317,7 @@ public class UploadResumableClient {
         private UploadFileRequest uploadFileRequest;
         private AbstractClient obsClient;
         private ProgressManager progressManager;
+        private CallCancelHandler cancelHandler;
 
         public Mission(int id, UploadCheckPoint uploadCheckPoint, int partIndex, UploadFileRequest uploadFileRequest,
                 AbstractClient obsClient) {
@@ -321,6 +326,7 @@ public class UploadResumableClient {
             this.partIndex = partIndex;
             this.uploadFileRequest = uploadFileRequest;
             this.obsClient = obsClient;
+            this.cancelHandler = uploadFileRequest.getCancelHandler();
         }
 
         @Override
@@ -328,7 +334,7 @@ public class UploadResumableClient {
             PartResult tr = null;
             UploadPart uploadPart = uploadCheckPoint.uploadParts.get(partIndex);
             tr = new PartResult(partIndex + 1, uploadPart.offset, uploadPart.size);
-            boolean uploadFileCanceled = (uploadFileRequest.getCancelHandler() != null && uploadFileRequest.getCancelHandler().isCancelled());
+            boolean uploadFileCanceled = (cancelHandler != null && cancelHandler.isCancelled());
 
             if (uploadFileCanceled) {
                 String errorInfo = String.format(
@@ -355,7 +361,7 @@ public class UploadResumableClient {
                     uploadPartRequest.setPartNumber(uploadPart.partNumber);
                     uploadPartRequest.setRequesterPays(uploadFileRequest.isRequesterPays());
                     uploadPartRequest.setUserHeaders(uploadFileRequest.getUserHeaders());
-                    uploadPartRequest.setCancelHandler(uploadFileRequest.getCancelHandler());
+                    uploadPartRequest.setCancelHandler(cancelHandler);
                     uploadPartRequest.setNeedCalculateCRC64(uploadFileRequest.isNeedCalculateCRC64());
                     uploadPartRequest.setFile(new File(uploadFileRequest.getUploadFile()));
                     uploadPartRequest.setOffset(uploadPart.offset);
@@ -380,7 +386,7 @@ public class UploadResumableClient {
                     tr.setFailed(false);
 
                     if (uploadFileRequest.isEnableCheckpoint()) {
-                        uploadCheckPoint.record(uploadFileRequest.getCheckpointFile());
+                        uploadCheckPoint.recordPart(uploadFileRequest.getCheckpointFile(), partIndex);
                     }
 
                 } catch (ObsException e) {
@@ -465,6 +471,10 @@ public class UploadResumableClient {
             this.progressManager = progressManager;
         }
 
+        public void setCancelHandler(CallCancelHandler cancelHandler) {
+            this.cancelHandler = cancelHandler;
+        }
+
     }
 
     private void prepare(UploadFileRequest uploadFileRequest, UploadCheckPoint uploadCheckPoint) throws Exception {
@@ -549,12 +559,32 @@ public class UploadResumableClient {
         private static final long serialVersionUID = 5564757792864743464L;
 
         /**
-         * 从checkpoint文件中加载checkpoint数据
+         * 从checkpoint文件中加载checkpoint数据，兼容旧版本的Java序列化格式
          * 
          * @param checkPointFile
          * @throws Exception
          */
         public void load(String checkPointFile) throws Exception {
+            if (CheckPointJournal.isJournal(checkPointFile)) {
+                CheckPointJournal.load(checkPointFile, CheckPointJournal.KIND_UPLOAD, new CheckPointJournal.Replayer() {
+                    @Override
+                    public void readSnapshot(DataInput in) throws IOException {
+                        UploadCheckPoint.this.readSnapshot(in);
+                    }
+
+                    @Override
+                    public void replayRecord(DataInput in) throws IOException {
+                        UploadCheckPoint.this.replayRecord(in);
+                    }
+                });
+                // 日志格式的记录文件由CRC32保证完整性
+                this.md5 = hashCode();
+                return;
+            }
+            loadLegacy(checkPointFile);
+        }
+
+        private void loadLegacy(String checkPointFile) throws Exception {
             FileInputStream fileInput = null;
             SecureObjectInputStream in = null;
             try {
@@ -586,40 +616,165 @@ public class UploadResumableClient {
         }
 
         /**
-         * 把checkpoint数据写到checkpoint文件
+         * 把checkpoint数据完整写到checkpoint文件
+         * 
+         * @param checkPointFile
+         * @throws IOException
+         */
+        public void record(String checkPointFile) throws IOException {
+            getJournal(checkPointFile).compact();
+        }
+
+        /**
+         * 分段上传完成后，向checkpoint文件追加该分段的记录
          * 
          * @param checkPointFile
+         * @param partIndex
          * @throws IOException
          */
-        public synchronized void record(String checkPointFile) throws IOException {
-            this.md5 = hashCode();
-            FileOutputStream fileOutput = null;
-            ObjectOutputStream outStream = null;
+        public void recordPart(String checkPointFile, int partIndex) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(buffer);
+            this.lock.lock();
             try {
-                fileOutput = new FileOutputStream(checkPointFile);
-                outStream = new ObjectOutputStream(fileOutput);
-                outStream.writeObject(this);
-            } finally {
-                if (null != outStream) {
-                    try {
-                        outStream.close();
-                    } catch (IOException e) {
-                        if (log.isWarnEnabled()) {
-                            log.warn("close failed.", e);
-                        }
+                UploadPart uploadPart = uploadParts.get(partIndex);
+                PartEtag partEtag = null;
+                for (int i = partEtags.size() - 1; i >= 0; i--) {
+                    if (partEtags.get(i).getPartNumber() == uploadPart.partNumber) {
+                        partEtag = partEtags.get(i);
+                        break;
                     }
                 }
-                
-                if (null != fileOutput) {
-                    try {
-                        fileOutput.close();
-                    } catch (IOException e) {
-                        if (log.isWarnEnabled()) {
-                            log.warn("close failed.", e);
-                        }
-                    }
+                if (partEtag == null) {
+                    return;
+                }
+                CRC64 partCRC64 = partCRC64s.get(uploadPart.partNumber);
+                out.writeInt(partIndex);
+                CheckPointJournal.writeString(out, partEtag.getEtag());
+                out.writeBoolean(partCRC64 != null);
+                if (partCRC64 != null) {
+                    out.writeLong(partCRC64.getValue());
                 }
+            } finally {
+                this.lock.unlock();
             }
+            out.flush();
+            getJournal(checkPointFile).append(buffer.toByteArray());
+        }
+
+        /**
+         * 将未刷盘的记录写入磁盘并关闭checkpoint文件
+         */
+        public void closeJournal() {
+            CheckPointJournal current;
+            this.lock.lock();
+            try {
+                current = this.journal;
+                this.journal = null;
+            } finally {
+                this.lock.unlock();
+            }
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        private CheckPointJournal getJournal(String checkPointFile) {
+            this.lock.lock();
+            try {
+                if (this.journal == null) {
+                    this.journal = new CheckPointJournal(checkPointFile, CheckPointJournal.KIND_UPLOAD,
+                            new CheckPointJournal.SnapshotWriter() {
+                                @Override
+                                public void writeSnapshot(DataOutput out) throws IOException {
+                                    UploadCheckPoint.this.writeSnapshot(out);
+                                }
+                            });
+                }
+                return this.journal;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void writeSnapshot(DataOutput out) throws IOException {
+            this.lock.lock();
+            try {
+                CheckPointJournal.writeString(out, uploadFile);
+                out.writeLong(uploadFileStatus.size);
+                out.writeLong(uploadFileStatus.lastModified);
+                CheckPointJournal.writeString(out, uploadFileStatus.checkSum);
+                CheckPointJournal.writeString(out, bucketName);
+                CheckPointJournal.writeString(out, objectKey);
+                CheckPointJournal.writeString(out, uploadID);
+                out.writeInt(uploadParts.size());
+                for (UploadPart uploadPart : uploadParts) {
+                    out.writeInt(uploadPart.partNumber);
+                    out.writeLong(uploadPart.offset);
+                    out.writeLong(uploadPart.size);
+                    out.writeBoolean(uploadPart.isCompleted);
+                }
+                out.writeInt(partEtags.size());
+                for (PartEtag partEtag : partEtags) {
+                    CheckPointJournal.writeString(out, partEtag.getEtag());
+                    out.writeInt(partEtag.getPartNumber());
+                }
+                out.writeInt(partCRC64s.size());
+                for (Map.Entry<Integer, CRC64> entry : partCRC64s.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeLong(entry.getValue().getValue());
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void readSnapshot(DataInput in) throws IOException {
+            this.uploadFile = CheckPointJournal.readString(in);
+            this.uploadFileStatus = new FileStatus();
+            this.uploadFileStatus.size = in.readLong();
+            this.uploadFileStatus.lastModified = in.readLong();
+            this.uploadFileStatus.checkSum = CheckPointJournal.readString(in);
+            this.bucketName = CheckPointJournal.readString(in);
+            this.objectKey = CheckPointJournal.readString(in);
+            this.uploadID = CheckPointJournal.readString(in);
+            int partCount = in.readInt();
+            this.uploadParts = new ArrayList<UploadPart>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                UploadPart uploadPart = new UploadPart();
+                uploadPart.partNumber = in.readInt();
+                uploadPart.offset = in.readLong();
+                uploadPart.size = in.readLong();
+                uploadPart.isCompleted = in.readBoolean();
+                this.uploadParts.add(uploadPart);
+            }
+            int etagCount = in.readInt();
+            this.partEtags = new ArrayList<PartEtag>(etagCount);
+            for (int i = 0; i < etagCount; i++) {
+                String etag = CheckPointJournal.readString(in);
+                this.partEtags.add(new PartEtag(etag, in.readInt()));
+            }
+            int crcCount = in.readInt();
+            this.partCRC64s = new ConcurrentHashMap<Integer, CRC64>();
+            for (int i = 0; i < crcCount; i++) {
+                int partNumber = in.readInt();
+                this.partCRC64s.put(partNumber, new CRC64(in.readLong()));
+            }
+        }
+
+        private void replayRecord(DataInput in) throws IOException {
+            int partIndex = in.readInt();
+            String etag = CheckPointJournal.readString(in);
+            CRC64 partCRC64 = in.readBoolean() ? new CRC64(in.readLong()) : null;
+            if (partIndex < 0 || partIndex >= uploadParts.size()) {
+                throw new IOException("invalid part index " + partIndex + " in checkpoint journal");
+            }
+            UploadPart uploadPart = uploadParts.get(partIndex);
+            // 快照生成时可能已包含之后追加的记录
+            if (uploadPart.isCompleted) {
+                return;
+            }
+            update(partIndex, new PartEtag(etag, uploadPart.partNumber), true, partCRC64);
         }
 
         /**
@@ -629,11 +784,16 @@ public class UploadResumableClient {
          * @param partETag
          * @param completed
          */
-        public synchronized void update(int partIndex, PartEtag partETag, boolean completed, CRC64 partCRC64) {
-            partEtags.add(partETag);
-            uploadParts.get(partIndex).isCompleted = completed;
-            if (partCRC64 != null) {
-                partCRC64s.put(partETag.getPartNumber(), partCRC64);
+        public void update(int partIndex, PartEtag partETag, boolean completed, CRC64 partCRC64) {
+            this.lock.lock();
+            try {
+                partEtags.add(partETag);
+                uploadParts.get(partIndex).isCompleted = completed;
+                if (partCRC64 != null) {
+                    partCRC64s.put(partETag.getPartNumber(), partCRC64);
+                }
+            } finally {
+                this.lock.unlock();
             }
         }
 
@@ -716,6 +876,9 @@ public class UploadResumableClient {
         public ArrayList<UploadPart> uploadParts;
         public ArrayList<PartEtag> partEtags;
         public ConcurrentHashMap<Integer, CRC64> partCRC64s;
+        private transient CheckPointJournal journal;
+        // 记录文件写入时持有，使用ReentrantLock避免虚拟线程在等待时占住载体线程
+        private final transient ReentrantLock lock = new ReentrantLock();
         public transient volatile boolean isAbort = false;
         public transient volatile boolean isDeleteUploadRecordFile = true;
     }
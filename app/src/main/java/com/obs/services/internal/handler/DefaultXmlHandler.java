@@ -19,11 +19,11 @@ import org.xml.sax.helpers.DefaultHandler;
 
 public abstract class DefaultXmlHandler extends DefaultHandler {
 
-    private StringBuilder currText = null;
+    private final StringBuilder currText = new StringBuilder();
 
     @Override
     public void startElement(String uri, String name, String qualifiedName, Attributes attrs) {
-        this.currText = new StringBuilder();
+        this.currText.setLength(0);
         this.startElement(name, attrs);
     }
 
@@ -14,8 +14,14 @@
 
 package com.obs.services.internal.handler;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import org.xml.sax.Attributes;
@@ -28,6 +34,18 @@ import com.obs.log.LoggerBuilder;
 public abstract class SimpleHandler extends DefaultHandler {
     private static final ILogger LOG = LoggerBuilder.getLogger(SimpleHandler.class);
 
+    private static final String START_PREFIX = "start";
+
+    private static final String END_PREFIX = "end";
+
+    private static final MethodType START_TYPE = MethodType.methodType(void.class, SimpleHandler.class);
+
+    private static final MethodType END_TYPE = MethodType.methodType(void.class, SimpleHandler.class, String.class);
+
+    // 每个处理器类的 元素名 -> start/end方法句柄 映射，只在首次使用时解析一次
+    private static final ConcurrentHashMap<Class<?>, DispatchTable> DISPATCH_TABLES =
+            new ConcurrentHashMap<Class<?>, DispatchTable>();
+
     protected XMLReader xr;
     private StringBuilder textBuffer;
 
@@ -71,16 +89,16 @@ public abstract class SimpleHandler extends DefaultHandler {
 
     @Override
     public void startElement(String uri, String name, String qualifiedName, Attributes attrs) {
-        invokeMethodWithoutException("start" + name, null);
+        invokeMethodWithoutException(name, null, true);
     }
 
     @Override
     public void endElement(String uri, String name, String qualifiedName) {
         String elementContent = this.textBuffer.toString();
 
-        invokeMethodWithoutException("end" + name, elementContent);
+        invokeMethodWithoutException(name, elementContent, false);
 
-        this.textBuffer = new StringBuilder();
+        this.textBuffer.setLength(0);
     }
 
     private void setReaderHandler(SimpleHandler handler) {
@@ -88,8 +106,7 @@ public abstract class SimpleHandler extends DefaultHandler {
         xr.setErrorHandler(handler);
     }
 
-    @SuppressWarnings("rawtypes")
-    private void invokeMethodWithoutException(String methodName, String parameter) {
+    private void invokeMethodWithoutException(String elementName, String parameter, boolean start) {
         SimpleHandler handler = this.handlerStack.peek();
 
         if (null == handler) {
@@ -99,30 +116,86 @@ public abstract class SimpleHandler extends DefaultHandler {
             return;
         }
 
-        Class[] clazz = new Class[] {};
-        Object[] parameters = new Object[] {};
-
-        if (null != parameter) {
-            clazz = new Class[] {String.class};
-            parameters = new Object[] {parameter};
+        DispatchTable table = getDispatchTable(handler.getClass());
+        MethodHandle method = start ? table.startMethods.get(elementName) : table.endMethods.get(elementName);
+        if (method == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("non-existent SimpleHandler subclass's method for '"
+                        + (start ? START_PREFIX : END_PREFIX) + elementName + "' in " + this.getClass().getName());
+            }
+            return;
         }
 
         try {
-            Method method = handler.getClass().getMethod(methodName, clazz);
-            method.invoke(handler, parameters);
-        } catch (NoSuchMethodException e) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("non-existent SimpleHandler subclass's method for '" + methodName + "' in "
-                        + this.getClass().getName());
+            if (start) {
+                method.invokeExact(handler);
+            } else {
+                method.invokeExact(handler, parameter);
             }
         } catch (Throwable t) {
             if (LOG.isErrorEnabled()) {
-                LOG.error("Unable to invoke SimpleHandler subclass's method for '" + methodName + "' in "
+                LOG.error("Unable to invoke SimpleHandler subclass's method for '"
+                        + (start ? START_PREFIX : END_PREFIX) + elementName + "' in "
                         + this.getClass().getName(), t);
             }
         }
     }
 
+    private static DispatchTable getDispatchTable(Class<?> handlerClass) {
+        DispatchTable table = DISPATCH_TABLES.get(handlerClass);
+        if (table == null) {
+            table = new DispatchTable(handlerClass);
+            DispatchTable existing = DISPATCH_TABLES.putIfAbsent(handlerClass, table);
+            if (existing != null) {
+                table = existing;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 处理器的公共方法中，无参的startXxx处理元素Xxx的开始，参数为String的endXxx处理元素Xxx的结束。
+     * 方法句柄统一适配为(SimpleHandler)void与(SimpleHandler, String)void，以invokeExact调用
+     */
+    private static final class DispatchTable {
+        private final Map<String, MethodHandle> startMethods = new HashMap<String, MethodHandle>();
+
+        private final Map<String, MethodHandle> endMethods = new HashMap<String, MethodHandle>();
+
+        DispatchTable(Class<?> handlerClass) {
+            for (Method method : handlerClass.getMethods()) {
+                String name = method.getName();
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (name.startsWith(START_PREFIX) && name.length() > START_PREFIX.length()
+                        && parameterTypes.length == 0) {
+                    put(this.startMethods, name.substring(START_PREFIX.length()), method, START_TYPE);
+                } else if (name.startsWith(END_PREFIX) && name.length() > END_PREFIX.length()
+                        && parameterTypes.length == 1 && parameterTypes[0] == String.class) {
+                    put(this.endMethods, name.substring(END_PREFIX.length()), method, END_TYPE);
+                }
+            }
+        }
+
+        private static void put(Map<String, MethodHandle> methods, String elementName, Method method,
+                MethodType type) {
+            try {
+                // 处理器类不是公共类时，需先设置可访问才能取得句柄
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("can not set accessible for " + method, e);
+                }
+            }
+            try {
+                methods.put(elementName, MethodHandles.publicLookup().unreflect(method).asType(type));
+            } catch (IllegalAccessException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("can not access " + method, e);
+                }
+            }
+        }
+    }
+
     @Override
     public void characters(char[] ch, int start, int length) {
         this.textBuffer.append(ch, start, length);
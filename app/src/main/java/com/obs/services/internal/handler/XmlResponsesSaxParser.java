@@ -93,11 +93,10 @@ import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.Closeable;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Constructor;
 import java.net.URLDecoder;
@@ -124,50 +123,38 @@ public class XmlResponsesSaxParser {
         if (inputStream == null) {
             return;
         }
+        parseXmlInputSource(handler, new InputSource(inputStream), inputStream);
+    }
+
+    private void parseXmlInputSource(DefaultHandler handler, InputSource inputSource, Closeable input)
+            throws ServiceException {
         try {
             xmlReader.setErrorHandler(handler);
             xmlReader.setContentHandler(handler);
-            xmlReader.parse(new InputSource(inputStream));
+            xmlReader.parse(inputSource);
         } catch (Exception t) {
             throw new ServiceException("Failed to parse XML document with handler " + handler.getClass(), t);
         } finally {
-            ServiceUtils.closeStream(inputStream);
+            ServiceUtils.closeStream(input);
         }
     }
 
-    protected InputStream sanitizeXmlDocument(InputStream inputStream) throws ServiceException {
+    /**
+     * 边读边替换响应中的'\r'后解析，不缓存整个响应
+     */
+    protected void parseSanitizedXmlInputStream(DefaultHandler handler, InputStream inputStream)
+            throws ServiceException {
         if (inputStream == null) {
-            return null;
+            return;
         }
-        BufferedReader br = null;
+        StringBuilder trace = log.isTraceEnabled() ? new StringBuilder() : null;
+        Reader reader = new XmlSanitizingReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), trace);
         try {
-            StringBuilder listingDocBuffer = new StringBuilder();
-            br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-
-            char[] buf = new char[8192];
-            int read = -1;
-            while ((read = br.read(buf)) != -1) {
-                listingDocBuffer.append(buf, 0, read);
-            }
-
-            String listingDoc = listingDocBuffer.toString().replaceAll("\r", "&#013;");
-            if (log.isTraceEnabled()) {
-                log.trace("Response entity: " + listingDoc);
-            }
-            return new ByteArrayInputStream(listingDoc.getBytes(StandardCharsets.UTF_8));
-        } catch (Throwable t) {
-            throw new ServiceException("Failed to sanitize XML document destined", t);
+            parseXmlInputSource(handler, new InputSource(reader), reader);
         } finally {
-            if (br != null) {
-                try {
-                    br.close();
-                } catch (IOException e) {
-                    if (log.isWarnEnabled()) {
-                        log.warn("close failed.", e);
-                    }
-                }
+            if (trace != null) {
+                log.trace("Response entity: " + trace);
             }
-            ServiceUtils.closeStream(inputStream);
         }
     }
 
@@ -182,9 +169,10 @@ public class XmlResponsesSaxParser {
             }
             if (handler instanceof DefaultHandler) {
                 if (sanitize) {
-                    inputStream = sanitizeXmlDocument(inputStream);
+                    parseSanitizedXmlInputStream((DefaultHandler) handler, inputStream);
+                } else {
+                    parseXmlInputStream((DefaultHandler) handler, inputStream);
                 }
-                parseXmlInputStream((DefaultHandler) handler, inputStream);
             }
             return handler;
         } catch (Exception e) {
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.handler;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 边读边将响应中的'\r'替换为"&amp;#013;"，避免XML解析器把'\r'规范化为'\n'，
+ * 不需要先把整个响应读入内存。
+ */
+public class XmlSanitizingReader extends Reader {
+    private static final char[] CR_REFERENCE = "&#013;".toCharArray();
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    // 未输出完的替换字符下标
+    private int pending = CR_REFERENCE.length;
+
+    // 不为null时记录输出的内容，用于打印trace日志
+    private final StringBuilder trace;
+
+    public XmlSanitizingReader(Reader in) {
+        this(in, null);
+    }
+
+    public XmlSanitizingReader(Reader in, StringBuilder trace) {
+        this.in = in;
+        this.trace = trace;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < len) {
+            if (this.pending < CR_REFERENCE.length) {
+                cbuf[off + count++] = CR_REFERENCE[this.pending++];
+                continue;
+            }
+            if (this.position == this.limit) {
+                if (count > 0) {
+                    // 已有数据时直接返回，不阻塞读取
+                    break;
+                }
+                int read = this.in.read(this.buffer, 0, this.buffer.length);
+                if (read == -1) {
+                    return -1;
+                }
+                this.position = 0;
+                this.limit = read;
+                continue;
+            }
+            char c = this.buffer[this.position++];
+            if (c == '\r') {
+                this.pending = 0;
+            } else {
+                cbuf[off + count++] = c;
+            }
+        }
+        if (this.trace != null) {
+            this.trace.append(cbuf, off, count);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
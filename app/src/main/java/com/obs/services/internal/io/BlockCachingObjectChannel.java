@@ -0,0 +1,371 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.obs.services.model.SeekableObjectChannel;
+
+/**
+ * 带块缓存的对象随机读取通道：对象按blockSize对齐切分为块，块以LRU方式缓存；
+ * 一次读取中连续的未缓存块合并为一个范围请求下载。
+ * 通道的读取相互串行，范围请求由RangeReader负责用If-Match固定ETag。
+ */
+public class BlockCachingObjectChannel implements SeekableObjectChannel {
+    /**
+     * 打开对象中一段数据的流
+     */
+    public interface RangeReader {
+        /**
+         * @param start
+         *            第一个字节在对象中的偏移
+         * @param end
+         *            最后一个字节在对象中的偏移
+         */
+        InputStream open(long start, long end) throws IOException;
+    }
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final RangeReader reader;
+
+    private final String etag;
+
+    private final long size;
+
+    private final int blockSize;
+
+    private final int cacheBlocks;
+
+    private final boolean directBuffer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 被淘汰的块的缓冲区，供后续下载复用
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<ByteBuffer>();
+
+    private final LinkedHashMap<Long, ByteBuffer> cache;
+
+    private long position;
+
+    private long requestCount;
+
+    private long cacheHitCount;
+
+    private long cacheMissCount;
+
+    private volatile boolean closed;
+
+    /**
+     * @param size
+     *            对象长度
+     * @param blockSize
+     *            缓存块大小
+     * @param cacheBlocks
+     *            最多缓存的块数，同时也是一个范围请求最多下载的块数
+     * @param directBuffer
+     *            是否使用堆外内存缓存块
+     */
+    public BlockCachingObjectChannel(RangeReader reader, String etag, long size, int blockSize, int cacheBlocks,
+            boolean directBuffer) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize should be positive");
+        }
+        this.reader = reader;
+        this.etag = etag;
+        this.size = size;
+        this.blockSize = blockSize;
+        this.cacheBlocks = Math.max(1, cacheBlocks);
+        this.directBuffer = directBuffer;
+        this.cache = new LinkedHashMap<Long, ByteBuffer>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2905372851387236127L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+                if (size() > BlockCachingObjectChannel.this.cacheBlocks) {
+                    BlockCachingObjectChannel.this.freeBuffers.push(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        this.lock.lock();
+        try {
+            int bytesRead = read(dst, this.position);
+            if (bytesRead > 0) {
+                this.position += bytesRead;
+            }
+            return bytesRead;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position should not be negative");
+        }
+        this.lock.lock();
+        try {
+            ensureOpen();
+            if (position >= this.size) {
+                return -1;
+            }
+            long end = Math.min(this.size, position + dst.remaining());
+            long current = position;
+            while (current < end) {
+                long index = current / this.blockSize;
+                ByteBuffer block = this.cache.get(index);
+                if (block != null) {
+                    this.cacheHitCount++;
+                    current += copy(block, index, current, end, dst);
+                    continue;
+                }
+                // 与后续连续的未缓存块合并为一个范围请求
+                long lastIndex = index;
+                long endIndex = (end - 1) / this.blockSize;
+                while (lastIndex < endIndex && lastIndex - index + 1 < this.cacheBlocks
+                        && !this.cache.containsKey(lastIndex + 1)) {
+                    lastIndex++;
+                }
+                current = fetch(index, lastIndex, current, end, dst);
+            }
+            return (int) (end - position);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void prefetch(long position, long length) throws IOException {
+        if (position < 0 || length < 0) {
+            throw new IllegalArgumentException("position and length should not be negative");
+        }
+        this.lock.lock();
+        try {
+            ensureOpen();
+            long end = Math.min(this.size, position + length);
+            if (position >= end) {
+                return;
+            }
+            long index = position / this.blockSize;
+            long endIndex = (end - 1) / this.blockSize;
+            while (index <= endIndex) {
+                if (this.cache.containsKey(index)) {
+                    index++;
+                    continue;
+                }
+                long lastIndex = index;
+                while (lastIndex < endIndex && lastIndex - index + 1 < this.cacheBlocks
+                        && !this.cache.containsKey(lastIndex + 1)) {
+                    lastIndex++;
+                }
+                fetch(index, lastIndex, -1, -1, null);
+                index = lastIndex + 1;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 下载[firstIndex, lastIndex]的块放入缓存，下载过程中把[current, end)落在这些块中的数据复制到dst
+     *
+     * @return 复制后的读取位置
+     */
+    private long fetch(long firstIndex, long lastIndex, long current, long end, ByteBuffer dst)
+            throws IOException {
+        long start = firstIndex * this.blockSize;
+        long last = Math.min(this.size, (lastIndex + 1) * this.blockSize) - 1;
+        this.requestCount++;
+        this.cacheMissCount += lastIndex - firstIndex + 1;
+        InputStream input = this.reader.open(start, last);
+        try {
+            byte[] copyBuffer = null;
+            for (long index = firstIndex; index <= lastIndex; index++) {
+                int length = (int) (Math.min(this.size, (index + 1) * this.blockSize) - index * this.blockSize);
+                ByteBuffer block = allocate();
+                if (block.hasArray()) {
+                    readFully(input, block.array(), block.arrayOffset(), length, index);
+                } else {
+                    if (copyBuffer == null) {
+                        copyBuffer = new byte[Math.min(COPY_BUFFER_SIZE, this.blockSize)];
+                    }
+                    int filled = 0;
+                    while (filled < length) {
+                        int n = Math.min(copyBuffer.length, length - filled);
+                        readFully(input, copyBuffer, 0, n, index);
+                        block.put(copyBuffer, 0, n);
+                        filled += n;
+                    }
+                }
+                block.position(0);
+                block.limit(length);
+                this.cache.put(index, block);
+                if (dst != null && current < end) {
+                    current += copy(block, index, current, end, dst);
+                }
+            }
+        } finally {
+            input.close();
+        }
+        return current;
+    }
+
+    private void readFully(InputStream input, byte[] buffer, int offset, int length, long index)
+            throws IOException {
+        int filled = 0;
+        while (filled < length) {
+            int n = input.read(buffer, offset + filled, length - filled);
+            if (n < 0) {
+                throw new IOException("Premature end of block " + index + ", expected " + length
+                        + " bytes but got " + filled);
+            }
+            filled += n;
+        }
+    }
+
+    private int copy(ByteBuffer block, long index, long current, long end, ByteBuffer dst) {
+        int offset = (int) (current - index * this.blockSize);
+        int length = (int) Math.min(block.limit() - offset, end - current);
+        ByteBuffer view = block.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        dst.put(view);
+        return length;
+    }
+
+    private ByteBuffer allocate() {
+        ByteBuffer buffer = this.freeBuffers.poll();
+        if (buffer == null) {
+            return this.directBuffer ? ByteBuffer.allocateDirect(this.blockSize) : ByteBuffer.allocate(this.blockSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        this.lock.lock();
+        try {
+            ensureOpen();
+            return this.position;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public BlockCachingObjectChannel position(long newPosition) throws IOException {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("position should not be negative");
+        }
+        this.lock.lock();
+        try {
+            ensureOpen();
+            this.position = newPosition;
+            return this;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return this.size;
+    }
+
+    @Override
+    public BlockCachingObjectChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !this.closed;
+    }
+
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.cache.clear();
+            this.freeBuffers.clear();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public String getEtag() {
+        return this.etag;
+    }
+
+    @Override
+    public long getRequestCount() {
+        this.lock.lock();
+        try {
+            return this.requestCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        this.lock.lock();
+        try {
+            return this.cacheHitCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        this.lock.lock();
+        try {
+            return this.cacheMissCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -30,6 +30,8 @@ import com.obs.services.internal.ServiceException;
 
 public class MayRepeatableInputStream extends FilterInputStream {
 
+    private static final int SKIP_BUFFER_SIZE = 8 * 1024;
+
     private static class SdkBufferedInputStream extends BufferedInputStream {
 
         public SdkBufferedInputStream(InputStream in, int size) {
@@ -48,10 +50,31 @@ public class MayRepeatableInputStream extends FilterInputStream {
     private long markPos;
     private InputStream originInputStream;
 
+    // 不可mark的流使用重放缓存，replayPosition为当前读取位置（相对mark点）
+    private StreamReplayBuffer replayBuffer;
+    private long replayPosition;
+
+    // read()与skip()复用的缓冲区，skipBuffer按需创建
+    private final byte[] singleByte = new byte[1];
+    private byte[] skipBuffer;
+
     public MayRepeatableInputStream(InputStream in, int bufferSize) {
+        this(in, bufferSize, 0, 0);
+    }
+
+    /**
+     * @param replayMemorySize
+     *            重放缓存在内存中保存的最大字节数
+     * @param replayMaxSize
+     *            重放缓存可记录的最大字节数，不大于0时不启用重放缓存
+     */
+    public MayRepeatableInputStream(InputStream in, int bufferSize, long replayMemorySize, long replayMaxSize) {
         super(in);
         this.init(bufferSize);
         this.originInputStream = in;
+        if (replayMaxSize > 0 && fileChannel == null && !(in instanceof ByteArrayInputStream)) {
+            this.replayBuffer = new StreamReplayBuffer(replayMemorySize, replayMaxSize);
+        }
     }
 
     private void init(int bufferSize) {
@@ -70,7 +93,8 @@ public class MayRepeatableInputStream extends FilterInputStream {
 
     @Override
     public final boolean markSupported() {
-        return fileChannel != null || (originInputStream instanceof ByteArrayInputStream);
+        return fileChannel != null || (originInputStream instanceof ByteArrayInputStream)
+                || (replayBuffer != null && !replayBuffer.isOverflowed());
     }
 
     protected final void throwExceptionWhileInterrupted() {
@@ -87,6 +111,10 @@ public class MayRepeatableInputStream extends FilterInputStream {
                 markPos = fileChannel.position();
             } else if (originInputStream instanceof ByteArrayInputStream) {
                 ((ByteArrayInputStream) originInputStream).mark(a);
+            } else if (replayBuffer != null && replayPosition == replayBuffer.size()) {
+                // 重放未结束时保留原mark点
+                replayBuffer.clear();
+                replayPosition = 0;
             }
         } catch (IOException e) {
             throw new ServiceException("Failed to mark the file position", e);
@@ -105,6 +133,8 @@ public class MayRepeatableInputStream extends FilterInputStream {
                 ((SdkBufferedInputStream) in).tearDown();
             }
             ((ByteArrayInputStream) originInputStream).reset();
+        } else if (replayBuffer != null && !replayBuffer.isOverflowed()) {
+            replayPosition = 0;
         } else {
             throw new UnrecoverableIOException("UnRepeatable");
         }
@@ -113,31 +143,82 @@ public class MayRepeatableInputStream extends FilterInputStream {
     @Override
     public long skip(long n) throws IOException {
         throwExceptionWhileInterrupted();
-        return super.skip(n);
+        if (replayBuffer == null) {
+            return super.skip(n);
+        }
+        // 跳过的数据同样需要记录，才能在重放时保持位置一致
+        if (skipBuffer == null) {
+            skipBuffer = new byte[SKIP_BUFFER_SIZE];
+        }
+        long skipped = 0;
+        while (skipped < n) {
+            int count = read(skipBuffer, 0, (int) Math.min(skipBuffer.length, n - skipped));
+            if (count == -1) {
+                break;
+            }
+            skipped += count;
+        }
+        return skipped;
     }
 
     @Override
     public int available() throws IOException {
         throwExceptionWhileInterrupted();
+        if (replayBuffer != null && replayPosition < replayBuffer.size()) {
+            return (int) Math.min(Integer.MAX_VALUE, replayBuffer.size() - replayPosition);
+        }
         return super.available();
     }
 
+    /**
+     * 释放重放缓存，之后不可再reset
+     */
+    public void releaseReplayBuffer() {
+        if (replayBuffer != null) {
+            replayBuffer.close();
+            replayBuffer = null;
+        }
+    }
+
     @Override
     public void close() throws IOException {
-        super.close();
+        try {
+            super.close();
+        } finally {
+            if (replayBuffer != null) {
+                replayBuffer.close();
+            }
+        }
         throwExceptionWhileInterrupted();
     }
 
     @Override
     public int read() throws IOException {
-        throwExceptionWhileInterrupted();
-        return super.read();
+        if (replayBuffer == null) {
+            throwExceptionWhileInterrupted();
+            return super.read();
+        }
+        int count = read(singleByte, 0, 1);
+        return count == -1 ? -1 : singleByte[0] & 0xFF;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
         throwExceptionWhileInterrupted();
-        return super.read(b, off, len);
+        if (replayBuffer == null || len == 0) {
+            return super.read(b, off, len);
+        }
+        if (replayPosition < replayBuffer.size()) {
+            int count = replayBuffer.read(replayPosition, b, off, len);
+            replayPosition += count;
+            return count;
+        }
+        int count = super.read(b, off, len);
+        if (count > 0) {
+            replayBuffer.append(b, off, count);
+            replayPosition += count;
+        }
+        return count;
     }
 
 }
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.obs.services.internal.task.TransferScheduler;
+
+/**
+ * 并行预读的对象数据流：按块大小将[startPosition, endPosition]切分，
+ * 当前块之后的readAheadBlocks个块并发下载到缓冲区，按顺序交给调用方。
+ * 缓冲区最多readAheadBlocks + 1个，调用方读取慢时下载随之暂停，内存占用有上界。
+ */
+public class ReadAheadObjectInputStream extends InputStream {
+    /**
+     * 下载对象中的一段数据
+     */
+    public interface BlockFetcher {
+        /**
+         * 将对象中从position开始的length个字节读入buffer，必须读满
+         */
+        void fetch(long position, byte[] buffer, int length) throws IOException;
+    }
+
+    private final BlockFetcher fetcher;
+
+    private final TransferScheduler.Session session;
+
+    private final long endPosition;
+
+    private final int blockSize;
+
+    private final int readAheadBlocks;
+
+    private final ArrayDeque<BlockTask> inflight = new ArrayDeque<BlockTask>();
+
+    private final ArrayDeque<byte[]> freeBuffers = new ArrayDeque<byte[]>();
+
+    private long nextFetchPosition;
+
+    private BlockTask current;
+
+    private int currentOffset;
+
+    private boolean closed;
+
+    /**
+     * @param startPosition
+     *            第一个字节在对象中的偏移
+     * @param endPosition
+     *            最后一个字节在对象中的偏移
+     * @param blockSize
+     *            每次范围下载的字节数
+     * @param readAheadBlocks
+     *            当前块之后并发下载的块数
+     */
+    public ReadAheadObjectInputStream(BlockFetcher fetcher, TransferScheduler.Session session, long startPosition,
+            long endPosition, int blockSize, int readAheadBlocks) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize should be positive");
+        }
+        this.fetcher = fetcher;
+        this.session = session;
+        this.nextFetchPosition = startPosition;
+        this.endPosition = endPosition;
+        this.blockSize = blockSize;
+        this.readAheadBlocks = Math.max(1, readAheadBlocks);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int bytesRead = read(b, 0, 1);
+        return bytesRead < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        if ((this.current == null || this.currentOffset >= this.current.length) && !advance()) {
+            return -1;
+        }
+        int n = Math.min(len, this.current.length - this.currentOffset);
+        System.arraycopy(this.current.buffer, this.currentOffset, b, off, n);
+        this.currentOffset += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0 || (this.current == null || this.currentOffset >= this.current.length) && !advance()) {
+            return 0;
+        }
+        int skipped = (int) Math.min(n, this.current.length - this.currentOffset);
+        this.currentOffset += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return this.current == null ? 0 : this.current.length - this.currentOffset;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        // 中断在途下载，缓冲区随之丢弃
+        for (BlockTask task : this.inflight) {
+            task.future.cancel(true);
+        }
+        this.inflight.clear();
+        this.freeBuffers.clear();
+        this.current = null;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private boolean advance() throws IOException {
+        if (this.current != null) {
+            this.freeBuffers.push(this.current.buffer);
+            this.current = null;
+        }
+        submitReadAhead();
+        BlockTask next = this.inflight.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            next.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while waiting for block at position " + next.position);
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to read block at position " + next.position, cause);
+        } catch (CancellationException e) {
+            close();
+            throw new IOException("Read of block at position " + next.position + " is cancelled", e);
+        }
+        this.current = next;
+        this.currentOffset = 0;
+        submitReadAhead();
+        return true;
+    }
+
+    private void submitReadAhead() {
+        while (this.inflight.size() < this.readAheadBlocks && this.nextFetchPosition <= this.endPosition) {
+            int length = (int) Math.min(this.blockSize, this.endPosition - this.nextFetchPosition + 1);
+            byte[] buffer = this.freeBuffers.poll();
+            if (buffer == null || buffer.length < length) {
+                buffer = new byte[length];
+            }
+            final BlockTask task = new BlockTask(this.nextFetchPosition, buffer, length);
+            task.future = this.session.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    ReadAheadObjectInputStream.this.fetcher.fetch(task.position, task.buffer, task.length);
+                    return null;
+                }
+            });
+            this.inflight.add(task);
+            this.nextFetchPosition += length;
+        }
+    }
+
+    private static final class BlockTask {
+        private final long position;
+
+        private final byte[] buffer;
+
+        private final int length;
+
+        private Future<Void> future;
+
+        BlockTask(long position, byte[] buffer, int length) {
+            this.position = position;
+            this.buffer = buffer;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+/**
+ * 下载对象的数据流：读取过程中连接中断时，从已读取的位置重新发起范围下载并继续读取，
+ * 调用方看到的是一个连续的流。重新下载时由Reopener负责用If-Match固定对象的ETag，避免拼接不同版本的数据。
+ */
+public class ResumableObjectInputStream extends InputStream {
+    private static final ILogger log = LoggerBuilder.getLogger(ResumableObjectInputStream.class);
+
+    /**
+     * 从对象的指定偏移处重新打开数据流
+     */
+    public interface Reopener {
+        /**
+         * @param position
+         *            对象中的偏移
+         * @param endPosition
+         *            最后一个字节在对象中的偏移，小于0表示到对象末尾
+         * @return 从position开始的数据流
+         * @throws IOException
+         *             无法重新打开时抛出，不再重试
+         */
+        InputStream reopen(long position, long endPosition) throws IOException;
+
+        /**
+         * 计算第retryCount次重试前的等待时间
+         *
+         * @return 等待时间（毫秒），小于0表示不再重试
+         */
+        long computeDelay(int retryCount, IOException exception);
+    }
+
+    private final Reopener reopener;
+
+    private final long startPosition;
+
+    private final long endPosition;
+
+    private final int maxRetries;
+
+    private InputStream in;
+
+    // 已交给调用方的字节数
+    private long delivered;
+
+    // 未读取到新数据的连续失败次数
+    private int consecutiveFailures;
+
+    private int totalRetries;
+
+    private boolean closed;
+
+    /**
+     * @param in
+     *            首次请求返回的数据流
+     * @param startPosition
+     *            数据流第一个字节在对象中的偏移
+     * @param endPosition
+     *            最后一个字节在对象中的偏移，小于0表示到对象末尾
+     * @param maxRetries
+     *            连续失败（期间未读取到任何数据）的最大重试次数
+     */
+    public ResumableObjectInputStream(InputStream in, long startPosition, long endPosition, int maxRetries,
+            Reopener reopener) {
+        this.in = in;
+        this.startPosition = startPosition;
+        this.endPosition = endPosition;
+        this.maxRetries = maxRetries;
+        this.reopener = reopener;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int bytesRead = read(b, 0, 1);
+        return bytesRead < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            ensureOpen();
+            try {
+                int bytesRead = this.in.read(b, off, len);
+                if (bytesRead > 0) {
+                    this.delivered += bytesRead;
+                    this.consecutiveFailures = 0;
+                } else if (bytesRead < 0 && !isComplete()) {
+                    // 已知长度的数据在结束前断开
+                    throw new IOException("Premature end of object content, expected " + getExpectedLength()
+                            + " bytes but got " + this.delivered);
+                }
+                return bytesRead;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        while (true) {
+            ensureOpen();
+            try {
+                long skipped = this.in.skip(n);
+                if (skipped > 0) {
+                    this.delivered += skipped;
+                    this.consecutiveFailures = 0;
+                }
+                return skipped;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        try {
+            return this.in.available();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.in != null) {
+            this.in.close();
+        }
+    }
+
+    /**
+     * 已交给调用方的字节数
+     */
+    public long getDelivered() {
+        return this.delivered;
+    }
+
+    /**
+     * 累计重新打开数据流的次数
+     */
+    public int getTotalRetries() {
+        return this.totalRetries;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private boolean isComplete() {
+        return this.endPosition < 0 || this.startPosition + this.delivered > this.endPosition;
+    }
+
+    private long getExpectedLength() {
+        return this.endPosition - this.startPosition + 1;
+    }
+
+    private void resume(IOException cause) throws IOException {
+        if (this.closed || Thread.currentThread().isInterrupted() || cause instanceof UnrecoverableIOException) {
+            throw cause;
+        }
+        closeQuietly(this.in);
+        this.in = null;
+        long position = this.startPosition + this.delivered;
+        while (true) {
+            if (this.consecutiveFailures >= this.maxRetries) {
+                throw cause;
+            }
+            long delay = this.reopener.computeDelay(this.consecutiveFailures, cause);
+            if (delay < 0) {
+                throw cause;
+            }
+            this.consecutiveFailures++;
+            this.totalRetries++;
+            if (log.isWarnEnabled()) {
+                log.warn("Read object content failed at position " + position + ", will resume in " + delay
+                        + "ms, retry " + this.consecutiveFailures + "/" + this.maxRetries + ": " + cause);
+            }
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw cause;
+                }
+            }
+            try {
+                this.in = this.reopener.reopen(position, this.endPosition);
+                return;
+            } catch (UnrecoverableIOException e) {
+                e.addSuppressed(cause);
+                throw e;
+            } catch (IOException e) {
+                cause = e;
+            }
+        }
+    }
+
+    private static void closeQuietly(InputStream input) {
+        if (input == null) {
+            return;
+        }
+        try {
+            input.close();
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("close object content failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将一个数据源读取一次、同时分发给多个分支流。
+ * 每个分支有一个有界队列，读取线程在最慢分支的队列满时阻塞（背压）；
+ * 数据块在各分支间共享，不做拷贝。分支关闭后不再向其分发数据，全部分支关闭时停止读取数据源。
+ */
+public class StreamFanOut {
+    private static final byte[] END = new byte[0];
+
+    private static final long OFFER_WAIT_MILLIS = 100;
+
+    private final int chunkSize;
+
+    private final List<Branch> branches;
+
+    private volatile IOException failure;
+
+    /**
+     * @param branchCount
+     *            分支数
+     * @param chunkSize
+     *            数据块大小
+     * @param queueCapacity
+     *            每个分支最多缓存的数据块数
+     */
+    public StreamFanOut(int branchCount, int chunkSize, int queueCapacity) {
+        if (branchCount <= 0 || chunkSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("branchCount, chunkSize and queueCapacity must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.branches = new ArrayList<Branch>(branchCount);
+        for (int i = 0; i < branchCount; i++) {
+            // 额外一个位置留给结束标记
+            this.branches.add(new Branch(queueCapacity + 1));
+        }
+    }
+
+    public InputStream getBranch(int index) {
+        return this.branches.get(index);
+    }
+
+    /**
+     * 在当前线程读取数据源并分发，直到数据源结束、读取length字节或全部分支关闭。
+     * 读取失败时各分支的read抛出同样的异常。
+     *
+     * @param length
+     *            最多读取的字节数，小于0时读到数据源结束
+     * @return 读取的字节数
+     */
+    public long pump(InputStream source, long length) throws IOException {
+        long total = 0;
+        try {
+            while (length < 0 || total < length) {
+                if (!hasOpenBranch()) {
+                    return total;
+                }
+                int size = length < 0 ? this.chunkSize : (int) Math.min(this.chunkSize, length - total);
+                byte[] chunk = new byte[size];
+                int count = readChunk(source, chunk);
+                if (count <= 0) {
+                    break;
+                }
+                if (count < size) {
+                    byte[] tail = new byte[count];
+                    System.arraycopy(chunk, 0, tail, 0, count);
+                    chunk = tail;
+                }
+                publish(chunk);
+                total += count;
+                if (count < size) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            abort(e);
+            throw e;
+        }
+        publish(END);
+        return total;
+    }
+
+    /**
+     * 终止分发，各分支的read抛出cause
+     */
+    public void abort(IOException cause) {
+        this.failure = cause;
+        for (Branch branch : this.branches) {
+            branch.queue.clear();
+            branch.queue.offer(END);
+        }
+    }
+
+    private boolean hasOpenBranch() {
+        for (Branch branch : this.branches) {
+            if (!branch.closed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int readChunk(InputStream source, byte[] chunk) throws IOException {
+        int total = 0;
+        while (total < chunk.length) {
+            int count = source.read(chunk, total, chunk.length - total);
+            if (count == -1) {
+                break;
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    private void publish(byte[] chunk) throws IOException {
+        for (Branch branch : this.branches) {
+            try {
+                while (!branch.closed && !branch.queue.offer(chunk, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // 等待分支消费或关闭
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException cause = new InterruptedIOException("Fan-out interrupted");
+                abort(cause);
+                throw cause;
+            }
+        }
+    }
+
+    private final class Branch extends InputStream {
+        private final BlockingQueue<byte[]> queue;
+
+        private volatile boolean closed;
+
+        private byte[] current;
+
+        private int position;
+
+        private boolean ended;
+
+        Branch(int capacity) {
+            this.queue = new ArrayBlockingQueue<byte[]>(capacity);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int count = read(b, 0, 1);
+            return count == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (this.closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(len, this.current.length - this.position);
+            System.arraycopy(this.current, this.position, b, off, count);
+            this.position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.current == null ? 0 : this.current.length - this.position;
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (!this.ended && (this.current == null || this.position == this.current.length)) {
+                byte[] chunk;
+                try {
+                    chunk = this.queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for fan-out data");
+                }
+                if (chunk == END) {
+                    this.ended = true;
+                } else {
+                    this.current = chunk;
+                    this.position = 0;
+                }
+            }
+            if (this.ended) {
+                IOException cause = StreamFanOut.this.failure;
+                if (cause != null) {
+                    throw new IOException("Failed to read the fan-out source", cause);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            this.queue.clear();
+        }
+    }
+}
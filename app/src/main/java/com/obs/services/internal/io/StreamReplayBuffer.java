@@ -0,0 +1,224 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+/**
+ * 不可mark的上传流的重放缓存：记录已发送的数据，请求重试时从头重放。
+ * 前 memorySize 字节保存在复用的堆内数据块中，超出部分写入临时文件；
+ * 记录总量超过 maxSize 后放弃记录并释放全部资源，此后无法重放。
+ */
+public class StreamReplayBuffer implements Closeable {
+    private static final ILogger ILOG = LoggerBuilder.getLogger(StreamReplayBuffer.class);
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    // 全局数据块池上限：64 * 64KB = 4MB
+    private static final int MAX_POOLED_CHUNKS = 64;
+
+    private static final ConcurrentLinkedQueue<byte[]> CHUNK_POOL = new ConcurrentLinkedQueue<byte[]>();
+
+    private static final AtomicInteger POOLED_CHUNKS = new AtomicInteger();
+
+    // 未释放的临时文件，进程退出时删除；File.deleteOnExit登记后无法撤销，会随上传次数无限增长
+    private static final Set<File> LIVE_SPILL_FILES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (File file : LIVE_SPILL_FILES) {
+                file.delete();
+            }
+        }, "obs-replay-cleanup"));
+    }
+
+    private final long memorySize;
+    private final long maxSize;
+
+    private final List<byte[]> chunks = new ArrayList<byte[]>();
+    private long memoryLength;
+
+    private File spillFile;
+    private RandomAccessFile spill;
+    private long spillLength;
+
+    private boolean overflowed;
+    private boolean closed;
+
+    /**
+     * @param memorySize
+     *            内存中保存的最大字节数
+     * @param maxSize
+     *            可重放的最大字节数（内存加临时文件）
+     */
+    public StreamReplayBuffer(long memorySize, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.memorySize = Math.max(0, Math.min(memorySize, maxSize));
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 已记录的字节数
+     */
+    public long size() {
+        return this.memoryLength + this.spillLength;
+    }
+
+    /**
+     * 记录量是否超过上限（超过后不可重放）
+     */
+    public boolean isOverflowed() {
+        return this.overflowed;
+    }
+
+    /**
+     * 追加一段数据，超过上限时放弃记录
+     */
+    public void append(byte[] b, int off, int len) throws IOException {
+        if (this.overflowed || this.closed || len <= 0) {
+            return;
+        }
+        if (size() + len > this.maxSize) {
+            if (ILOG.isWarnEnabled()) {
+                ILOG.warn("Upload stream exceeds the replay buffer limit " + this.maxSize
+                        + " bytes, the request cannot be retried");
+            }
+            this.overflowed = true;
+            release();
+            return;
+        }
+        while (len > 0 && this.memoryLength < this.memorySize) {
+            int index = (int) (this.memoryLength / CHUNK_SIZE);
+            int chunkOffset = (int) (this.memoryLength % CHUNK_SIZE);
+            if (index == this.chunks.size()) {
+                this.chunks.add(borrowChunk());
+            }
+            int count = (int) Math.min(Math.min(len, CHUNK_SIZE - chunkOffset), this.memorySize - this.memoryLength);
+            System.arraycopy(b, off, this.chunks.get(index), chunkOffset, count);
+            this.memoryLength += count;
+            off += count;
+            len -= count;
+        }
+        if (len > 0) {
+            RandomAccessFile file = openSpill();
+            file.seek(this.spillLength);
+            file.write(b, off, len);
+            this.spillLength += len;
+        }
+    }
+
+    /**
+     * 从指定位置读取已记录的数据
+     *
+     * @return 读取的字节数，position不小于 {@link #size()} 时返回-1
+     */
+    public int read(long position, byte[] b, int off, int len) throws IOException {
+        if (position >= size()) {
+            return -1;
+        }
+        if (position < this.memoryLength) {
+            int index = (int) (position / CHUNK_SIZE);
+            int chunkOffset = (int) (position % CHUNK_SIZE);
+            int count = (int) Math.min(Math.min(len, CHUNK_SIZE - chunkOffset), this.memoryLength - position);
+            System.arraycopy(this.chunks.get(index), chunkOffset, b, off, count);
+            return count;
+        }
+        long spillPosition = position - this.memoryLength;
+        this.spill.seek(spillPosition);
+        return this.spill.read(b, off, (int) Math.min(len, this.spillLength - spillPosition));
+    }
+
+    /**
+     * 丢弃已记录的数据，从当前位置重新开始记录
+     */
+    public void clear() {
+        release();
+        this.overflowed = false;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        release();
+    }
+
+    private RandomAccessFile openSpill() throws IOException {
+        if (this.spill == null) {
+            this.spillFile = File.createTempFile("obs-replay", ".tmp");
+            LIVE_SPILL_FILES.add(this.spillFile);
+            this.spill = new RandomAccessFile(this.spillFile, "rw");
+        }
+        return this.spill;
+    }
+
+    private void release() {
+        for (byte[] chunk : this.chunks) {
+            returnChunk(chunk);
+        }
+        this.chunks.clear();
+        this.memoryLength = 0;
+        this.spillLength = 0;
+        if (this.spill != null) {
+            try {
+                this.spill.close();
+            } catch (IOException e) {
+                if (ILOG.isWarnEnabled()) {
+                    ILOG.warn("Failed to close replay file " + this.spillFile, e);
+                }
+            }
+            this.spill = null;
+        }
+        if (this.spillFile != null) {
+            if (this.spillFile.delete()) {
+                LIVE_SPILL_FILES.remove(this.spillFile);
+            } else if (ILOG.isWarnEnabled()) {
+                // 保留登记，进程退出时再尝试删除
+                ILOG.warn("Failed to delete replay file " + this.spillFile);
+            }
+            this.spillFile = null;
+        }
+    }
+
+    private static byte[] borrowChunk() {
+        byte[] chunk = CHUNK_POOL.poll();
+        if (chunk == null) {
+            return new byte[CHUNK_SIZE];
+        }
+        POOLED_CHUNKS.decrementAndGet();
+        return chunk;
+    }
+
+    private static void returnChunk(byte[] chunk) {
+        if (POOLED_CHUNKS.incrementAndGet() <= MAX_POOLED_CHUNKS) {
+            CHUNK_POOL.offer(chunk);
+        } else {
+            POOLED_CHUNKS.decrementAndGet();
+        }
+    }
+}
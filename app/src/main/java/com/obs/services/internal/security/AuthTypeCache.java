@@ -0,0 +1,209 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.obs.services.internal.ServiceException;
+import com.obs.services.model.AuthTypeEnum;
+
+/**
+ * 桶鉴权类型的本地缓存，可被所有请求线程并发访问。
+ * <p>
+ * 读操作不加锁，只设置访问标记；超过容量时按CLOCK算法淘汰最近未被访问的项。
+ * 同一个桶同一时刻只有一个线程执行鉴权协商，其余线程等待其结果。
+ */
+public class AuthTypeCache {
+    /**
+     * 鉴权类型协商
+     */
+    public interface Negotiator {
+        AuthTypeEnum negotiate() throws ServiceException;
+    }
+
+    private final int capacity;
+
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    private final ConcurrentHashMap<String, CompletableFuture<AuthTypeEnum>> negotiations =
+            new ConcurrentHashMap<String, CompletableFuture<AuthTypeEnum>>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private Iterator<Map.Entry<String, Entry>> clockHand;
+
+    /**
+     * @param capacity
+     *            最大缓存数
+     * @param ttlMillis
+     *            缓存有效期，小于等于0表示不过期
+     */
+    public AuthTypeCache(int capacity, long ttlMillis) {
+        this.capacity = Math.max(capacity, 1);
+        this.ttlMillis = ttlMillis;
+        this.entries = new ConcurrentHashMap<String, Entry>(Math.min(this.capacity, 1024));
+    }
+
+    public AuthTypeEnum get(String bucketName) {
+        if (bucketName == null) {
+            return null;
+        }
+        Entry entry = this.entries.get(bucketName);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            this.entries.remove(bucketName, entry);
+            return null;
+        }
+        entry.referenced = true;
+        return entry.authType;
+    }
+
+    public void put(String bucketName, AuthTypeEnum authType) {
+        if (bucketName == null || authType == null) {
+            return;
+        }
+        long expireAt = this.ttlMillis > 0 ? System.currentTimeMillis() + this.ttlMillis : Long.MAX_VALUE;
+        this.entries.put(bucketName, new Entry(authType, expireAt));
+        if (this.entries.size() > this.capacity) {
+            evict();
+        }
+    }
+
+    public void putAll(Map<String, AuthTypeEnum> authTypes) {
+        if (authTypes == null) {
+            return;
+        }
+        for (Map.Entry<String, AuthTypeEnum> entry : authTypes.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void remove(String bucketName) {
+        if (bucketName != null) {
+            this.entries.remove(bucketName);
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * 获取桶的鉴权类型，未缓存时执行协商并缓存结果；并发请求同一个桶时只协商一次
+     */
+    public AuthTypeEnum getOrNegotiate(String bucketName, Negotiator negotiator) throws ServiceException {
+        AuthTypeEnum authType = get(bucketName);
+        if (authType != null) {
+            return authType;
+        }
+
+        CompletableFuture<AuthTypeEnum> negotiation = new CompletableFuture<AuthTypeEnum>();
+        CompletableFuture<AuthTypeEnum> inFlight = this.negotiations.putIfAbsent(bucketName, negotiation);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            // 上一次协商可能刚刚完成
+            authType = get(bucketName);
+            if (authType == null) {
+                authType = negotiator.negotiate();
+                put(bucketName, authType);
+            }
+            negotiation.complete(authType);
+            return authType;
+        } catch (RuntimeException e) {
+            negotiation.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.negotiations.remove(bucketName, negotiation);
+        }
+    }
+
+    private static AuthTypeEnum await(CompletableFuture<AuthTypeEnum> negotiation) throws ServiceException {
+        try {
+            return negotiation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("interrupted while waiting for auth type negotiation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ServiceException(cause);
+        }
+    }
+
+    /**
+     * CLOCK淘汰：依次扫描，清除访问标记，淘汰标记已清除的项，直到不超过容量
+     */
+    private void evict() {
+        if (!this.evictionLock.tryLock()) {
+            // 其他线程正在淘汰
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            // 每项最多被跳过一次，扫描两轮一定能降到容量以下
+            int budget = 2 * (this.entries.size() + 1);
+            while (this.entries.size() > this.capacity && budget-- > 0) {
+                if (this.clockHand == null || !this.clockHand.hasNext()) {
+                    this.clockHand = this.entries.entrySet().iterator();
+                    if (!this.clockHand.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<String, Entry> candidate = this.clockHand.next();
+                Entry entry = candidate.getValue();
+                if (entry.referenced && !entry.isExpired(now)) {
+                    entry.referenced = false;
+                } else {
+                    this.entries.remove(candidate.getKey(), entry);
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final AuthTypeEnum authType;
+
+        private final long expireAt;
+
+        private volatile boolean referenced;
+
+        Entry(AuthTypeEnum authType, long expireAt) {
+            this.authType = authType;
+            this.expireAt = expireAt;
+            // 新加入的项正在被使用，第一轮扫描时不淘汰
+            this.referenced = true;
+        }
+
+        boolean isExpired(long now) {
+            return now >= this.expireAt;
+        }
+    }
+}
@@ -19,18 +19,17 @@ import com.obs.log.LoggerBuilder;
 import com.obs.services.BasicObsCredentialsProvider;
 import com.obs.services.IObsCredentialsProvider;
 import com.obs.services.internal.ObsConstraint;
+import com.obs.services.internal.ServiceException;
 import com.obs.services.model.AuthTypeEnum;
 
 import java.security.SecureRandom;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 public class ProviderCredentials {
     protected static final ILogger log = LoggerBuilder.getLogger(ProviderCredentials.class);
 
     protected AuthTypeEnum authType;
 
-    private LinkedHashMap<String, AuthTypeEnum> localAuthType;
+    private AuthTypeCache localAuthType;
 
     private SecureRandom secureRandom;
 
@@ -38,6 +37,8 @@ public class ProviderCredentials {
 
     private boolean isAuthTypeNegotiation;
 
+    private final V4SigningKeyCache v4SigningKeyCache = new V4SigningKeyCache();
+
     public String getRegion() {
         return ObsConstraint.DEFAULT_BUCKET_LOCATION_VALUE;
     }
@@ -47,12 +48,15 @@ public class ProviderCredentials {
     }
 
     public void setLocalAuthTypeCacheCapacity(int localAuthTypeCacheCapacity) {
-        localAuthType = new LinkedHashMap<String, AuthTypeEnum>(localAuthTypeCacheCapacity, 0.7F, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, AuthTypeEnum> entry) {
-                return this.size() > localAuthTypeCacheCapacity;
-            }
-        };
+        setLocalAuthTypeCacheCapacity(localAuthTypeCacheCapacity, 0);
+    }
+
+    /**
+     * @param localAuthTypeCacheTtlMillis
+     *            缓存有效期，小于等于0表示不过期
+     */
+    public void setLocalAuthTypeCacheCapacity(int localAuthTypeCacheCapacity, long localAuthTypeCacheTtlMillis) {
+        localAuthType = new AuthTypeCache(localAuthTypeCacheCapacity, localAuthTypeCacheTtlMillis);
     }
 
     public AuthTypeEnum getAuthType() {
@@ -87,7 +91,7 @@ public class ProviderCredentials {
         if (!isAuthTypeNegotiation) {
             return authType;
         }
-        AuthTypeEnum authTypeEnum = localAuthType.get(bucketName);
+        AuthTypeEnum authTypeEnum = localAuthType == null ? null : localAuthType.get(bucketName);
         return authTypeEnum == null ? authType : authTypeEnum;
     }
 
@@ -99,14 +103,29 @@ public class ProviderCredentials {
         localAuthType.put(bucketName, authType);
     }
 
-    public LinkedHashMap<String, AuthTypeEnum> getLocalAuthType() {
+    /**
+     * 获取桶的鉴权类型，未缓存时调用negotiator协商，同一个桶并发时只协商一次
+     */
+    public AuthTypeEnum negotiateLocalAuthType(String bucketName, AuthTypeCache.Negotiator negotiator)
+            throws ServiceException {
+        if (localAuthType == null || bucketName == null || bucketName.isEmpty()) {
+            return negotiator.negotiate();
+        }
+        return localAuthType.getOrNegotiate(bucketName, negotiator);
+    }
+
+    public AuthTypeCache getLocalAuthType() {
         return localAuthType;
     }
 
-    public void setLocalAuthType(LinkedHashMap<String, AuthTypeEnum> localAuthType) {
+    public void setLocalAuthType(AuthTypeCache localAuthType) {
         this.localAuthType = localAuthType;
     }
 
+    public V4SigningKeyCache getV4SigningKeyCache() {
+        return v4SigningKeyCache;
+    }
+
     public SecureRandom getSecureRandom() {
         return secureRandom;
     }
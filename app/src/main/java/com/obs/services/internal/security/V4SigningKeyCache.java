@@ -0,0 +1,61 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.security;
+
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个客户端的V4签名密钥缓存。
+ * <p>
+ * 签名密钥只与SK、日期、区域相关，每个区域保留当天的一个密钥。缓存中不保存SK本身，
+ * 只保存其SHA-256摘要；SK或日期变化时替换该区域的缓存项。
+ */
+public class V4SigningKeyCache {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * @return 缓存的签名密钥，SK摘要或日期不一致时返回null
+     */
+    public byte[] get(byte[] skDigest, String region, String shortDate) {
+        Entry entry = this.entries.get(region);
+        if (entry != null && entry.shortDate.equals(shortDate) && MessageDigest.isEqual(entry.skDigest, skDigest)) {
+            return entry.key;
+        }
+        return null;
+    }
+
+    public void put(byte[] skDigest, String region, String shortDate, byte[] key) {
+        this.entries.put(region, new Entry(skDigest, shortDate, key));
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    private static final class Entry {
+        private final byte[] skDigest;
+
+        private final String shortDate;
+
+        private final byte[] key;
+
+        Entry(byte[] skDigest, String shortDate, byte[] key) {
+            this.skDigest = skDigest;
+            this.shortDate = shortDate;
+            this.key = key;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 import com.obs.log.ILogger;
 import com.obs.log.LoggerBuilder;
@@ -66,6 +67,7 @@ import com.obs.services.model.inventory.DeleteInventoryConfigurationRequest;
 import com.obs.services.model.inventory.ListInventoryConfigurationRequest;
 import com.obs.services.model.inventory.GetInventoryConfigurationResult;
 import com.obs.services.model.inventory.ListInventoryConfigurationResult;
+import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.internal.http.HttpMethod;
 
@@ -378,7 +380,19 @@ public abstract class ObsBucketBaseService extends RequestConvertor {
 
         Response httpResponse = performRestGet(listObjectsRequest.getBucketName(), null, result.getParams(),
                 result.getHeaders(), listObjectsRequest.getUserHeaders());
+        return buildObjectListing(listObjectsRequest, httpResponse);
+    }
+
+    protected CompletableFuture<ObjectListing> listObjectsAsyncImpl(final ListObjectsRequest listObjectsRequest)
+            throws ServiceException {
+        TransResult result = this.transListObjectsRequest(listObjectsRequest);
+        Request request = buildRestRequest(HttpMethodEnum.GET, listObjectsRequest.getBucketName(), null,
+                result.getParams(), result.getHeaders(), listObjectsRequest.getUserHeaders(), false);
+        return thenBuild(performRequestAsync(request, result.getParams(), listObjectsRequest.getBucketName(), true),
+                response -> buildObjectListing(listObjectsRequest, response));
+    }
 
+    private ObjectListing buildObjectListing(ListObjectsRequest listObjectsRequest, Response httpResponse) {
         this.verifyResponseContentType(httpResponse);
 
         XmlResponsesSaxParser.ListObjectsHandler listObjectsHandler = getXmlResponseSaxParser().parse(
@@ -52,7 +52,6 @@ import com.obs.services.model.fs.accesslabel.SetAccessLabelRequest;
 import com.obs.services.model.fs.accesslabel.SetAccessLabelResult;
 import okhttp3.Response;
 
-import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -107,10 +106,8 @@ public abstract class ObsFileService extends ObsObjectService {
             NewTransResult newTransResult = transObjectRequestWithResult(result, request);
             response = performRequest(newTransResult);
         } finally {
-            if (result != null && result.getBody() != null && request.isAutoClose()) {
-                if (result.getBody() instanceof Closeable) {
-                    ServiceUtils.closeStream((Closeable) result.getBody());
-                }
+            if (result != null) {
+                ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
             }
         }
 
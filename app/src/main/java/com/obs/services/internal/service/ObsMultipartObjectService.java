@@ -19,11 +19,11 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import com.obs.services.internal.Constants;
 import com.obs.services.internal.Constants.CommonHeaders;
 import com.obs.services.internal.Constants.ObsRequestParams;
-import com.obs.services.internal.RepeatableRequestEntity;
 import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.handler.XmlResponsesSaxParser;
 import com.obs.services.internal.io.HttpMethodReleaseInputStream;
@@ -39,6 +39,7 @@ import com.obs.services.model.CompleteMultipartUploadResult;
 import com.obs.services.model.CopyPartRequest;
 import com.obs.services.model.CopyPartResult;
 import com.obs.services.model.HeaderResponse;
+import com.obs.services.model.HttpMethodEnum;
 import com.obs.services.model.InitiateMultipartUploadRequest;
 import com.obs.services.model.InitiateMultipartUploadResult;
 import com.obs.services.model.ListMultipartUploadsRequest;
@@ -50,6 +51,7 @@ import com.obs.services.model.StorageClassEnum;
 import com.obs.services.model.UploadPartRequest;
 import com.obs.services.model.UploadPartResult;
 
+import okhttp3.Request;
 import okhttp3.Response;
 
 public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
@@ -63,7 +65,18 @@ public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
         NewTransResult newTransResult = transObjectRequestWithResult(result, request);
         newTransResult.setCancelHandler(request.getCancelHandler());
         Response response = performRequest(newTransResult, true, false, false, false);
+        return buildInitiateMultipartUploadResult(response);
+    }
+
+    protected CompletableFuture<InitiateMultipartUploadResult> initiateMultipartUploadAsyncImpl(
+            InitiateMultipartUploadRequest request) throws ServiceException {
+        TransResult result = this.transInitiateMultipartUploadRequest(request);
+        this.prepareRESTHeaderAcl(request.getBucketName(), result.getHeaders(), request.getAcl());
+        return thenBuild(performRequestAsync(transObjectRequestWithResult(result, request)),
+                this::buildInitiateMultipartUploadResult);
+    }
 
+    private InitiateMultipartUploadResult buildInitiateMultipartUploadResult(Response response) {
         this.verifyResponseContentType(response);
 
         InitiateMultipartUploadResult multipartUpload = getXmlResponseSaxParser()
@@ -84,8 +97,40 @@ public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
         return build(response);
     }
 
+    protected CompletableFuture<HeaderResponse> abortMultipartUploadAsyncImpl(AbortMultipartUploadRequest request)
+            throws ServiceException {
+        Map<String, String> requestParameters = new HashMap<>();
+        requestParameters.put(ObsRequestParams.UPLOAD_ID, request.getUploadId());
+
+        NewTransResult transResult = transObjectRequest(request);
+        transResult.setHttpMethod(HttpMethodEnum.DELETE);
+        transResult.setParams(requestParameters);
+        transResult.setHeaders(transRequestPaymentHeaders(request, null, this.getIHeaders(request.getBucketName())));
+        return thenBuild(performRequestAsync(transResult), response -> {
+            try {
+                return build(response);
+            } finally {
+                response.close();
+            }
+        });
+    }
+
     protected CompleteMultipartUploadResult completeMultipartUploadImpl(CompleteMultipartUploadRequest request)
             throws ServiceException {
+        NewTransResult transResult = transCompleteMultipartUploadRequest(request);
+        transResult.setCancelHandler(request.getCancelHandler());
+
+        Response response = performRequest(transResult, true, false, false, false);
+        return buildCompleteMultipartUploadResult(request, response);
+    }
+
+    protected CompletableFuture<CompleteMultipartUploadResult> completeMultipartUploadAsyncImpl(
+            final CompleteMultipartUploadRequest request) throws ServiceException {
+        return thenBuild(performRequestAsync(transCompleteMultipartUploadRequest(request)),
+                response -> buildCompleteMultipartUploadResult(request, response));
+    }
+
+    private NewTransResult transCompleteMultipartUploadRequest(CompleteMultipartUploadRequest request) {
         Map<String, String> requestParams = new HashMap<>();
         requestParams.put(ObsRequestParams.UPLOAD_ID, request.getUploadId());
         if (request.getEncodingType() != null) {
@@ -110,10 +155,11 @@ public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
         transResult.setParams(requestParams);
         transResult.setHeaders(headers);
         transResult.setBody(createRequestBody(Mimetypes.MIMETYPE_XML, xml));
-        transResult.setCancelHandler(request.getCancelHandler());
-
-        Response response = performRequest(transResult, true, false, false, false);
+        return transResult;
+    }
 
+    private CompleteMultipartUploadResult buildCompleteMultipartUploadResult(CompleteMultipartUploadRequest request,
+            Response response) {
         CompleteMultipartUploadResult ret;
         if (request.getCallback() == null) {
             this.verifyResponseContentType(response);
@@ -198,6 +244,24 @@ public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
     }
 
     protected ListPartsResult listPartsImpl(ListPartsRequest request) throws ServiceException {
+        Map<String, String> requestParameters = transListPartsRequest(request);
+        Response httpResponse = performRestGet(request.getBucketName(), request.getObjectKey(), requestParameters,
+                transRequestPaymentHeaders(request, null, this.getIHeaders(request.getBucketName())),
+                request.getUserHeaders());
+        return buildListPartsResult(request, httpResponse);
+    }
+
+    protected CompletableFuture<ListPartsResult> listPartsAsyncImpl(final ListPartsRequest request)
+            throws ServiceException {
+        Map<String, String> requestParameters = transListPartsRequest(request);
+        Request httpRequest = buildRestRequest(HttpMethodEnum.GET, request.getBucketName(), request.getObjectKey(),
+                requestParameters, transRequestPaymentHeaders(request, null, this.getIHeaders(request.getBucketName())),
+                request.getUserHeaders(), false);
+        return thenBuild(performRequestAsync(httpRequest, requestParameters, request.getBucketName(), true),
+                response -> buildListPartsResult(request, response));
+    }
+
+    private Map<String, String> transListPartsRequest(ListPartsRequest request) {
         Map<String, String> requestParameters = new HashMap<>();
         requestParameters.put(ObsRequestParams.UPLOAD_ID, request.getUploadId());
         if (null != request.getMaxParts()) {
@@ -209,11 +273,10 @@ public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
         if (null != request.getEncodingType()) {
             requestParameters.put(ObsRequestParams.ENCODING_TYPE, request.getEncodingType());
         }
+        return requestParameters;
+    }
 
-        Response httpResponse = performRestGet(request.getBucketName(), request.getObjectKey(), requestParameters,
-                transRequestPaymentHeaders(request, null, this.getIHeaders(request.getBucketName())),
-                request.getUserHeaders());
-
+    private ListPartsResult buildListPartsResult(ListPartsRequest request, Response httpResponse) {
         this.verifyResponseContentType(httpResponse);
 
         XmlResponsesSaxParser.ListPartsHandler handler = getXmlResponseSaxParser().parse(
@@ -247,11 +310,35 @@ public abstract class ObsMultipartObjectService extends ObsObjectBaseService {
             newTransResult.setCancelHandler(request.getCancelHandler());
             response = performRequest(newTransResult);
         } finally {
-            if (result != null && result.getBody() != null && request.isAutoClose()) {
-                RepeatableRequestEntity entity = (RepeatableRequestEntity) result.getBody();
-                ServiceUtils.closeStream(entity);
+            if (result != null) {
+                ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
             }
         }
+        return buildUploadPartResult(request, result, response);
+    }
+
+    protected CompletableFuture<UploadPartResult> uploadPartAsyncImpl(final UploadPartRequest request)
+            throws ServiceException {
+        final TransResult result = this.transUploadPartRequest(request);
+        CompletableFuture<Response> future;
+        try {
+            future = performRequestAsync(transObjectRequestWithResult(result, request));
+        } catch (RuntimeException e) {
+            ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
+            throw e;
+        }
+        future.whenComplete((response, t) -> ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose()));
+        return thenBuild(future, response -> {
+            try {
+                return buildUploadPartResult(request, result, response);
+            } finally {
+                response.close();
+            }
+        });
+    }
+
+    private UploadPartResult buildUploadPartResult(UploadPartRequest request, TransResult result,
+            Response response) {
         UploadPartResult ret = new UploadPartResult();
         ret.setPartNumber(request.getPartNumber());
         if (result != null) {
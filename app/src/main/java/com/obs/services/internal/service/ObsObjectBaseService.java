@@ -17,6 +17,7 @@ package com.obs.services.internal.service;
 
 import com.obs.log.ILogger;
 import com.obs.log.LoggerBuilder;
+import com.obs.services.RetryPolicy;
 import com.obs.services.exception.ObsException;
 import com.obs.services.internal.Constants;
 import com.obs.services.internal.Constants.CommonHeaders;
@@ -28,6 +29,9 @@ import com.obs.services.internal.SimpleProgressManager;
 import com.obs.services.internal.handler.XmlResponsesSaxParser;
 import com.obs.services.internal.io.HttpMethodReleaseInputStream;
 import com.obs.services.internal.io.ProgressInputStream;
+import com.obs.services.internal.io.ResumableObjectInputStream;
+import com.obs.services.internal.io.StreamFanOut;
+import com.obs.services.internal.io.UnrecoverableIOException;
 import com.obs.services.internal.trans.NewTransResult;
 import com.obs.services.internal.utils.JSONChange;
 import com.obs.services.internal.utils.Mimetypes;
@@ -48,6 +52,10 @@ import com.obs.services.model.HeaderResponse;
 import com.obs.services.model.HttpMethodEnum;
 import com.obs.services.model.ObjectMetadata;
 import com.obs.services.model.ObsObject;
+import com.obs.services.model.PutObjectInMultiBucketRequest;
+import com.obs.services.model.PutObjectInMultiBucketRequest.Destination;
+import com.obs.services.model.PutObjectInMultiBucketResult;
+import com.obs.services.model.PutObjectInMultiBucketResult.DestinationResult;
 import com.obs.services.model.PutObjectInTwoBucketRequest;
 import com.obs.services.model.PutObjectInTwoBucketResult;
 import com.obs.services.model.PutObjectRequest;
@@ -68,13 +76,21 @@ import okhttp3.Response;
 import okhttp3.ResponseBody;
 
 import java.io.BufferedInputStream;
-import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -114,31 +130,59 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
         TransResult result = null;
         Response response;
         boolean isExtraAclPutRequired;
-        AccessControlList acl = request.getAcl();
-        NewTransResult newTransResult;
         try {
             result = this.transPutObjectRequest(request);
-            isExtraAclPutRequired = !prepareRESTHeaderAcl(request.getBucketName(), result.getHeaders(), acl);
-            if (request.getCallback() != null) {
-                ServiceUtils.assertParameterNotNull(request.getCallback().getCallbackUrl(),
-                        "callbackUrl is null");
-                ServiceUtils.assertParameterNotNull(request.getCallback().getCallbackBody(),
-                        "callbackBody is null");
-                result.getHeaders().put((this.getProviderCredentials().getLocalAuthType(request.getBucketName()) != AuthTypeEnum.OBS
-                                ? V2_HEADER_PREFIX : OBS_HEADER_PREFIX) + CommonHeaders.CALLBACK,
-                        ServiceUtils.toBase64(JSONChange.objToJson(request.getCallback()).getBytes(StandardCharsets.UTF_8)));
-            }
-            // todo prepareRESTHeaderAcl 也会操作头域，下次重构可以将其合并
-            newTransResult = transObjectRequestWithResult(result, request);
-            response = performRequest(newTransResult, true, false, false, false);
+            isExtraAclPutRequired = !prepareRESTHeaderAcl(request.getBucketName(), result.getHeaders(),
+                    request.getAcl());
+            response = performRequest(transPutObjectRequestWithResult(result, request), true, false, false, false);
         } finally {
-            if (result != null && result.getBody() != null && request.isAutoClose()) {
-                if (result.getBody() instanceof Closeable) {
-                    ServiceUtils.closeStream((Closeable) result.getBody());
-                }
+            if (result != null) {
+                ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
+            }
+        }
+        return buildPutObjectResult(request, response, isExtraAclPutRequired);
+    }
+
+    protected CompletableFuture<ObsFSFile> putObjectAsyncImpl(final PutObjectRequest request)
+            throws ServiceException {
+        final TransResult result = this.transPutObjectRequest(request);
+        final boolean isExtraAclPutRequired;
+        CompletableFuture<Response> future;
+        try {
+            isExtraAclPutRequired = !prepareRESTHeaderAcl(request.getBucketName(), result.getHeaders(),
+                    request.getAcl());
+            future = performRequestAsync(transPutObjectRequestWithResult(result, request));
+        } catch (RuntimeException e) {
+            ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
+            throw e;
+        }
+        future.whenComplete((response, t) -> ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose()));
+        return thenBuild(future, response -> {
+            ObsFSFile ret = buildPutObjectResult(request, response, isExtraAclPutRequired);
+            if (request.getCallback() == null) {
+                response.close();
             }
+            return ret;
+        });
+    }
+
+    private NewTransResult transPutObjectRequestWithResult(TransResult result, PutObjectRequest request) {
+        if (request.getCallback() != null) {
+            ServiceUtils.assertParameterNotNull(request.getCallback().getCallbackUrl(),
+                    "callbackUrl is null");
+            ServiceUtils.assertParameterNotNull(request.getCallback().getCallbackBody(),
+                    "callbackBody is null");
+            result.getHeaders().put((this.getProviderCredentials().getLocalAuthType(request.getBucketName()) != AuthTypeEnum.OBS
+                            ? V2_HEADER_PREFIX : OBS_HEADER_PREFIX) + CommonHeaders.CALLBACK,
+                    ServiceUtils.toBase64(JSONChange.objToJson(request.getCallback()).getBytes(StandardCharsets.UTF_8)));
         }
+        // todo prepareRESTHeaderAcl 也会操作头域，下次重构可以将其合并
+        return transObjectRequestWithResult(result, request);
+    }
 
+    private ObsFSFile buildPutObjectResult(PutObjectRequest request, Response response,
+            boolean isExtraAclPutRequired) {
+        AccessControlList acl = request.getAcl();
         ObsFSFile ret = new ObsFSFile(request.getBucketName(), request.getObjectKey(),
                 response.header(CommonHeaders.ETAG),
                 response.header(this.getIHeaders(request.getBucketName()).versionIdHeader()),
@@ -166,7 +210,32 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
     }
 
     protected PutObjectInTwoBucketResult putObjectInTwoBucketImpl(PutObjectInTwoBucketRequest request) throws ObsException {
-        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        PutObjectRequest mainBucketRequest = request.getMainBucketRequest();
+        PutObjectRequest backupBucketRequest = request.getBackupBucketRequest();
+        if (request.isReadOnce() && isWholeFileUpload(mainBucketRequest) && isWholeFileUpload(backupBucketRequest)
+                && mainBucketRequest.getFile().equals(backupBucketRequest.getFile())
+                && !mainBucketRequest.isNeedCalculateCRC64() && !backupBucketRequest.isNeedCalculateCRC64()) {
+            // 两个桶上传同一文件时只读一次文件，需要计算CRC64时仍按文件分别上传
+            PutObjectInMultiBucketRequest multiBucketRequest = new PutObjectInMultiBucketRequest();
+            multiBucketRequest.setFile(mainBucketRequest.getFile());
+            multiBucketRequest.addDestination(mainBucketRequest);
+            multiBucketRequest.addDestination(backupBucketRequest);
+            List<DestinationResult> results;
+            try {
+                results = this.putObjectInMultiBucketImpl(multiBucketRequest).getDestinationResults();
+            } catch (ServiceException e) {
+                throw ServiceUtils.changeFromServiceException(e);
+            }
+            PutObjectInTwoBucketResult putObjectInTwoBucketResult = new PutObjectInTwoBucketResult();
+            putObjectInTwoBucketResult.setMainBucketResult(results.get(0).getResult());
+            putObjectInTwoBucketResult.setMainBucketException(results.get(0).getException());
+            putObjectInTwoBucketResult.setBackupBucketResult(results.get(1).getResult());
+            putObjectInTwoBucketResult.setBackupBucketException(results.get(1).getException());
+            return putObjectInTwoBucketResult;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2,
+                newWorkerThreadFactory("obs-put-object-", Executors.defaultThreadFactory()));
         PutObjectInTwoBucketResult putObjectInTwoBucketResult;
         try {
             Future<PutObjectInTwoBucketResult> futureMainBucket = executorService.submit(() -> {
@@ -210,34 +279,251 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
         return putObjectInTwoBucketResult;
     }
 
+    private static boolean isWholeFileUpload(PutObjectRequest request) {
+        if (request.getFile() == null || request.getInput() != null || request.getOffset() > 0) {
+            return false;
+        }
+        Long contentLength = request.getMetadata() == null ? null : request.getMetadata().getContentLength();
+        return contentLength == null || contentLength < 0 || contentLength >= request.getFile().length();
+    }
+
+    protected PutObjectInMultiBucketResult putObjectInMultiBucketImpl(PutObjectInMultiBucketRequest request)
+            throws ServiceException {
+        final List<Destination> destinations = request.getDestinations();
+        final File file = request.getFile();
+        final long length = file != null ? file.length() : request.getContentLength();
+        InputStream source;
+        if (file != null) {
+            try {
+                source = new FileInputStream(file);
+            } catch (IOException e) {
+                throw new ServiceException("Failed to open file " + file, e);
+            }
+        } else {
+            source = request.getInput();
+        }
+
+        StreamFanOut fanOut = new StreamFanOut(destinations.size(), request.getBufferSize(),
+                request.getBufferCount());
+        ExecutorService executorService = Executors.newFixedThreadPool(destinations.size(),
+                newWorkerThreadFactory("obs-put-object-", Executors.defaultThreadFactory()));
+        try {
+            List<Future<DestinationResult>> futures = new ArrayList<>(destinations.size());
+            for (int i = 0; i < destinations.size(); i++) {
+                final Destination destination = destinations.get(i);
+                final InputStream branch = fanOut.getBranch(i);
+                futures.add(executorService.submit(() -> putToDestination(destination, branch, length, file)));
+            }
+            executorService.shutdown();
+
+            // 在当前线程读取数据源，各目标的上传线程从各自的有界队列消费
+            try {
+                fanOut.pump(source, length);
+            } catch (IOException e) {
+                // 各分支的读取同样失败，错误体现在每个目标的结果中
+                if (log.isWarnEnabled()) {
+                    log.warn("Failed to read the source of putObjectInMultiBucket", e);
+                }
+            }
+
+            PutObjectInMultiBucketResult result = new PutObjectInMultiBucketResult();
+            for (Future<DestinationResult> future : futures) {
+                result.getDestinationResults().add(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fanOut.abort(new InterruptedIOException("putObjectInMultiBucket interrupted"));
+            throw new ServiceException(e);
+        } catch (ExecutionException e) {
+            throw new ServiceException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+            if (file != null || request.isAutoClose()) {
+                ServiceUtils.closeStream(source);
+            }
+        }
+    }
+
+    private DestinationResult putToDestination(Destination destination, InputStream branch, long length,
+            File file) {
+        // 调用方的请求可能被多个目标共用，每个目标上传各自的副本，不修改原请求
+        PutObjectRequest origin = destination.getRequest();
+        PutObjectResult result = null;
+        ObsException exception = null;
+        try {
+            result = putToDestination(destination, copyForDestination(origin, branch, null, length, file));
+        } catch (ObsException e) {
+            exception = e;
+        } finally {
+            ServiceUtils.closeStream(branch);
+        }
+
+        int responseCode = exception == null ? -1 : exception.getResponseCode();
+        if (exception != null && file != null && (responseCode < 400 || responseCode >= 500 || responseCode == 408)) {
+            // 分支数据不可重放，文件数据源则单独重新读取文件重试一次
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to put object to bucket " + origin.getBucketName()
+                        + ", retry by reading the file again", exception);
+            }
+            try {
+                result = putToDestination(destination, copyForDestination(origin, null, file, length, file));
+                exception = null;
+            } catch (ObsException e) {
+                exception = e;
+            }
+        }
+        return new DestinationResult(origin.getBucketName(), origin.getObjectKey(), result, exception);
+    }
+
+    /**
+     * 复制目标的上传请求与元数据，数据源替换为input或file
+     *
+     * @param sourceFile
+     *            数据源文件，以数据流上传时用于与文件上传一致地推断Content-Type
+     */
+    private static PutObjectRequest copyForDestination(PutObjectRequest origin, InputStream input, File file,
+            long length, File sourceFile) {
+        PutObjectRequest copy = new PutObjectRequest(origin);
+        copy.setIsEncodeHeaders(origin.isEncodeHeaders());
+        copy.setIsIgnorePort(origin.getIsIgnorePort());
+        if (origin.getUserHeaders() != null) {
+            copy.setUserHeaders(new HashMap<String, String>(origin.getUserHeaders()));
+        }
+        copy.setCancelHandler(origin.getCancelHandler());
+        copy.setExpires(origin.getExpires());
+        copy.setProgressListener(origin.getProgressListener());
+        copy.setProgressInterval(origin.getProgressInterval());
+        copy.setCallback(origin.getCallback());
+        copy.setNeedCalculateCRC64(origin.isNeedCalculateCRC64());
+        // setFile与setInput会互相清空，只设置其中一个
+        if (file != null) {
+            copy.setFile(file);
+        } else {
+            copy.setInput(input);
+        }
+
+        ObjectMetadata metadata = copyMetadata(origin.getMetadata());
+        if (length >= 0) {
+            metadata.setContentLength(length);
+        }
+        if (input != null && sourceFile != null) {
+            // 与文件上传相同：未指定时按对象名推断，推断为二进制流时再按文件名推断
+            Object contentType = metadata.getContentType() == null
+                    ? metadata.getValue(CommonHeaders.CONTENT_TYPE) : metadata.getContentType();
+            if (contentType == null) {
+                contentType = Mimetypes.getInstance().getMimetype(origin.getObjectKey());
+            }
+            if (Mimetypes.MIMETYPE_OCTET_STREAM.equals(contentType)) {
+                contentType = Mimetypes.getInstance().getMimetype(sourceFile);
+            }
+            metadata.setContentType(contentType.toString());
+        }
+        copy.setMetadata(metadata);
+        return copy;
+    }
+
+    private static ObjectMetadata copyMetadata(ObjectMetadata origin) {
+        ObjectMetadata copy = new ObjectMetadata();
+        if (origin == null) {
+            return copy;
+        }
+        copy.setContentLength(origin.getContentLength());
+        copy.setContentType(origin.getContentType());
+        copy.setContentEncoding(origin.getContentEncoding());
+        copy.setContentDisposition(origin.getContentDisposition());
+        copy.setCacheControl(origin.getCacheControl());
+        copy.setContentLanguage(origin.getContentLanguage());
+        copy.setExpires(origin.getExpires());
+        copy.setContentMd5(origin.getContentMd5());
+        copy.setCrc64(origin.getCrc64());
+        copy.setObjectStorageClass(origin.getObjectStorageClass());
+        copy.setWebSiteRedirectLocation(origin.getWebSiteRedirectLocation());
+        copy.setEtag(origin.getEtag());
+        copy.setLastModified(origin.getLastModified());
+        copy.setAppendable(origin.isAppendable());
+        copy.setNextPosition(origin.getNextPosition());
+        copy.getAllMetadata().putAll(origin.getAllMetadata());
+        return copy;
+    }
+
+    private PutObjectResult putToDestination(Destination destination, PutObjectRequest request) {
+        try {
+            if (destination.getClient() != null) {
+                return destination.getClient().putObject(request);
+            }
+            return this.putObjectImpl(request);
+        } catch (ServiceException e) {
+            throw ServiceUtils.changeFromServiceException(e);
+        } catch (ObsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw ServiceUtils.changeFromException(e);
+        }
+    }
+
     protected ObsObject getObjectImpl(GetObjectRequest request) throws ServiceException {
         return (ObsObject) this.getObjectImpl((GetObjectMetadataRequest) request);
     }
 
     protected Object getObjectImpl(GetObjectMetadataRequest request) throws ServiceException {
         Response response;
-        GetObjectRequest getRequest = null;
+        TransResult result = transGetObjectOrMetadataRequest(request);
         if (!(request instanceof GetObjectRequest)) {
-            Map<String, String> headers = new HashMap<>();
-            this.transSseCHeaders(request.getSseCHeader(), headers, this.getIHeaders(request.getBucketName()));
-            this.transRequestPaymentHeaders(request, headers, this.getIHeaders(request.getBucketName()));
-
-            Map<String, String> params = new HashMap<>();
-            if (request.getVersionId() != null) {
-                params.put(ObsRequestParams.VERSION_ID, request.getVersionId());
-            }
             response = performRestHead(request.getBucketName(), request.getObjectKey(),
-                    params, headers, request.getUserHeaders(), request.isEncodeHeaders());
+                    result.getParams(), result.getHeaders(), request.getUserHeaders(), request.isEncodeHeaders());
         } else {
-            getRequest = (GetObjectRequest) request;
+            response = performRestGet(request.getBucketName(), request.getObjectKey(), result.getParams(),
+                    result.getHeaders(), request.getUserHeaders(), false, request.isEncodeHeaders());
+        }
+        return buildGetObjectResult(request, response);
+    }
+
+    protected CompletableFuture<ObsObject> getObjectAsyncImpl(GetObjectRequest request) throws ServiceException {
+        return thenBuild(this.getObjectOrMetadataAsyncImpl(request),
+                response -> (ObsObject) buildGetObjectResult(request, response));
+    }
+
+    protected CompletableFuture<ObsFSAttribute> getObjectMetadataAsyncImpl(GetObjectMetadataRequest request)
+            throws ServiceException {
+        return thenBuild(this.getObjectOrMetadataAsyncImpl(request),
+                response -> (ObsFSAttribute) buildGetObjectResult(request, response));
+    }
+
+    /**
+     * 异步下载对象（GetObjectRequest）或获取对象元数据（GetObjectMetadataRequest）
+     */
+    private CompletableFuture<Response> getObjectOrMetadataAsyncImpl(GetObjectMetadataRequest request)
+            throws ServiceException {
+        TransResult result = transGetObjectOrMetadataRequest(request);
+        Request httpRequest = buildRestRequest(request instanceof GetObjectRequest
+                        ? HttpMethodEnum.GET : HttpMethodEnum.HEAD, request.getBucketName(), request.getObjectKey(),
+                result.getParams(), result.getHeaders(), request.getUserHeaders(), false);
+        return performRequestAsync(httpRequest, result.getParams(), request.getBucketName(),
+                request.isEncodeHeaders());
+    }
+
+    private TransResult transGetObjectOrMetadataRequest(GetObjectMetadataRequest request) {
+        if (request instanceof GetObjectRequest) {
+            GetObjectRequest getRequest = (GetObjectRequest) request;
             TransResult result = this.transGetObjectRequest(getRequest);
             if (getRequest.getRequestParameters() != null) {
                 result.getParams().putAll(getRequest.getRequestParameters());
             }
-            response = performRestGet(request.getBucketName(), request.getObjectKey(), result.getParams(),
-                    result.getHeaders(), request.getUserHeaders(), false, request.isEncodeHeaders());
+            return result;
         }
+        Map<String, String> headers = new HashMap<>();
+        this.transSseCHeaders(request.getSseCHeader(), headers, this.getIHeaders(request.getBucketName()));
+        this.transRequestPaymentHeaders(request, headers, this.getIHeaders(request.getBucketName()));
 
+        Map<String, String> params = new HashMap<>();
+        if (request.getVersionId() != null) {
+            params.put(ObsRequestParams.VERSION_ID, request.getVersionId());
+        }
+        return new TransResult(headers, params, null);
+    }
+
+    private Object buildGetObjectResult(GetObjectMetadataRequest request, Response response) {
         ObsFSAttribute objMetadata = this.getObsFSAttributeFromResponse(request.getBucketName(),
                 response, request.isEncodeHeaders());
 
@@ -245,6 +531,7 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
             response.close();
             return objMetadata;
         }
+        GetObjectRequest getRequest = (GetObjectRequest) request;
         ReadFileResult obsObject = new ReadFileResult();
         obsObject.setObjectKey(request.getObjectKey());
         obsObject.setBucketName(request.getBucketName());
@@ -252,7 +539,7 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
         // pmd error message: CloseResource - Ensure that resources like this
         // InputStream object are closed after use
         // 该接口是下载对象，需要将流返回给客户（调用方），我们不能关闭这个流
-        obsObject.setObjectContent(response.body().byteStream()); // NOPMD
+        obsObject.setObjectContent(getObjectContent(getRequest, response)); // NOPMD
         if (getRequest.getProgressListener() != null) {
             ProgressManager progressManager = new SimpleProgressManager(objMetadata.getContentLength(), 0,
                     getRequest.getProgressListener(),
@@ -269,6 +556,96 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
         return obsObject;
     }
 
+    /**
+     * 获取对象数据流。启用断点续读（httpclient.resumable-read-max-retries大于0）时，
+     * 读取过程中连接中断后，从已读取的位置以If-Match固定ETag重新发起范围下载
+     */
+    protected InputStream getObjectContent(final GetObjectRequest request, Response response) {
+        InputStream content = response.body().byteStream();
+        int maxRetries = obsProperties.getIntProperty(ObsConstraint.RESUMABLE_READ_MAX_RETRIES, 0);
+        final String etag = response.header(CommonHeaders.ETAG);
+        // 长度未知（如透明解压）时无法按偏移续读
+        long contentLength = response.body().contentLength();
+        if (maxRetries <= 0 || contentLength <= 0 || !ServiceUtils.isValid(etag)) {
+            return content;
+        }
+        long startPosition = getContentOffset(response);
+        return new ResumableObjectInputStream(content, startPosition, startPosition + contentLength - 1, maxRetries,
+                new ResumableObjectInputStream.Reopener() {
+                    private long previousDelay;
+
+                    @Override
+                    public InputStream reopen(long position, long endPosition) throws IOException {
+                        return reopenObjectContent(request, etag, position, endPosition);
+                    }
+
+                    @Override
+                    public long computeDelay(int retryCount, IOException exception) {
+                        long delay = getRetryPolicy().computeDelay(new RetryPolicy.RetryContext(
+                                HttpMethodEnum.GET.getOperationType(), retryCount, -1, null, -1, exception,
+                                this.previousDelay));
+                        if (delay >= 0) {
+                            this.previousDelay = delay;
+                        }
+                        return delay;
+                    }
+                });
+    }
+
+    private InputStream reopenObjectContent(GetObjectRequest request, String etag, long position, long endPosition)
+            throws IOException {
+        TransResult result = this.transGetObjectRequest(request);
+        if (request.getRequestParameters() != null) {
+            result.getParams().putAll(request.getRequestParameters());
+        }
+        result.getHeaders().put(CommonHeaders.RANGE,
+                "bytes=" + position + "-" + (endPosition < 0 ? "" : String.valueOf(endPosition)));
+        result.getHeaders().put(CommonHeaders.IF_MATCH, etag);
+        Response response;
+        try {
+            response = performRestGet(request.getBucketName(), request.getObjectKey(), result.getParams(),
+                    result.getHeaders(), request.getUserHeaders(), false, request.isEncodeHeaders());
+        } catch (ServiceException e) {
+            int code = e.getResponseCode();
+            if (code >= 400 && code < 500 && code != 408 && code != 429) {
+                // 412表示对象已被修改，不能再拼接
+                UnrecoverableIOException unrecoverable = new UnrecoverableIOException(
+                        "Failed to resume reading " + request.getObjectKey() + " at position " + position
+                                + ", response code: " + code);
+                unrecoverable.initCause(e);
+                throw unrecoverable;
+            }
+            throw new IOException(e);
+        }
+        if (response.code() != 206 || getContentOffset(response) != position) {
+            response.close();
+            throw new UnrecoverableIOException("Failed to resume reading " + request.getObjectKey()
+                    + " at position " + position + ", unexpected response code: " + response.code());
+        }
+        return response.body().byteStream();
+    }
+
+    /**
+     * 从Content-Range（bytes start-end/total）中获取响应数据在对象中的起始偏移，非范围响应返回0
+     */
+    protected static long getContentOffset(Response response) {
+        String contentRange = response.header(CommonHeaders.CONTENT_RANGE);
+        if (response.code() != 206 || contentRange == null) {
+            return 0;
+        }
+        int start = contentRange.indexOf(' ');
+        int end = contentRange.indexOf('-', start + 1);
+        if (start < 0 || end < 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(start + 1, end).trim());
+        } catch (NumberFormatException e) {
+            log.warn("invalid Content-Range: " + contentRange);
+            return 0;
+        }
+    }
+
     protected SelectObjectResult selectObjectContentImpl(SelectObjectRequest selectRequest)
         throws ServiceException {
         Map<String, String> httpHeaders = new HashMap<>();
@@ -342,7 +719,28 @@ public abstract class ObsObjectBaseService extends ObsBucketAdvanceService {
         Response response = performRestDelete(request.getBucketName(), request.getObjectKey(), requestParameters,
                 transRequestPaymentHeaders(request, null, this.getIHeaders(request.getBucketName())),
                 request.getUserHeaders());
+        return buildDeleteObjectResult(request, response);
+    }
+
+    protected CompletableFuture<DeleteObjectResult> deleteObjectAsyncImpl(final DeleteObjectRequest request)
+            throws ServiceException {
+        Map<String, String> requestParameters = new HashMap<>();
+        if (request.getVersionId() != null) {
+            requestParameters.put(ObsRequestParams.VERSION_ID, request.getVersionId());
+        }
+        NewTransResult transResult = transObjectRequest(request);
+        transResult.setParams(requestParameters);
+        transResult.setHeaders(transRequestPaymentHeaders(request, null, this.getIHeaders(request.getBucketName())));
+        return thenBuild(performRequestAsync(transResult), response -> {
+            try {
+                return buildDeleteObjectResult(request, response);
+            } finally {
+                response.close();
+            }
+        });
+    }
 
+    private DeleteObjectResult buildDeleteObjectResult(DeleteObjectRequest request, Response response) {
         DropFileResult result = new DropFileResult(Boolean.valueOf(response.header(this.getIHeaders(
                 request.getBucketName()).deleteMarkerHeader())), request.getObjectKey(),
                 response.header(this.getIHeaders(request.getBucketName()).versionIdHeader()));
@@ -15,7 +15,6 @@
 
 package com.obs.services.internal.service;
 
-import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,7 +23,6 @@ import com.obs.log.LoggerBuilder;
 import com.obs.services.internal.Constants;
 import com.obs.services.internal.Constants.CommonHeaders;
 import com.obs.services.internal.Constants.ObsRequestParams;
-import com.obs.services.internal.RepeatableRequestEntity;
 import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.handler.XmlResponsesSaxParser;
 import com.obs.services.internal.io.HttpMethodReleaseInputStream;
@@ -131,9 +129,8 @@ public abstract class ObsObjectService extends ObsMultipartObjectService {
             NewTransResult newTransResult = transObjectRequestWithResult(result, request);
             response = performRequest(newTransResult);
         } finally {
-            if (result != null && result.getBody() != null && request.isAutoClose()) {
-                RepeatableRequestEntity entity = (RepeatableRequestEntity) result.getBody();
-                ServiceUtils.closeStream(entity);
+            if (result != null) {
+                ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
             }
         }
         String nextPosition = response.header(this.getIHeaders(request.getBucketName()).nextPositionHeader());
@@ -171,10 +168,8 @@ public abstract class ObsObjectService extends ObsMultipartObjectService {
             NewTransResult newTransResult = transObjectRequestWithResult(result, request);
             response = performRequest(newTransResult);
         } finally {
-            if (result != null && result.getBody() != null && request.isAutoClose()) {
-                if (result.getBody() instanceof Closeable) {
-                    ServiceUtils.closeStream((Closeable) result.getBody());
-                }
+            if (result != null) {
+                ServiceUtils.closeRequestBody(result.getBody(), request.isAutoClose());
             }
         }
         ModifyObjectResult ret = new ModifyObjectResult();
@@ -20,6 +20,7 @@ import com.obs.services.exception.ObsException;
 import com.obs.services.internal.Constants;
 import com.obs.services.internal.Constants.CommonHeaders;
 import com.obs.services.internal.Constants.ObsRequestParams;
+import com.obs.services.internal.FileRegionRequestEntity;
 import com.obs.services.internal.IConvertor;
 import com.obs.services.internal.IHeaders;
 import com.obs.services.internal.ObsConstraint;
@@ -29,6 +30,7 @@ import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.SimpleProgressManager;
 import com.obs.services.internal.io.ProgressInputStream;
 import com.obs.services.internal.utils.CRC64;
+import com.obs.services.internal.utils.DigestPipeline;
 import com.obs.services.internal.utils.Mimetypes;
 import com.obs.services.internal.utils.RestUtils;
 import com.obs.services.internal.utils.ServiceUtils;
@@ -68,10 +70,10 @@ import okhttp3.RequestBody;
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -324,39 +326,32 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
         return ret;
     }
 
-    protected CRC64 tryAddCrc64ForPutObjectRequest(PutObjectRequest request,
-            IHeaders iheaders, Map<String, String> headers) {
-        HashMap<String, String> userHeaders = request.getUserHeaders();
+    /**
+     * 判断是否需要由SDK计算CRC64，仅支持文件上传
+     */
+    private boolean isCrc64CalculationRequired(Map<String, String> userHeaders, boolean needCalculateCRC64,
+            File file, IHeaders iheaders) {
         String crc64HeaderKey = iheaders.headerPrefix() + CommonHeaders.HASH_CRC64ECMA;
         String crc64UserHeaderValue;
         if (userHeaders != null && null != (crc64UserHeaderValue = userHeaders.get(crc64HeaderKey))) {
             log.warn("userHeader contains " + crc64HeaderKey
                     + ", value is " + crc64UserHeaderValue + ", sdk crc64 calculation skipped.");
-        } else if (!request.isNeedCalculateCRC64()) {
+        } else if (!needCalculateCRC64) {
             log.debug("Request not set 'needCalculateCRC64'");
-        } else if (request.getFile() != null) {
-            try {
-                CRC64 crc64 = CRC64.fromFile(request.getFile());
-                if (request instanceof AppendObjectRequest &&
-                        ((AppendObjectRequest) request).getCrc64BeforeAppend() != null) {
-                    AppendObjectRequest appendObjectRequest = (AppendObjectRequest) request;
-                    String crc64BeforeAppend = appendObjectRequest.getCrc64BeforeAppend();
-                    long crc64BeforeAppendValue = CRC64.fromString(crc64BeforeAppend);
-                    crc64.setValue(CRC64.combine(crc64BeforeAppendValue, crc64.getValue(), request.getFile().length()));
-                }
-                long crc64InLong = crc64.getValue();
-                String crc64InUnsignedString = crc64.toString();
-                headers.put(crc64HeaderKey, crc64InUnsignedString);
-                log.info("crc64InLong:" + crc64InLong + ", crc64InUnsignedString:" + crc64InUnsignedString);
-                return crc64;
-            } catch (IOException | NumberFormatException e) {
-                throw new ObsException("Failed to calculate crc64, Error :", e);
-            }
-        } else {
+        } else if (file == null) {
             log.error("sdk crc64 calculation is valid only when "
                     + "PutObjectRequest.getFile() is not null.");
+        } else {
+            return true;
         }
-        return null;
+        return false;
+    }
+
+    private void putCrc64Header(CRC64 crc64, IHeaders iheaders, Map<String, String> headers) {
+        long crc64InLong = crc64.getValue();
+        String crc64InUnsignedString = crc64.toString();
+        headers.put(iheaders.headerPrefix() + CommonHeaders.HASH_CRC64ECMA, crc64InUnsignedString);
+        log.info("crc64InLong:" + crc64InLong + ", crc64InUnsignedString:" + crc64InUnsignedString);
     }
 
     protected TransResult transPutObjectRequest(PutObjectRequest request) throws ServiceException {
@@ -394,21 +389,40 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
 
         long contentLengthValue = contentLength == null ? -1L : Long.parseLong(contentLength.toString());
 
-        CRC64 crc64 = tryAddCrc64ForPutObjectRequest(request, iheaders, headers);
-
+        boolean needCrc64 = isCrc64CalculationRequired(request.getUserHeaders(), request.isNeedCalculateCRC64(),
+                request.getFile(), iheaders);
+        CRC64 crc64 = null;
+        long fileOffset = 0L;
         if (request.getFile() != null) {
             if (Mimetypes.MIMETYPE_OCTET_STREAM.equals(contentType)) {
                 contentType = Mimetypes.getInstance().getMimetype(request.getFile());
             }
 
-            long fileSize = request.getFile().length();
-            try {
-                request.setInput(new FileInputStream(request.getFile()));
-            } catch (FileNotFoundException e) {
+            if (!request.getFile().isFile()) {
                 throw new IllegalArgumentException("File does not exist");
             }
-
+            long fileSize = request.getFile().length();
+            if (request.getOffset() > 0 && request.getOffset() < fileSize) {
+                fileOffset = request.getOffset();
+            }
             contentLengthValue = getContentLengthFromFile(request, contentLengthValue, fileSize);
+
+            if (needCrc64) {
+                // 只计算实际上传的文件片段
+                crc64 = new CRC64();
+                try {
+                    new DigestPipeline().add(crc64).digest(request.getFile(), fileOffset, contentLengthValue);
+                    if (request instanceof AppendObjectRequest
+                            && ((AppendObjectRequest) request).getCrc64BeforeAppend() != null) {
+                        long crc64BeforeAppendValue = CRC64.fromString(
+                                ((AppendObjectRequest) request).getCrc64BeforeAppend());
+                        crc64.setValue(CRC64.combine(crc64BeforeAppendValue, crc64.getValue(), contentLengthValue));
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    throw new ObsException("Failed to calculate crc64, Error :", e);
+                }
+                putCrc64Header(crc64, iheaders, headers);
+            }
         }
 
         String contentTypeStr = contentType.toString().trim();
@@ -418,16 +432,26 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
             this.putHeader(headers, CommonHeaders.CONTENT_LENGTH, String.valueOf(contentLengthValue));
         }
 
-        if (request.getInput() != null && request.getProgressListener() != null) {
-            ProgressManager progressManager = new SimpleProgressManager(contentLengthValue, 0,
+        ProgressManager progressManager = null;
+        if (request.getProgressListener() != null) {
+            progressManager = new SimpleProgressManager(contentLengthValue, 0,
                     request.getProgressListener(), request.getProgressInterval() > 0 ? request.getProgressInterval()
                     : ObsConstraint.DEFAULT_PROGRESS_INTERVAL);
-            request.setInput(new ProgressInputStream(request.getInput(), progressManager));
         }
 
-        RequestBody body = request.getInput() == null ? null
-                : new RepeatableRequestEntity(request.getInput(), contentTypeStr, contentLengthValue,
-                this.obsProperties);
+        RequestBody body = null;
+        if (request.getFile() != null) {
+            FileRegionRequestEntity fileEntity = new FileRegionRequestEntity(request.getFile(), fileOffset,
+                    contentLengthValue, contentTypeStr);
+            fileEntity.setProgressManager(progressManager);
+            body = fileEntity;
+        } else if (request.getInput() != null) {
+            if (progressManager != null) {
+                request.setInput(new ProgressInputStream(request.getInput(), progressManager));
+            }
+            body = new RepeatableRequestEntity(request.getInput(), contentTypeStr, contentLengthValue,
+                    this.obsProperties);
+        }
 
         TransResult transResult = new TransResult(headers, body);
         transResult.setCalculatedCrc64(crc64);
@@ -439,15 +463,6 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
             contentLengthValue = (contentLengthValue > 0
                     && contentLengthValue <= fileSize - request.getOffset())
                     ? contentLengthValue : fileSize - request.getOffset();
-            try {
-                long skipByte = request.getInput().skip(request.getOffset());
-                if (log.isDebugEnabled()) {
-                    log.debug("Skip " + skipByte + " bytes; offset : " + request.getOffset());
-                }
-            } catch (IOException e) {
-                ServiceUtils.closeStream(request.getInput());
-                throw new ServiceException(e);
-            }
         } else if (contentLengthValue < 0 || contentLengthValue > fileSize) {
             contentLengthValue = fileSize;
         }
@@ -937,32 +952,6 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
         return new TransResult(headers, params, null);
     }
 
-    protected CRC64 tryAddCrc64ForUploadPartRequest(UploadPartRequest request, IHeaders iheaders, Map<String, String> headers) {
-        HashMap<String, String> userHeaders = request.getUserHeaders();
-        String crc64HeaderKey = iheaders.headerPrefix() + CommonHeaders.HASH_CRC64ECMA;
-        String crc64UserHeaderValue;
-        if (userHeaders != null && null != (crc64UserHeaderValue = userHeaders.get(crc64HeaderKey))) {
-            log.warn("userHeader contains " + crc64HeaderKey + ", value is " + crc64UserHeaderValue
-                    + ", sdk crc64 calculation skipped.");
-        } else if (!request.isNeedCalculateCRC64()) {
-            log.debug("UploadPartRequest not set 'needCalculateCRC64'");
-        } else if (request.getFile() != null) {
-            try (FileInputStream fileInputStream = new FileInputStream(request.getFile())) {
-                CRC64 crc64 = CRC64.fromInputStream(fileInputStream, request.getOffset(), request.getPartSize());
-                long crc64InLong = crc64.getValue();
-                String crc64InUnsignedString = crc64.toString();
-                headers.put(crc64HeaderKey, crc64InUnsignedString);
-                log.info("crc64InLong:" + crc64InLong + ", crc64InUnsignedString:" + crc64InUnsignedString);
-                return crc64;
-            } catch (IOException e) {
-                throw new ServiceException("Failed to calculate crc64, Error :", e);
-            }
-        } else {
-            log.error("sdk crc64 calculation is valid only when "
-                    + "PutObjectRequest.getFile() is not null.");
-        }
-        return null;
-    }
     protected TransResult transUploadPartRequest(UploadPartRequest request) throws ServiceException {
         Map<String, String> params = new HashMap<String, String>();
         params.put(ObsRequestParams.PART_NUMBER, String.valueOf(request.getPartNumber()));
@@ -979,27 +968,41 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
         this.transSseCHeaders(request.getSseCHeader(), headers, iheaders);
 
         long contentLength = -1L;
-        CRC64 crc64 = tryAddCrc64ForUploadPartRequest(request, iheaders, headers);
+        long offset = 0L;
+        boolean needCrc64 = isCrc64CalculationRequired(request.getUserHeaders(), request.isNeedCalculateCRC64(),
+                request.getFile(), iheaders);
+        CRC64 crc64 = null;
         if (null != request.getFile()) {
             long fileSize = request.getFile().length();
-            long offset = (request.getOffset() >= 0 && request.getOffset() < fileSize) ? request.getOffset() : 0;
+            offset = (request.getOffset() >= 0 && request.getOffset() < fileSize) ? request.getOffset() : 0;
             long partSize = (request.getPartSize() != null && request.getPartSize() > 0
                     && request.getPartSize() <= (fileSize - offset)) ? request.getPartSize() : fileSize - offset;
             contentLength = partSize;
 
-            try {
-                if (request.isAttachMd5() && !ServiceUtils.isValid(request.getContentMd5())) {
-                    headers.put(CommonHeaders.CONTENT_MD5, ServiceUtils.toBase64(
-                            ServiceUtils.computeMD5Hash(new FileInputStream(request.getFile()), partSize, offset)));
-                }
-                request.setInput(new FileInputStream(request.getFile()));
-                long skipByte = request.getInput().skip(offset);
-                if (log.isDebugEnabled()) {
-                    log.debug("Skip " + skipByte + " bytes; offset : " + offset);
+            // MD5和CRC64都要放在请求头中，上传前对分段只预读一次，同时计算两者
+            boolean needMd5 = request.isAttachMd5() && !ServiceUtils.isValid(request.getContentMd5());
+            MessageDigest md5 = null;
+            if (needMd5 || needCrc64) {
+                try {
+                    DigestPipeline pipeline = new DigestPipeline();
+                    if (needMd5) {
+                        md5 = MessageDigest.getInstance("MD5");
+                        pipeline.add(md5);
+                    }
+                    if (needCrc64) {
+                        crc64 = new CRC64();
+                        pipeline.add(crc64);
+                    }
+                    pipeline.digest(request.getFile(), offset, partSize);
+                } catch (Exception e) {
+                    throw new ServiceException("Failed to calculate checksum of upload part, Error :", e);
                 }
-            } catch (Exception e) {
-                ServiceUtils.closeStream(request.getInput());
-                throw new ServiceException(e);
+            }
+            if (md5 != null) {
+                headers.put(CommonHeaders.CONTENT_MD5, ServiceUtils.toBase64(md5.digest()));
+            }
+            if (crc64 != null) {
+                putCrc64Header(crc64, iheaders, headers);
             }
         } else if (null != request.getInput()) {
             if (request.getPartSize() != null && request.getPartSize() > 0) {
@@ -1007,14 +1010,11 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
             }
         }
 
-        if (request.getInput() != null && request.getProgressManager() != null) {
-            request.setInput(new ProgressInputStream(request.getInput(), request.getProgressManager()));
-        } else if (request.getInput() != null && request.getProgressListener() != null) {
-            ProgressManager progressManager =
-                    new SimpleProgressManager(contentLength, 0, request.getProgressListener(),
+        ProgressManager progressManager = request.getProgressManager();
+        if (progressManager == null && request.getProgressListener() != null) {
+            progressManager = new SimpleProgressManager(contentLength, 0, request.getProgressListener(),
                     request.getProgressInterval() > 0 ? request.getProgressInterval()
                             : ObsConstraint.DEFAULT_PROGRESS_INTERVAL);
-            request.setInput(new ProgressInputStream(request.getInput(), progressManager));
         }
 
         String contentType = Mimetypes.getInstance().getMimetype(request.getObjectKey());
@@ -1023,8 +1023,18 @@ public abstract class RequestConvertor extends AclHeaderConvertor {
         if (contentLength > -1) {
             this.putHeader(headers, CommonHeaders.CONTENT_LENGTH, String.valueOf(contentLength));
         }
-        RequestBody body = request.getInput() == null ? null
-                : new RepeatableRequestEntity(request.getInput(), contentType, contentLength, this.obsProperties);
+        RequestBody body = null;
+        if (null != request.getFile()) {
+            FileRegionRequestEntity fileEntity = new FileRegionRequestEntity(request.getFile(), offset, contentLength,
+                    contentType);
+            fileEntity.setProgressManager(progressManager);
+            body = fileEntity;
+        } else if (null != request.getInput()) {
+            if (progressManager != null) {
+                request.setInput(new ProgressInputStream(request.getInput(), progressManager));
+            }
+            body = new RepeatableRequestEntity(request.getInput(), contentType, contentLength, this.obsProperties);
+        }
         TransResult transResult = new TransResult(headers, params, body);
         transResult.setCalculatedCrc64(crc64);
         return transResult;
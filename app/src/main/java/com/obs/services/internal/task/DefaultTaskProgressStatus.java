@@ -41,6 +41,10 @@ public class DefaultTaskProgressStatus implements TaskProgressStatus {
         this.totalTaskNum.set(totalNum);
     }
 
+    public void addTotalTaskNum(int delta) {
+        this.totalTaskNum.addAndGet(delta);
+    }
+
     @Override
     public int getExecPercentage() {
         if (totalTaskNum.get() <= 0) {
@@ -0,0 +1,391 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+import com.obs.services.AbstractClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.model.DeleteObjectResult;
+import com.obs.services.model.DeleteObjectsRequest;
+import com.obs.services.model.DeleteObjectsResult;
+import com.obs.services.model.DeleteObjectsResult.ErrorResult;
+import com.obs.services.model.ListObjectsRequest;
+import com.obs.services.model.ObjectListing;
+import com.obs.services.model.ObsObject;
+import com.obs.services.model.TaskCallback;
+import com.obs.services.model.fs.DropFolderRequest;
+
+/**
+ * 批量删除目录：
+ * 各子目录的列举并发执行，每页列举到的对象用一次deleteObjects批量删除（每批最多1000个）；
+ * 目录对象在其下所有对象删除成功后才删除（自底向上），任一子对象删除失败则保留该目录及其所有上级目录。
+ */
+public class DropFolderEngine {
+    private static final ILogger ILOG = LoggerBuilder.getLogger(DropFolderEngine.class);
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String LIST_DELIMITER = "/";
+
+    private final AbstractClient obsClient;
+
+    private final DropFolderRequest request;
+
+    private final TaskCallback<DeleteObjectResult, String> callback;
+
+    private final DefaultTaskProgressStatus progressStatus;
+
+    private final Runnable progressRecorder;
+
+    private final ThreadPoolExecutor listExecutor;
+
+    private final ThreadPoolExecutor deleteExecutor;
+
+    // 限制列举线程提交的待执行批次数
+    private final Semaphore batchPermits;
+
+    // 进行中的列举与删除批次数，降为0时提交积攒的目录对象
+    private final AtomicInteger activeOperations = new AtomicInteger();
+
+    private final List<DeleteEntry> pendingFolders = new ArrayList<DeleteEntry>();
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile boolean folderDeleted;
+
+    /**
+     * @param progressRecorder
+     *            每个对象执行完成（成功或失败）后调用，用于记录进度
+     */
+    public DropFolderEngine(AbstractClient obsClient, DropFolderRequest request,
+            TaskCallback<DeleteObjectResult, String> callback, DefaultTaskProgressStatus progressStatus,
+            Runnable progressRecorder) {
+        this.obsClient = obsClient;
+        this.request = request;
+        this.callback = callback;
+        this.progressStatus = progressStatus;
+        this.progressRecorder = progressRecorder;
+        int threadNum = Math.max(1, obsClient.getWorkerThreadNum(request.getTaskThreadNum()));
+        this.listExecutor = new ThreadPoolExecutor(threadNum, threadNum, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                obsClient.newWorkerThreadFactory("obs-drop-folder-list-", Executors.defaultThreadFactory()));
+        this.deleteExecutor = new ThreadPoolExecutor(threadNum, threadNum, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                obsClient.newWorkerThreadFactory("obs-drop-folder-delete-", Executors.defaultThreadFactory()));
+        this.batchPermits = new Semaphore(threadNum * 2);
+    }
+
+    /**
+     * 删除目录及其下所有对象，阻塞直到完成
+     *
+     * @param folderName
+     *            以分隔符结尾的目录名
+     * @return 目录本身是否删除成功
+     */
+    public boolean drop(String folderName) throws InterruptedException {
+        try {
+            FolderNode root = new FolderNode(folderName, null);
+            this.progressStatus.addTotalTaskNum(1);
+            submitList(root);
+            this.finished.await();
+            return this.folderDeleted;
+        } finally {
+            this.listExecutor.shutdownNow();
+            this.deleteExecutor.shutdownNow();
+        }
+    }
+
+    private void submitList(final FolderNode node) {
+        this.activeOperations.incrementAndGet();
+        try {
+            this.listExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        list(node);
+                    } finally {
+                        operationDone();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.activeOperations.decrementAndGet();
+            node.listException = new ObsException(e.getMessage(), e);
+            node.childDone(false);
+        }
+    }
+
+    private void list(FolderNode node) {
+        ListObjectsRequest listRequest = new ListObjectsRequest(this.request.getBucketName());
+        listRequest.setDelimiter(LIST_DELIMITER);
+        listRequest.setPrefix(node.prefix);
+        listRequest.setRequesterPays(this.request.isRequesterPays());
+        listRequest.setEncodingType(this.request.getEncodingType());
+        boolean listed = true;
+        try {
+            ObjectListing result;
+            do {
+                result = this.obsClient.listObjects(listRequest);
+                List<DeleteEntry> batch = new ArrayList<DeleteEntry>(result.getObjects().size());
+                for (ObsObject o : result.getObjects()) {
+                    if (!o.getObjectKey().endsWith("/")) {
+                        batch.add(new DeleteEntry(o.getObjectKey(), node));
+                    }
+                }
+                List<String> prefixes = result.getCommonPrefixes();
+                // 先登记子任务数，避免子任务先于登记完成
+                node.pending.addAndGet(batch.size() + prefixes.size());
+                this.progressStatus.addTotalTaskNum(batch.size() + prefixes.size());
+                for (String prefix : prefixes) {
+                    submitList(new FolderNode(prefix, node));
+                }
+                if (!batch.isEmpty()) {
+                    this.batchPermits.acquire();
+                    submitDelete(batch, true);
+                }
+                listRequest.setMarker(result.getNextMarker());
+            } while (result.isTruncated());
+        } catch (ObsException e) {
+            node.listException = e;
+            listed = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            node.listException = new ObsException(e.getMessage(), e);
+            listed = false;
+        } catch (RuntimeException e) {
+            node.listException = new ObsException(e.getMessage(), e);
+            listed = false;
+        }
+        node.childDone(listed);
+    }
+
+    private void submitDelete(final List<DeleteEntry> batch, final boolean permitAcquired) {
+        this.activeOperations.incrementAndGet();
+        try {
+            this.deleteExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        deleteBatch(batch);
+                    } finally {
+                        if (permitAcquired) {
+                            batchPermits.release();
+                        }
+                        operationDone();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (permitAcquired) {
+                this.batchPermits.release();
+            }
+            this.activeOperations.decrementAndGet();
+            ObsException exception = new ObsException(e.getMessage(), e);
+            for (DeleteEntry entry : batch) {
+                failed(entry, exception);
+            }
+        }
+    }
+
+    private void deleteBatch(List<DeleteEntry> batch) {
+        DeleteObjectsRequest deleteRequest = new DeleteObjectsRequest(this.request.getBucketName());
+        deleteRequest.setRequesterPays(this.request.isRequesterPays());
+        for (DeleteEntry entry : batch) {
+            deleteRequest.addKeyAndVersion(entry.key);
+        }
+        DeleteObjectsResult result;
+        try {
+            result = this.obsClient.deleteObjects(deleteRequest);
+        } catch (RuntimeException e) {
+            ObsException exception = e instanceof ObsException ? (ObsException) e : new ObsException(e.getMessage(), e);
+            for (DeleteEntry entry : batch) {
+                failed(entry, exception);
+            }
+            return;
+        }
+
+        Map<String, ErrorResult> errors = new HashMap<String, ErrorResult>();
+        for (ErrorResult error : result.getErrorResults()) {
+            errors.put(error.getObjectKey(), error);
+        }
+        Map<String, DeleteObjectsResult.DeleteObjectResult> deleted =
+                new HashMap<String, DeleteObjectsResult.DeleteObjectResult>();
+        for (DeleteObjectsResult.DeleteObjectResult d : result.getDeletedObjectResults()) {
+            deleted.put(d.getObjectKey(), d);
+        }
+        for (DeleteEntry entry : batch) {
+            ErrorResult error = errors.get(entry.key);
+            if (error != null) {
+                ObsException exception = new ObsException(error.getMessage());
+                exception.setErrorCode(error.getErrorCode());
+                exception.setErrorMessage(error.getMessage());
+                failed(entry, exception);
+                continue;
+            }
+            DeleteObjectsResult.DeleteObjectResult d = deleted.get(entry.key);
+            succeeded(entry, d == null ? new DeleteObjectResult(false, entry.key, null)
+                    : new DeleteObjectResult(d.isDeleteMarker(), entry.key, d.getDeleteMarkerVersion()));
+        }
+    }
+
+    private void succeeded(DeleteEntry entry, DeleteObjectResult result) {
+        this.progressStatus.succeedTaskIncrement();
+        try {
+            this.callback.onSuccess(result);
+        } catch (RuntimeException e) {
+            callbackFailed(entry, e);
+        } finally {
+            recordAndComplete(entry, true);
+        }
+    }
+
+    private void failed(DeleteEntry entry, ObsException exception) {
+        this.progressStatus.failTaskIncrement();
+        try {
+            this.callback.onException(exception, entry.key);
+        } catch (RuntimeException e) {
+            callbackFailed(entry, e);
+        } finally {
+            recordAndComplete(entry, false);
+        }
+    }
+
+    /**
+     * 记录进度并完成对象，回调或进度监听抛出异常时也必须完成，否则所在目录永远不会结束，drop一直阻塞
+     */
+    private void recordAndComplete(DeleteEntry entry, boolean success) {
+        try {
+            this.progressRecorder.run();
+        } catch (RuntimeException e) {
+            callbackFailed(entry, e);
+        } finally {
+            entry.complete(success);
+        }
+    }
+
+    private void callbackFailed(DeleteEntry entry, RuntimeException e) {
+        if (ILOG.isWarnEnabled()) {
+            ILOG.warn("DropFolder: callback of " + entry.key + " failed", e);
+        }
+    }
+
+    private void folderReady(FolderNode node) {
+        List<DeleteEntry> batch = null;
+        synchronized (this.pendingFolders) {
+            this.pendingFolders.add(new DeleteEntry(node.prefix, node.parent));
+            if (this.pendingFolders.size() >= MAX_BATCH_SIZE) {
+                batch = new ArrayList<DeleteEntry>(this.pendingFolders);
+                this.pendingFolders.clear();
+            }
+        }
+        if (batch != null) {
+            submitDelete(batch, false);
+        }
+    }
+
+    private void operationDone() {
+        if (this.activeOperations.decrementAndGet() > 0) {
+            return;
+        }
+        // 没有进行中的操作时，不会再有同批的目录对象，提交积攒的目录对象
+        List<DeleteEntry> batch;
+        synchronized (this.pendingFolders) {
+            if (this.pendingFolders.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<DeleteEntry>(this.pendingFolders);
+            this.pendingFolders.clear();
+        }
+        submitDelete(batch, false);
+    }
+
+    private void finish(boolean deleted) {
+        this.folderDeleted = deleted;
+        if (ILOG.isInfoEnabled()) {
+            ILOG.info("DropFolder: " + this.progressStatus.getSucceedTaskNum() + " objects deleted, "
+                    + this.progressStatus.getFailTaskNum() + " failed");
+        }
+        this.finished.countDown();
+    }
+
+    private final class FolderNode {
+        private final String prefix;
+
+        private final FolderNode parent;
+
+        // 未完成的子任务数，初始的1代表本目录的列举
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private volatile boolean childFailed;
+
+        private volatile ObsException listException;
+
+        FolderNode(String prefix, FolderNode parent) {
+            this.prefix = prefix;
+            this.parent = parent;
+        }
+
+        void childDone(boolean success) {
+            if (!success) {
+                this.childFailed = true;
+            }
+            if (this.pending.decrementAndGet() != 0) {
+                return;
+            }
+            if (!this.childFailed) {
+                folderReady(this);
+                return;
+            }
+            // 子对象未全部删除，保留本目录
+            ObsException exception = this.listException != null ? this.listException
+                    : new ObsException("Failed to delete due to child file deletion failed");
+            failed(new DeleteEntry(this.prefix, this.parent), exception);
+        }
+    }
+
+    private final class DeleteEntry {
+        private final String key;
+
+        // 删除完成后需要通知的所在目录，为空表示删除的是根目录本身
+        private final FolderNode owner;
+
+        DeleteEntry(String key, FolderNode owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+
+        void complete(boolean success) {
+            if (this.owner != null) {
+                this.owner.childDone(success);
+            } else {
+                finish(success);
+            }
+        }
+    }
+}
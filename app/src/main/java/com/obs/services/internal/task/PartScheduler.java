@@ -0,0 +1,147 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.task;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+/**
+ * 分段任务调度器：在并发窗口内按需提交分段任务，每完成一个再提交下一个。
+ * 一旦某个分段的结果被判定为致命错误，立即停止提交剩余分段，并通过停止回调中止在途的请求。
+ *
+ * @param <T> 分段任务结果类型
+ */
+public class PartScheduler<T> {
+    private static final ILogger log = LoggerBuilder.getLogger(PartScheduler.class);
+
+    private final TransferScheduler.Session session;
+
+    private final int window;
+
+    private final Predicate<T> fatalChecker;
+
+    private final Runnable stopCallback;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param session
+     *            提交分段任务使用的传输会话
+     * @param window
+     *            同时在途的最大分段数
+     * @param fatalChecker
+     *            判断分段结果是否为致命错误
+     * @param stopCallback
+     *            出现致命错误时调用，用于取消在途请求，可为null
+     */
+    public PartScheduler(TransferScheduler.Session session, int window, Predicate<T> fatalChecker,
+            Runnable stopCallback) {
+        this.session = session;
+        this.window = Math.max(1, window);
+        this.fatalChecker = fatalChecker;
+        this.stopCallback = stopCallback;
+    }
+
+    /**
+     * 执行分段任务，直到全部完成或出现致命错误
+     *
+     * @param tasks
+     *            待执行的分段任务
+     * @return 已执行分段的结果，按完成顺序排列；出现致命错误时不包含未提交的分段
+     * @throws ExecutionException
+     *             分段任务抛出了异常
+     * @throws InterruptedException
+     *             等待过程中线程被中断，未开始的分段会被取消
+     */
+    public List<T> execute(Iterator<? extends Callable<T>> tasks) throws ExecutionException, InterruptedException {
+        BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<Future<T>>();
+        List<Future<T>> submitted = new ArrayList<Future<T>>();
+        List<T> results = new ArrayList<T>();
+        ExecutionException firstException = null;
+        int running = 0;
+        try {
+            while (true) {
+                while (!this.stopped && running < this.window && tasks.hasNext()) {
+                    submitted.add(this.session.submit(tasks.next(), completed));
+                    running++;
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<T> future = completed.take();
+                running--;
+                try {
+                    T result = future.get();
+                    results.add(result);
+                    if (!this.stopped && this.fatalChecker.test(result)) {
+                        stop();
+                    }
+                } catch (ExecutionException e) {
+                    if (firstException == null) {
+                        firstException = e;
+                    }
+                    stop();
+                }
+            }
+        } catch (InterruptedException e) {
+            stop();
+            for (Future<T> future : submitted) {
+                future.cancel(false);
+            }
+            throw e;
+        }
+
+        if (firstException != null) {
+            throw firstException;
+        }
+        return results;
+    }
+
+    /**
+     * 停止提交新的分段，并取消在途请求
+     */
+    public void stop() {
+        if (this.stopped) {
+            return;
+        }
+        this.stopped = true;
+        if (log.isWarnEnabled()) {
+            log.warn("part scheduling stopped, remaining parts will not be submitted");
+        }
+        if (this.stopCallback != null) {
+            try {
+                this.stopCallback.run();
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("cancel in-flight parts failed.", e);
+                }
+            }
+        }
+    }
+
+    public boolean isStopped() {
+        return this.stopped;
+    }
+}
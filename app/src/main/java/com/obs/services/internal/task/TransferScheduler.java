@@ -0,0 +1,208 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.task;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+/**
+ * 客户端级别的传输调度器，uploadFile/downloadFile 的所有分段任务共享同一个线程池。
+ * 每个传输通过 {@link Session} 提交任务，Session 限制该传输同时在线程池中排队或执行的任务数，
+ * 线程池队列为先进先出，因此多个传输之间按提交顺序公平地获得线程。
+ */
+public class TransferScheduler {
+    private static final ILogger log = LoggerBuilder.getLogger(TransferScheduler.class);
+
+    private static final String TRANSFER_THREAD_NAME_PREFIX = "obs-transfer-";
+
+    private static final long TRANSFER_THREAD_KEEP_ALIVE_MILLIS = 60 * 1000L;
+
+    private final ThreadPoolExecutor executor;
+
+    public TransferScheduler(int threadNum) {
+        this(threadNum, new TransferThreadFactory());
+    }
+
+    /**
+     * @param threadFactory
+     *            工作线程的ThreadFactory，如创建虚拟线程
+     */
+    public TransferScheduler(int threadNum, ThreadFactory threadFactory) {
+        int poolSize = Math.max(1, threadNum);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, TRANSFER_THREAD_KEEP_ALIVE_MILLIS,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 为一次传输打开一个会话
+     *
+     * @param maxConcurrency
+     *            该传输在共享线程池中的最大并发任务数
+     * @return 会话
+     */
+    public Session openSession(int maxConcurrency) {
+        return new Session(maxConcurrency);
+    }
+
+    public int getPoolSize() {
+        return this.executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return this.executor.getQueue().size();
+    }
+
+    public boolean isShutdown() {
+        return this.executor.isShutdown();
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+        if (log.isDebugEnabled()) {
+            log.debug("transfer scheduler shutdown, " + this.executor.getQueue().size() + " tasks still queued");
+        }
+    }
+
+    /**
+     * 单次传输的任务提交入口，超过并发上限的任务暂存在会话内，前序任务完成后再提交到共享线程池
+     */
+    public class Session {
+        private final int maxConcurrency;
+
+        private final Queue<SessionTask<?>> pendingTasks = new ArrayDeque<SessionTask<?>>();
+
+        private int runningTasks;
+
+        private Session(int maxConcurrency) {
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+        }
+
+        public <T> Future<T> submit(Callable<T> callable) {
+            return submit(callable, null);
+        }
+
+        /**
+         * 提交任务，任务结束（含失败、取消）后将其Future放入completionQueue
+         */
+        public <T> Future<T> submit(Callable<T> callable, BlockingQueue<Future<T>> completionQueue) {
+            SessionTask<T> task = new SessionTask<T>(callable, completionQueue);
+            synchronized (this) {
+                if (this.runningTasks >= this.maxConcurrency) {
+                    this.pendingTasks.add(task);
+                    return task;
+                }
+                this.runningTasks++;
+            }
+            dispatch(task);
+            return task;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        private void dispatch(SessionTask<?> task) {
+            SessionTask<?> current = task;
+            while (current != null && !tryExecute(current)) {
+                synchronized (this) {
+                    current = this.pendingTasks.poll();
+                    if (current == null) {
+                        this.runningTasks--;
+                    }
+                }
+            }
+        }
+
+        private boolean tryExecute(final SessionTask<?> task) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            onTaskFinished();
+                        }
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                task.fail(e);
+                return false;
+            }
+        }
+
+        private void onTaskFinished() {
+            SessionTask<?> next;
+            synchronized (this) {
+                next = this.pendingTasks.poll();
+                if (next == null) {
+                    this.runningTasks--;
+                    return;
+                }
+            }
+            dispatch(next);
+        }
+    }
+
+    private static class SessionTask<T> extends FutureTask<T> {
+        private final BlockingQueue<Future<T>> completionQueue;
+
+        SessionTask(Callable<T> callable, BlockingQueue<Future<T>> completionQueue) {
+            super(callable);
+            this.completionQueue = completionQueue;
+        }
+
+        @Override
+        protected void done() {
+            if (this.completionQueue != null) {
+                this.completionQueue.add(this);
+            }
+        }
+
+        void fail(Throwable t) {
+            this.setException(t);
+        }
+    }
+
+    private static class TransferThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadIndex = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, TRANSFER_THREAD_NAME_PREFIX + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
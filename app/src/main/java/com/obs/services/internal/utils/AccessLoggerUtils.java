@@ -19,65 +19,70 @@ import com.obs.log.LoggerBuilder;
 
 import java.lang.ref.SoftReference;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 
 public class AccessLoggerUtils {
     private static final ILogger ACCESS_LOG = LoggerBuilder.getLogger("com.obs.log.AccessLogger");
-    private static final ThreadLocal<StringBuilder> THREADLOCAL_LOG = new ThreadLocal<StringBuilder>();
+    private static final ThreadLocal<AccessLogRecords> THREADLOCAL_LOG = new ThreadLocal<AccessLogRecords>() {
+        @Override
+        protected AccessLogRecords initialValue() {
+            return new AccessLogRecords();
+        }
+    };
     private static final ThreadLocal<SoftReference<SimpleDateFormat>> DATE_FORMAT_HOLDER = 
             new ThreadLocal<SoftReference<SimpleDateFormat>>();
-    private static final int INDEX = 5;
     public static volatile boolean accesslogEnabled = true;
 
+    /**
+     * 是否在访问日志中记录调用位置（类名、方法名、行号）。
+     * 获取调用位置需要遍历线程栈，开销较大，默认关闭
+     */
+    public static volatile boolean accesslogCallerEnabled = false;
+
     private static String getLogPrefix() {
-        if (!accesslogEnabled) {
-            return "";
-        }
         StackTraceElement[] stacktraces = Thread.currentThread().getStackTrace();
-        StackTraceElement stacktrace = null;
-        if (stacktraces.length > INDEX) {
-            stacktrace = stacktraces[INDEX];
-        } else {
-            stacktrace = stacktraces[stacktraces.length - 1];
+        StackTraceElement stacktrace = stacktraces[stacktraces.length - 1];
+        // 跳过日志框架自身的栈帧
+        for (int i = 1; i < stacktraces.length; i++) {
+            String className = stacktraces[i].getClassName();
+            if (!className.startsWith("com.obs.log.") && !className.equals(AccessLoggerUtils.class.getName())) {
+                stacktrace = stacktraces[i];
+                break;
+            }
         }
 
         return new StringBuilder().append(stacktrace.getClassName()).append("|").append(stacktrace.getMethodName())
                 .append("|line:").append(stacktrace.getLineNumber()).append("|").toString();
     }
 
-    private static StringBuilder getLog() {
-        StringBuilder logSb = THREADLOCAL_LOG.get();
-        if (logSb == null) {
-            logSb = new StringBuilder();
-            THREADLOCAL_LOG.set(logSb);
-        }
-        return logSb;
-    }
-
-    public static void appendLog(Object log, String level) {
+    /**
+     * 访问日志是否记录该级别
+     */
+    public static boolean isLevelEnabled(String level) {
         if (!accesslogEnabled) {
-            return;
+            return false;
         }
-        Boolean isLog = false;
         if ("info".equalsIgnoreCase(level)) {
-            isLog = ACCESS_LOG.isInfoEnabled();
+            return ACCESS_LOG.isInfoEnabled();
         } else if ("debug".equalsIgnoreCase(level)) {
-            isLog = ACCESS_LOG.isDebugEnabled();
+            return ACCESS_LOG.isDebugEnabled();
         } else if ("warn".equalsIgnoreCase(level)) {
-            isLog = ACCESS_LOG.isWarnEnabled();
+            return ACCESS_LOG.isWarnEnabled();
         } else if ("error".equalsIgnoreCase(level)) {
-            isLog = ACCESS_LOG.isErrorEnabled();
+            return ACCESS_LOG.isErrorEnabled();
         } else if ("trace".equalsIgnoreCase(level)) {
-            isLog = ACCESS_LOG.isTraceEnabled();
+            return ACCESS_LOG.isTraceEnabled();
         }
-        if (isLog) {
-            StringBuilder sb = new StringBuilder(getFormat().format(new Date()));
-            sb.append("|").append(Thread.currentThread().getName())
-                    .append("|").append(level)
-                    .append("|").append(AccessLoggerUtils.getLogPrefix())
-                    .append(log.toString()).append("\n");
-            getLog().append(sb.toString());
+        return false;
+    }
+
+    public static void appendLog(Object log, String level) {
+        if (log == null || !isLevelEnabled(level)) {
+            return;
         }
+        THREADLOCAL_LOG.get().add(System.currentTimeMillis(), level, log.toString(),
+                accesslogCallerEnabled ? getLogPrefix() : null);
     }
 
     public static SimpleDateFormat getFormat() {
@@ -95,10 +100,95 @@ public class AccessLoggerUtils {
         if (!accesslogEnabled) {
             return;
         }
-        String message = getLog().toString();
-        if (ServiceUtils.isValid(message)) {
-            ACCESS_LOG.accessRecord(message);
+        AccessLogRecords records = THREADLOCAL_LOG.get();
+        if (records.size == 0) {
+            return;
+        }
+        String message = records.format(Thread.currentThread().getName());
+        records.clear();
+        ACCESS_LOG.accessRecord(message);
+    }
+
+    /**
+     * 当前线程一次接口调用期间积攒的访问日志。只记录时间、级别与消息，
+     * 在printLog时才格式化为文本；对象在线程内复用
+     */
+    private static final class AccessLogRecords {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private static final int MAX_RETAINED_CAPACITY = 1024;
+
+        private long[] times = new long[INITIAL_CAPACITY];
+        private String[] levels = new String[INITIAL_CAPACITY];
+        private String[] messages = new String[INITIAL_CAPACITY];
+        private String[] callers = new String[INITIAL_CAPACITY];
+        private int size;
+
+        // 同一秒内的时间前缀只格式化一次
+        private SimpleDateFormat secondFormat;
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedSecondText;
+
+        void add(long time, String level, String message, String caller) {
+            if (this.size == this.times.length) {
+                int capacity = this.size * 2;
+                this.times = Arrays.copyOf(this.times, capacity);
+                this.levels = Arrays.copyOf(this.levels, capacity);
+                this.messages = Arrays.copyOf(this.messages, capacity);
+                this.callers = Arrays.copyOf(this.callers, capacity);
+            }
+            this.times[this.size] = time;
+            this.levels[this.size] = level;
+            this.messages[this.size] = message;
+            this.callers[this.size] = caller;
+            this.size++;
+        }
+
+        String format(String threadName) {
+            StringBuilder sb = new StringBuilder(this.size * 128);
+            for (int i = 0; i < this.size; i++) {
+                appendTime(sb, this.times[i]);
+                sb.append('|').append(threadName).append('|').append(this.levels[i]).append('|');
+                if (this.callers[i] != null) {
+                    sb.append(this.callers[i]);
+                }
+                sb.append(this.messages[i]).append('\n');
+            }
+            return sb.toString();
+        }
+
+        private void appendTime(StringBuilder sb, long time) {
+            long second = Math.floorDiv(time, 1000L);
+            if (second != this.cachedSecond) {
+                if (this.secondFormat == null) {
+                    this.secondFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                }
+                this.cachedSecondText = this.secondFormat.format(new Date(second * 1000L));
+                this.cachedSecond = second;
+            }
+            int millis = (int) Math.floorMod(time, 1000L);
+            sb.append(this.cachedSecondText).append(' ');
+            if (millis < 100) {
+                sb.append('0');
+            }
+            if (millis < 10) {
+                sb.append('0');
+            }
+            sb.append(millis);
+        }
+
+        void clear() {
+            if (this.times.length > MAX_RETAINED_CAPACITY) {
+                this.times = new long[INITIAL_CAPACITY];
+                this.levels = new String[INITIAL_CAPACITY];
+                this.messages = new String[INITIAL_CAPACITY];
+                this.callers = new String[INITIAL_CAPACITY];
+            } else {
+                Arrays.fill(this.levels, 0, this.size, null);
+                Arrays.fill(this.messages, 0, this.size, null);
+                Arrays.fill(this.callers, 0, this.size, null);
+            }
+            this.size = 0;
         }
-        THREADLOCAL_LOG.remove();
     }
 }
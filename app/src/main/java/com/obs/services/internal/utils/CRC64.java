@@ -8,7 +8,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.zip.Checksum;
 
 public class CRC64 implements Checksum, Serializable {
@@ -17,8 +18,14 @@ public class CRC64 implements Checksum, Serializable {
 
     private static final long POLY = (long) 0xc96c5795d7870f42L; // ECMA-182
 
-    /* CRC64 calculation table. */
-    private static final long[][] CRC64_TABLE;
+    /* number of bytes processed per loop */
+    private static final int SLICES = 16;
+
+    /*
+     * CRC64 calculation tables, flattened: entry [k * 256 + n] is the CRC of byte n
+     * followed by k zero bytes.
+     */
+    private static final long[] CRC64_TABLE;
 
     /* Current CRC value. */
     private long value;
@@ -183,37 +190,91 @@ public class CRC64 implements Checksum, Serializable {
      * Update CRC64 with new byte block.
      */
     public void update(byte[] b, int off, int len) {
-        this.value = ~this.value;
-
-        /* fast middle processing, 8 bytes (aligned!) per loop */
+        final long[] t = CRC64_TABLE;
+        long crc = ~this.value;
 
+        /* fast middle processing, 16 bytes per loop */
         int idx = off;
-        while (len >= 8) {
-            value =
-                    CRC64_TABLE[7][(int) (value & 0xff ^ (b[idx] & 0xff))]
-                            ^ CRC64_TABLE[6][(int) ((value >>> 8) & 0xff ^ (b[idx + 1] & 0xff))]
-                            ^ CRC64_TABLE[5][(int) ((value >>> 16) & 0xff ^ (b[idx + 2] & 0xff))]
-                            ^ CRC64_TABLE[4][(int) ((value >>> 24) & 0xff ^ (b[idx + 3] & 0xff))]
-                            ^ CRC64_TABLE[3][(int) ((value >>> 32) & 0xff ^ (b[idx + 4] & 0xff))]
-                            ^ CRC64_TABLE[2][(int) ((value >>> 40) & 0xff ^ (b[idx + 5] & 0xff))]
-                            ^ CRC64_TABLE[1][(int) ((value >>> 48) & 0xff ^ (b[idx + 6] & 0xff))]
-                            ^ CRC64_TABLE[0][(int) ((value >>> 56) ^ b[idx + 7] & 0xff)];
-            idx += 8;
-            len -= 8;
+        while (len >= SLICES) {
+            crc = t[15 * 256 + (int) ((crc ^ b[idx]) & 0xff)]
+                    ^ t[14 * 256 + (int) (((crc >>> 8) ^ b[idx + 1]) & 0xff)]
+                    ^ t[13 * 256 + (int) (((crc >>> 16) ^ b[idx + 2]) & 0xff)]
+                    ^ t[12 * 256 + (int) (((crc >>> 24) ^ b[idx + 3]) & 0xff)]
+                    ^ t[11 * 256 + (int) (((crc >>> 32) ^ b[idx + 4]) & 0xff)]
+                    ^ t[10 * 256 + (int) (((crc >>> 40) ^ b[idx + 5]) & 0xff)]
+                    ^ t[9 * 256 + (int) (((crc >>> 48) ^ b[idx + 6]) & 0xff)]
+                    ^ t[8 * 256 + (int) (((crc >>> 56) ^ b[idx + 7]) & 0xff)]
+                    ^ t[7 * 256 + (b[idx + 8] & 0xff)]
+                    ^ t[6 * 256 + (b[idx + 9] & 0xff)]
+                    ^ t[5 * 256 + (b[idx + 10] & 0xff)]
+                    ^ t[4 * 256 + (b[idx + 11] & 0xff)]
+                    ^ t[3 * 256 + (b[idx + 12] & 0xff)]
+                    ^ t[2 * 256 + (b[idx + 13] & 0xff)]
+                    ^ t[256 + (b[idx + 14] & 0xff)]
+                    ^ t[b[idx + 15] & 0xff];
+            idx += SLICES;
+            len -= SLICES;
         }
 
-        /* process remaining bytes (can't be larger than 8) */
+        /* process remaining bytes (less than 16) */
         while (len > 0) {
-            value = CRC64_TABLE[0][(int) ((this.value ^ b[idx]) & 0xff)] ^ (this.value >>> 8);
+            crc = t[(int) ((crc ^ b[idx]) & 0xff)] ^ (crc >>> 8);
             idx++;
             len--;
         }
 
-        this.value = ~this.value;
+        this.value = ~crc;
+    }
+
+    /**
+     * Update CRC64 with the remaining bytes of the buffer, the position of the
+     * buffer is moved to its limit. Both heap and direct buffers are supported.
+     */
+    public void update(ByteBuffer buffer) {
+        int remaining = buffer.remaining();
+        if (remaining <= 0) {
+            return;
+        }
+        if (buffer.hasArray()) {
+            update(buffer.array(), buffer.arrayOffset() + buffer.position(), remaining);
+            buffer.position(buffer.limit());
+            return;
+        }
+
+        final long[] t = CRC64_TABLE;
+        long crc = ~this.value;
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        while (in.remaining() >= SLICES) {
+            long lo = crc ^ in.getLong();
+            long hi = in.getLong();
+            crc = t[15 * 256 + (int) (lo & 0xff)]
+                    ^ t[14 * 256 + (int) ((lo >>> 8) & 0xff)]
+                    ^ t[13 * 256 + (int) ((lo >>> 16) & 0xff)]
+                    ^ t[12 * 256 + (int) ((lo >>> 24) & 0xff)]
+                    ^ t[11 * 256 + (int) ((lo >>> 32) & 0xff)]
+                    ^ t[10 * 256 + (int) ((lo >>> 40) & 0xff)]
+                    ^ t[9 * 256 + (int) ((lo >>> 48) & 0xff)]
+                    ^ t[8 * 256 + (int) (lo >>> 56)]
+                    ^ t[7 * 256 + (int) (hi & 0xff)]
+                    ^ t[6 * 256 + (int) ((hi >>> 8) & 0xff)]
+                    ^ t[5 * 256 + (int) ((hi >>> 16) & 0xff)]
+                    ^ t[4 * 256 + (int) ((hi >>> 24) & 0xff)]
+                    ^ t[3 * 256 + (int) ((hi >>> 32) & 0xff)]
+                    ^ t[2 * 256 + (int) ((hi >>> 40) & 0xff)]
+                    ^ t[256 + (int) ((hi >>> 48) & 0xff)]
+                    ^ t[(int) (hi >>> 56)];
+        }
+        while (in.hasRemaining()) {
+            crc = t[(int) ((crc ^ in.get()) & 0xff)] ^ (crc >>> 8);
+        }
+        this.value = ~crc;
+        buffer.position(buffer.limit());
     }
 
     public void update(int b) {
-        this.update(new byte[] {(byte) b}, 0, 1);
+        long crc = ~this.value;
+        crc = CRC64_TABLE[(int) ((crc ^ b) & 0xff)] ^ (crc >>> 8);
+        this.value = ~crc;
     }
 
     public void reset() {
@@ -252,14 +313,11 @@ public class CRC64 implements Checksum, Serializable {
         this.value = combine(this.value, anotherCRC64.value, len2);
     }
 
-    private static final long[] EVEN_SQUARE;
-    private static final long[] ODD_SQUARE;
-
     static {
         /*
          * Nested tables as described by Mark Adler
          */
-        CRC64_TABLE = new long[8][256];
+        CRC64_TABLE = new long[SLICES * 256];
 
         for (int n = 0; n < 256; n++) {
             long crc = n;
@@ -270,33 +328,47 @@ public class CRC64 implements Checksum, Serializable {
                     crc = (crc >>> 1);
                 }
             }
-            CRC64_TABLE[0][n] = crc;
+            CRC64_TABLE[n] = crc;
         }
 
-        /* generate nested CRC table for future slice-by-8 lookup */
+        /* generate nested CRC table for future slice-by-16 lookup */
         for (int n = 0; n < 256; n++) {
-            long crc = CRC64_TABLE[0][n];
-            for (int k = 1; k < 8; k++) {
-                crc = CRC64_TABLE[0][(int) (crc & 0xff)] ^ (crc >>> 8);
-                CRC64_TABLE[k][n] = crc;
+            long crc = CRC64_TABLE[n];
+            for (int k = 1; k < SLICES; k++) {
+                crc = CRC64_TABLE[(int) (crc & 0xff)] ^ (crc >>> 8);
+                CRC64_TABLE[k * 256 + n] = crc;
             }
         }
+    }
 
-        int n;
-        long row;
-        EVEN_SQUARE = new long[GF2_DIM]; // even-power-of-two zeros operator
-        ODD_SQUARE = new long[GF2_DIM]; // odd-power-of-two zeros operator
-        // put operator for one zero bit in odd
-        ODD_SQUARE[0] = POLY; // CRC-64 polynomial
-        row = 1;
-        for (n = 1; n < GF2_DIM; n++) {
-            ODD_SQUARE[n] = row;
-            row <<= 1;
+    /*
+     * Operators applying 2^k zero bytes to a crc, k = 0..63. Built on first use
+     * so that combine is only a few matrix-vector products per call.
+     */
+    private static final class ZerosOperators {
+        private static final long[][] OPERATORS = new long[GF2_DIM][];
+
+        static {
+            long[] odd = new long[GF2_DIM]; // operator for one zero bit
+            long[] even = new long[GF2_DIM];
+            odd[0] = POLY; // CRC-64 polynomial
+            long row = 1;
+            for (int n = 1; n < GF2_DIM; n++) {
+                odd[n] = row;
+                row <<= 1;
+            }
+            // two zero bits
+            gf2MatrixSquare(even, odd);
+            // four zero bits
+            gf2MatrixSquare(odd, even);
+            // one zero byte
+            OPERATORS[0] = new long[GF2_DIM];
+            gf2MatrixSquare(OPERATORS[0], odd);
+            for (int k = 1; k < GF2_DIM; k++) {
+                OPERATORS[k] = new long[GF2_DIM];
+                gf2MatrixSquare(OPERATORS[k], OPERATORS[k - 1]);
+            }
         }
-        // put operator for two zero bits in even
-        gf2MatrixSquare(EVEN_SQUARE, ODD_SQUARE);
-        // put operator for four zero bits in odd
-        gf2MatrixSquare(ODD_SQUARE, EVEN_SQUARE);
     }
 
     /*
@@ -310,35 +382,15 @@ public class CRC64 implements Checksum, Serializable {
             return crc1;
         }
 
-        long[] even = Arrays.copyOf(EVEN_SQUARE, EVEN_SQUARE.length);
-        long[] odd = Arrays.copyOf(ODD_SQUARE, ODD_SQUARE.length);
-        // apply len2 zeros to crc1 (first square will put the operator for one
-        // zero byte, eight zero bits, in even)
-        do {
-            // apply zeros operator for this bit of len2
-            gf2MatrixSquare(even, odd);
+        // apply len2 zeros to crc1, one cached operator for each bit set in len2
+        long[][] operators = ZerosOperators.OPERATORS;
+        for (int k = 0; len2 != 0; k++, len2 >>>= 1) {
             if ((len2 & 1) == 1) {
-                crc1 = gf2MatrixTimes(even, crc1);
+                crc1 = gf2MatrixTimes(operators[k], crc1);
             }
-            len2 >>>= 1;
-
-            // if no more bits set, then done
-            if (len2 == 0) {
-                break;
-            }
-
-            // another iteration of the loop with odd and even swapped
-            gf2MatrixSquare(odd, even);
-            if ((len2 & 1) == 1) {
-                crc1 = gf2MatrixTimes(odd, crc1);
-            }
-            len2 >>>= 1;
-
-            // if no more bits set, then done
-        } while (len2 != 0);
+        }
         // return combined crc.
-        crc1 ^= crc2;
-        return crc1;
+        return crc1 ^ crc2;
     }
 
     /**
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+import okhttp3.Dns;
+
+/**
+ * 带缓存的域名解析：
+ * 解析结果缓存ttl时间，超过ttl的3/4后被访问时在后台刷新；解析失败时在staleTtl内继续使用过期结果；
+ * 每次返回的地址按轮转或随机排序，使新建连接分散到所有地址；近期连接失败的地址排在最后。
+ */
+public class CachingObsDns implements Dns {
+    private static final ILogger log = LoggerBuilder.getLogger(CachingObsDns.class);
+
+    // 连接失败后的降级时间，随连续失败次数增加
+    private static final long PENALTY_MILLIS = 5000;
+
+    private static final int MAX_PENALTY_FACTOR = 12;
+
+    private final Dns delegate;
+
+    private final long ttlMillis;
+
+    private final long staleMillis;
+
+    private final boolean shuffle;
+
+    private final ConcurrentHashMap<String, HostEntry> cache = new ConcurrentHashMap<String, HostEntry>();
+
+    private final ConcurrentHashMap<InetAddress, AddressScore> scores =
+            new ConcurrentHashMap<InetAddress, AddressScore>();
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    /**
+     * @param delegate
+     *            实际执行解析的Dns
+     * @param ttlMillis
+     *            解析结果的缓存时间（毫秒）
+     * @param staleMillis
+     *            解析失败时过期结果可继续使用的时间（毫秒）
+     * @param shuffle
+     *            true表示随机排序地址，false表示轮转
+     */
+    public CachingObsDns(Dns delegate, long ttlMillis, long staleMillis, boolean shuffle) {
+        this.delegate = delegate;
+        this.ttlMillis = Math.max(1, ttlMillis);
+        this.staleMillis = Math.max(0, staleMillis);
+        this.shuffle = shuffle;
+        this.refreshExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "obs-dns-refresh");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        HostEntry entry = this.cache.get(hostname);
+        if (entry == null) {
+            HostEntry newEntry = new HostEntry(hostname);
+            entry = this.cache.putIfAbsent(hostname, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+
+        Resolved resolved = entry.resolved;
+        long now = System.currentTimeMillis();
+        if (resolved != null && now < resolved.expireAt) {
+            if (now >= resolved.refreshAt) {
+                scheduleRefresh(entry);
+            }
+            return order(entry, resolved.addresses, now);
+        }
+
+        // 解析期间持有锁，同一域名只解析一次；使用ReentrantLock，虚拟线程等待时不占住载体线程
+        entry.lock.lock();
+        try {
+            resolved = entry.resolved;
+            now = System.currentTimeMillis();
+            if (resolved != null && now < resolved.expireAt) {
+                return order(entry, resolved.addresses, now);
+            }
+            try {
+                return order(entry, resolve(entry).addresses, now);
+            } catch (UnknownHostException e) {
+                if (resolved != null && now < resolved.expireAt + this.staleMillis) {
+                    if (log.isWarnEnabled()) {
+                        log.warn("resolve " + hostname + " failed, use stale addresses " + resolved.addresses, e);
+                    }
+                    return order(entry, resolved.addresses, now);
+                }
+                throw e;
+            }
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * 记录到该地址的连接失败
+     */
+    public void connectFailed(InetAddress address) {
+        if (address == null) {
+            return;
+        }
+        AddressScore score = this.scores.get(address);
+        if (score == null) {
+            AddressScore newScore = new AddressScore();
+            score = this.scores.putIfAbsent(address, newScore);
+            if (score == null) {
+                score = newScore;
+            }
+        }
+        score.failed();
+    }
+
+    /**
+     * 记录到该地址的连接成功，清除失败记录
+     */
+    public void connectSucceeded(InetAddress address) {
+        if (address != null && !this.scores.isEmpty()) {
+            this.scores.remove(address);
+        }
+    }
+
+    private Resolved resolve(HostEntry entry) throws UnknownHostException {
+        List<InetAddress> addresses = this.delegate.lookup(entry.hostname);
+        if (addresses == null || addresses.isEmpty()) {
+            throw new UnknownHostException(entry.hostname);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("internet host address:" + addresses);
+        }
+        long now = System.currentTimeMillis();
+        Resolved resolved = new Resolved(new ArrayList<InetAddress>(addresses), now + this.ttlMillis,
+                now + this.ttlMillis * 3 / 4);
+        entry.resolved = resolved;
+        return resolved;
+    }
+
+    private void scheduleRefresh(final HostEntry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    entry.lock.lock();
+                    try {
+                        resolve(entry);
+                    } catch (UnknownHostException e) {
+                        // 保留原结果，到期后同步解析
+                        if (log.isDebugEnabled()) {
+                            log.debug("refresh " + entry.hostname + " failed: " + e.getMessage());
+                        }
+                    } catch (RuntimeException e) {
+                        if (log.isWarnEnabled()) {
+                            log.warn("refresh " + entry.hostname + " failed", e);
+                        }
+                    } finally {
+                        entry.lock.unlock();
+                        entry.refreshing.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private List<InetAddress> order(HostEntry entry, List<InetAddress> addresses, long now) {
+        int size = addresses.size();
+        if (size == 1) {
+            return addresses;
+        }
+        List<InetAddress> ordered = new ArrayList<InetAddress>(size);
+        if (this.shuffle) {
+            ordered.addAll(addresses);
+            Collections.shuffle(ordered, ThreadLocalRandom.current());
+        } else {
+            int start = (entry.nextIndex.getAndIncrement() & Integer.MAX_VALUE) % size;
+            for (int i = 0; i < size; i++) {
+                ordered.add(addresses.get((start + i) % size));
+            }
+        }
+        if (this.scores.isEmpty()) {
+            return ordered;
+        }
+
+        // 保持相对顺序，将降级中的地址移到最后
+        List<InetAddress> penalized = null;
+        for (int i = 0; i < ordered.size();) {
+            AddressScore score = this.scores.get(ordered.get(i));
+            if (score != null && score.isPenalized(now)) {
+                if (penalized == null) {
+                    penalized = new ArrayList<InetAddress>(size);
+                }
+                penalized.add(ordered.remove(i));
+            } else {
+                i++;
+            }
+        }
+        if (penalized != null) {
+            ordered.addAll(penalized);
+        }
+        return ordered;
+    }
+
+    private static final class HostEntry {
+        private final String hostname;
+
+        private final AtomicInteger nextIndex = new AtomicInteger();
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile Resolved resolved;
+
+        HostEntry(String hostname) {
+            this.hostname = hostname;
+        }
+    }
+
+    private static final class Resolved {
+        private final List<InetAddress> addresses;
+
+        private final long expireAt;
+
+        private final long refreshAt;
+
+        Resolved(List<InetAddress> addresses, long expireAt, long refreshAt) {
+            this.addresses = Collections.unmodifiableList(addresses);
+            this.expireAt = expireAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+
+    private static final class AddressScore {
+        private int failures;
+
+        private long lastFailure;
+
+        synchronized void failed() {
+            this.failures++;
+            this.lastFailure = System.currentTimeMillis();
+        }
+
+        synchronized boolean isPenalized(long now) {
+            return now < this.lastFailure + PENALTY_MILLIS * Math.min(this.failures, MAX_PENALTY_FACTOR);
+        }
+    }
+}
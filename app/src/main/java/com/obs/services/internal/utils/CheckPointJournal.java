@@ -0,0 +1,349 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+/**
+ * 断点续传记录文件的日志式存储。
+ * <p>
+ * 文件格式：魔数(4字节) + 版本(4字节) + 类型(4字节)，之后是一条快照块和若干条追加记录块，
+ * 每个块由 长度(4字节) + 内容 + CRC32(4字节) 组成。分段完成时只追加一条记录，
+ * 追加的数据超过快照大小后重写快照（先写临时文件再原子替换）。
+ * 加载时末尾不完整或校验失败的记录会被丢弃，相应分段在续传时重新传输。
+ * 写入在持锁时进行文件IO，使用ReentrantLock而非synchronized，虚拟线程等待时不会占住载体线程。
+ */
+public class CheckPointJournal implements Closeable {
+    private static final ILogger log = LoggerBuilder.getLogger(CheckPointJournal.class);
+
+    public static final int KIND_UPLOAD = 1;
+
+    public static final int KIND_DOWNLOAD = 2;
+
+    private static final int MAGIC = 0x4F42534A; // "OBSJ"
+
+    private static final int VERSION = 1;
+
+    private static final int MAX_BLOCK_LENGTH = 64 * 1024 * 1024;
+
+    private static final int SYNC_BATCH_RECORDS = 32;
+
+    private static final long SYNC_INTERVAL_MILLIS = 1000L;
+
+    private static final long COMPACT_MIN_BYTES = 64 * 1024L;
+
+    /**
+     * 生成快照内容
+     */
+    public interface SnapshotWriter {
+        void writeSnapshot(DataOutput out) throws IOException;
+    }
+
+    /**
+     * 加载时依次回放快照和追加记录
+     */
+    public interface Replayer {
+        void readSnapshot(DataInput in) throws IOException;
+
+        void replayRecord(DataInput in) throws IOException;
+    }
+
+    private final File file;
+
+    private final int kind;
+
+    private final SnapshotWriter snapshotWriter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+
+    private long snapshotBytes;
+
+    private long appendedBytes;
+
+    private int unsyncedRecords;
+
+    private long lastSyncTime;
+
+    public CheckPointJournal(String checkPointFile, int kind, SnapshotWriter snapshotWriter) {
+        this.file = new File(checkPointFile);
+        this.kind = kind;
+        this.snapshotWriter = snapshotWriter;
+    }
+
+    /**
+     * 判断记录文件是否为日志格式，旧版本的记录文件为Java序列化格式
+     */
+    public static boolean isJournal(String checkPointFile) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(checkPointFile));
+        try {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            ServiceUtils.closeStream(in);
+        }
+    }
+
+    /**
+     * 加载记录文件
+     *
+     * @return 回放的追加记录数
+     * @throws IOException
+     *             文件头或快照损坏
+     */
+    public static int load(String checkPointFile, int kind, Replayer replayer) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(checkPointFile));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a checkpoint journal: " + checkPointFile);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported checkpoint journal version " + version);
+            }
+            int fileKind = in.readInt();
+            if (fileKind != kind) {
+                throw new IOException("checkpoint journal kind mismatch, expect " + kind + " but " + fileKind);
+            }
+            byte[] snapshot = readBlock(in);
+            if (snapshot == null) {
+                throw new IOException("checkpoint journal snapshot is corrupted: " + checkPointFile);
+            }
+            replayer.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot)));
+
+            int records = 0;
+            byte[] record;
+            while ((record = readBlock(in)) != null) {
+                replayer.replayRecord(new DataInputStream(new ByteArrayInputStream(record)));
+                records++;
+            }
+            return records;
+        } finally {
+            ServiceUtils.closeStream(in);
+        }
+    }
+
+    /**
+     * 重写快照，丢弃已有的追加记录，之后的记录追加到新快照之后
+     */
+    public void compact() throws IOException {
+        this.lock.lock();
+        try {
+            doCompact();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void doCompact() throws IOException {
+        closeChannel();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream snapshotOut = new DataOutputStream(buffer);
+        this.snapshotWriter.writeSnapshot(snapshotOut);
+        snapshotOut.flush();
+        byte[] snapshot = buffer.toByteArray();
+
+        File parent = this.file.getAbsoluteFile().getParentFile();
+        File tmpFile = new File(parent, this.file.getName() + ".tmp");
+        FileOutputStream tmpOut = new FileOutputStream(tmpFile);
+        try {
+            DataOutputStream out = new DataOutputStream(tmpOut);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.kind);
+            writeBlock(out, snapshot);
+            out.flush();
+            tmpOut.getFD().sync();
+        } finally {
+            ServiceUtils.closeStream(tmpOut);
+        }
+        try {
+            Files.move(tmpFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.snapshotBytes = snapshot.length;
+        this.appendedBytes = 0;
+        this.unsyncedRecords = 0;
+        this.lastSyncTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 追加一条记录，按批次刷盘，追加数据过多时重写快照。
+     * 本次传输的第一条记录会先重写快照，避免追加到上次异常退出时残留的不完整记录之后
+     */
+    public void append(byte[] record) throws IOException {
+        this.lock.lock();
+        try {
+            doAppend(record);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void doAppend(byte[] record) throws IOException {
+        if (this.channel == null) {
+            // 快照在记录对应的状态更新之后生成，已包含该记录
+            doCompact();
+            return;
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(record.length + 8);
+        block.putInt(record.length).put(record).putInt(crc32(record));
+        block.flip();
+        while (block.hasRemaining()) {
+            this.channel.write(block);
+        }
+        this.appendedBytes += record.length + 8;
+
+        if (this.appendedBytes > Math.max(COMPACT_MIN_BYTES, this.snapshotBytes)) {
+            doCompact();
+            return;
+        }
+
+        this.unsyncedRecords++;
+        long now = System.currentTimeMillis();
+        if (this.unsyncedRecords >= SYNC_BATCH_RECORDS || now - this.lastSyncTime >= SYNC_INTERVAL_MILLIS) {
+            this.channel.force(false);
+            this.unsyncedRecords = 0;
+            this.lastSyncTime = now;
+        }
+    }
+
+    /**
+     * 将未刷盘的记录写入磁盘并关闭文件
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            closeChannel();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void closeChannel() {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            if (this.unsyncedRecords > 0) {
+                this.channel.force(false);
+            }
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("sync checkpoint journal failed.", e);
+            }
+        } finally {
+            ServiceUtils.closeStream(this.channel);
+            this.channel = null;
+            this.unsyncedRecords = 0;
+        }
+    }
+
+    private static void writeBlock(DataOutputStream out, byte[] block) throws IOException {
+        out.writeInt(block.length);
+        out.write(block);
+        out.writeInt(crc32(block));
+    }
+
+    /**
+     * 读取一个块，到达文件末尾或块不完整、校验失败时返回null
+     */
+    private static byte[] readBlock(InputStream in) throws IOException {
+        DataInputStream dataIn = in instanceof DataInputStream ? (DataInputStream) in : new DataInputStream(in);
+        try {
+            int length = dataIn.readInt();
+            if (length < 0 || length > MAX_BLOCK_LENGTH) {
+                return null;
+            }
+            byte[] block = new byte[length];
+            dataIn.readFully(block);
+            if (dataIn.readInt() != crc32(block)) {
+                if (log.isWarnEnabled()) {
+                    log.warn("checkpoint journal record checksum mismatch, ignore the rest records");
+                }
+                return null;
+            }
+            return block;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static int crc32(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 写入可为null的字符串
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * 写入可为null的日期
+     */
+    public static void writeDate(DataOutput out, Date value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getTime());
+        }
+    }
+
+    public static Date readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? new Date(in.readLong()) : null;
+    }
+}
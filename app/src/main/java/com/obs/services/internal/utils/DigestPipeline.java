@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.utils;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Checksum;
+
+/**
+ * 对文件片段一次读取、同时计算多个摘要（如MD5与CRC64），避免每种摘要各读一遍文件。
+ * 读缓冲从有上限的共享池中复用，不随线程缓存，线程数很多（如虚拟线程）时内存占用仍有上界。
+ */
+public class DigestPipeline {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 计算摘要受CPU限制，同时使用的缓冲区数与CPU核数相当，池满时多余的缓冲区直接丢弃
+    private static final ArrayBlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<byte[]>(
+            Runtime.getRuntime().availableProcessors() * 2);
+
+    private final List<Checksum> checksums = new ArrayList<Checksum>(2);
+
+    private final List<MessageDigest> digests = new ArrayList<MessageDigest>(2);
+
+    public DigestPipeline add(Checksum checksum) {
+        if (checksum != null) {
+            this.checksums.add(checksum);
+        }
+        return this;
+    }
+
+    public DigestPipeline add(MessageDigest digest) {
+        if (digest != null) {
+            this.digests.add(digest);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return this.checksums.isEmpty() && this.digests.isEmpty();
+    }
+
+    /**
+     * 读取文件中 [offset, offset + length) 的数据并更新所有摘要
+     *
+     * @throws EOFException
+     *             文件长度不足
+     */
+    public void digest(File file, long offset, long length) throws IOException {
+        if (isEmpty()) {
+            return;
+        }
+        byte[] buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        RandomAccessFile input = null;
+        try {
+            input = new RandomAccessFile(file, "r");
+            input.seek(offset);
+            long remaining = length;
+            while (remaining > 0) {
+                int count = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (count == -1) {
+                    throw new EOFException("unexpected end of file " + file + ", " + remaining
+                            + " bytes remaining");
+                }
+                update(buffer, 0, count);
+                remaining -= count;
+            }
+        } finally {
+            ServiceUtils.closeStream(input);
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    /**
+     * 用一段数据更新所有摘要
+     */
+    public void update(byte[] data, int offset, int length) {
+        for (Checksum checksum : this.checksums) {
+            checksum.update(data, offset, length);
+        }
+        for (MessageDigest digest : this.digests) {
+            digest.update(data, offset, length);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.utils;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.obs.services.internal.Constants;
+
+/**
+ * HMAC计算工具，从有上限的共享池中复用Mac实例，避免每次签名都调用Mac.getInstance；
+ * 密钥与上次相同时跳过init。Mac实例不随线程缓存，线程数很多（如虚拟线程）时实例数仍有上界
+ */
+public final class HmacUtils {
+    // 签名计算受CPU限制，同时使用的实例数与CPU核数相当，池满时多余的实例直接丢弃
+    private static final int MAX_POOLED_MACS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final ArrayBlockingQueue<ReusableMac> HMAC_SHA1 = new ArrayBlockingQueue<ReusableMac>(
+            MAX_POOLED_MACS);
+
+    private static final ArrayBlockingQueue<ReusableMac> HMAC_SHA256 = new ArrayBlockingQueue<ReusableMac>(
+            MAX_POOLED_MACS);
+
+    private HmacUtils() {
+    }
+
+    public static byte[] hmacSha1(byte[] key, byte[] data) throws NoSuchAlgorithmException, InvalidKeyException {
+        return doFinal(HMAC_SHA1, Constants.HMAC_SHA1_ALGORITHM, key, data);
+    }
+
+    public static byte[] hmacSha256(byte[] key, byte[] data) throws NoSuchAlgorithmException, InvalidKeyException {
+        return doFinal(HMAC_SHA256, Constants.HMAC_SHA256_ALGORITHM, key, data);
+    }
+
+    private static byte[] doFinal(ArrayBlockingQueue<ReusableMac> pool, String algorithm, byte[] key, byte[] data)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        ReusableMac reusable = pool.poll();
+        if (reusable == null) {
+            reusable = new ReusableMac(Mac.getInstance(algorithm));
+        }
+        byte[] result = reusable.doFinal(key, data);
+        // 计算失败的实例状态未知，不放回池中
+        pool.offer(reusable);
+        return result;
+    }
+
+    private static final class ReusableMac {
+        private final Mac mac;
+
+        private byte[] currentKey;
+
+        ReusableMac(Mac mac) {
+            this.mac = mac;
+        }
+
+        byte[] doFinal(byte[] key, byte[] data) throws InvalidKeyException {
+            if (this.currentKey == null || !Arrays.equals(this.currentKey, key)) {
+                this.currentKey = null;
+                this.mac.init(new SecretKeySpec(key, this.mac.getAlgorithm()));
+                this.currentKey = key.clone();
+            }
+            // doFinal后Mac恢复为init之后的状态，可直接复用
+            return this.mac.doFinal(data);
+        }
+    }
+}
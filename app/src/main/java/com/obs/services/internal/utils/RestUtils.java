@@ -53,6 +53,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Proxy.Type;
 import java.net.Socket;
+import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
@@ -185,12 +186,14 @@ public class RestUtils {
         private SocketFactory delegate;
         private int socketReadBufferSize;
         private int socketWriteBufferSize;
+        private CachingObsDns dns;
 
         WrapperedSocketFactory(SocketFactory delegate,
-                int socketReadBufferSize, int socketWriteBufferSize) {
+                int socketReadBufferSize, int socketWriteBufferSize, CachingObsDns dns) {
             this.delegate = delegate;
             this.socketReadBufferSize = socketReadBufferSize;
             this.socketWriteBufferSize = socketWriteBufferSize;
+            this.dns = dns;
         }
 
         private Socket doWrap(Socket s) throws SocketException {
@@ -208,6 +211,9 @@ public class RestUtils {
 
         @Override
         public Socket createSocket() throws IOException, UnknownHostException {
+            if (this.dns != null) {
+                return this.doWrap(new ConnectScoringSocket(this.dns));
+            }
             return this.doWrap(this.delegate.createSocket());
         }
 
@@ -235,6 +241,30 @@ public class RestUtils {
 
     }
 
+    /**
+     * 将连接结果反馈给CachingObsDns，用于对解析出的地址排序
+     */
+    private static class ConnectScoringSocket extends Socket {
+        private final CachingObsDns dns;
+
+        ConnectScoringSocket(CachingObsDns dns) {
+            this.dns = dns;
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint, int timeout) throws IOException {
+            InetAddress address = endpoint instanceof InetSocketAddress
+                    ? ((InetSocketAddress) endpoint).getAddress() : null;
+            try {
+                super.connect(endpoint, timeout);
+            } catch (IOException e) {
+                this.dns.connectFailed(address);
+                throw e;
+            }
+            this.dns.connectSucceeded(address);
+        }
+    }
+
     private static class WrapperedSSLSocketFactory extends SSLSocketFactory {
 
         private SSLSocketFactory delegate;
@@ -329,7 +359,7 @@ public class RestUtils {
                         ObsConstraint.DEFAULT_IDLE_CONNECTION_TIME),
                 TimeUnit.MILLISECONDS);
 
-        Dns dns = customizedDnsImpl == null ? new DefaultObsDns() : customizedDnsImpl;
+        Dns dns = customizedDnsImpl == null ? createDefaultDns(obsProperties) : customizedDnsImpl;
         HostnameVerifier hostnameVerifier = (s, sslSession) -> {
             if(obsProperties.getBoolProperty(
                     ObsConstraint.HTTP_STRICT_HOSTNAME_VERIFICATION, false)) {
@@ -368,7 +398,8 @@ public class RestUtils {
         int socketReadBufferSize = obsProperties.getIntProperty(ObsConstraint.SOCKET_READ_BUFFER_SIZE, -1);
         int socketWriteBufferSize = obsProperties.getIntProperty(ObsConstraint.SOCKET_WRITE_BUFFER_SIZE, -1);
 
-        builder.socketFactory(new WrapperedSocketFactory(SocketFactory.getDefault(), socketReadBufferSize, socketWriteBufferSize));
+        builder.socketFactory(new WrapperedSocketFactory(SocketFactory.getDefault(), socketReadBufferSize,
+                socketWriteBufferSize, dns instanceof CachingObsDns ? (CachingObsDns) dns : null));
 
         try {
             KeyManager[] km = null;
@@ -485,9 +516,19 @@ public class RestUtils {
         }
         return body;
     }
+    private static Dns createDefaultDns(ObsProperties obsProperties) {
+        int ttl = obsProperties.getIntProperty(ObsConstraint.DNS_CACHE_TTL, ObsConstraint.DEFAULT_DNS_CACHE_TTL);
+        if (ttl <= 0) {
+            return new DefaultObsDns();
+        }
+        return new CachingObsDns(Dns.SYSTEM, ttl * 1000L,
+                obsProperties.getIntProperty(ObsConstraint.DNS_STALE_TTL, ObsConstraint.DEFAULT_DNS_STALE_TTL) * 1000L,
+                obsProperties.getBoolProperty(ObsConstraint.DNS_ADDRESS_SHUFFLE, false));
+    }
+
     public static class DefaultObsDns implements Dns {
         public DefaultObsDns() {
-            log.info("use Default Dns");
+            log.debug("use Default Dns");
         }
 
         /**
@@ -498,7 +539,9 @@ public class RestUtils {
         @Override
         public List<InetAddress> lookup(String hostname) throws UnknownHostException {
             List<InetAddress> adds = Dns.SYSTEM.lookup(hostname);
-            log.info("internet host address:" + adds);
+            if (log.isDebugEnabled()) {
+                log.debug("internet host address:" + adds);
+            }
             return adds;
         }
     }
@@ -19,18 +19,19 @@ import com.obs.log.LoggerBuilder;
 import com.obs.services.ObsConfiguration;
 import com.obs.services.exception.ObsException;
 import com.obs.services.internal.Constants;
+import com.obs.services.internal.EndpointSelector;
 import com.obs.services.internal.ObsConstraint;
 import com.obs.services.internal.ObsProperties;
+import com.obs.services.internal.RepeatableRequestEntity;
 import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.ext.ExtObsConfiguration;
 import com.obs.services.internal.ext.ExtObsConstraint;
 import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.EndpointSelectionStrategyEnum;
 import com.obs.services.model.HttpProtocolTypeEnum;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.XMLReaderFactory;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
@@ -55,6 +56,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -219,22 +221,17 @@ public class ServiceUtils {
     }
 
     public static String signWithHmacSha1(String sk, String canonicalString) throws ServiceException {
-        SecretKeySpec signingKey;
-        signingKey = new SecretKeySpec(sk.getBytes(StandardCharsets.UTF_8), Constants.HMAC_SHA1_ALGORITHM);
-
-        Mac mac;
+        byte[] signature;
         try {
-            mac = Mac.getInstance(Constants.HMAC_SHA1_ALGORITHM);
+            signature = HmacUtils.hmacSha1(sk.getBytes(StandardCharsets.UTF_8),
+                    canonicalString.getBytes(StandardCharsets.UTF_8));
         } catch (NoSuchAlgorithmException e) {
             throw new ServiceException("Could not find sha1 algorithm", e);
-        }
-        try {
-            mac.init(signingKey);
         } catch (InvalidKeyException e) {
             throw new ObsException("Could not initialize the MAC algorithm", e);
         }
 
-        return ServiceUtils.toBase64(mac.doFinal(canonicalString.getBytes(StandardCharsets.UTF_8)));
+        return ServiceUtils.toBase64(signature);
     }
 
     private static String transRealKey(String headerPrefix, String metadataPrefix, String key, boolean needDecode)
@@ -637,6 +634,19 @@ public class ServiceUtils {
         }
     }
 
+    /**
+     * 请求结束后处理请求体：autoClose时关闭请求体，否则只释放重放缓存，不关闭用户的流
+     */
+    public static void closeRequestBody(Object body, boolean autoClose) {
+        if (autoClose) {
+            if (body instanceof Closeable) {
+                closeStream((Closeable) body);
+            }
+        } else if (body instanceof RepeatableRequestEntity) {
+            ((RepeatableRequestEntity) body).releaseReplayBuffer();
+        }
+    }
+
     public static String toString(InputStream in) throws IOException {
         String ret = null;
         if (in != null) {
@@ -775,6 +785,89 @@ public class ServiceUtils {
                     config.getXmlDocumentBuilderFactoryClass());
         }
         obsProperties.setProperty(ObsConstraint.HTTP_CALL_TIMEOUT, String.valueOf(config.getCallTimeout()));
+        obsProperties.setProperty(ObsConstraint.TRANSFER_THREAD_NUM, String.valueOf(config.getTransferThreadNum()));
+        obsProperties.setProperty(ObsConstraint.VIRTUAL_THREADS_ENABLED,
+                String.valueOf(config.isVirtualThreadsEnabled()));
+        obsProperties.setProperty(ObsConstraint.VIRTUAL_THREADS_MAX_CONCURRENCY,
+                String.valueOf(config.getVirtualThreadsMaxConcurrency()));
+        obsProperties.setProperty(ObsConstraint.UPLOAD_STREAM_REPLAY_MEMORY_SIZE,
+                String.valueOf(config.getUploadStreamReplayMemorySize()));
+        obsProperties.setProperty(ObsConstraint.UPLOAD_STREAM_REPLAY_MAX_SIZE,
+                String.valueOf(config.getUploadStreamReplayMaxSize()));
+        obsProperties.setProperty(ObsConstraint.HTTP_ADAPTIVE_CONCURRENCY,
+                String.valueOf(config.isAdaptiveConcurrencyEnabled()));
+        obsProperties.setProperty(ObsConstraint.HTTP_MIN_CONCURRENCY, String.valueOf(config.getMinConcurrency()));
+        obsProperties.setProperty(ObsConstraint.HTTP_CONCURRENCY_ACQUIRE_TIMEOUT,
+                String.valueOf(config.getConcurrencyAcquireTimeout()));
+        obsProperties.setProperty(ObsConstraint.HTTP_ASYNC_MAX_PENDING_REQUESTS,
+                String.valueOf(config.getAsyncMaxPendingRequests()));
+        obsProperties.setProperty(ObsConstraint.RESUMABLE_READ_MAX_RETRIES,
+                String.valueOf(config.getResumableReadMaxRetries()));
+        obsProperties.setProperty(ObsConstraint.DNS_CACHE_TTL, String.valueOf(config.getDnsCacheTtl()));
+        obsProperties.setProperty(ObsConstraint.DNS_STALE_TTL, String.valueOf(config.getDnsStaleTtl()));
+        obsProperties.setProperty(ObsConstraint.DNS_ADDRESS_SHUFFLE, String.valueOf(config.isDnsAddressShuffle()));
+        setEndpointProperties(config, obsProperties);
+    }
+
+    private static void setEndpointProperties(ObsConfiguration config, ObsProperties obsProperties) {
+        if (config.getEndPoints().isEmpty()) {
+            return;
+        }
+        Map<String, Integer> endPoints = new LinkedHashMap<String, Integer>();
+        endPoints.put(config.getEndPoint(), config.getEndPointWeight());
+        for (Map.Entry<String, Integer> entry : config.getEndPoints().entrySet()) {
+            endPoints.put(normalizeExtraEndPoint(config, entry.getKey()), entry.getValue());
+        }
+        obsProperties.setProperty(ObsConstraint.END_POINT_LIST, EndpointSelector.formatEndpoints(endPoints));
+        obsProperties.setProperty(ObsConstraint.END_POINT_SELECTION_STRATEGY,
+                config.getEndpointSelectionStrategy() == null ? EndpointSelectionStrategyEnum.WEIGHTED_RANDOM.getCode()
+                        : config.getEndpointSelectionStrategy().getCode());
+        obsProperties.setProperty(ObsConstraint.END_POINT_FAILURE_THRESHOLD,
+                String.valueOf(config.getEndpointFailureThreshold()));
+        obsProperties.setProperty(ObsConstraint.END_POINT_EJECTION_TIME,
+                String.valueOf(config.getEndpointEjectionTime()));
+        obsProperties.setProperty(ObsConstraint.END_POINT_PROBE_INTERVAL,
+                String.valueOf(config.getEndpointProbeInterval()));
+    }
+
+    /**
+     * 附加域名与主域名共用协议与端口，按主域名的规则去掉协议与端口后只保留主机名，
+     * 显式指定的协议或端口与主域名不一致时报错
+     */
+    private static String normalizeExtraEndPoint(ObsConfiguration config, String endPoint) {
+        String host = endPoint;
+        int index;
+        while ((index = host.lastIndexOf("/")) == host.length() - 1) {
+            host = host.substring(0, index);
+        }
+
+        if (host.startsWith("http://")) {
+            if (config.isHttpsOnly()) {
+                throw new IllegalArgumentException("EndPoint " + endPoint + " does not use https as "
+                        + config.getEndPoint() + " does");
+            }
+            host = host.substring("http://".length());
+        } else if (host.startsWith("https://")) {
+            if (!config.isHttpsOnly()) {
+                throw new IllegalArgumentException("EndPoint " + endPoint + " does not use http as "
+                        + config.getEndPoint() + " does");
+            }
+            host = host.substring("https://".length());
+        }
+        if (host.indexOf('/') >= 0) {
+            throw new IllegalArgumentException("EndPoint " + endPoint + " must not contain a path");
+        }
+
+        if ((index = host.lastIndexOf(":")) > 0) {
+            int port = Integer.parseInt(host.substring(index + 1));
+            int expected = config.isHttpsOnly() ? config.getEndpointHttpsPort() : config.getEndpointHttpPort();
+            if (port != expected) {
+                throw new IllegalArgumentException("EndPoint " + endPoint + " does not use port " + expected
+                        + " as " + config.getEndPoint() + " does");
+            }
+            host = host.substring(0, index);
+        }
+        return host;
     }
 
     public static Date cloneDateIgnoreNull(Date date) {
@@ -0,0 +1,42 @@
+package com.obs.services.internal.utils;
+
+import okhttp3.Call;
+
+/**
+ * 单次uploadFile/downloadFile内部使用的取消句柄。
+ * 记录该传输的所有在途请求，cancel时只取消本次传输；同时把请求登记到用户设置的取消句柄上，
+ * 用户取消时本次传输也视为已取消。
+ */
+public class TransferCancelHandler extends CallCancelHandler {
+    private final CallCancelHandler parent;
+
+    public TransferCancelHandler(CallCancelHandler parent) {
+        this.parent = parent;
+        this.setMaxCallCapacity(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return super.isCancelled() || (parent != null && parent.isCancelled());
+    }
+
+    @Override
+    public void setCall(Call call) {
+        if (parent != null) {
+            parent.setCall(call);
+        }
+        super.setCall(call);
+    }
+
+    @Override
+    public void removeFinishedCall(Call call) {
+        if (parent != null) {
+            parent.removeFinishedCall(call);
+        }
+        super.removeFinishedCall(call);
+    }
+
+    public CallCancelHandler getParent() {
+        return parent;
+    }
+}
@@ -19,9 +19,8 @@ import com.obs.services.internal.ObsConstraint;
 import com.obs.services.internal.ServiceException;
 import com.obs.services.internal.security.BasicSecurityKey;
 import com.obs.services.internal.security.ProviderCredentials;
+import com.obs.services.internal.security.V4SigningKeyCache;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
@@ -48,6 +47,8 @@ public class V4Authentication {
 
     private String nowISOtime;
 
+    private V4SigningKeyCache signingKeyCache;
+
     protected V4Authentication() {
     }
 
@@ -76,14 +77,17 @@ public class V4Authentication {
     }
 
     public static String caculateSignature(String stringToSign, String shortDate, String sk) throws Exception {
-        byte[] dateKey = V4Authentication.hmacSha256Encode(("AWS4" + sk).getBytes(StandardCharsets.UTF_8),
-                shortDate);
-        byte[] dataRegionKey = V4Authentication.hmacSha256Encode(dateKey, ObsConstraint.DEFAULT_BUCKET_LOCATION_VALUE);
-
-        byte[] dateRegionServiceKey = V4Authentication.hmacSha256Encode(dataRegionKey, Constants.SERVICE);
-
-        byte[] signingKey = V4Authentication.hmacSha256Encode(dateRegionServiceKey, Constants.REQUEST_TAG);
+        return caculateSignature(stringToSign, shortDate, sk, null);
+    }
 
+    /**
+     * @param signingKeyCache
+     *            客户端的签名密钥缓存，为null时不缓存
+     */
+    public static String caculateSignature(String stringToSign, String shortDate, String sk,
+            V4SigningKeyCache signingKeyCache) throws Exception {
+        byte[] signingKey = getSigningKey(sk, ObsConstraint.DEFAULT_BUCKET_LOCATION_VALUE, shortDate,
+                signingKeyCache);
         return V4Authentication.byteToHex(V4Authentication.hmacSha256Encode(signingKey, stringToSign));
     }
 
@@ -95,6 +99,7 @@ public class V4Authentication {
         v4.setSk(securityKey.getSecretKey());
         v4.setRegion(credent.getRegion());
         v4.setNowISOTime(date);
+        v4.signingKeyCache = credent.getV4SigningKeyCache();
 
         List<String> signedAndCanonicalList = v4.getSignedAndCanonicalHeaders(headers);
 
@@ -219,24 +224,42 @@ public class V4Authentication {
 
     private byte[] getSigningKey() throws ServiceException {
         String shortDate = this.nowISOtime.split("[T]")[0];
-        String keyString = "AWS4" + this.sk;
         try {
-            byte[] dateKey = V4Authentication.hmacSha256Encode(keyString.getBytes(StandardCharsets.UTF_8),
-                    shortDate);
-            byte[] dateRegionKey = V4Authentication.hmacSha256Encode(dateKey, this.region);
-            byte[] dateRegionServiceKey = V4Authentication.hmacSha256Encode(dateRegionKey, Constants.SERVICE);
-            return V4Authentication.hmacSha256Encode(dateRegionServiceKey, Constants.REQUEST_TAG);
+            return getSigningKey(this.sk, this.region, shortDate, this.signingKeyCache);
         } catch (Exception e) {
             throw new ServiceException("Get sign string for v4 aurhentication error", e);
         }
     }
 
+    private static byte[] getSigningKey(String sk, String region, String shortDate,
+            V4SigningKeyCache signingKeyCache)
+            throws InvalidKeyException, NoSuchAlgorithmException, UnsupportedEncodingException {
+        byte[] skDigest = null;
+        if (signingKeyCache != null) {
+            skDigest = sha256encode(sk);
+            byte[] cached = signingKeyCache.get(skDigest, region, shortDate);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        byte[] dateKey = HmacUtils.hmacSha256(("AWS4" + sk).getBytes(StandardCharsets.UTF_8),
+                shortDate.getBytes(StandardCharsets.UTF_8));
+        byte[] dateRegionKey = HmacUtils.hmacSha256(dateKey, region.getBytes(StandardCharsets.UTF_8));
+        byte[] dateRegionServiceKey = HmacUtils.hmacSha256(dateRegionKey,
+                Constants.SERVICE.getBytes(StandardCharsets.UTF_8));
+        byte[] signingKey = HmacUtils.hmacSha256(dateRegionServiceKey,
+                Constants.REQUEST_TAG.getBytes(StandardCharsets.UTF_8));
+
+        if (signingKeyCache != null) {
+            signingKeyCache.put(skDigest, region, shortDate, signingKey);
+        }
+        return signingKey;
+    }
+
     public static byte[] hmacSha256Encode(byte[] key, String data)
             throws InvalidKeyException, NoSuchAlgorithmException, IllegalStateException, UnsupportedEncodingException {
-        Mac sha256HMAC = Mac.getInstance(Constants.HMAC_SHA256_ALGORITHM);
-        SecretKeySpec secretkey = new SecretKeySpec(key, Constants.HMAC_SHA256_ALGORITHM);
-        sha256HMAC.init(secretkey);
-        return sha256HMAC.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        return HmacUtils.hmacSha256(key, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public static byte[] sha256encode(String str) throws NoSuchAlgorithmException, UnsupportedEncodingException {
@@ -251,5 +274,4 @@ public class V4Authentication {
     public static String byteToHex(byte[] hash) {
         return ServiceUtils.toHex(hash);
     }
-
 }
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.utils;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程支持。
+ * 此为Java 8版本，虚拟线程不可用；JDK 21及以上运行时从多版本JAR的META-INF/versions/21
+ * 加载app/src/main/java21下的同名实现，两者的公开方法必须保持一致。
+ */
+public final class VirtualThreadSupport {
+    private VirtualThreadSupport() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * 创建虚拟线程的ThreadFactory，线程名为namePrefix加序号
+     *
+     * @throws UnsupportedOperationException
+     *             当前运行时不支持虚拟线程
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        throw new UnsupportedOperationException("virtual threads require JDK 21 or later");
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.model;
+
+/**
+ * Snapshot of the concurrency limit of an endpoint
+ */
+public class ConcurrencyLimitMetrics {
+    private final String endpoint;
+
+    private final boolean adaptive;
+
+    private final int limit;
+
+    private final int inflight;
+
+    private final int queueLength;
+
+    private final long acquiredCount;
+
+    private final long totalWaitTime;
+
+    private final long maxWaitTime;
+
+    private final long timeoutCount;
+
+    public ConcurrencyLimitMetrics(String endpoint, boolean adaptive, int limit, int inflight, int queueLength,
+            long acquiredCount, long totalWaitTime, long maxWaitTime, long timeoutCount) {
+        this.endpoint = endpoint;
+        this.adaptive = adaptive;
+        this.limit = limit;
+        this.inflight = inflight;
+        this.queueLength = queueLength;
+        this.acquiredCount = acquiredCount;
+        this.totalWaitTime = totalWaitTime;
+        this.maxWaitTime = maxWaitTime;
+        this.timeoutCount = timeoutCount;
+    }
+
+    /**
+     * Obtain the endpoint.
+     * 
+     * @return Endpoint
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Check whether the limit is adjusted automatically.
+     * 
+     * @return Identifier specifying whether the limit is adaptive
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Obtain the current maximum number of concurrent requests.
+     * 
+     * @return Current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Obtain the number of requests being executed.
+     * 
+     * @return Number of in-flight requests
+     */
+    public int getInflight() {
+        return inflight;
+    }
+
+    /**
+     * Obtain the number of requests waiting for a permit.
+     * 
+     * @return Number of waiting requests
+     */
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    /**
+     * Obtain the number of permits granted.
+     * 
+     * @return Number of granted permits
+     */
+    public long getAcquiredCount() {
+        return acquiredCount;
+    }
+
+    /**
+     * Obtain the total time (in milliseconds) requests waited for permits.
+     * 
+     * @return Total wait time
+     */
+    public long getTotalWaitTime() {
+        return totalWaitTime;
+    }
+
+    /**
+     * Obtain the longest time (in milliseconds) a request waited for a
+     * permit.
+     * 
+     * @return Longest wait time
+     */
+    public long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    /**
+     * Obtain the number of requests that failed because no permit was
+     * granted within the acquisition timeout.
+     * 
+     * @return Number of timed-out acquisitions
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitMetrics [endpoint=" + endpoint + ", adaptive=" + adaptive + ", limit=" + limit
+                + ", inflight=" + inflight + ", queueLength=" + queueLength + ", acquiredCount=" + acquiredCount
+                + ", totalWaitTime=" + totalWaitTime + ", maxWaitTime=" + maxWaitTime + ", timeoutCount="
+                + timeoutCount + "]";
+    }
+}
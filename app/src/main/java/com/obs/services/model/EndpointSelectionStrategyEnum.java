@@ -0,0 +1,52 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ **/
+
+package com.obs.services.model;
+
+/**
+ * Policy for choosing an endpoint when multiple endpoints are configured
+ *
+ */
+public enum EndpointSelectionStrategyEnum {
+
+    /**
+     * Choose an endpoint randomly in proportion to its weight
+     */
+    WEIGHTED_RANDOM("weighted-random"),
+    /**
+     * Choose the endpoint with the fewest in-flight requests relative to its
+     * weight
+     */
+    LEAST_OUTSTANDING_REQUESTS("least-outstanding-requests");
+
+    private String code;
+
+    private EndpointSelectionStrategyEnum(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static EndpointSelectionStrategyEnum getValueFromCode(String code) {
+        for (EndpointSelectionStrategyEnum val : EndpointSelectionStrategyEnum.values()) {
+            if (val.code.equals(code)) {
+                return val;
+            }
+        }
+        return WEIGHTED_RANDOM;
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.model;
+
+import com.obs.services.internal.ObsConstraint;
+
+/**
+ * Parameters in a request for reading an object through a parallel read-ahead
+ * stream. The object is split into blocks that are downloaded concurrently by
+ * ranges and delivered in order. At most (readAheadBlocks + 1) blocks are held
+ * in memory, regardless of how slowly the stream is consumed.
+ */
+public class ParallelGetObjectRequest extends GetObjectRequest {
+    private int blockSize = ObsConstraint.DEFAULT_READ_AHEAD_BLOCK_SIZE;
+
+    private int readAheadBlocks = ObsConstraint.DEFAULT_READ_AHEAD_BLOCKS;
+
+    public ParallelGetObjectRequest() {
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param bucketName
+     *            Bucket name
+     * @param objectKey
+     *            Object name
+     */
+    public ParallelGetObjectRequest(String bucketName, String objectKey) {
+        super(bucketName, objectKey);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param bucketName
+     *            Bucket name
+     * @param objectKey
+     *            Object name
+     * @param versionId
+     *            Version ID of the object
+     */
+    public ParallelGetObjectRequest(String bucketName, String objectKey, String versionId) {
+        super(bucketName, objectKey, versionId);
+    }
+
+    /**
+     * Obtain the size of each block downloaded by a range request. The default
+     * value is 8 MB.
+     * 
+     * @return Block size in bytes
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Set the size of each block downloaded by a range request.
+     * 
+     * @param blockSize
+     *            Block size in bytes, at least 64 KB
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Obtain the number of blocks downloaded concurrently ahead of the block
+     * being read. The default value is 4.
+     * 
+     * @return Number of read-ahead blocks
+     */
+    public int getReadAheadBlocks() {
+        return readAheadBlocks;
+    }
+
+    /**
+     * Set the number of blocks downloaded concurrently ahead of the block being
+     * read.
+     * 
+     * @param readAheadBlocks
+     *            Number of read-ahead blocks, at least 1
+     */
+    public void setReadAheadBlocks(int readAheadBlocks) {
+        this.readAheadBlocks = readAheadBlocks;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelGetObjectRequest [blockSize=" + blockSize + ", readAheadBlocks=" + readAheadBlocks + ", "
+                + super.toString() + "]";
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.model;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.obs.services.IObsClient;
+
+/**
+ * Parameters in a request for uploading one source to multiple buckets. The
+ * source is read only once and its data is sent to all destinations
+ * concurrently.
+ */
+public class PutObjectInMultiBucketRequest {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_BUFFER_COUNT = 16;
+
+    private List<Destination> destinations = new ArrayList<Destination>();
+
+    private File file;
+
+    private InputStream input;
+
+    private long contentLength = -1;
+
+    private boolean autoClose = true;
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private int bufferCount = DEFAULT_BUFFER_COUNT;
+
+    /**
+     * Add a destination uploaded by the client that executes the request.
+     * 
+     * @param request
+     *            Upload request of the destination. The request is not
+     *            modified; a copy whose source is the shared source is
+     *            uploaded, so one request may be added for several clients.
+     */
+    public void addDestination(PutObjectRequest request) {
+        this.destinations.add(new Destination(request, null));
+    }
+
+    /**
+     * Add a destination uploaded by another client, for example a client of
+     * another region.
+     * 
+     * @param request
+     *            Upload request of the destination. The request is not
+     *            modified; a copy whose source is the shared source is
+     *            uploaded, so one request may be added for several clients.
+     * @param client
+     *            Client used to upload to the destination
+     */
+    public void addDestination(PutObjectRequest request, IObsClient client) {
+        this.destinations.add(new Destination(request, client));
+    }
+
+    public List<Destination> getDestinations() {
+        return destinations;
+    }
+
+    /**
+     * Obtain the file to be uploaded.
+     * 
+     * @return File to be uploaded
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Set the file to be uploaded. Only one of file and input can be set. A
+     * destination whose upload fails with a network error, a 408 or a 5xx
+     * status is uploaded once more by reading the file again.
+     * 
+     * @param file
+     *            File to be uploaded
+     */
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Obtain the data stream to be uploaded.
+     * 
+     * @return Data stream to be uploaded
+     */
+    public InputStream getInput() {
+        return input;
+    }
+
+    /**
+     * Set the data stream to be uploaded. Only one of file and input can be
+     * set.
+     * 
+     * @param input
+     *            Data stream to be uploaded
+     */
+    public void setInput(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Obtain the number of bytes read from the data stream. The default value
+     * is -1, indicating that the stream is read to the end.
+     * 
+     * @return Number of bytes read from the data stream
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Set the number of bytes read from the data stream. If it is set, the
+     * objects are uploaded with a Content-Length header instead of chunked
+     * encoding.
+     * 
+     * @param contentLength
+     *            Number of bytes read from the data stream
+     */
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Check whether the data stream is automatically closed after the upload.
+     * The default value is "true".
+     * 
+     * @return Identifier specifying whether to close the data stream
+     */
+    public boolean isAutoClose() {
+        return autoClose;
+    }
+
+    /**
+     * Specify whether to automatically close the data stream after the
+     * upload.
+     * 
+     * @param autoClose
+     *            Identifier specifying whether to close the data stream
+     */
+    public void setAutoClose(boolean autoClose) {
+        this.autoClose = autoClose;
+    }
+
+    /**
+     * Obtain the size of each buffer (in bytes). The default value is 64 KB.
+     * 
+     * @return Size of each buffer
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Obtain the maximum number of buffers queued for each destination. Reading
+     * the source pauses when the slowest destination has this many buffers
+     * queued. The default value is 16.
+     * 
+     * @return Maximum number of buffers queued for each destination
+     */
+    public int getBufferCount() {
+        return bufferCount;
+    }
+
+    public void setBufferCount(int bufferCount) {
+        this.bufferCount = bufferCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PutObjectInMultiBucketRequest [destinations=" + destinations + ", file=" + file
+                + ", contentLength=" + contentLength + ", autoClose=" + autoClose + ", bufferSize=" + bufferSize
+                + ", bufferCount=" + bufferCount + "]";
+    }
+
+    /**
+     * Destination of the upload
+     */
+    public static class Destination {
+        private PutObjectRequest request;
+
+        private IObsClient client;
+
+        public Destination(PutObjectRequest request, IObsClient client) {
+            this.request = request;
+            this.client = client;
+        }
+
+        public PutObjectRequest getRequest() {
+            return request;
+        }
+
+        /**
+         * Obtain the client used to upload to the destination.
+         * 
+         * @return Client used to upload to the destination, or null if the
+         *         client executing the request is used
+         */
+        public IObsClient getClient() {
+            return client;
+        }
+
+        @Override
+        public String toString() {
+            return "Destination [request=" + request + ", client=" + client + "]";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.obs.services.exception.ObsException;
+
+/**
+ * Response to a request for uploading one source to multiple buckets
+ */
+public class PutObjectInMultiBucketResult {
+    private List<DestinationResult> destinationResults = new ArrayList<DestinationResult>();
+
+    /**
+     * Obtain the results of all destinations, in the order the destinations
+     * were added.
+     * 
+     * @return Results of all destinations
+     */
+    public List<DestinationResult> getDestinationResults() {
+        return destinationResults;
+    }
+
+    /**
+     * Check whether the object is uploaded to all destinations.
+     * 
+     * @return Identifier specifying whether all uploads succeeded
+     */
+    public boolean isAllSuccessful() {
+        for (DestinationResult result : destinationResults) {
+            if (!result.isSuccessful()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "PutObjectInMultiBucketResult [destinationResults=" + destinationResults + "]";
+    }
+
+    /**
+     * Result of one destination
+     */
+    public static class DestinationResult {
+        private String bucketName;
+
+        private String objectKey;
+
+        private PutObjectResult result;
+
+        private ObsException exception;
+
+        public DestinationResult(String bucketName, String objectKey, PutObjectResult result,
+                ObsException exception) {
+            this.bucketName = bucketName;
+            this.objectKey = objectKey;
+            this.result = result;
+            this.exception = exception;
+        }
+
+        public String getBucketName() {
+            return bucketName;
+        }
+
+        public String getObjectKey() {
+            return objectKey;
+        }
+
+        /**
+         * Obtain the upload result.
+         * 
+         * @return Upload result, or null if the upload failed
+         */
+        public PutObjectResult getResult() {
+            return result;
+        }
+
+        /**
+         * Obtain the exception of a failed upload.
+         * 
+         * @return Exception of the upload, or null if the upload succeeded
+         */
+        public ObsException getException() {
+            return exception;
+        }
+
+        public boolean isSuccessful() {
+            return exception == null;
+        }
+
+        @Override
+        public String toString() {
+            return "DestinationResult [bucketName=" + bucketName + ", objectKey=" + objectKey + ", result="
+                    + result + ", exception=" + exception + "]";
+        }
+    }
+}
@@ -18,6 +18,7 @@ public class PutObjectInTwoBucketRequest {
     private PutObjectRequest mainBucketRequest;
     private PutObjectRequest backupBucketRequest;
     private String filePath;
+    private boolean readOnce;
 
     public PutObjectRequest getMainBucketRequest() {
         return mainBucketRequest;
@@ -43,12 +44,40 @@ public class PutObjectInTwoBucketRequest {
         this.filePath = filePath;
     }
 
+    /**
+     * Check whether the file is read only once for both buckets. The default
+     * value is "false".
+     * 
+     * @return Identifier specifying whether the file is read only once
+     */
+    public boolean isReadOnce() {
+        return readOnce;
+    }
+
+    /**
+     * Specify whether to read the file only once for both buckets when both
+     * requests upload the same whole file. In this mode the data read from the
+     * file is sent to both buckets as streams, so a failed upload is not
+     * retried by the client from the file body; instead, a bucket whose upload
+     * fails with a network error, a 408 or a 5xx status is uploaded once more by
+     * reading the file again. The requests are not modified. The mode is not
+     * used when either request needs CRC64 to be calculated. By default each
+     * bucket reads the file separately.
+     * 
+     * @param readOnce
+     *            Identifier specifying whether the file is read only once
+     */
+    public void setReadOnce(boolean readOnce) {
+        this.readOnce = readOnce;
+    }
+
     @Override
     public String toString() {
         return "PutObjectInTwoBucketRequest{" +
                 "mainBucketRequest=" + mainBucketRequest +
                 ", backupBucketRequest=" + backupBucketRequest +
                 ", filePath='" + filePath + '\'' +
+                ", readOnce=" + readOnce +
                 '}';
     }
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only random-access channel over an object. Data is downloaded in
+ * blocks by range requests pinned to the object's ETag and kept in an LRU
+ * block cache, so repeated and nearby reads do not send new requests.
+ * Adjacent blocks that are missing from the cache are downloaded by one range
+ * request.
+ */
+public interface SeekableObjectChannel extends SeekableByteChannel {
+    /**
+     * Read bytes starting at the given position of the object without changing
+     * the position of the channel.
+     * 
+     * @param dst
+     *            Buffer into which bytes are transferred
+     * @param position
+     *            Position in the object
+     * @return Number of bytes read, or -1 if the position is at or beyond the
+     *         end of the object
+     * @throws IOException
+     *             Thrown when the data fails to be downloaded
+     */
+    int read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * Download the blocks covering a range of the object into the cache,
+     * for example the footer of a columnar file before it is parsed.
+     * 
+     * @param position
+     *            Position in the object
+     * @param length
+     *            Number of bytes
+     * @throws IOException
+     *             Thrown when the data fails to be downloaded
+     */
+    void prefetch(long position, long length) throws IOException;
+
+    /**
+     * Obtain the ETag that all range requests of the channel are pinned to.
+     * 
+     * @return Object ETag
+     */
+    String getEtag();
+
+    /**
+     * Obtain the number of range requests sent by the channel.
+     * 
+     * @return Number of range requests
+     */
+    long getRequestCount();
+
+    /**
+     * Obtain the number of block lookups served from the cache.
+     * 
+     * @return Number of cache hits
+     */
+    long getCacheHitCount();
+
+    /**
+     * Obtain the number of block lookups that required a download.
+     * 
+     * @return Number of cache misses
+     */
+    long getCacheMissCount();
+}
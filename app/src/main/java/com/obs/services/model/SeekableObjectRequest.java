@@ -0,0 +1,149 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.model;
+
+import com.obs.services.internal.ObsConstraint;
+
+/**
+ * Parameters in a request for opening a {@link SeekableObjectChannel} over an
+ * object. The range set in the request is ignored; the whole object can be
+ * read at any position. Other conditions such as the version ID and SSE-C
+ * headers apply to every range request of the channel.
+ */
+public class SeekableObjectRequest extends GetObjectRequest {
+    private int blockSize = ObsConstraint.DEFAULT_CHANNEL_BLOCK_SIZE;
+
+    private int cacheBlocks = ObsConstraint.DEFAULT_CHANNEL_CACHE_BLOCKS;
+
+    private long footerPrefetchSize = ObsConstraint.DEFAULT_CHANNEL_FOOTER_PREFETCH_SIZE;
+
+    private boolean directBuffer;
+
+    public SeekableObjectRequest() {
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param bucketName
+     *            Bucket name
+     * @param objectKey
+     *            Object name
+     */
+    public SeekableObjectRequest(String bucketName, String objectKey) {
+        super(bucketName, objectKey);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param bucketName
+     *            Bucket name
+     * @param objectKey
+     *            Object name
+     * @param versionId
+     *            Version ID of the object
+     */
+    public SeekableObjectRequest(String bucketName, String objectKey, String versionId) {
+        super(bucketName, objectKey, versionId);
+    }
+
+    /**
+     * Obtain the size of a cached block. The default value is 1 MB.
+     * 
+     * @return Block size in bytes
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Set the size of a cached block. Range requests are aligned to blocks.
+     * 
+     * @param blockSize
+     *            Block size in bytes, at least 4 KB
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Obtain the maximum number of blocks kept in the cache. The default value
+     * is 32.
+     * 
+     * @return Maximum number of cached blocks
+     */
+    public int getCacheBlocks() {
+        return cacheBlocks;
+    }
+
+    /**
+     * Set the maximum number of blocks kept in the cache. It also limits the
+     * number of adjacent blocks downloaded by one range request.
+     * 
+     * @param cacheBlocks
+     *            Maximum number of cached blocks, at least 1
+     */
+    public void setCacheBlocks(int cacheBlocks) {
+        this.cacheBlocks = cacheBlocks;
+    }
+
+    /**
+     * Obtain the number of bytes at the end of the object that are downloaded
+     * when the channel is opened. The default value is 64 KB.
+     * 
+     * @return Footer prefetch size in bytes
+     */
+    public long getFooterPrefetchSize() {
+        return footerPrefetchSize;
+    }
+
+    /**
+     * Set the number of bytes at the end of the object that are downloaded
+     * when the channel is opened, rounded up to whole blocks.
+     * 
+     * @param footerPrefetchSize
+     *            Footer prefetch size in bytes, 0 to disable
+     */
+    public void setFooterPrefetchSize(long footerPrefetchSize) {
+        this.footerPrefetchSize = footerPrefetchSize;
+    }
+
+    /**
+     * Check whether cached blocks are allocated outside the Java heap.
+     * 
+     * @return true if direct buffers are used
+     */
+    public boolean isDirectBuffer() {
+        return directBuffer;
+    }
+
+    /**
+     * Specify whether cached blocks are allocated outside the Java heap.
+     * 
+     * @param directBuffer
+     *            true to use direct buffers
+     */
+    public void setDirectBuffer(boolean directBuffer) {
+        this.directBuffer = directBuffer;
+    }
+
+    @Override
+    public String toString() {
+        return "SeekableObjectRequest [blockSize=" + blockSize + ", cacheBlocks=" + cacheBlocks
+                + ", footerPrefetchSize=" + footerPrefetchSize + ", directBuffer=" + directBuffer + ", "
+                + super.toString() + "]";
+    }
+}
@@ -36,6 +36,8 @@ public class UploadPartRequest extends AbstractMultipartRequest {
 
     private long offset;
 
+    private Long objectOffset;
+
     private SseCHeader sseCHeader;
 
     private String contentMd5;
@@ -185,6 +187,30 @@ public class UploadPartRequest extends AbstractMultipartRequest {
         this.offset = offset;
     }
 
+    /**
+     * Obtain the offset of the part in the object.
+     *
+     * @return Offset of the part in the object, or null if it is not set
+     */
+    public Long getObjectOffset() {
+        return objectOffset;
+    }
+
+    /**
+     * Set the start position of the part in the object (in bytes). This
+     * parameter is used by CryptoObsClient to encrypt the part with the
+     * keystream of its position in the object. It is required for every part
+     * except part 1 when the part is uploaded from a data stream, or from a
+     * file that holds only this part. If it is not set, the offset of the
+     * part in the file is used.
+     *
+     * @param objectOffset
+     *            Offset of the part in the object
+     */
+    public void setObjectOffset(Long objectOffset) {
+        this.objectOffset = objectOffset;
+    }
+
     /**
      * Obtain the part number.
      *
@@ -406,7 +432,8 @@ public class UploadPartRequest extends AbstractMultipartRequest {
     public String toString() {
         return "UploadPartRequest [uploadId=" + this.getUploadId() + ", bucketName=" + this.getBucketName()
                 + ", objectKey=" + this.getObjectKey()
-                + ", partNumber=" + partNumber + ", partSize=" + partSize + ", offset=" + offset + ", sseCHeader="
+                + ", partNumber=" + partNumber + ", partSize=" + partSize + ", offset=" + offset + ", objectOffset="
+                + objectOffset + ", sseCHeader="
                 + sseCHeader + ", contentMd5=" + contentMd5 + ", attachMd5=" + attachMd5 + ", file=" + file + ", input="
                 + input + "]";
     }
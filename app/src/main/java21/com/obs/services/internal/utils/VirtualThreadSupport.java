@@ -0,0 +1,33 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.services.internal.utils;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程支持的JDK 21实现，编译到多版本JAR的META-INF/versions/21
+ */
+public final class VirtualThreadSupport {
+    private VirtualThreadSupport() {
+    }
+
+    public static boolean isAvailable() {
+        return true;
+    }
+
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        return Thread.ofVirtual().name(namePrefix, 1).factory();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.Test;
+
+import com.obs.log.ILogger;
+import com.obs.log.LoggerBuilder;
+
+/**
+ * 日志后端选择：存在log4j2时通过MethodHandle调用log4j2，不存在时回退到java.util.logging
+ */
+public class LoggerBuilderTest {
+    @Test
+    public void test_log4j2_backend_with_method_handles() throws Exception {
+        String name = "com.obs.test.LoggerBuilderTest.log4j2";
+        Configurator.setLevel(name, Level.DEBUG);
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        LoggerConfig loggerConfig = context.getConfiguration().getLoggerConfig(name);
+        CapturingAppender appender = new CapturingAppender();
+        appender.start();
+        loggerConfig.addAppender(appender, null, null);
+        context.updateLoggers();
+        try {
+            ILogger log = LoggerBuilder.getLogger(name);
+            assertEquals("com.obs.log.Log4j2Logger", delegateOf(log).getClass().getName());
+            assertNotNull(staticField(LoggerBuilder.class.getClassLoader(), "com.obs.log.LoggerMethodHolder",
+                    "info"));
+
+            assertTrue(log.isDebugEnabled());
+            assertFalse(log.isTraceEnabled());
+            log.debug("debug message");
+            log.trace("trace message");
+            IllegalStateException failure = new IllegalStateException("failure");
+            log.warn("warn message", failure);
+
+            assertEquals(2, appender.events.size());
+            assertEquals(Level.DEBUG, appender.events.get(0).getLevel());
+            assertEquals("debug message", appender.events.get(0).getMessage().getFormattedMessage());
+            assertEquals(Level.WARN, appender.events.get(1).getLevel());
+            assertEquals("warn message", appender.events.get(1).getMessage().getFormattedMessage());
+            assertSame(failure, appender.events.get(1).getThrown());
+        } finally {
+            loggerConfig.removeAppender(appender.getName());
+            context.updateLoggers();
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void test_fall_back_to_jul_without_log4j() throws Exception {
+        // 只加载SDK自身的类，log4j与log4j2对该类加载器不可见
+        URL sdkClasses = LoggerBuilder.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader loader = new URLClassLoader(new URL[] {sdkClasses},
+                ClassLoader.getSystemClassLoader().getParent());
+        String name = "com.obs.test.LoggerBuilderTest.jul";
+        java.util.logging.Logger julLogger = java.util.logging.Logger.getLogger(name);
+        final List<LogRecord> records = new CopyOnWriteArrayList<LogRecord>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        julLogger.addHandler(handler);
+        try {
+            Class<?> builder = loader.loadClass("com.obs.log.LoggerBuilder");
+            Object log = builder.getMethod("getLogger", String.class).invoke(null, name);
+            assertEquals("com.obs.log.BasicLogger", delegateOf(log).getClass().getName());
+            // java.util.logging.Logger没有(Object, Throwable)方法，不使用MethodHandle
+            assertNull(staticField(loader, "com.obs.log.LoggerMethodHolder", "info"));
+
+            Class<?> iLogger = loader.loadClass("com.obs.log.ILogger");
+            iLogger.getMethod("warn", Object.class).invoke(log, "jul message");
+            assertEquals(1, records.size());
+            assertEquals(java.util.logging.Level.WARNING, records.get(0).getLevel());
+            assertEquals("jul message", records.get(0).getMessage());
+        } finally {
+            julLogger.removeHandler(handler);
+            loader.close();
+        }
+    }
+
+    private static Object delegateOf(Object logger) throws Exception {
+        Field delegate = logger.getClass().getDeclaredField("delegate");
+        delegate.setAccessible(true);
+        return delegate.get(logger);
+    }
+
+    private static Object staticField(ClassLoader loader, String className, String fieldName) throws Exception {
+        Field field = Class.forName(className, true, loader).getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+
+    private static class CapturingAppender extends AbstractAppender {
+        private final List<LogEvent> events = new CopyOnWriteArrayList<LogEvent>();
+
+        CapturingAppender() {
+            super("capturing", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            this.events.add(event.toImmutable());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.obs.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.RefreshAkSkStsTokenProvider;
+import com.obs.services.internal.security.BasicSecurityKey;
+import com.obs.services.model.ISecurityKey;
+
+public class RefreshAkSkStsTokenProviderTest {
+    @Test
+    public void cached_key_is_served_without_calling_iam() {
+        CountingProvider provider = new CountingProvider();
+        ISecurityKey first = provider.getSecurityKey();
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, provider.getSecurityKey());
+        }
+        assertEquals(1, provider.fetchCount.get());
+        assertEquals(1, provider.getRefreshSuccessCount());
+        assertEquals(1, provider.getBlockingRefreshCount());
+    }
+
+    @Test
+    public void concurrent_callers_share_one_refresh() throws InterruptedException {
+        final CountingProvider provider = new CountingProvider();
+        provider.fetchDelayMillis = 200;
+        int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    provider.getSecurityKey();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(1, provider.fetchCount.get());
+    }
+
+    @Test
+    public void failed_refresh_is_counted() {
+        CountingProvider provider = new CountingProvider();
+        provider.fail = true;
+        assertNull(provider.getSecurityKey());
+        assertEquals(1, provider.getRefreshFailureCount());
+        assertEquals(0, provider.getRefreshSuccessCount());
+    }
+
+    @Test
+    public void failed_refresh_backs_off_until_next_success() throws InterruptedException {
+        CountingProvider provider = new CountingProvider();
+        provider.fail = true;
+        for (int i = 0; i < 100; i++) {
+            assertNull(provider.getSecurityKey());
+        }
+        // 退避窗口内不再同步访问IAM
+        assertEquals(1, provider.fetchCount.get());
+        assertEquals(1, provider.getRefreshFailureCount());
+        assertEquals(1, provider.getBlockingRefreshCount());
+        assertTrue(provider.getLastFailureTimeMillis() > 0);
+
+        // 定时任务不受退避限制，成功后恢复正常
+        provider.fail = false;
+        provider.startTokenRefreshTask();
+        for (int i = 0; i < 100 && provider.getRefreshSuccessCount() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, provider.getRefreshSuccessCount());
+        assertNotNull(provider.getSecurityKey());
+        assertEquals(2, provider.fetchCount.get());
+    }
+
+    private static class CountingProvider extends RefreshAkSkStsTokenProvider {
+        private final AtomicInteger fetchCount = new AtomicInteger();
+
+        private volatile long fetchDelayMillis;
+
+        private volatile boolean fail;
+
+        CountingProvider() {
+            super("domain", "user", "password", "https://iam.example.com", null);
+        }
+
+        @Override
+        protected ISecurityKey fetchAkSkStsToken() throws IOException {
+            int count = fetchCount.incrementAndGet();
+            if (fetchDelayMillis > 0) {
+                try {
+                    Thread.sleep(fetchDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new IOException("iam unavailable");
+            }
+            return new BasicSecurityKey("ak" + count, "sk" + count, "token" + count);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.obs.services.IObsClientAsync;
+import com.obs.services.ObsClientAsync;
+import com.obs.services.ObsConfiguration;
+import com.obs.services.RetryPolicy;
+import com.obs.services.exception.ObsException;
+import com.obs.services.internal.task.UploadFileTask;
+import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.CompleteMultipartUploadResult;
+import com.obs.services.model.ConcurrencyLimitMetrics;
+import com.obs.services.model.GetObjectMetadataRequest;
+import com.obs.services.model.ObjectMetadata;
+import com.obs.services.model.TaskCallback;
+import com.obs.services.model.UploadFileRequest;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * 异步请求的重试、重定向、并发许可归还与取消
+ */
+public class AsyncRequestTest {
+    private static final long RETRY_DELAY = 200;
+
+    private static final int SOCKET_TIMEOUT = 1000;
+
+    private MockWebServer server;
+
+    private RecordingRetryPolicy retryPolicy;
+
+    private ObsClientAsync client;
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+        this.retryPolicy = new RecordingRetryPolicy();
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://127.0.0.1:" + this.server.getPort());
+        config.setAuthTypeNegotiation(false);
+        config.setAuthType(AuthTypeEnum.OBS);
+        config.setMaxErrorRetry(3);
+        config.setMaxConnections(1);
+        config.setSocketTimeout(SOCKET_TIMEOUT);
+        config.setRetryPolicy(this.retryPolicy);
+        this.client = new ObsClientAsync("ak", "sk", config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.client.close();
+        this.server.shutdown();
+    }
+
+    @Test
+    public void test_retry_5xx_on_timer() throws Exception {
+        this.server.enqueue(new MockResponse().setResponseCode(503));
+        this.server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"etag\""));
+
+        long start = System.nanoTime();
+        ObjectMetadata metadata = headObject("object").get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("\"etag\"", metadata.getEtag());
+        assertEquals(2, this.server.getRequestCount());
+        assertEquals(1, this.retryPolicy.contexts.size());
+        assertEquals(503, this.retryPolicy.contexts.get(0).getResponseCode());
+        assertTrue("retried after " + elapsed + " ms", elapsed >= RETRY_DELAY);
+        assertInflight(0);
+    }
+
+    @Test
+    public void test_retry_io_exception_on_timer() throws Exception {
+        this.server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        this.server.enqueue(new MockResponse().setResponseCode(200));
+
+        assertNotNull(headObject("object").get(10, TimeUnit.SECONDS));
+
+        assertEquals(2, this.server.getRequestCount());
+        assertEquals(1, this.retryPolicy.contexts.size());
+        assertTrue(this.retryPolicy.contexts.get(0).getException() instanceof SocketTimeoutException);
+        assertInflight(0);
+    }
+
+    @Test
+    public void test_error_response_releases_permit() throws Exception {
+        this.server.enqueue(new MockResponse().setResponseCode(404));
+        try {
+            headObject("missing").get(10, TimeUnit.SECONDS);
+            fail("404 should fail the request");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ObsException);
+            assertEquals(404, ((ObsException) e.getCause()).getResponseCode());
+        }
+        assertEquals(1, this.server.getRequestCount());
+        assertInflight(0);
+    }
+
+    @Test
+    public void test_retries_exhausted_releases_permit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            this.server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        try {
+            headObject("object").get(10, TimeUnit.SECONDS);
+            fail("500 should fail the request");
+        } catch (ExecutionException e) {
+            assertEquals(500, ((ObsException) e.getCause()).getResponseCode());
+        }
+        assertEquals(4, this.server.getRequestCount());
+        assertEquals(3, this.retryPolicy.contexts.size());
+        assertInflight(0);
+    }
+
+    @Test
+    public void test_follow_redirect() throws Exception {
+        String location = this.server.url("/bucket/moved").toString();
+        this.server.enqueue(new MockResponse().setResponseCode(307).setHeader("Location", location));
+        this.server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"moved\""));
+
+        ObjectMetadata metadata = headObject("object").get(10, TimeUnit.SECONDS);
+
+        assertEquals("\"moved\"", metadata.getEtag());
+        RecordedRequest first = this.server.takeRequest();
+        RecordedRequest second = this.server.takeRequest();
+        assertEquals("/bucket/object", first.getPath());
+        assertTrue(second.getPath(), second.getPath().startsWith("/bucket/moved"));
+        assertEquals("HEAD", second.getMethod());
+        // 重定向不经过重试策略
+        assertEquals(0, this.retryPolicy.contexts.size());
+        assertInflight(0);
+    }
+
+    @Test
+    public void test_cancel_cancels_call() throws Exception {
+        this.server.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(3, TimeUnit.SECONDS));
+
+        CompletableFuture<ObjectMetadata> future = headObject("object");
+        assertNotNull(this.server.takeRequest(5, TimeUnit.SECONDS));
+        assertInflight(1);
+        assertTrue(future.cancel(true));
+
+        // 请求被取消后许可立即归还，早于读超时，也无需等待服务端响应
+        waitForInflight(0, SOCKET_TIMEOUT / 2);
+        assertEquals(1, this.server.getRequestCount());
+        assertEquals(0, this.retryPolicy.contexts.size());
+    }
+
+    @Test
+    public void test_cancel_while_waiting_for_permit() throws Exception {
+        this.server.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        this.server.enqueue(new MockResponse().setResponseCode(200));
+
+        CompletableFuture<ObjectMetadata> first = headObject("first");
+        assertNotNull(this.server.takeRequest(5, TimeUnit.SECONDS));
+        // 唯一的许可被第一个请求占用，第二个请求排队等待
+        CompletableFuture<ObjectMetadata> second = headObject("second");
+        assertTrue(second.cancel(true));
+
+        assertNotNull(first.get(10, TimeUnit.SECONDS));
+        waitForInflight(0, 2000);
+        assertEquals(1, this.server.getRequestCount());
+
+        // 许可未泄漏，后续请求正常发送
+        assertNotNull(headObject("third").get(10, TimeUnit.SECONDS));
+        assertEquals("/bucket/third", this.server.takeRequest(5, TimeUnit.SECONDS).getPath());
+        assertInflight(0);
+    }
+
+    @Test
+    public void test_existing_implementations_remain_compatible() {
+        // 只实现早期版本方法的IObsClientAsync实现类仍可编译，新增方法默认抛出异常
+        IObsClientAsync legacy = new IObsClientAsync() {
+            @Override
+            public UploadFileTask uploadFileAsync(UploadFileRequest uploadFileRequest,
+                    TaskCallback<CompleteMultipartUploadResult, UploadFileRequest> completeCallback) {
+                return null;
+            }
+        };
+        try {
+            legacy.getObjectMetadataAsync(new GetObjectMetadataRequest("bucket", "object"));
+            fail("the default implementation should not be supported");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("getObjectMetadataAsync", e.getMessage());
+        }
+    }
+
+    private CompletableFuture<ObjectMetadata> headObject(String objectKey) {
+        return this.client.getObjectMetadataAsync(new GetObjectMetadataRequest("bucket", objectKey));
+    }
+
+    private void assertInflight(int expected) {
+        assertEquals(expected, inflight());
+    }
+
+    private void waitForInflight(int expected, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (inflight() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertInflight(expected);
+    }
+
+    private int inflight() {
+        int inflight = 0;
+        for (ConcurrencyLimitMetrics metrics : this.client.getConcurrencyLimitMetrics()) {
+            inflight += metrics.getInflight();
+        }
+        return inflight;
+    }
+
+    private static class RecordingRetryPolicy implements RetryPolicy {
+        private final List<RetryContext> contexts = new CopyOnWriteArrayList<RetryContext>();
+
+        @Override
+        public int getMaxRetries(String httpMethod, int configuredMaxRetries) {
+            return configuredMaxRetries;
+        }
+
+        @Override
+        public long computeDelay(RetryContext context) {
+            this.contexts.add(context);
+            return RETRY_DELAY;
+        }
+
+        @Override
+        public void onSuccess() {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.internal.ServiceException;
+import com.obs.services.internal.security.AuthTypeCache;
+import com.obs.services.model.AuthTypeEnum;
+
+public class AuthTypeCacheTest {
+    @Test
+    public void test_concurrent_negotiation_runs_once_per_bucket() throws InterruptedException {
+        final AuthTypeCache cache = new AuthTypeCache(100, 0);
+        final AtomicInteger probes = new AtomicInteger();
+        int threads = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            final String bucket = "bucket-" + (i % 2);
+            new Thread(() -> {
+                try {
+                    start.await();
+                    cache.getOrNegotiate(bucket, () -> {
+                        probes.incrementAndGet();
+                        sleep(100);
+                        return AuthTypeEnum.OBS;
+                    });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(2, probes.get());
+        assertEquals(AuthTypeEnum.OBS, cache.get("bucket-0"));
+        assertEquals(AuthTypeEnum.OBS, cache.get("bucket-1"));
+    }
+
+    @Test
+    public void test_failed_negotiation_is_not_cached() {
+        AuthTypeCache cache = new AuthTypeCache(10, 0);
+        try {
+            cache.getOrNegotiate("bucket", () -> {
+                throw new ServiceException("probe failed");
+            });
+            fail();
+        } catch (ServiceException e) {
+            assertEquals("probe failed", e.getMessage());
+        }
+        assertNull(cache.get("bucket"));
+        assertEquals(AuthTypeEnum.V2, cache.getOrNegotiate("bucket", () -> AuthTypeEnum.V2));
+    }
+
+    @Test
+    public void test_capacity_keeps_recently_used() {
+        AuthTypeCache cache = new AuthTypeCache(10, 0);
+        cache.put("hot", AuthTypeEnum.V4);
+        for (int i = 0; i < 100; i++) {
+            cache.put("cold-" + i, AuthTypeEnum.OBS);
+            assertEquals(AuthTypeEnum.V4, cache.get("hot"));
+            assertTrue(cache.size() <= 10);
+        }
+    }
+
+    @Test
+    public void test_ttl() {
+        AuthTypeCache cache = new AuthTypeCache(10, 50);
+        cache.put("bucket", AuthTypeEnum.V2);
+        assertEquals(AuthTypeEnum.V2, cache.get("bucket"));
+        sleep(100);
+        assertNull(cache.get("bucket"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.obs.services.internal.io.BlockCachingObjectChannel;
+
+public class BlockCachingObjectChannelTest {
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final byte[] DATA = new byte[BLOCK_SIZE * 10 + 100];
+
+    static {
+        new Random(11).nextBytes(DATA);
+    }
+
+    private static class RecordingReader implements BlockCachingObjectChannel.RangeReader {
+        private final List<long[]> ranges = new ArrayList<long[]>();
+
+        @Override
+        public InputStream open(long start, long end) {
+            ranges.add(new long[] {start, end});
+            return new ByteArrayInputStream(DATA, (int) start, (int) (end - start + 1));
+        }
+    }
+
+    private static BlockCachingObjectChannel newChannel(RecordingReader reader, int cacheBlocks, boolean direct) {
+        return new BlockCachingObjectChannel(reader, "etag", DATA.length, BLOCK_SIZE, cacheBlocks, direct);
+    }
+
+    private static byte[] read(BlockCachingObjectChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        int n = channel.read(buffer, position);
+        return Arrays.copyOf(buffer.array(), Math.max(0, n));
+    }
+
+    @Test
+    public void test_small_reads_in_one_block_send_one_request() throws Exception {
+        RecordingReader reader = new RecordingReader();
+        BlockCachingObjectChannel channel = newChannel(reader, 4, false);
+        channel.position(100);
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+        for (int i = 0; i < 100; i++) {
+            buffer.clear();
+            assertEquals(10, channel.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(DATA, 100 + i * 10, 110 + i * 10), buffer.array());
+        }
+        assertEquals(1100, channel.position());
+        assertEquals(1, reader.ranges.size());
+        assertEquals(1, channel.getCacheMissCount());
+        assertEquals(99, channel.getCacheHitCount());
+    }
+
+    @Test
+    public void test_adjacent_missing_blocks_are_coalesced() throws Exception {
+        RecordingReader reader = new RecordingReader();
+        BlockCachingObjectChannel channel = newChannel(reader, 8, false);
+        assertArrayEquals(Arrays.copyOfRange(DATA, 5000, 6000), read(channel, 5000, 1000));
+        // 块1已缓存，块0与块2、3分别合并下载
+        assertArrayEquals(Arrays.copyOfRange(DATA, 10, 15000), read(channel, 10, 14990));
+        assertEquals(3, reader.ranges.size());
+        assertArrayEquals(new long[] {0, BLOCK_SIZE - 1}, reader.ranges.get(1));
+        assertArrayEquals(new long[] {BLOCK_SIZE * 2, BLOCK_SIZE * 4 - 1}, reader.ranges.get(2));
+        assertEquals(3, channel.getRequestCount());
+    }
+
+    @Test
+    public void test_read_across_end_and_lru_eviction() throws Exception {
+        RecordingReader reader = new RecordingReader();
+        BlockCachingObjectChannel channel = newChannel(reader, 2, true);
+        assertArrayEquals(Arrays.copyOfRange(DATA, DATA.length - 50, DATA.length),
+                read(channel, DATA.length - 50, 200));
+        assertEquals(-1, channel.read(ByteBuffer.allocate(10), DATA.length));
+        // 一次读取超过缓存容量时按容量拆分请求
+        assertArrayEquals(Arrays.copyOfRange(DATA, 0, BLOCK_SIZE * 5), read(channel, 0, BLOCK_SIZE * 5));
+        assertEquals(4, reader.ranges.size());
+        // 块0已被淘汰
+        assertArrayEquals(Arrays.copyOfRange(DATA, 0, 10), read(channel, 0, 10));
+        assertEquals(5, reader.ranges.size());
+        assertArrayEquals(Arrays.copyOfRange(DATA, BLOCK_SIZE * 4, BLOCK_SIZE * 4 + 10),
+                read(channel, BLOCK_SIZE * 4, 10));
+        assertEquals(5, reader.ranges.size());
+    }
+
+    @Test
+    public void test_prefetch_footer() throws Exception {
+        RecordingReader reader = new RecordingReader();
+        BlockCachingObjectChannel channel = newChannel(reader, 4, false);
+        channel.prefetch(DATA.length - 5000, 5000);
+        assertEquals(1, reader.ranges.size());
+        assertArrayEquals(new long[] {BLOCK_SIZE * 8, DATA.length - 1}, reader.ranges.get(0));
+        assertArrayEquals(Arrays.copyOfRange(DATA, DATA.length - 8, DATA.length), read(channel, DATA.length - 8, 8));
+        assertArrayEquals(Arrays.copyOfRange(DATA, DATA.length - 5000, DATA.length - 4000),
+                read(channel, DATA.length - 5000, 1000));
+        assertEquals(1, reader.ranges.size());
+    }
+
+    @Test
+    public void test_read_only_and_close() throws Exception {
+        BlockCachingObjectChannel channel = newChannel(new RecordingReader(), 4, false);
+        assertEquals(DATA.length, channel.size());
+        try {
+            channel.write(ByteBuffer.allocate(1));
+            fail("expected NonWritableChannelException");
+        } catch (NonWritableChannelException e) {
+            // expected
+        }
+        channel.close();
+        assertFalse(channel.isOpen());
+        try {
+            channel.read(ByteBuffer.allocate(1));
+            fail("expected ClosedChannelException");
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.obs.services.crypto.CTRCipherGenerator;
+import com.obs.services.internal.io.BoundedInputStream;
+
+public class CTRCipherGeneratorRangeTest {
+    private static byte[] readAll(InputStream input) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[100];
+        int bytesRead;
+        while ((bytesRead = input.read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertRangeDecrypt(byte[] iv) throws Exception {
+        SecureRandom random = new SecureRandom();
+        byte[] key = new byte[CTRCipherGenerator.CRYPTO_KEY_BYTES_LEN];
+        random.nextBytes(key);
+        byte[] plain = new byte[1000];
+        random.nextBytes(plain);
+        byte[] encrypted = CTRCipherGenerator.getAESEncryptedBytes(plain, 0, plain.length, key, iv);
+
+        CTRCipherGenerator generator = new CTRCipherGenerator("", key, false, random);
+        for (int offset : new int[] {0, 1, 15, 16, 17, 511, 512, 999}) {
+            InputStream input = generator.getAES256DecryptedStream(
+                    new ByteArrayInputStream(encrypted, offset, encrypted.length - offset), iv, key, offset);
+            assertArrayEquals(Arrays.copyOfRange(plain, offset, plain.length), readAll(input));
+        }
+    }
+
+    @Test
+    public void test_decrypt_from_offset() throws Exception {
+        byte[] iv = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        new SecureRandom().nextBytes(iv);
+        assertRangeDecrypt(iv);
+    }
+
+    @Test
+    public void test_decrypt_from_offset_with_counter_carry() throws Exception {
+        byte[] iv = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        Arrays.fill(iv, 8, iv.length, (byte) 0xff);
+        iv[15] = (byte) 0xf0;
+        assertRangeDecrypt(iv);
+    }
+
+    @Test
+    public void test_encrypt_parts_at_offset() throws Exception {
+        SecureRandom random = new SecureRandom();
+        byte[] key = new byte[CTRCipherGenerator.CRYPTO_KEY_BYTES_LEN];
+        random.nextBytes(key);
+        byte[] iv = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        random.nextBytes(iv);
+        byte[] plain = new byte[1000];
+        random.nextBytes(plain);
+        byte[] encrypted = CTRCipherGenerator.getAESEncryptedBytes(plain, 0, plain.length, key, iv);
+
+        // 分段大小不必是块大小的整数倍
+        CTRCipherGenerator generator = new CTRCipherGenerator("", key, false, random);
+        ByteArrayOutputStream parts = new ByteArrayOutputStream();
+        int partSize = 333;
+        for (int offset = 0; offset < plain.length; offset += partSize) {
+            int size = Math.min(partSize, plain.length - offset);
+            InputStream part = new BoundedInputStream(new ByteArrayInputStream(plain, offset, plain.length - offset),
+                    size);
+            parts.write(readAll(generator.getAES256EncryptedStream(part, iv, key, offset)));
+        }
+        assertArrayEquals(encrypted, parts.toByteArray());
+    }
+
+    @Test
+    public void test_counter_iv_bytes() throws Exception {
+        byte[] iv = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        Arrays.fill(iv, (byte) 0xff);
+        byte[] expected = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        expected[15] = 1;
+        assertArrayEquals(expected, CTRCipherGenerator.getCounterIvBytes(iv, 2));
+
+        byte[] zero = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        expected = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        expected[14] = 1;
+        expected[15] = 2;
+        assertArrayEquals(expected, CTRCipherGenerator.getCounterIvBytes(zero, 258));
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.obs.services.ObsClient;
+import com.obs.services.ObsConfiguration;
+import com.obs.services.internal.ConcurrencyLimiter;
+
+public class ConcurrencyLimiterTest {
+    @Test
+    public void test_fixed_limit_and_timeout() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", false, 1, 2, 64);
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.acquire(0));
+        assertTrue(limiter.acquire(0));
+        long start = System.nanoTime();
+        assertFalse(limiter.acquire(50));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(1, limiter.getTimeoutCount());
+
+        // 归还许可后等待中的请求继续
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final ConcurrencyLimiter target = limiter;
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (target.acquire(5000)) {
+                        acquired.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        waiter.start();
+        while (limiter.getQueueLength() == 0) {
+            Thread.sleep(5);
+        }
+        limiter.release(-1, true);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(2, limiter.getInflight());
+        assertEquals(2, limiter.getLimit());
+        assertEquals(3, limiter.getAcquiredCount());
+        assertTrue(limiter.getMaxWaitNanos() > 0);
+    }
+
+    @Test
+    public void test_adaptive_decrease_on_throttle() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", true, 4, 100, 20);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.acquire(0));
+            limiter.release(-1, true);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void test_adaptive_increase_under_load() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", true, 1, 100, 10);
+        for (int round = 0; round < 20; round++) {
+            int permits = limiter.getLimit();
+            for (int i = 0; i < permits; i++) {
+                assertTrue(limiter.acquire(0));
+            }
+            for (int i = 0; i < permits; i++) {
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+            }
+        }
+        assertTrue(limiter.getLimit() >= 15);
+        assertTrue(limiter.getLimit() <= 100);
+    }
+
+    @Test
+    public void test_adaptive_decrease_on_latency() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", true, 2, 100, 50);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire(0));
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        int before = limiter.getLimit();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire(0));
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(100), false);
+        }
+        assertTrue(limiter.getLimit() < before);
+    }
+
+    @Test
+    public void test_interrupted_wait() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", false, 1, 1, 1);
+        assertTrue(limiter.acquire(0));
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquire(0);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            }
+        });
+        waiter.start();
+        while (limiter.getQueueLength() == 0) {
+            Thread.sleep(5);
+        }
+        waiter.interrupt();
+        waiter.join(5000);
+        assertTrue(interrupted.get());
+        assertEquals(0, limiter.getQueueLength());
+        assertEquals(1, limiter.getInflight());
+    }
+
+    @Test
+    public void test_async_waiters_granted_in_order() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", false, 1, 1, 1);
+            assertTrue(limiter.acquireAsync(0, 10, timer).get());
+            CompletableFuture<Boolean> first = limiter.acquireAsync(0, 10, timer);
+            CompletableFuture<Boolean> second = limiter.acquireAsync(0, 10, timer);
+            assertFalse(first.isDone());
+            assertFalse(second.isDone());
+            assertEquals(2, limiter.getQueueLength());
+
+            // 许可按排队顺序分配，等待期间不占用线程
+            limiter.release(-1, false);
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertFalse(second.isDone());
+            limiter.release(-1, false);
+            assertTrue(second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, limiter.getQueueLength());
+            assertEquals(1, limiter.getInflight());
+            assertEquals(3, limiter.getAcquiredCount());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_async_timeout_and_queue_full() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("obs.com", false, 1, 1, 1);
+            assertTrue(limiter.acquire(0));
+            CompletableFuture<Boolean> waiting = limiter.acquireAsync(50, 1, timer);
+            // 排队已满时立即返回
+            CompletableFuture<Boolean> rejected = limiter.acquireAsync(0, 1, timer);
+            assertTrue(rejected.isDone());
+            assertFalse(rejected.get());
+
+            assertFalse(waiting.get(5, TimeUnit.SECONDS));
+            assertEquals(0, limiter.getQueueLength());
+            assertEquals(2, limiter.getTimeoutCount());
+
+            // 超时的请求不再占用许可
+            limiter.release(-1, false);
+            assertEquals(0, limiter.getInflight());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_fixed_limit_is_shared_by_all_endpoints() throws IOException {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://obs.a.com");
+        config.setMaxConnections(5);
+        LimiterClient client = new LimiterClient(config);
+        try {
+            // 与原先的全局信号量一致，访问多个域名时在途请求总数仍不超过maxConnections
+            ConcurrencyLimiter limiter = client.limiterOf("bucket.obs.a.com");
+            assertSame(limiter, client.limiterOf("obs.b.com"));
+            assertEquals(5, limiter.getLimit());
+            assertEquals(1, client.getConcurrencyLimitMetrics().size());
+            assertEquals("*", client.getConcurrencyLimitMetrics().get(0).getEndpoint());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void test_adaptive_limit_per_endpoint() throws IOException {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://obs.a.com");
+        config.setAdaptiveConcurrencyEnabled(true);
+        LimiterClient client = new LimiterClient(config);
+        try {
+            ConcurrencyLimiter limiter = client.limiterOf("bucket.obs.a.com");
+            assertSame(limiter, client.limiterOf("obs.a.com"));
+            assertNotSame(limiter, client.limiterOf("obs.b.com"));
+            assertEquals("obs.a.com", limiter.getName());
+        } finally {
+            client.close();
+        }
+    }
+
+    private static class LimiterClient extends ObsClient {
+        LimiterClient(ObsConfiguration config) {
+            super("ak", "sk", config);
+        }
+
+        ConcurrencyLimiter limiterOf(String hostname) {
+            return getConcurrencyLimiter(hostname);
+        }
+    }
+}
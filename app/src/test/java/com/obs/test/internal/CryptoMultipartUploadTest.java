@@ -0,0 +1,342 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.obs.services.ObsConfiguration;
+import com.obs.services.crypto.CTRCipherGenerator;
+import com.obs.services.crypto.CryptoObsClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.CompleteMultipartUploadRequest;
+import com.obs.services.model.InitiateMultipartUploadRequest;
+import com.obs.services.model.PartEtag;
+import com.obs.services.model.UploadPartRequest;
+import com.obs.services.model.UploadPartResult;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * 加密分段上传：每个分段按其在对象中的偏移加密，不允许复用密钥流
+ */
+public class CryptoMultipartUploadTest {
+    private static final String UPLOAD_ID = "upload";
+
+    private MockWebServer server;
+
+    private CryptoObsClient client;
+
+    private byte[] iv;
+
+    private byte[] key;
+
+    private byte[] content;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+        SecureRandom random = new SecureRandom();
+        this.iv = new byte[CTRCipherGenerator.CRYPTO_IV_BYTES_LEN];
+        this.key = new byte[CTRCipherGenerator.CRYPTO_KEY_BYTES_LEN];
+        random.nextBytes(this.iv);
+        random.nextBytes(this.key);
+        this.content = new byte[1000];
+        random.nextBytes(this.content);
+        // 固定的密钥与初始值，无需由本客户端发起上传
+        this.client = new CryptoObsClient("ak", "sk", newConfiguration(),
+                new CTRCipherGenerator("", this.iv, this.key, false, random));
+        this.dir = File.createTempFile("crypto-parts", "");
+        this.dir.delete();
+        this.dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.client.close();
+        this.server.shutdown();
+        File[] files = this.dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.dir.delete();
+    }
+
+    @Test
+    public void test_stream_parts_require_object_offset() throws Exception {
+        UploadPartRequest first = streamPart(1, 0, 400);
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(first);
+
+        // 未设置偏移的分段2会使用分段1的密钥流
+        assertRejected(streamPart(2, 400, 1000));
+        assertEquals(1, this.server.getRequestCount());
+
+        UploadPartRequest second = streamPart(2, 400, 1000);
+        second.setObjectOffset(400L);
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(second);
+
+        assertArrayEquals(encrypted(), concat(this.server.takeRequest().getBody().readByteArray(),
+                this.server.takeRequest().getBody().readByteArray()));
+    }
+
+    @Test
+    public void test_file_per_part_requires_object_offset() throws Exception {
+        File part1 = writeFile("part1", 0, 300);
+        File part2 = writeFile("part2", 300, 1000);
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(filePart(1, part1, 0));
+
+        // 文件中的偏移为0，不能代表分段在对象中的位置
+        assertRejected(filePart(2, part2, 0));
+        assertEquals(1, this.server.getRequestCount());
+
+        UploadPartRequest second = filePart(2, part2, 0);
+        second.setObjectOffset(300L);
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(second);
+
+        assertArrayEquals(encrypted(), concat(this.server.takeRequest().getBody().readByteArray(),
+                this.server.takeRequest().getBody().readByteArray()));
+    }
+
+    @Test
+    public void test_reject_overlapping_parts() throws Exception {
+        File whole = writeFile("whole", 0, 1000);
+        UploadPartRequest first = filePart(1, whole, 0);
+        first.setPartSize(500L);
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(first);
+
+        UploadPartRequest overlapping = filePart(2, whole, 400);
+        overlapping.setPartSize(500L);
+        assertRejected(overlapping);
+
+        // 重新上传同一分段不算重叠
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(first);
+
+        // 长度未知的流式分段在上传完成后登记实际范围
+        UploadPartRequest unsized = new UploadPartRequest("bucket", "object");
+        unsized.setUploadId(UPLOAD_ID);
+        unsized.setPartNumber(3);
+        unsized.setObjectOffset(500L);
+        unsized.setInput(new ByteArrayInputStream(this.content, 500, 300));
+        this.server.enqueue(okResponse());
+        this.client.uploadPart(unsized);
+        assertRejected(streamPart(4, 700, 1000));
+        assertEquals(3, this.server.getRequestCount());
+    }
+
+    @Test
+    public void test_reject_file_offset_out_of_range() throws Exception {
+        File whole = writeFile("whole", 0, 1000);
+        assertRejected(filePart(2, whole, 1000));
+        UploadPartRequest negative = filePart(2, whole, 0);
+        negative.setObjectOffset(-1L);
+        assertRejected(negative);
+        assertEquals(0, this.server.getRequestCount());
+    }
+
+    @Test
+    public void test_composite_sha256_uses_separate_metadata() throws Exception {
+        CryptoObsClient sha256Client = new CryptoObsClient("ak", "sk", newConfiguration(),
+                new CTRCipherGenerator("", this.iv, this.key, true, new SecureRandom()));
+        try {
+            this.server.enqueue(xmlResponse(
+                    "<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>object</Key>"
+                            + "<UploadId>sha256-upload</UploadId></InitiateMultipartUploadResult>"));
+            String uploadId = sha256Client.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest("bucket", "object")).getUploadId();
+            UploadPartRequest part = streamPart(1, 0, 1000);
+            part.setUploadId(uploadId);
+            this.server.enqueue(okResponse());
+            UploadPartResult partResult = sha256Client.uploadPart(part);
+            this.server.enqueue(xmlResponse(
+                    "<CompleteMultipartUploadResult><Bucket>bucket</Bucket><Key>object</Key>"
+                            + "<ETag>\"etag-1\"</ETag></CompleteMultipartUploadResult>"));
+            this.server.enqueue(new MockResponse().setResponseCode(200));
+            sha256Client.completeMultipartUpload(new CompleteMultipartUploadRequest("bucket", "object", uploadId,
+                    Collections.singletonList(new PartEtag(partResult.getEtag(), 1))));
+
+            this.server.takeRequest();
+            this.server.takeRequest();
+            this.server.takeRequest();
+            RecordedRequest setMetadata = this.server.takeRequest(5, TimeUnit.SECONDS);
+            String composite = metadata(setMetadata, CTRCipherGenerator.PLAINTEXT_SHA_256_COMPOSITE_META_NAME);
+            assertTrue(composite, composite.matches("[0-9a-f]{64}-1"));
+            assertNotNull(metadata(setMetadata, CTRCipherGenerator.ENCRYPTED_SHA_256_COMPOSITE_META_NAME));
+            // 整体sha256的元数据不被组合值占用
+            assertNull(metadata(setMetadata, CTRCipherGenerator.PLAINTEXT_SHA_256_META_NAME));
+            assertNull(metadata(setMetadata, CTRCipherGenerator.ENCRYPTED_SHA_256_META_NAME));
+        } finally {
+            sha256Client.close();
+        }
+    }
+
+    @Test
+    public void test_keys_of_oldest_uploads_are_discarded() throws Exception {
+        final AtomicInteger uploads = new AtomicInteger();
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("POST".equals(request.getMethod())) {
+                    return xmlResponse("<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>object</Key>"
+                            + "<UploadId>upload-" + uploads.incrementAndGet() + "</UploadId>"
+                            + "</InitiateMultipartUploadResult>");
+                }
+                return okResponse();
+            }
+        });
+        // 随机密钥，只能由本客户端保存的密钥继续上传
+        final CryptoObsClient randomKeyClient = new CryptoObsClient("ak", "sk", newConfiguration(),
+                new CTRCipherGenerator("", null, false, new SecureRandom()));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            String first = randomKeyClient.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest("bucket", "object")).getUploadId();
+            Thread.sleep(10);
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 1024; i++) {
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return randomKeyClient.initiateMultipartUpload(
+                                new InitiateMultipartUploadRequest("bucket", "object")).getUploadId();
+                    }
+                }));
+            }
+            String last = null;
+            for (Future<String> future : futures) {
+                last = future.get();
+            }
+            UploadPartRequest latest = streamPart(1, 0, 100);
+            latest.setUploadId(last);
+            randomKeyClient.uploadPart(latest);
+
+            UploadPartRequest oldest = streamPart(1, 0, 100);
+            oldest.setUploadId(first);
+            try {
+                randomKeyClient.uploadPart(oldest);
+                fail("the key of the oldest upload should be discarded");
+            } catch (ObsException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(first));
+            }
+        } finally {
+            executor.shutdownNow();
+            randomKeyClient.close();
+        }
+    }
+
+    private ObsConfiguration newConfiguration() {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://127.0.0.1:" + this.server.getPort());
+        config.setAuthTypeNegotiation(false);
+        config.setAuthType(AuthTypeEnum.OBS);
+        return config;
+    }
+
+    private UploadPartRequest streamPart(int partNumber, int from, int to) {
+        UploadPartRequest request = new UploadPartRequest("bucket", "object", (long) (to - from),
+                new ByteArrayInputStream(this.content, from, to - from));
+        request.setUploadId(UPLOAD_ID);
+        request.setPartNumber(partNumber);
+        return request;
+    }
+
+    private UploadPartRequest filePart(int partNumber, File file, long offset) {
+        UploadPartRequest request = new UploadPartRequest("bucket", "object", null, offset, file);
+        request.setUploadId(UPLOAD_ID);
+        request.setPartNumber(partNumber);
+        return request;
+    }
+
+    private void assertRejected(UploadPartRequest request) {
+        try {
+            this.client.uploadPart(request);
+            fail("part " + request.getPartNumber() + " should be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private File writeFile(String name, int from, int to) throws IOException {
+        File file = new File(this.dir, name);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(this.content, from, to - from);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private byte[] encrypted() throws Exception {
+        return CTRCipherGenerator.getAESEncryptedBytes(this.content, 0, this.content.length, this.key, this.iv);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static String metadata(RecordedRequest request, String name) {
+        String value = request.getHeader("x-obs-meta-" + name);
+        return value != null ? value : request.getHeader("x-amz-meta-" + name);
+    }
+
+    private static MockResponse xmlResponse(String body) {
+        return new MockResponse().setResponseCode(200).setHeader("Content-Type", "application/xml").setBody(body);
+    }
+
+    private static MockResponse okResponse() {
+        return new MockResponse().setResponseCode(200).setHeader("ETag", "\"etag\"");
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.obs.services.DefaultRetryPolicy;
+import com.obs.services.RetryPolicy.RetryContext;
+
+public class DefaultRetryPolicyTest {
+    @Test
+    public void test_decorrelated_jitter() {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy(50, 10000, 0);
+        Set<Long> delays = new HashSet<Long>();
+        long previous = 0;
+        for (int i = 1; i <= 8; i++) {
+            long delay = policy.computeDelay(new RetryContext("GET", i, 500, null, -1, null, previous));
+            assertTrue(delay >= 50);
+            assertTrue(delay <= Math.max(50, previous) * 3);
+            delays.add(delay);
+            previous = delay;
+        }
+        assertTrue(delays.size() > 1);
+    }
+
+    @Test
+    public void test_retry_budget() {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy(1, 10, 20);
+        // 非幂等请求每次消耗10个令牌
+        assertTrue(policy.computeDelay(new RetryContext("PUT", 1, 500, null, -1, null, 0)) >= 0);
+        assertTrue(policy.computeDelay(new RetryContext("PUT", 1, 500, null, -1, null, 0)) >= 0);
+        assertEquals(-1, policy.computeDelay(new RetryContext("GET", 1, 500, null, -1, null, 0)));
+        for (int i = 0; i < 5; i++) {
+            policy.onSuccess();
+        }
+        assertEquals(5, policy.getAvailableBudget());
+        assertTrue(policy.computeDelay(new RetryContext("GET", 1, 500, null, -1, null, 0)) >= 0);
+        assertEquals(-1, policy.computeDelay(new RetryContext("GET", 1, -1, null, -1, new IOException(), 0)));
+    }
+
+    @Test
+    public void test_server_hints() {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy(10, 5000, 0);
+        assertTrue(policy.computeDelay(new RetryContext("GET", 1, 503, null, -1, null, 0)) >= 1000);
+        assertTrue(policy.computeDelay(new RetryContext("GET", 1, 500, "SlowDown", -1, null, 0)) >= 1000);
+        assertTrue(policy.computeDelay(new RetryContext("GET", 1, 500, null, 3000, null, 0)) >= 3000);
+        assertEquals(5000, policy.computeDelay(new RetryContext("GET", 1, 500, null, 60000, null, 0)));
+    }
+
+    @Test
+    public void test_idempotent_retries() {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy();
+        assertEquals(5, policy.getMaxRetries("GET", 3));
+        assertEquals(5, policy.getMaxRetries("HEAD", 3));
+        assertEquals(3, policy.getMaxRetries("PUT", 3));
+        assertEquals(3, policy.getMaxRetries("POST", 3));
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.ObsClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.model.DeleteObjectResult;
+import com.obs.services.model.DeleteObjectsRequest;
+import com.obs.services.model.DeleteObjectsResult;
+import com.obs.services.model.KeyAndVersion;
+import com.obs.services.model.ListObjectsRequest;
+import com.obs.services.model.ObjectListing;
+import com.obs.services.model.ObsObject;
+import com.obs.services.model.TaskCallback;
+import com.obs.services.model.TaskProgressListener;
+import com.obs.services.model.TaskProgressStatus;
+import com.obs.services.model.fs.DropFolderRequest;
+
+public class DropFolderEngineTest {
+    @Test
+    public void test_drop_folder_in_batches() {
+        InMemoryClient client = new InMemoryClient();
+        client.put("a/");
+        for (int i = 0; i < 2500; i++) {
+            client.put("a/file-" + i);
+        }
+        for (int d = 0; d < 5; d++) {
+            client.put("a/dir-" + d + "/");
+            for (int i = 0; i < 300; i++) {
+                client.put("a/dir-" + d + "/sub/file-" + i);
+            }
+        }
+        client.put("b/keep");
+
+        TaskProgressStatus status = client.dropFolder(new DropFolderRequest("bucket", "a"));
+
+        assertEquals(Collections.singleton("b/keep"), client.objects);
+        // 2500 + 5 * 300 个对象，5个dir目录、5个sub目录及a目录本身
+        assertEquals(2500 + 1500 + 11, status.getSucceedTaskNum());
+        assertEquals(0, status.getFailTaskNum());
+        assertEquals(status.getTotalTaskNum(), status.getExecTaskNum());
+        // 每次批量删除不超过1000个，且远少于对象数
+        assertTrue(client.deleteCalls.get() < 30);
+    }
+
+    @Test
+    public void test_keep_parents_of_failed_objects() {
+        InMemoryClient client = new InMemoryClient();
+        client.put("a/");
+        client.put("a/x/");
+        client.put("a/x/locked");
+        client.put("a/x/free");
+        client.put("a/y/");
+        client.put("a/y/free");
+        client.locked.add("a/x/locked");
+
+        final List<String> failedKeys = Collections.synchronizedList(new ArrayList<String>());
+        DropFolderRequest request = new DropFolderRequest("bucket", "a/");
+        request.setCallback(new TaskCallback<DeleteObjectResult, String>() {
+            @Override
+            public void onSuccess(DeleteObjectResult result) {
+            }
+
+            @Override
+            public void onException(ObsException exception, String key) {
+                failedKeys.add(key);
+            }
+        });
+        TaskProgressStatus status = client.dropFolder(request);
+
+        assertTrue(client.objects.contains("a/"));
+        assertTrue(client.objects.contains("a/x/"));
+        assertTrue(client.objects.contains("a/x/locked"));
+        assertFalse(client.objects.contains("a/x/free"));
+        assertFalse(client.objects.contains("a/y/"));
+        assertEquals(3, status.getFailTaskNum());
+        assertTrue(failedKeys.contains("a/x/locked"));
+        assertTrue(failedKeys.contains("a/x/"));
+        assertTrue(failedKeys.contains("a/"));
+    }
+
+    @Test
+    public void test_throwing_callback_and_listener_do_not_block() {
+        InMemoryClient client = new InMemoryClient();
+        client.put("a/");
+        for (int i = 0; i < 1500; i++) {
+            client.put("a/dir-" + (i % 3) + "/file-" + i);
+        }
+        client.put("a/x/locked");
+        client.locked.add("a/x/locked");
+
+        final AtomicInteger callbacks = new AtomicInteger();
+        DropFolderRequest request = new DropFolderRequest("bucket", "a/");
+        request.setCallback(new TaskCallback<DeleteObjectResult, String>() {
+            @Override
+            public void onSuccess(DeleteObjectResult result) {
+                callbacks.incrementAndGet();
+                throw new IllegalStateException("callback failure");
+            }
+
+            @Override
+            public void onException(ObsException exception, String key) {
+                callbacks.incrementAndGet();
+                throw new IllegalStateException("callback failure");
+            }
+        });
+        request.setProgressInterval(1);
+        request.setProgressListener(new TaskProgressListener() {
+            @Override
+            public void progressChanged(TaskProgressStatus status) {
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        TaskProgressStatus status = client.dropFolder(request);
+
+        // 除被锁定对象所在的a/x/与a/外全部删除，每个对象的回调都被调用
+        assertEquals(new TreeSet<String>(Arrays.asList("a/", "a/x/locked")), client.objects);
+        assertEquals(1500 + 3, status.getSucceedTaskNum());
+        assertEquals(3, status.getFailTaskNum());
+        assertEquals(status.getSucceedTaskNum() + status.getFailTaskNum(), callbacks.get());
+    }
+
+    private static class InMemoryClient extends ObsClient {
+        private final NavigableSet<String> objects = new ConcurrentSkipListSet<String>();
+
+        private final NavigableSet<String> locked = new TreeSet<String>();
+
+        private final AtomicInteger deleteCalls = new AtomicInteger();
+
+        InMemoryClient() {
+            super("ak", "sk", "http://127.0.0.1");
+        }
+
+        void put(String key) {
+            this.objects.add(key);
+        }
+
+        @Override
+        public ObjectListing listObjects(ListObjectsRequest request) {
+            String prefix = request.getPrefix();
+            String marker = request.getMarker();
+            List<ObsObject> objectList = new ArrayList<ObsObject>();
+            List<String> prefixes = new ArrayList<String>();
+            String last = null;
+            for (String key : this.objects.tailSet(marker == null ? prefix : marker, marker == null)) {
+                if (!key.startsWith(prefix)) {
+                    break;
+                }
+                if (objectList.size() + prefixes.size() == 1000) {
+                    return new ObjectListing(objectList, prefixes, "bucket", true, prefix, marker, 1000, "/",
+                            last, null);
+                }
+                int index = key.indexOf('/', prefix.length());
+                if (index >= 0) {
+                    String common = key.substring(0, index + 1);
+                    if (!prefixes.contains(common)) {
+                        prefixes.add(common);
+                    }
+                } else {
+                    ObsObject o = new ObsObject();
+                    o.setObjectKey(key);
+                    objectList.add(o);
+                }
+                last = key;
+            }
+            return new ObjectListing(objectList, prefixes, "bucket", false, prefix, marker, 1000, "/", null, null);
+        }
+
+        @Override
+        public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+            this.deleteCalls.incrementAndGet();
+            assertTrue(request.getKeyAndVersions().length <= 1000);
+            List<DeleteObjectsResult.DeleteObjectResult> deleted = new ArrayList<DeleteObjectsResult.DeleteObjectResult>();
+            List<DeleteObjectsResult.ErrorResult> errors = new ArrayList<DeleteObjectsResult.ErrorResult>();
+            for (KeyAndVersion kv : request.getKeyAndVersions()) {
+                if (this.locked.contains(kv.getKey())) {
+                    errors.add(new DeleteObjectsResult.ErrorResult(kv.getKey(), null, "AccessDenied", "locked"));
+                } else {
+                    this.objects.remove(kv.getKey());
+                    deleted.add(new DeleteObjectsResult.DeleteObjectResult(kv.getKey(), null, false, null));
+                }
+            }
+            return new DeleteObjectsResult(deleted, errors);
+        }
+    }
+}
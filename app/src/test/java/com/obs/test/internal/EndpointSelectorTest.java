@@ -0,0 +1,168 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.obs.services.ObsConfiguration;
+import com.obs.services.internal.EndpointSelector;
+import com.obs.services.internal.EndpointSelector.Endpoint;
+import com.obs.services.internal.ObsConstraint;
+import com.obs.services.internal.ObsProperties;
+import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.model.EndpointSelectionStrategyEnum;
+
+public class EndpointSelectorTest {
+    @Test
+    public void test_extra_endpoints_are_normalized() {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("https://a.com:8443/");
+        config.setEndPointWeight(3);
+        config.addEndPoint("https://b.com:8443/", 2);
+        config.addEndPoint("c.com:8443");
+        config.addEndPoint("d.com");
+        ObsProperties properties = ServiceUtils.changeFromObsConfiguration(config);
+
+        Map<String, Integer> expected = new LinkedHashMap<String, Integer>();
+        expected.put("a.com", 3);
+        expected.put("b.com", 2);
+        expected.put("c.com", 1);
+        expected.put("d.com", 1);
+        assertEquals(expected, EndpointSelector.parseEndpoints(
+                properties.getStringProperty(ObsConstraint.END_POINT_LIST, null)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_extra_endpoint_with_other_protocol() {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("https://a.com");
+        config.addEndPoint("http://b.com");
+        ServiceUtils.changeFromObsConfiguration(config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_extra_endpoint_with_other_port() {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://a.com:8080");
+        config.addEndPoint("b.com:8081");
+        ServiceUtils.changeFromObsConfiguration(config);
+    }
+
+    @Test
+    public void test_weighted_random() {
+        EndpointSelector selector = new EndpointSelector(EndpointSelector.parseEndpoints("a.com=3,b.com=1"),
+                EndpointSelectionStrategyEnum.WEIGHTED_RANDOM, 3, 0, 10, null);
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (int i = 0; i < 8000; i++) {
+            String host = selector.select(null).getHost();
+            counts.put(host, counts.containsKey(host) ? counts.get(host) + 1 : 1);
+        }
+        assertTrue(counts.get("a.com") > counts.get("b.com") * 2);
+    }
+
+    @Test
+    public void test_least_outstanding() {
+        EndpointSelector selector = new EndpointSelector(EndpointSelector.parseEndpoints("a.com,b.com"),
+                EndpointSelectionStrategyEnum.LEAST_OUTSTANDING_REQUESTS, 3, 0, 10, null);
+        Endpoint a = selector.find("a.com");
+        a.requestStarted();
+        a.requestStarted();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("b.com", selector.select(null).getHost());
+        }
+        a.requestFinished();
+        a.requestFinished();
+    }
+
+    @Test
+    public void test_sticky_key() {
+        Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+        weights.put("a.com", 1);
+        weights.put("b.com", 1);
+        weights.put("c.com", 1);
+        EndpointSelector selector = new EndpointSelector(weights, EndpointSelectionStrategyEnum.WEIGHTED_RANDOM,
+                1, 60000, 60000, null);
+        Endpoint first = selector.select("upload-1");
+        for (int i = 0; i < 20; i++) {
+            assertSame(first, selector.select("upload-1"));
+        }
+        // 域名摘除后迁移到其他域名，且仍然保持固定
+        selector.onFailure(first);
+        Endpoint second = selector.select("upload-1");
+        assertNotEquals(first, second);
+        assertSame(second, selector.select("upload-1"));
+        selector.close();
+    }
+
+    @Test
+    public void test_eject_and_probe_recovery() throws Exception {
+        final AtomicBoolean alive = new AtomicBoolean(false);
+        EndpointSelector selector = new EndpointSelector(EndpointSelector.parseEndpoints("a.com,b.com"),
+                EndpointSelectionStrategyEnum.WEIGHTED_RANDOM, 2, 50, 20, new EndpointSelector.Prober() {
+                    @Override
+                    public boolean probe(String host) {
+                        return alive.get();
+                    }
+                });
+        Endpoint a = selector.find("bucket.a.com");
+        selector.onFailure(a);
+        selector.onSuccess(a);
+        selector.onFailure(a);
+        assertFalse(a.isEjected());
+        selector.onFailure(a);
+        assertTrue(a.isEjected());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("b.com", selector.select(null).getHost());
+        }
+
+        Thread.sleep(200);
+        assertTrue(a.isEjected());
+        alive.set(true);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (a.isEjected() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(a.isEjected());
+        selector.close();
+    }
+
+    @Test
+    public void test_find_and_replace_host() {
+        EndpointSelector selector = new EndpointSelector(EndpointSelector.parseEndpoints("obs.com,vpc.obs.com"),
+                EndpointSelectionStrategyEnum.WEIGHTED_RANDOM, 3, 0, 10, null);
+        Endpoint vpc = selector.find("bucket.vpc.obs.com");
+        assertEquals("vpc.obs.com", vpc.getHost());
+        assertEquals("bucket.obs.com",
+                EndpointSelector.replaceHost("bucket.vpc.obs.com", vpc, selector.find("obs.com")));
+        assertNull(selector.find("other.com"));
+        assertTrue(EndpointSelector.isConnectFailure(new ConnectException("refused")));
+        assertTrue(EndpointSelector.isConnectFailure(new SocketTimeoutException("connect timed out")));
+        assertFalse(EndpointSelector.isConnectFailure(new SocketTimeoutException("Read timed out")));
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.obs.services.internal.FileRegionRequestEntity;
+
+import okio.Buffer;
+
+public class FileRegionRequestEntityTest {
+    @Test
+    public void test_write_region_and_replay() throws IOException {
+        byte[] content = createContent(200 * 1024);
+        File file = createFile(content);
+        try {
+            FileRegionRequestEntity entity = new FileRegionRequestEntity(file, 1000, 150 * 1024, null);
+            assertEquals(150 * 1024, entity.contentLength());
+            byte[] expected = Arrays.copyOfRange(content, 1000, 1000 + 150 * 1024);
+
+            Buffer first = new Buffer();
+            entity.writeTo(first);
+            assertArrayEquals(expected, first.readByteArray());
+
+            // 重试时重新定位到offset
+            Buffer second = new Buffer();
+            entity.writeTo(second);
+            assertArrayEquals(expected, second.readByteArray());
+            entity.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void test_truncated_file() throws IOException {
+        File file = createFile(createContent(1024));
+        try {
+            new FileRegionRequestEntity(file, 512, 1024, null).writeTo(new Buffer());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    private static File createFile(byte[] content) throws IOException {
+        File file = File.createTempFile("region", ".dat");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.obs.services.ObsClient;
+import com.obs.services.ObsConfiguration;
+import com.obs.services.model.AuthTypeEnum;
+import com.obs.services.model.ObsObject;
+import com.obs.services.model.ParallelGetObjectRequest;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * 并行预读下载：空对象直接返回空内容，不发起范围下载
+ */
+public class ParallelGetObjectTest {
+    private MockWebServer server;
+
+    private ObsClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://127.0.0.1:" + this.server.getPort());
+        config.setAuthTypeNegotiation(false);
+        config.setAuthType(AuthTypeEnum.OBS);
+        this.client = new ObsClient("ak", "sk", config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.client.close();
+        this.server.shutdown();
+    }
+
+    @Test
+    public void test_empty_object() throws Exception {
+        this.server.enqueue(emptyObjectMetadata());
+        assertEmpty(this.client.getObjectInParallel(new ParallelGetObjectRequest("bucket", "object")));
+
+        // 指定的范围同样不适用于空对象
+        ParallelGetObjectRequest ranged = new ParallelGetObjectRequest("bucket", "object");
+        ranged.setRangeStart(0L);
+        ranged.setRangeEnd(99L);
+        this.server.enqueue(emptyObjectMetadata());
+        assertEmpty(this.client.getObjectInParallel(ranged));
+
+        ParallelGetObjectRequest suffix = new ParallelGetObjectRequest("bucket", "object");
+        suffix.setRangeEnd(10L);
+        this.server.enqueue(emptyObjectMetadata());
+        assertEmpty(this.client.getObjectInParallel(suffix));
+
+        // 只获取元数据，不发起下载
+        assertEquals(3, this.server.getRequestCount());
+        assertEquals("HEAD", this.server.takeRequest().getMethod());
+    }
+
+    private static void assertEmpty(ObsObject object) throws IOException {
+        assertEquals("object", object.getObjectKey());
+        assertEquals(Long.valueOf(0), object.getMetadata().getContentLength());
+        InputStream content = object.getObjectContent();
+        try {
+            assertEquals(-1, content.read());
+        } finally {
+            content.close();
+        }
+    }
+
+    private static MockResponse emptyObjectMetadata() {
+        return new MockResponse().setResponseCode(200).setHeader("Content-Length", "0")
+                .setHeader("ETag", "\"etag\"");
+    }
+}
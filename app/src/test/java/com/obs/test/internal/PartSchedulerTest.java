@@ -0,0 +1,112 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.obs.services.internal.task.PartScheduler;
+import com.obs.services.internal.task.TransferScheduler;
+
+public class PartSchedulerTest {
+    private static final Predicate<Integer> NEGATIVE_IS_FATAL = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer result) {
+            return result < 0;
+        }
+    };
+
+    @Test
+    public void test_all_parts_executed() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(4);
+        try {
+            PartScheduler<Integer> partScheduler = new PartScheduler<Integer>(scheduler.openSession(4), 4,
+                    NEGATIVE_IS_FATAL, null);
+            List<Integer> results = partScheduler.execute(createParts(100, -1, new AtomicInteger()).iterator());
+            assertEquals(100, results.size());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void test_stop_submitting_after_fatal_result() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(2);
+        try {
+            final AtomicBoolean stopped = new AtomicBoolean();
+            AtomicInteger executed = new AtomicInteger();
+            PartScheduler<Integer> partScheduler = new PartScheduler<Integer>(scheduler.openSession(2), 2,
+                    NEGATIVE_IS_FATAL, new Runnable() {
+                        @Override
+                        public void run() {
+                            stopped.set(true);
+                        }
+                    });
+            List<Integer> results = partScheduler.execute(createParts(100, 5, executed).iterator());
+            assertTrue(stopped.get());
+            assertTrue(partScheduler.isStopped());
+            assertTrue(executed.get() < 100);
+            assertEquals(executed.get(), results.size());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void test_exception_stops_scheduling() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(2);
+        try {
+            List<Callable<Integer>> parts = new ArrayList<Callable<Integer>>();
+            parts.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    throw new IllegalStateException("part failed");
+                }
+            });
+            parts.addAll(createParts(10, -1, new AtomicInteger()));
+            new PartScheduler<Integer>(scheduler.openSession(1), 1, NEGATIVE_IS_FATAL, null)
+                    .execute(parts.iterator());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private static List<Callable<Integer>> createParts(int count, final int fatalIndex,
+            final AtomicInteger executed) {
+        List<Callable<Integer>> parts = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            parts.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    executed.incrementAndGet();
+                    Thread.sleep(1);
+                    return index == fatalIndex ? -1 : index;
+                }
+            });
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.obs.services.ObsClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.internal.utils.Mimetypes;
+import com.obs.services.model.ObjectMetadata;
+import com.obs.services.model.PutObjectInMultiBucketRequest;
+import com.obs.services.model.PutObjectInMultiBucketResult;
+import com.obs.services.model.PutObjectInMultiBucketResult.DestinationResult;
+import com.obs.services.model.PutObjectRequest;
+import com.obs.services.model.PutObjectResult;
+
+public class PutObjectInMultiBucketTest {
+    @Test
+    public void test_shared_request_is_copied_per_destination() throws Exception {
+        byte[] content = new byte[300 * 1024 + 7];
+        new Random(7).nextBytes(content);
+        File file = File.createTempFile("fan-out", ".txt");
+        ObsClient client = new ObsClient("ak", "sk", "http://127.0.0.1");
+        try {
+            FileOutputStream output = new FileOutputStream(file);
+            try {
+                output.write(content);
+            } finally {
+                output.close();
+            }
+            // 同一个请求对象用于多个区域的客户端
+            PutObjectRequest shared = new PutObjectRequest("bucket", "data");
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.addUserMetadata("owner", "test");
+            shared.setMetadata(metadata);
+
+            PutObjectInMultiBucketRequest request = new PutObjectInMultiBucketRequest();
+            request.setFile(file);
+            request.setBufferSize(8192);
+            request.setBufferCount(2);
+            List<RecordingClient> regions = new ArrayList<RecordingClient>();
+            for (int i = 0; i < 3; i++) {
+                RecordingClient region = new RecordingClient(i == 1);
+                regions.add(region);
+                request.addDestination(shared, region);
+            }
+
+            PutObjectInMultiBucketResult result = client.putObjectInMultiBucket(request);
+
+            for (DestinationResult destinationResult : result.getDestinationResults()) {
+                assertNull(destinationResult.getException());
+            }
+            String expectedType = Mimetypes.getInstance().getMimetype(file);
+            for (RecordingClient region : regions) {
+                PutObjectRequest received = region.received.get(region.received.size() - 1);
+                assertFalse(received == shared);
+                assertArrayEquals(content, region.content);
+                assertEquals(Long.valueOf(content.length), received.getMetadata().getContentLength());
+                if (received.getFile() == null) {
+                    // 以数据流上传时与文件上传一样按文件名推断Content-Type
+                    assertEquals(expectedType, received.getMetadata().getContentType());
+                }
+                assertEquals("test", received.getMetadata().getUserMetadata("owner"));
+            }
+            // 失败的目标单独重新读取文件重试一次
+            RecordingClient retried = regions.get(1);
+            assertEquals(2, retried.received.size());
+            assertNull(retried.received.get(0).getFile());
+            assertEquals(file, retried.received.get(1).getFile());
+
+            assertNull(shared.getFile());
+            assertNull(shared.getInput());
+            assertTrue(shared.getMetadata() == metadata);
+            assertNull(metadata.getContentLength());
+            assertNull(metadata.getContentType());
+        } finally {
+            client.close();
+            assertTrue(file.delete());
+        }
+    }
+
+    private static class RecordingClient extends ObsClient {
+        private final List<PutObjectRequest> received = Collections.synchronizedList(
+                new ArrayList<PutObjectRequest>());
+
+        private boolean failFirst;
+
+        private byte[] content;
+
+        RecordingClient(boolean failFirst) {
+            super("ak", "sk", "http://127.0.0.1");
+            this.failFirst = failFirst;
+        }
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest request) {
+            this.received.add(request);
+            try {
+                InputStream input = request.getFile() != null ? new FileInputStream(request.getFile())
+                        : request.getInput();
+                try {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[4096];
+                    int count;
+                    while ((count = input.read(buffer)) != -1) {
+                        output.write(buffer, 0, count);
+                    }
+                    this.content = output.toByteArray();
+                } finally {
+                    input.close();
+                }
+            } catch (IOException e) {
+                throw new ObsException(e.getMessage(), e);
+            }
+            if (this.failFirst) {
+                this.failFirst = false;
+                ObsException exception = new ObsException("service unavailable");
+                exception.setResponseCode(503);
+                throw exception;
+            }
+            return new PutObjectResult(request.getBucketName(), request.getObjectKey(), "etag", null, null,
+                    null);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.internal.io.ReadAheadObjectInputStream;
+import com.obs.services.internal.task.TransferScheduler;
+
+public class ReadAheadObjectInputStreamTest {
+    private static final byte[] DATA = new byte[1000003];
+
+    static {
+        new Random(7).nextBytes(DATA);
+    }
+
+    private static class RecordingFetcher implements ReadAheadObjectInputStream.BlockFetcher {
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        private final AtomicInteger fetched = new AtomicInteger();
+
+        private final Map<byte[], Boolean> buffers = Collections.synchronizedMap(new IdentityHashMap<byte[], Boolean>());
+
+        private volatile long failAt = -1;
+
+        @Override
+        public void fetch(long position, byte[] buffer, int length) throws IOException {
+            int now = running.incrementAndGet();
+            while (true) {
+                int max = maxRunning.get();
+                if (now <= max || maxRunning.compareAndSet(max, now)) {
+                    break;
+                }
+            }
+            try {
+                buffers.put(buffer, Boolean.TRUE);
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+                if (position == failAt) {
+                    throw new IOException("block failed");
+                }
+                System.arraycopy(DATA, (int) position, buffer, 0, length);
+                fetched.incrementAndGet();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream input, int chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[chunk];
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void test_read_in_order_with_bounded_buffers() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(4);
+        try {
+            RecordingFetcher fetcher = new RecordingFetcher();
+            ReadAheadObjectInputStream input = new ReadAheadObjectInputStream(fetcher, scheduler.openSession(4), 0,
+                    DATA.length - 1, 65536, 4);
+            assertArrayEquals(DATA, readAll(input, 10000));
+            input.close();
+            assertEquals(16, fetcher.fetched.get());
+            assertTrue(fetcher.maxRunning.get() <= 4);
+            assertTrue(fetcher.buffers.size() <= 5);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void test_read_range() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(4);
+        try {
+            RecordingFetcher fetcher = new RecordingFetcher();
+            ReadAheadObjectInputStream input = new ReadAheadObjectInputStream(fetcher, scheduler.openSession(2), 1000,
+                    300999, 65536, 2);
+            assertArrayEquals(Arrays.copyOfRange(DATA, 1000, 301000), readAll(input, 777));
+            assertEquals(-1, input.read());
+            input.close();
+            assertTrue(fetcher.buffers.size() <= 3);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void test_slow_consumer_does_not_fetch_ahead_unbounded() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(4);
+        try {
+            RecordingFetcher fetcher = new RecordingFetcher();
+            ReadAheadObjectInputStream input = new ReadAheadObjectInputStream(fetcher, scheduler.openSession(3), 0,
+                    DATA.length - 1, 65536, 3);
+            assertEquals(DATA[0] & 0xff, input.read());
+            Thread.sleep(200);
+            // 当前块加上3个预读块
+            assertEquals(4, fetcher.fetched.get());
+            input.close();
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void test_block_failure_propagates() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(4);
+        try {
+            RecordingFetcher fetcher = new RecordingFetcher();
+            fetcher.failAt = 65536 * 3;
+            ReadAheadObjectInputStream input = new ReadAheadObjectInputStream(fetcher, scheduler.openSession(4), 0,
+                    DATA.length - 1, 65536, 4);
+            try {
+                readAll(input, 8192);
+                fail("expected IOException");
+            } catch (IOException e) {
+                assertEquals("block failed", e.getMessage());
+            }
+            try {
+                input.read();
+                fail("expected IOException");
+            } catch (IOException e) {
+                assertEquals("Stream closed", e.getMessage());
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
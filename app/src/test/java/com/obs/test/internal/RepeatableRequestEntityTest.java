@@ -0,0 +1,159 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.obs.services.internal.ObsConstraint;
+import com.obs.services.internal.ObsProperties;
+import com.obs.services.internal.RepeatableRequestEntity;
+import com.obs.services.internal.io.MayRepeatableInputStream;
+import com.obs.services.internal.io.UnrecoverableIOException;
+
+import okio.Buffer;
+
+public class RepeatableRequestEntityTest {
+    @Test
+    public void test_replay_non_markable_stream() throws IOException {
+        byte[] content = createContent(300 * 1024);
+        ObsProperties properties = new ObsProperties();
+        properties.setProperty(ObsConstraint.UPLOAD_STREAM_REPLAY_MEMORY_SIZE, String.valueOf(100 * 1024));
+        properties.setProperty(ObsConstraint.UPLOAD_STREAM_REPLAY_MAX_SIZE, String.valueOf(1024 * 1024));
+        RepeatableRequestEntity entity = new RepeatableRequestEntity(nonMarkable(content), null,
+                content.length, properties);
+        assertTrue(entity.isRepeatable());
+
+        Buffer first = new Buffer();
+        entity.writeTo(first);
+        assertArrayEquals(content, first.readByteArray());
+
+        // 超出内存部分从临时文件重放
+        Buffer second = new Buffer();
+        entity.writeTo(second);
+        assertArrayEquals(content, second.readByteArray());
+        entity.close();
+    }
+
+    @Test(expected = UnrecoverableIOException.class)
+    public void test_replay_disabled_by_default() throws IOException {
+        byte[] content = createContent(1024);
+        RepeatableRequestEntity entity = new RepeatableRequestEntity(nonMarkable(content), null,
+                content.length, new ObsProperties());
+        assertFalse(entity.isRepeatable());
+        entity.writeTo(new Buffer());
+        entity.writeTo(new Buffer());
+    }
+
+    @Test
+    public void test_replay_limit_exceeded() throws IOException {
+        byte[] content = createContent(10 * 1024);
+        MayRepeatableInputStream input = new MayRepeatableInputStream(nonMarkable(content), 0, 1024, 4096);
+        input.mark(0);
+        byte[] data = new byte[content.length];
+        assertEquals(content.length, readFully(input, data));
+        assertArrayEquals(content, data);
+        assertFalse(input.markSupported());
+        try {
+            input.reset();
+            throw new AssertionError("reset should fail");
+        } catch (UnrecoverableIOException e) {
+            // expected
+        }
+        input.close();
+    }
+
+    @Test
+    public void test_partial_replay_then_continue() throws IOException {
+        byte[] content = createContent(200 * 1024);
+        MayRepeatableInputStream input = new MayRepeatableInputStream(nonMarkable(content), 8192,
+                0, 1024 * 1024);
+        input.mark(0);
+        byte[] head = new byte[50 * 1024];
+        assertEquals(head.length, readFully(input, head));
+        input.reset();
+
+        // 先重放已读部分，再继续读取源数据
+        assertEquals(content[0], (byte) input.read());
+        assertEquals(10, input.skip(10));
+        byte[] rest = new byte[content.length - 11];
+        assertEquals(rest.length, readFully(input, rest));
+        assertEquals(-1, input.read());
+        for (int i = 0; i < rest.length; i++) {
+            assertEquals(content[i + 11], rest[i]);
+        }
+        input.close();
+    }
+
+    @Test
+    public void test_skip_past_replayed_data_is_recorded() throws IOException {
+        byte[] content = createContent(64 * 1024);
+        MayRepeatableInputStream input = new MayRepeatableInputStream(nonMarkable(content), 0,
+                0, 1024 * 1024);
+        input.mark(0);
+        byte[] head = new byte[1000];
+        assertEquals(head.length, readFully(input, head));
+        input.reset();
+
+        // 跳过的长度超过内部缓冲区，且越过已重放部分
+        assertEquals(20000, input.skip(20000));
+        for (int i = 20000; i < 20100; i++) {
+            assertEquals(content[i], (byte) input.read());
+        }
+        input.reset();
+        byte[] data = new byte[content.length];
+        assertEquals(content.length, readFully(input, data));
+        assertArrayEquals(content, data);
+        input.close();
+    }
+
+    private static int readFully(InputStream input, byte[] data) throws IOException {
+        int total = 0;
+        while (total < data.length) {
+            int count = input.read(data, total, data.length - total);
+            if (count == -1) {
+                break;
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    private static InputStream nonMarkable(byte[] content) {
+        return new FilterInputStream(new ByteArrayInputStream(content)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31 + (i >> 8));
+        }
+        return content;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.obs.services.internal.io.ResumableObjectInputStream;
+import com.obs.services.internal.io.UnrecoverableIOException;
+
+public class ResumableObjectInputStreamTest {
+    private static final byte[] DATA = new byte[100000];
+
+    static {
+        new Random(1).nextBytes(DATA);
+    }
+
+    /**
+     * 读取failAfter个字节后抛出连接重置异常
+     */
+    private static InputStream flaky(final long position, final long failAfter) {
+        return new InputStream() {
+            private long pos = position;
+
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (pos - position >= failAfter) {
+                    throw new SocketException("Connection reset");
+                }
+                if (pos >= DATA.length) {
+                    return -1;
+                }
+                int n = (int) Math.min(Math.min(len, DATA.length - pos), failAfter - (pos - position));
+                System.arraycopy(DATA, (int) pos, b, off, n);
+                pos += n;
+                return n;
+            }
+        };
+    }
+
+    private static class RecordingReopener implements ResumableObjectInputStream.Reopener {
+        private final List<Long> positions = new ArrayList<Long>();
+
+        private final long failAfter;
+
+        private int failReopens;
+
+        RecordingReopener(long failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public InputStream reopen(long position, long endPosition) throws IOException {
+            positions.add(position);
+            if (failReopens > 0) {
+                failReopens--;
+                throw new SocketException("Connection refused");
+            }
+            return flaky(position, failAfter);
+        }
+
+        @Override
+        public long computeDelay(int retryCount, IOException exception) {
+            return 0;
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void test_resume_after_connection_reset() throws Exception {
+        RecordingReopener reopener = new RecordingReopener(30000);
+        ResumableObjectInputStream input = new ResumableObjectInputStream(flaky(0, 30000), 0, DATA.length - 1, 2,
+                reopener);
+        assertArrayEquals(DATA, readAll(input));
+        assertEquals(Arrays.asList(30000L, 60000L, 90000L), reopener.positions);
+        assertEquals(3, input.getTotalRetries());
+        assertEquals(DATA.length, input.getDelivered());
+    }
+
+    @Test
+    public void test_resume_ranged_content() throws Exception {
+        RecordingReopener reopener = new RecordingReopener(10000);
+        ResumableObjectInputStream input = new ResumableObjectInputStream(flaky(5000, 10000), 5000, 39999, 1,
+                reopener);
+        byte[] content = new byte[35000];
+        int offset = 0;
+        while (offset < content.length) {
+            int n = input.read(content, offset, content.length - offset);
+            assertTrue(n > 0);
+            offset += n;
+        }
+        assertArrayEquals(Arrays.copyOfRange(DATA, 5000, 40000), content);
+        assertEquals(Arrays.asList(15000L, 25000L, 35000L), reopener.positions);
+    }
+
+    @Test
+    public void test_consecutive_failures_exceed_limit() throws Exception {
+        RecordingReopener reopener = new RecordingReopener(30000);
+        reopener.failReopens = 5;
+        ResumableObjectInputStream input = new ResumableObjectInputStream(flaky(0, 30000), 0, DATA.length - 1, 3,
+                reopener);
+        try {
+            readAll(input);
+            fail("expected IOException");
+        } catch (SocketException e) {
+            assertEquals(3, reopener.positions.size());
+            assertEquals(30000, input.getDelivered());
+        }
+    }
+
+    @Test
+    public void test_unrecoverable_reopen() throws Exception {
+        ResumableObjectInputStream input = new ResumableObjectInputStream(flaky(0, 1000), 0, DATA.length - 1, 3,
+                new RecordingReopener(1000) {
+                    @Override
+                    public InputStream reopen(long position, long endPosition) throws IOException {
+                        throw new UnrecoverableIOException("412 Precondition Failed");
+                    }
+                });
+        try {
+            readAll(input);
+            fail("expected IOException");
+        } catch (UnrecoverableIOException e) {
+            assertEquals(1000, input.getDelivered());
+        }
+    }
+
+    @Test
+    public void test_premature_end_resumes() throws Exception {
+        RecordingReopener reopener = new RecordingReopener(Long.MAX_VALUE);
+        InputStream truncated = new ByteArrayInputStream(DATA, 0, 500);
+        ResumableObjectInputStream input = new ResumableObjectInputStream(truncated, 0, DATA.length - 1, 1,
+                reopener);
+        assertArrayEquals(DATA, readAll(input));
+        assertEquals(Arrays.asList(500L), reopener.positions);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.obs.services.internal.handler.SimpleHandler;
+
+/**
+ * 按元素名分派到处理器的startXxx/endXxx方法
+ */
+public class SimpleHandlerTest {
+    @Test
+    public void test_dispatch_to_start_and_end_methods() throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        XMLReader xr = factory.newSAXParser().getXMLReader();
+        RecordingHandler handler = new RecordingHandler(xr);
+        xr.setContentHandler(handler);
+        xr.parse(new InputSource(new StringReader(
+                "<Root><Name>a</Name><Broken>b</Broken><Unknown>c</Unknown><Name>d</Name><Count>3</Count></Root>")));
+
+        // 处理方法抛出的异常不中断解析，返回值被忽略
+        assertEquals(Arrays.asList("startRoot", "startName", "endName:a", "endBroken:b", "startName", "endName:d",
+                "endCount:3", "endRoot:"), handler.calls);
+    }
+
+    // 非公共的处理器类同样可以分派
+    private static class RecordingHandler extends SimpleHandler {
+        private final List<String> calls = new ArrayList<String>();
+
+        RecordingHandler(XMLReader xr) {
+            super(xr);
+        }
+
+        public void startRoot() {
+            this.calls.add("startRoot");
+        }
+
+        public void endRoot(String text) {
+            this.calls.add("endRoot:" + text);
+        }
+
+        public void startName() {
+            this.calls.add("startName");
+        }
+
+        public void endName(String text) {
+            this.calls.add("endName:" + text);
+        }
+
+        public void endBroken(String text) {
+            this.calls.add("endBroken:" + text);
+            throw new IllegalStateException("broken");
+        }
+
+        public int endCount(String text) {
+            this.calls.add("endCount:" + text);
+            return Integer.parseInt(text);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.internal.io.StreamFanOut;
+
+public class StreamFanOutTest {
+    @Test
+    public void test_read_once_to_all_branches() throws Exception {
+        byte[] content = createContent(1024 * 1024 + 123);
+        CountingInputStream source = new CountingInputStream(new ByteArrayInputStream(content));
+        StreamFanOut fanOut = new StreamFanOut(3, 8192, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+            for (int i = 0; i < 3; i++) {
+                // 消费速度不同的分支
+                futures.add(executor.submit(readAll(fanOut.getBranch(i), i)));
+            }
+            assertEquals(content.length, fanOut.pump(source, -1));
+            for (Future<byte[]> future : futures) {
+                assertArrayEquals(content, future.get());
+            }
+            assertEquals(content.length, source.count.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_closed_branch_does_not_block() throws Exception {
+        byte[] content = createContent(512 * 1024);
+        StreamFanOut fanOut = new StreamFanOut(2, 4096, 1);
+        fanOut.getBranch(1).close();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> future = executor.submit(readAll(fanOut.getBranch(0), 0));
+            assertEquals(1000, fanOut.pump(new ByteArrayInputStream(content), 1000));
+            byte[] data = future.get();
+            assertEquals(1000, data.length);
+            assertEquals(content[999], data[999]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_source_failure_propagates() throws Exception {
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (++this.count > 10000) {
+                    throw new IOException("broken source");
+                }
+                return 1;
+            }
+        };
+        StreamFanOut fanOut = new StreamFanOut(1, 1024, 4);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> future = executor.submit(readAll(fanOut.getBranch(0), 0));
+            try {
+                fanOut.pump(failing, -1);
+            } catch (IOException e) {
+                assertEquals("broken source", e.getMessage());
+            }
+            try {
+                future.get();
+                throw new AssertionError("branch should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+                assertEquals("broken source", e.getCause().getCause().getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Callable<byte[]> readAll(final InputStream input, final int delayMillis) {
+        return new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[5000];
+                int count;
+                int reads = 0;
+                while ((count = input.read(buffer)) != -1) {
+                    out.write(buffer, 0, count);
+                    if (delayMillis > 0 && ++reads % 50 == 0) {
+                        Thread.sleep(delayMillis);
+                    }
+                }
+                input.close();
+                return out.toByteArray();
+            }
+        };
+    }
+
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 7 + (i >> 10));
+        }
+        return content;
+    }
+
+    private static class CountingInputStream extends InputStream {
+        private final InputStream in;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        CountingInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = this.in.read();
+            if (b != -1) {
+                this.count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = this.in.read(b, off, len);
+            if (n > 0) {
+                this.count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
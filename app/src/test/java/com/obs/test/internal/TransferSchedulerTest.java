@@ -0,0 +1,123 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.internal.task.TransferScheduler;
+
+public class TransferSchedulerTest {
+    @Test
+    public void test_session_concurrency_is_capped() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(16);
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            TransferScheduler.Session session = scheduler.openSession(3);
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 50; i++) {
+                final int index = i;
+                futures.add(session.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int now = running.incrementAndGet();
+                        int max;
+                        while ((max = maxRunning.get()) < now && !maxRunning.compareAndSet(max, now)) {
+                            // retry
+                        }
+                        Thread.sleep(2);
+                        running.decrementAndGet();
+                        return index;
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(Integer.valueOf(i), futures.get(i).get());
+            }
+            assertTrue(maxRunning.get() <= 3);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void test_custom_thread_factory() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        TransferScheduler scheduler = new TransferScheduler(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "custom-worker-" + created.incrementAndGet());
+            }
+        });
+        try {
+            TransferScheduler.Session session = scheduler.openSession(2);
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(session.submit(new ThreadNameCallable()));
+            }
+            for (Future<String> future : futures) {
+                assertTrue(future.get().startsWith("custom-worker-"));
+            }
+            assertTrue(created.get() <= 2);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void test_sessions_share_pool() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(2);
+        try {
+            TransferScheduler.Session first = scheduler.openSession(10);
+            TransferScheduler.Session second = scheduler.openSession(10);
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(first.submit(new ThreadNameCallable()));
+                futures.add(second.submit(new ThreadNameCallable()));
+            }
+            for (Future<String> future : futures) {
+                assertTrue(future.get().startsWith("obs-transfer-"));
+            }
+            assertEquals(2, scheduler.getPoolSize());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void test_submit_after_shutdown() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(1);
+        scheduler.shutdown();
+        scheduler.openSession(1).submit(new ThreadNameCallable()).get();
+    }
+
+    private static class ThreadNameCallable implements Callable<String> {
+        @Override
+        public String call() {
+            return Thread.currentThread().getName();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.obs.services.ObsClient;
+import com.obs.services.ObsConfiguration;
+import com.obs.services.internal.task.TransferScheduler;
+import com.obs.services.internal.utils.VirtualThreadSupport;
+
+/**
+ * 针对打包后的Multi-Release JAR运行：JDK 21及以上加载META-INF/versions/21下的实现，
+ * 工作线程为虚拟线程；更早的JDK回退到平台线程
+ */
+public class VirtualThreadWorkersIT {
+    private static final int MAX_CONCURRENCY = 20000;
+
+    @Test
+    public void test_workers_are_virtual_on_java21() throws Exception {
+        Assume.assumeTrue("requires JDK 21 or later", isJava21());
+        assertTrue(VirtualThreadSupport.isAvailable());
+
+        TestClient client = new TestClient(newConfiguration());
+        try {
+            assertTrue(client.isVirtualThreadsEnabled());
+            assertEquals(MAX_CONCURRENCY, client.getWorkerThreadNum(10));
+
+            ThreadFactory factory = client.newWorkerThreadFactory("obs-it-", Executors.defaultThreadFactory());
+            final AtomicReference<Thread> worker = new AtomicReference<Thread>();
+            Thread thread = factory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    worker.set(Thread.currentThread());
+                }
+            });
+            thread.start();
+            thread.join();
+            assertTrue(isVirtual(worker.get()));
+            assertTrue(worker.get().getName().startsWith("obs-it-"));
+
+            TransferScheduler scheduler = client.transferScheduler();
+            assertEquals(MAX_CONCURRENCY, scheduler.getPoolSize());
+            TransferScheduler.Session session = scheduler.openSession(4);
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(session.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return isVirtual(Thread.currentThread());
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void test_platform_threads_before_java21() throws Exception {
+        Assume.assumeTrue("requires a JDK earlier than 21", !isJava21());
+        assertFalse(VirtualThreadSupport.isAvailable());
+
+        TestClient client = new TestClient(newConfiguration());
+        try {
+            assertFalse(client.isVirtualThreadsEnabled());
+            assertEquals(10, client.getWorkerThreadNum(10));
+            ThreadFactory platform = Executors.defaultThreadFactory();
+            assertTrue(platform == client.newWorkerThreadFactory("obs-it-", platform));
+        } finally {
+            client.close();
+        }
+    }
+
+    private static ObsConfiguration newConfiguration() {
+        ObsConfiguration config = new ObsConfiguration();
+        config.setEndPoint("http://127.0.0.1");
+        config.setVirtualThreadsEnabled(true);
+        config.setVirtualThreadsMaxConcurrency(MAX_CONCURRENCY);
+        return config;
+    }
+
+    private static boolean isJava21() {
+        String version = System.getProperty("java.specification.version");
+        if (version.startsWith("1.")) {
+            return false;
+        }
+        return Integer.parseInt(version) >= 21;
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        // 测试代码按Java 8编译，通过反射调用Thread.isVirtual
+        Method isVirtual = Thread.class.getMethod("isVirtual");
+        return (Boolean) isVirtual.invoke(thread);
+    }
+
+    private static class TestClient extends ObsClient {
+        TestClient(ObsConfiguration config) {
+            super("ak", "sk", config);
+        }
+
+        TransferScheduler transferScheduler() {
+            return getTransferScheduler();
+        }
+    }
+}
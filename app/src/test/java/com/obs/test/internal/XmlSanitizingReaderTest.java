@@ -0,0 +1,89 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.obs.services.internal.handler.XmlResponsesSaxParser;
+import com.obs.services.internal.handler.XmlResponsesSaxParser.ListPartsHandler;
+import com.obs.services.internal.handler.XmlSanitizingReader;
+
+public class XmlSanitizingReaderTest {
+    @Test
+    public void test_carriage_returns_are_escaped_across_reads() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            input.append("line").append(i).append("\r\n");
+            expected.append("line").append(i).append("&#013;\n");
+        }
+        input.append('\r');
+        expected.append("&#013;");
+
+        for (int chunk : new int[] {1, 3, 7, 8192, 20000}) {
+            XmlSanitizingReader reader = new XmlSanitizingReader(new StringReader(input.toString()));
+            StringBuilder output = new StringBuilder();
+            char[] buf = new char[chunk];
+            int read;
+            while ((read = reader.read(buf, 0, chunk)) != -1) {
+                output.append(buf, 0, read);
+            }
+            reader.close();
+            assertEquals(expected.toString(), output.toString());
+        }
+    }
+
+    @Test
+    public void test_parse_with_nested_handlers() {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ListPartsResult xmlns=\"http://obs.myhwclouds.com/doc/2015-06-30/\">"
+                + "<Bucket>bucket</Bucket><Key>a\r\nb</Key><UploadId>upload</UploadId>"
+                + "<Initiator><ID>initiator</ID></Initiator><Owner><ID>owner</ID></Owner>"
+                + "<StorageClass>STANDARD</StorageClass><PartNumberMarker>0</PartNumberMarker>"
+                + "<NextPartNumberMarker>2</NextPartNumberMarker><MaxParts>1000</MaxParts>"
+                + "<IsTruncated>false</IsTruncated>"
+                + "<Part><PartNumber>1</PartNumber><LastModified>2024-01-01T00:00:00.000Z</LastModified>"
+                + "<ETag>\"etag1\"</ETag><Size>5</Size></Part>"
+                + "<Part><PartNumber>2</PartNumber><LastModified>2024-01-01T00:00:00.000Z</LastModified>"
+                + "<ETag>\"etag2\"</ETag><Size>7</Size><Unknown>x</Unknown></Part>"
+                + "</ListPartsResult>";
+
+        ListPartsHandler handler = new XmlResponsesSaxParser().parse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), ListPartsHandler.class, true);
+
+        assertEquals("bucket", handler.getBucketName());
+        // 未经处理的'\r'会被XML解析器规范化为'\n'
+        assertEquals("a\r\nb", handler.getObjectKey());
+        assertEquals("upload", handler.getUploadId());
+        assertEquals("initiator", handler.getInitiator().getId());
+        assertEquals("owner", handler.getOwner().getId());
+        assertEquals(1000, handler.getMaxParts());
+        assertFalse(handler.isTruncated());
+        assertNull(handler.getEncodingType());
+        assertEquals(2, handler.getMultiPartList().size());
+        assertEquals(Integer.valueOf(2), handler.getMultiPartList().get(1).getPartNumber());
+        assertEquals(7L, handler.getMultiPartList().get(1).getSize().longValue());
+        assertEquals("\"etag1\"", handler.getMultiPartList().get(0).getEtag());
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.obs.log.LoggerBuilder;
+import com.obs.services.internal.utils.AccessLoggerUtils;
+
+/**
+ * 访问日志的记录格式与调用者信息
+ */
+public class AccessLoggerUtilsTest {
+    private static final String ACCESS_LOGGER = "com.obs.log.AccessLogger";
+
+    private static final String TIME = "\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2} \\d{3}";
+
+    private LoggerContext context;
+
+    private LoggerConfig loggerConfig;
+
+    private Level originalLevel;
+
+    private CapturingAppender appender;
+
+    @Before
+    public void setUp() {
+        // accessRecord以info级别输出，测试期间放开访问日志的级别
+        this.context = (LoggerContext) LogManager.getContext(false);
+        this.loggerConfig = this.context.getConfiguration().getLoggerConfig(ACCESS_LOGGER);
+        this.originalLevel = this.loggerConfig.getLevel();
+        this.appender = new CapturingAppender();
+        this.appender.start();
+        this.loggerConfig.addAppender(this.appender, null, null);
+        this.loggerConfig.setLevel(Level.INFO);
+        this.context.updateLoggers();
+        // 丢弃其他用例在当前线程遗留的记录
+        AccessLoggerUtils.printLog();
+        this.appender.messages.clear();
+    }
+
+    @After
+    public void tearDown() {
+        AccessLoggerUtils.accesslogEnabled = true;
+        AccessLoggerUtils.accesslogCallerEnabled = false;
+        this.loggerConfig.removeAppender(this.appender.getName());
+        this.loggerConfig.setLevel(this.originalLevel);
+        this.context.updateLoggers();
+        this.appender.stop();
+    }
+
+    @Test
+    public void test_records_are_formatted_on_print() {
+        String thread = Thread.currentThread().getName();
+        AccessLoggerUtils.appendLog("first", "warn");
+        AccessLoggerUtils.appendLog("second", "error");
+        AccessLoggerUtils.appendLog(null, "warn");
+        assertTrue(this.appender.messages.isEmpty());
+
+        AccessLoggerUtils.printLog();
+
+        assertEquals(1, this.appender.messages.size());
+        String[] lines = this.appender.messages.get(0).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0], lines[0].matches(TIME + "\\|" + thread + "\\|warn\\|first"));
+        assertTrue(lines[1], lines[1].matches(TIME + "\\|" + thread + "\\|error\\|second"));
+        assertEquals("", lines[2]);
+
+        // 输出后记录被清空
+        AccessLoggerUtils.printLog();
+        assertEquals(1, this.appender.messages.size());
+    }
+
+    @Test
+    public void test_caller_is_off_by_default() {
+        assertFalse(AccessLoggerUtils.accesslogCallerEnabled);
+        LoggerBuilder.getLogger(AccessLoggerUtilsTest.class).warn("through logger");
+        AccessLoggerUtils.printLog();
+
+        assertEquals(1, this.appender.messages.size());
+        String line = this.appender.messages.get(0);
+        assertTrue(line, line.matches(TIME + "\\|[^|]+\\|warn\\|through logger\n"));
+    }
+
+    @Test
+    public void test_caller_prefix_when_enabled() {
+        AccessLoggerUtils.accesslogCallerEnabled = true;
+        AccessLoggerUtils.appendLog("direct", "warn");
+        // 经由ILogger记录时跳过com.obs.log下的栈帧，定位到真正的调用者
+        LoggerBuilder.getLogger(AccessLoggerUtilsTest.class).warn("through logger");
+        AccessLoggerUtils.printLog();
+
+        assertEquals(1, this.appender.messages.size());
+        String[] lines = this.appender.messages.get(0).split("\n");
+        String caller = "\\|" + AccessLoggerUtilsTest.class.getName().replace(".", "\\.")
+                + "\\|test_caller_prefix_when_enabled\\|line:\\d+\\|";
+        assertTrue(lines[0], lines[0].matches(TIME + "\\|[^|]+\\|warn" + caller + "direct"));
+        assertTrue(lines[1], lines[1].matches(TIME + "\\|[^|]+\\|warn" + caller + "through logger"));
+    }
+
+    @Test
+    public void test_nothing_recorded_when_disabled() {
+        AccessLoggerUtils.accesslogEnabled = false;
+        assertFalse(AccessLoggerUtils.isLevelEnabled("error"));
+        AccessLoggerUtils.appendLog("dropped", "error");
+        AccessLoggerUtils.accesslogEnabled = true;
+        AccessLoggerUtils.printLog();
+
+        assertTrue(this.appender.messages.isEmpty());
+    }
+
+    private static class CapturingAppender extends AbstractAppender {
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+        CapturingAppender() {
+            super("capturing-access", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            this.messages.add(event.getMessage().getFormattedMessage());
+        }
+    }
+}
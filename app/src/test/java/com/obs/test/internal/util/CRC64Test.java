@@ -0,0 +1,86 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.obs.services.internal.utils.CRC64;
+
+public class CRC64Test {
+    private static final long CHECK_VALUE = 0x995DC9BBDF1939FAL; // CRC64 of "123456789"
+
+    @Test
+    public void test_check_value() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(CHECK_VALUE, new CRC64(data, data.length).getValue());
+
+        CRC64 single = new CRC64();
+        for (byte b : data) {
+            single.update(b);
+        }
+        assertEquals(CHECK_VALUE, single.getValue());
+    }
+
+    @Test
+    public void test_array_byte_and_buffer_paths_agree() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            byte[] data = new byte[random.nextInt(300)];
+            random.nextBytes(data);
+            int off = data.length == 0 ? 0 : random.nextInt(data.length);
+            int len = data.length - off;
+
+            CRC64 expected = new CRC64();
+            for (int j = off; j < data.length; j++) {
+                expected.update(data[j]);
+            }
+            assertEquals(expected.getValue(), new CRC64(data, off, len).getValue());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data);
+            direct.position(off);
+            CRC64 fromDirect = new CRC64();
+            fromDirect.update(direct);
+            assertEquals(expected.getValue(), fromDirect.getValue());
+            assertFalse(direct.hasRemaining());
+
+            ByteBuffer heap = ByteBuffer.wrap(data, off, len).slice();
+            CRC64 fromHeap = new CRC64();
+            fromHeap.update(heap);
+            assertEquals(expected.getValue(), fromHeap.getValue());
+        }
+    }
+
+    @Test
+    public void test_combine() {
+        Random random = new Random(11);
+        byte[] data = new byte[100 * 1024 + 5];
+        random.nextBytes(data);
+        long whole = new CRC64(data, data.length).getValue();
+
+        for (int split : new int[] {0, 1, 15, 16, 4096, 99999, data.length}) {
+            long first = new CRC64(data, 0, split).getValue();
+            long second = new CRC64(data, split, data.length - split).getValue();
+            assertEquals(whole, CRC64.combine(first, second, data.length - split));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.obs.services.internal.utils.CachingObsDns;
+
+import okhttp3.Dns;
+
+public class CachingObsDnsTest {
+    private static final List<InetAddress> ADDRESSES;
+
+    static {
+        try {
+            ADDRESSES = Arrays.asList(InetAddress.getByName("10.0.0.1"), InetAddress.getByName("10.0.0.2"),
+                    InetAddress.getByName("10.0.0.3"));
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void test_cache_and_round_robin() throws Exception {
+        CountingDns delegate = new CountingDns();
+        CachingObsDns dns = new CachingObsDns(delegate, 60000, 0, false);
+        Set<InetAddress> firsts = new HashSet<InetAddress>();
+        for (int i = 0; i < 6; i++) {
+            List<InetAddress> result = dns.lookup("obs.com");
+            assertEquals(3, result.size());
+            assertEquals(new HashSet<InetAddress>(ADDRESSES), new HashSet<InetAddress>(result));
+            firsts.add(result.get(0));
+        }
+        assertEquals(1, delegate.count.get());
+        // 新建连接分散到所有地址
+        assertEquals(3, firsts.size());
+    }
+
+    @Test
+    public void test_serve_stale_on_error() throws Exception {
+        CountingDns delegate = new CountingDns();
+        CachingObsDns dns = new CachingObsDns(delegate, 20, 60000, true);
+        dns.lookup("obs.com");
+        delegate.fail.set(true);
+        Thread.sleep(50);
+        assertEquals(3, dns.lookup("obs.com").size());
+        assertTrue(delegate.count.get() >= 2);
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void test_fail_after_stale_period() throws Exception {
+        CountingDns delegate = new CountingDns();
+        CachingObsDns dns = new CachingObsDns(delegate, 10, 10, false);
+        dns.lookup("obs.com");
+        delegate.fail.set(true);
+        Thread.sleep(50);
+        dns.lookup("obs.com");
+    }
+
+    @Test
+    public void test_failed_address_tried_last() throws Exception {
+        CachingObsDns dns = new CachingObsDns(new CountingDns(), 60000, 0, false);
+        dns.connectFailed(ADDRESSES.get(0));
+        for (int i = 0; i < 6; i++) {
+            List<InetAddress> result = dns.lookup("obs.com");
+            assertEquals(ADDRESSES.get(0), result.get(2));
+        }
+        dns.connectSucceeded(ADDRESSES.get(0));
+        Set<InetAddress> lasts = new HashSet<InetAddress>();
+        for (int i = 0; i < 3; i++) {
+            List<InetAddress> result = dns.lookup("obs.com");
+            lasts.add(result.get(2));
+        }
+        assertEquals(3, lasts.size());
+    }
+
+    private static class CountingDns implements Dns {
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final AtomicBoolean fail = new AtomicBoolean();
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            this.count.incrementAndGet();
+            if (this.fail.get()) {
+                throw new UnknownHostException(hostname);
+            }
+            return ADDRESSES;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.obs.services.internal.utils.CheckPointJournal;
+
+public class CheckPointJournalTest {
+    @Test
+    public void test_snapshot_and_records_are_replayed() throws IOException {
+        File file = File.createTempFile("journal", ".record");
+        try {
+            CheckPointJournal journal = new CheckPointJournal(file.getPath(), CheckPointJournal.KIND_UPLOAD,
+                    new FixedSnapshot("snapshot"));
+            journal.compact();
+            for (int i = 0; i < 10; i++) {
+                journal.append(new byte[] {(byte) i});
+            }
+            journal.close();
+
+            assertTrue(CheckPointJournal.isJournal(file.getPath()));
+            RecordingReplayer replayer = new RecordingReplayer();
+            assertEquals(10, CheckPointJournal.load(file.getPath(), CheckPointJournal.KIND_UPLOAD, replayer));
+            assertEquals("snapshot", replayer.snapshot);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(Integer.valueOf(i), replayer.records.get(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void test_torn_record_is_ignored() throws IOException {
+        File file = File.createTempFile("journal", ".record");
+        try {
+            CheckPointJournal journal = new CheckPointJournal(file.getPath(), CheckPointJournal.KIND_DOWNLOAD,
+                    new FixedSnapshot("snapshot"));
+            journal.compact();
+            journal.append(new byte[] {1});
+            journal.append(new byte[] {2});
+            journal.close();
+
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            raf.setLength(raf.length() - 3);
+            raf.close();
+
+            RecordingReplayer replayer = new RecordingReplayer();
+            assertEquals(1, CheckPointJournal.load(file.getPath(), CheckPointJournal.KIND_DOWNLOAD, replayer));
+            assertEquals(Integer.valueOf(1), replayer.records.get(0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void test_first_append_rewrites_snapshot() throws IOException {
+        File file = File.createTempFile("journal", ".record");
+        try {
+            CheckPointJournal journal = new CheckPointJournal(file.getPath(), CheckPointJournal.KIND_UPLOAD,
+                    new FixedSnapshot("first"));
+            journal.compact();
+            journal.append(new byte[] {1});
+            journal.close();
+
+            // 续传时第一条记录重写快照，之前的记录已包含在新快照中
+            journal = new CheckPointJournal(file.getPath(), CheckPointJournal.KIND_UPLOAD,
+                    new FixedSnapshot("second"));
+            journal.append(new byte[] {2});
+            journal.append(new byte[] {3});
+            journal.close();
+
+            RecordingReplayer replayer = new RecordingReplayer();
+            assertEquals(1, CheckPointJournal.load(file.getPath(), CheckPointJournal.KIND_UPLOAD, replayer));
+            assertEquals("second", replayer.snapshot);
+            assertEquals(Integer.valueOf(3), replayer.records.get(0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void test_legacy_file_is_not_journal() throws IOException {
+        File file = File.createTempFile("legacy", ".record");
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+            out.writeObject(new ArrayList<String>());
+            out.close();
+            assertFalse(CheckPointJournal.isJournal(file.getPath()));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void test_kind_mismatch() throws IOException {
+        File file = File.createTempFile("journal", ".record");
+        try {
+            CheckPointJournal journal = new CheckPointJournal(file.getPath(), CheckPointJournal.KIND_UPLOAD,
+                    new FixedSnapshot("snapshot"));
+            journal.compact();
+            journal.close();
+            CheckPointJournal.load(file.getPath(), CheckPointJournal.KIND_DOWNLOAD, new RecordingReplayer());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static class FixedSnapshot implements CheckPointJournal.SnapshotWriter {
+        private final String value;
+
+        FixedSnapshot(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public void writeSnapshot(DataOutput out) throws IOException {
+            CheckPointJournal.writeString(out, value);
+        }
+    }
+
+    private static class RecordingReplayer implements CheckPointJournal.Replayer {
+        private String snapshot;
+
+        private final List<Integer> records = new ArrayList<Integer>();
+
+        @Override
+        public void readSnapshot(DataInput in) throws IOException {
+            snapshot = CheckPointJournal.readString(in);
+        }
+
+        @Override
+        public void replayRecord(DataInput in) throws IOException {
+            records.add((int) in.readByte());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.Test;
+
+import com.obs.services.internal.utils.CRC64;
+import com.obs.services.internal.utils.DigestPipeline;
+
+public class DigestPipelineTest {
+    @Test
+    public void test_md5_and_crc64_of_region() throws IOException, NoSuchAlgorithmException {
+        byte[] content = new byte[300 * 1024 + 17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 131 + 7);
+        }
+        File file = File.createTempFile("digest", ".dat");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(content);
+            } finally {
+                out.close();
+            }
+            long offset = 4097;
+            long length = 200 * 1024 + 3;
+
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            CRC64 crc64 = new CRC64();
+            new DigestPipeline().add(md5).add(crc64).digest(file, offset, length);
+
+            MessageDigest expectedMd5 = MessageDigest.getInstance("MD5");
+            expectedMd5.update(content, (int) offset, (int) length);
+            assertArrayEquals(expectedMd5.digest(), md5.digest());
+
+            FileInputStream in = new FileInputStream(file);
+            try {
+                assertEquals(CRC64.fromInputStream(in, offset, length).getValue(), crc64.getValue());
+            } finally {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void test_region_beyond_end_of_file() throws IOException {
+        File file = File.createTempFile("digest", ".dat");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(new byte[1024]);
+            } finally {
+                out.close();
+            }
+            new DigestPipeline().add(new CRC64()).digest(file, 512, 1024);
+        } finally {
+            file.delete();
+        }
+    }
+}
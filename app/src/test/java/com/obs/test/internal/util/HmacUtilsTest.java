@@ -0,0 +1,110 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.test.internal.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+import com.obs.services.internal.ObsConstraint;
+import com.obs.services.internal.security.V4SigningKeyCache;
+import com.obs.services.internal.utils.HmacUtils;
+import com.obs.services.internal.utils.ServiceUtils;
+import com.obs.services.internal.utils.V4Authentication;
+
+public class HmacUtilsTest {
+    @Test
+    public void test_reused_mac_with_changing_keys() throws Exception {
+        byte[] data = "string-to-sign".getBytes(StandardCharsets.UTF_8);
+        String[] keys = {"sk-1", "sk-1", "sk-2", "sk-1"};
+        for (String key : keys) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(expected("HmacSHA256", keyBytes, data), HmacUtils.hmacSha256(keyBytes, data));
+            assertArrayEquals(expected("HmacSHA1", keyBytes, data), HmacUtils.hmacSha1(keyBytes, data));
+        }
+        assertEquals(ServiceUtils.toBase64(expected("HmacSHA1", "sk-2".getBytes(StandardCharsets.UTF_8), data)),
+                ServiceUtils.signWithHmacSha1("sk-2", "string-to-sign"));
+    }
+
+    @Test
+    public void test_pooled_mac_with_many_threads() throws Exception {
+        // 线程数远多于池中的Mac实例数，每个线程使用不同的密钥
+        final byte[] data = "string-to-sign".getBytes(StandardCharsets.UTF_8);
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 64; i++) {
+            final byte[] keyBytes = ("sk-" + i).getBytes(StandardCharsets.UTF_8);
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 200; j++) {
+                            if (!Arrays.equals(expected("HmacSHA256", keyBytes, data),
+                                    HmacUtils.hmacSha256(keyBytes, data))) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+    }
+
+    @Test
+    public void test_cached_signing_key_follows_sk_and_date() throws Exception {
+        String region = ObsConstraint.DEFAULT_BUCKET_LOCATION_VALUE;
+        String[][] cases = {{"sk-1", "20240101"}, {"sk-1", "20240101"}, {"sk-1", "20240102"},
+            {"sk-rotated", "20240102"}, {"sk-1", "20240102"}};
+        V4SigningKeyCache cache = new V4SigningKeyCache();
+        for (String[] c : cases) {
+            byte[] dateKey = expected("HmacSHA256", ("AWS4" + c[0]).getBytes(StandardCharsets.UTF_8),
+                    c[1].getBytes(StandardCharsets.UTF_8));
+            byte[] regionKey = expected("HmacSHA256", dateKey, region.getBytes(StandardCharsets.UTF_8));
+            byte[] serviceKey = expected("HmacSHA256", regionKey, "s3".getBytes(StandardCharsets.UTF_8));
+            byte[] signingKey = expected("HmacSHA256", serviceKey, "aws4_request".getBytes(StandardCharsets.UTF_8));
+            String signature = V4Authentication.byteToHex(
+                    expected("HmacSHA256", signingKey, "policy".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(signature, V4Authentication.caculateSignature("policy", c[1], c[0], cache));
+            assertEquals(signature, V4Authentication.caculateSignature("policy", c[1], c[0]));
+        }
+        // SK变化时替换原缓存项，每个区域只保留一个签名密钥
+        assertEquals(1, cache.size());
+    }
+
+    private static byte[] expected(String algorithm, byte[] key, byte[] data) throws Exception {
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(key, algorithm));
+        return mac.doFinal(data);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.obs.services.internal.utils.CRC64;
+
+/**
+ * CRC64计算性能对比：当前实现与优化前的实现（{@link LegacyCRC64}）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CRC64Benchmark {
+    private static final int PART_COUNT = 10000;
+
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    @Param({"64", "4096", "1048576"})
+    private int size;
+
+    private byte[] data;
+
+    private ByteBuffer directData;
+
+    private long[] partCrcs;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        this.data = new byte[this.size];
+        random.nextBytes(this.data);
+        this.directData = ByteBuffer.allocateDirect(this.size);
+        this.directData.put(this.data);
+        this.directData.flip();
+        this.partCrcs = new long[PART_COUNT];
+        for (int i = 0; i < PART_COUNT; i++) {
+            this.partCrcs[i] = random.nextLong();
+        }
+    }
+
+    @Benchmark
+    public long updateArray() {
+        CRC64 crc = new CRC64();
+        crc.update(this.data, 0, this.data.length);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long updateArrayLegacy() {
+        LegacyCRC64 crc = new LegacyCRC64();
+        crc.update(this.data, 0, this.data.length);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long updateDirectBuffer() {
+        CRC64 crc = new CRC64();
+        crc.update(this.directData.duplicate());
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long updateDirectBufferLegacy() {
+        // 优化前需先拷贝到堆内数组
+        ByteBuffer buffer = this.directData.duplicate();
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.get(copy);
+        LegacyCRC64 crc = new LegacyCRC64();
+        crc.update(copy, 0, copy.length);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long updateSingleByte() {
+        CRC64 crc = new CRC64();
+        for (byte b : this.data) {
+            crc.update(b);
+        }
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long updateSingleByteLegacy() {
+        LegacyCRC64 crc = new LegacyCRC64();
+        for (byte b : this.data) {
+            crc.update(b);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 合并10000个分段的CRC64，与数据大小无关
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long combineParts() {
+        long crc = 0;
+        for (long partCrc : this.partCrcs) {
+            crc = CRC64.combine(crc, partCrc, PART_SIZE);
+        }
+        return crc;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long combinePartsLegacy() {
+        long crc = 0;
+        for (long partCrc : this.partCrcs) {
+            crc = LegacyCRC64.combine(crc, partCrc, PART_SIZE);
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2019 Huawei Technologies Co.,Ltd.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.obs.benchmark;
+
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * 优化前的CRC64实现（8表查表、每次合并都重新平方矩阵），仅作为基准测试的对照
+ */
+final class LegacyCRC64 implements Checksum {
+    private static final long POLY = (long) 0xc96c5795d7870f42L; // ECMA-182
+
+    /* CRC64 calculation table. */
+    private static final long[][] CRC64_TABLE;
+
+    /* Current CRC value. */
+    private long value;
+
+    /**
+     * Get long representation of current CRC64 value.
+     */
+    public long getValue() {
+        return this.value;
+    }
+
+    /**
+     * Update CRC64 with new byte block.
+     */
+    public void update(byte[] b, int len) {
+        this.update(b, 0, len);
+    }
+
+    /**
+     * Update CRC64 with new byte block.
+     */
+    public void update(byte[] b, int off, int len) {
+        this.value = ~this.value;
+
+        /* fast middle processing, 8 bytes (aligned!) per loop */
+
+        int idx = off;
+        while (len >= 8) {
+            value =
+                    CRC64_TABLE[7][(int) (value & 0xff ^ (b[idx] & 0xff))]
+                            ^ CRC64_TABLE[6][(int) ((value >>> 8) & 0xff ^ (b[idx + 1] & 0xff))]
+                            ^ CRC64_TABLE[5][(int) ((value >>> 16) & 0xff ^ (b[idx + 2] & 0xff))]
+                            ^ CRC64_TABLE[4][(int) ((value >>> 24) & 0xff ^ (b[idx + 3] & 0xff))]
+                            ^ CRC64_TABLE[3][(int) ((value >>> 32) & 0xff ^ (b[idx + 4] & 0xff))]
+                            ^ CRC64_TABLE[2][(int) ((value >>> 40) & 0xff ^ (b[idx + 5] & 0xff))]
+                            ^ CRC64_TABLE[1][(int) ((value >>> 48) & 0xff ^ (b[idx + 6] & 0xff))]
+                            ^ CRC64_TABLE[0][(int) ((value >>> 56) ^ b[idx + 7] & 0xff)];
+            idx += 8;
+            len -= 8;
+        }
+
+        /* process remaining bytes (can't be larger than 8) */
+        while (len > 0) {
+            value = CRC64_TABLE[0][(int) ((this.value ^ b[idx]) & 0xff)] ^ (this.value >>> 8);
+            idx++;
+            len--;
+        }
+
+        this.value = ~this.value;
+    }
+
+    public void update(int b) {
+        this.update(new byte[] {(byte) b}, 0, 1);
+    }
+
+    public void reset() {
+        this.value = 0;
+    }
+
+    // dimension of GF(2) vectors (length of CRC)
+    private static final int GF2_DIM = 64;
+
+    private static long gf2MatrixTimes(long[] mat, long vec) {
+        long sum = 0L;
+        int idx = 0;
+        while (vec != 0) {
+            if ((vec & 1) == 1) {
+                sum ^= mat[idx];
+            }
+            vec >>>= 1;
+            idx++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] mat) {
+        for (int n = 0; n < GF2_DIM; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
+    private static final long[] EVEN_SQUARE;
+    private static final long[] ODD_SQUARE;
+
+    static {
+        /*
+         * Nested tables as described by Mark Adler
+         */
+        CRC64_TABLE = new long[8][256];
+
+        for (int n = 0; n < 256; n++) {
+            long crc = n;
+            for (int k = 0; k < 8; k++) {
+                if ((crc & 1) == 1) {
+                    crc = (crc >>> 1) ^ POLY;
+                } else {
+                    crc = (crc >>> 1);
+                }
+            }
+            CRC64_TABLE[0][n] = crc;
+        }
+
+        /* generate nested CRC table for future slice-by-8 lookup */
+        for (int n = 0; n < 256; n++) {
+            long crc = CRC64_TABLE[0][n];
+            for (int k = 1; k < 8; k++) {
+                crc = CRC64_TABLE[0][(int) (crc & 0xff)] ^ (crc >>> 8);
+                CRC64_TABLE[k][n] = crc;
+            }
+        }
+
+        int n;
+        long row;
+        EVEN_SQUARE = new long[GF2_DIM]; // even-power-of-two zeros operator
+        ODD_SQUARE = new long[GF2_DIM]; // odd-power-of-two zeros operator
+        // put operator for one zero bit in odd
+        ODD_SQUARE[0] = POLY; // CRC-64 polynomial
+        row = 1;
+        for (n = 1; n < GF2_DIM; n++) {
+            ODD_SQUARE[n] = row;
+            row <<= 1;
+        }
+        // put operator for two zero bits in even
+        gf2MatrixSquare(EVEN_SQUARE, ODD_SQUARE);
+        // put operator for four zero bits in odd
+        gf2MatrixSquare(ODD_SQUARE, EVEN_SQUARE);
+    }
+
+    /*
+     * Return the CRC-64 of two sequential blocks, where crc1 is the CRC-64 of
+     * the first block, crc2 is the CRC-64 of the second block, and len2 is the
+     * length of the second block.
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        // degenerate case.
+        if (len2 == 0) {
+            return crc1;
+        }
+
+        long[] even = Arrays.copyOf(EVEN_SQUARE, EVEN_SQUARE.length);
+        long[] odd = Arrays.copyOf(ODD_SQUARE, ODD_SQUARE.length);
+        // apply len2 zeros to crc1 (first square will put the operator for one
+        // zero byte, eight zero bits, in even)
+        do {
+            // apply zeros operator for this bit of len2
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) == 1) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            len2 >>>= 1;
+
+            // if no more bits set, then done
+            if (len2 == 0) {
+                break;
+            }
+
+            // another iteration of the loop with odd and even swapped
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) == 1) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            len2 >>>= 1;
+
+            // if no more bits set, then done
+        } while (len2 != 0);
+        // return combined crc.
+        crc1 ^= crc2;
+        return crc1;
+    }
+}